@@ -0,0 +1,53 @@
+package com.amazonaws.kinesisvideo.benchmark;
+
+import com.amazonaws.kinesisvideo.stream.throttling.BandwidthThrottler;
+import com.amazonaws.kinesisvideo.stream.throttling.BandwidthThrottlerImpl;
+import com.amazonaws.kinesisvideo.stream.throttling.HierarchicalBandwidthScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-call cost of asking the throttlers for the bytes of one PutMedia write, at a rate high
+ * enough for the calls to never wait, for the {@link BandwidthThrottlerImpl} and the stream throttler of the
+ * {@link HierarchicalBandwidthScheduler}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BandwidthThrottlerBenchmark {
+    private static final long UNLIMITED_KBPS = 1L << 40;
+    private static final long BITS_IN_A_KILOBIT = 1024;
+    private static final int WRITE_SIZE = 8192;
+
+    private BandwidthThrottler throttlerImpl;
+    private BandwidthThrottler streamThrottler;
+
+    @Setup
+    public void setup() {
+        throttlerImpl = new BandwidthThrottlerImpl(UNLIMITED_KBPS * BITS_IN_A_KILOBIT);
+        streamThrottler = new HierarchicalBandwidthScheduler(UNLIMITED_KBPS).getThrottler("benchmark-stream");
+    }
+
+    @Benchmark
+    public int bandwidthThrottlerImpl() {
+        return throttlerImpl.getAllowedBytes(WRITE_SIZE);
+    }
+
+    @Benchmark
+    public int hierarchicalScheduler() {
+        return streamThrottler.getAllowedBytes(WRITE_SIZE);
+    }
+}
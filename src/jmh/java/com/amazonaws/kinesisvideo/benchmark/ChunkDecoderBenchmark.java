@@ -0,0 +1,60 @@
+package com.amazonaws.kinesisvideo.benchmark;
+
+import com.amazonaws.kinesisvideo.encoding.ChunkDecoder;
+import com.amazonaws.kinesisvideo.encoding.HttpResponseReader;
+import com.amazonaws.kinesisvideo.model.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing the PutMedia response head with the byte by byte {@link ChunkDecoder} and the buffered
+ * {@link HttpResponseReader}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkDecoderBenchmark {
+    private static final String RESPONSE_HEAD = "HTTP/1.1 200 OK\r\n"
+            + "x-amzn-RequestId: 5f1b7a4e-6c1d-4a57-9b44-0f3f6c2e9a51\r\n"
+            + "Content-Type: application/json\r\n"
+            + "Transfer-Encoding: chunked\r\n"
+            + "Date: Tue, 14 Nov 2023 22:13:20 GMT\r\n"
+            + "Connection: keep-alive\r\n"
+            + "\r\n";
+
+    private byte[] responseHead;
+
+    @Setup
+    public void setup() {
+        responseHead = RESPONSE_HEAD.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public Response chunkDecoder() {
+        return ChunkDecoder.parseStatusLineAndHeaders(new ByteArrayInputStream(responseHead));
+    }
+
+    @Benchmark
+    public Map<String, String> httpResponseReader() throws IOException {
+        final HttpResponseReader reader = new HttpResponseReader(new ByteArrayInputStream(responseHead));
+        reader.readStatusLine();
+        return reader.readHeaders();
+    }
+}
@@ -0,0 +1,93 @@
+package com.amazonaws.kinesisvideo.benchmark;
+
+import com.amazonaws.kinesisvideo.encoding.ChunkEncoder;
+import com.amazonaws.kinesisvideo.encoding.ChunkedOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-chunk allocating {@link ChunkEncoder} with the streaming {@link ChunkedOutputStream}
+ * when writing one chunk into a sink which only consumes the written bytes.
+ *
+ * Run with -prof gc to see the allocation rate difference.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkEncoderBenchmark {
+
+    @Param({ "4096", "65536", "1048576" })
+    public int chunkSize;
+
+    private byte[] payload;
+    private ByteBuffer directPayload;
+    private BlackholeOutputStream sink;
+    private ChunkedOutputStream chunkedOutputStream;
+
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        payload = new byte[chunkSize];
+        new Random(42).nextBytes(payload);
+        directPayload = ByteBuffer.allocateDirect(chunkSize);
+        directPayload.put(payload).flip();
+        sink = new BlackholeOutputStream(blackhole);
+        chunkedOutputStream = new ChunkedOutputStream(sink, chunkSize);
+    }
+
+    @Benchmark
+    public void chunkEncoder() throws IOException {
+        sink.write(ChunkEncoder.encode(payload, chunkSize));
+    }
+
+    @Benchmark
+    public void chunkedOutputStream() throws IOException {
+        chunkedOutputStream.write(payload, 0, chunkSize);
+    }
+
+    @Benchmark
+    public void chunkedOutputStreamDirectBuffer() throws IOException {
+        directPayload.rewind();
+        chunkedOutputStream.write(directPayload);
+    }
+
+    /**
+     * Sink that hands the written bytes to JMH so the writes can't be eliminated.
+     */
+    static final class BlackholeOutputStream extends OutputStream {
+        private final Blackhole mBlackhole;
+
+        BlackholeOutputStream(final Blackhole blackhole) {
+            mBlackhole = blackhole;
+        }
+
+        @Override
+        public void write(final int b) {
+            mBlackhole.consume(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            mBlackhole.consume(b);
+            mBlackhole.consume(off + len);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.amazonaws.kinesisvideo.benchmark;
+
+import com.amazonaws.kinesisvideo.internal.mediasource.bytes.BytesMediaSource;
+import com.amazonaws.kinesisvideo.internal.mediasource.bytes.BytesMediaSourceConfiguration;
+import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoMetrics;
+import com.amazonaws.kinesisvideo.internal.producer.ReadResult;
+import com.amazonaws.kinesisvideo.internal.producer.ServiceCallbacks;
+import com.amazonaws.kinesisvideo.internal.producer.jni.NativeKinesisVideoProducerJni;
+import com.amazonaws.kinesisvideo.internal.producer.jni.NativeKinesisVideoProducerStream;
+import com.amazonaws.kinesisvideo.producer.AuthCallbacks;
+import com.amazonaws.kinesisvideo.producer.KinesisVideoFrame;
+import com.amazonaws.kinesisvideo.producer.ProducerException;
+import com.amazonaws.kinesisvideo.storage.DefaultStorageCallbacks;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-JVM stand-in for the native producer so the Java side of the producer can be benchmarked without the
+ * native library or AWS credentials.
+ *
+ * It has a single stream with an endless content store. The put frames only add their size to the bytes the
+ * upload reader can get, which are filled from a fixed pattern, and signal the reader the same way the native
+ * callback does.
+ */
+public class FakeKinesisVideoProducer extends NativeKinesisVideoProducerJni {
+    public static final long UPLOAD_HANDLE = 1;
+
+    private static final Logger log = LogManager.getLogger(FakeKinesisVideoProducer.class);
+    private static final long STREAM_HANDLE = 1;
+    private static final byte[] PATTERN = new byte[64 * 1024];
+
+    static {
+        for (int i = 0; i < PATTERN.length; i++) {
+            PATTERN[i] = (byte) i;
+        }
+    }
+
+    private final AtomicLong mAvailableBytes = new AtomicLong();
+    private volatile NativeKinesisVideoProducerStream mStream;
+
+    public FakeKinesisVideoProducer() throws ProducerException {
+        super(noOp(AuthCallbacks.class), new DefaultStorageCallbacks(), noOp(ServiceCallbacks.class), log);
+    }
+
+    /**
+     * Creates the stream of the producer
+     */
+    @Nonnull
+    public NativeKinesisVideoProducerStream createFakeStream(@Nonnull final String streamName) {
+        final BytesMediaSource mediaSource = new BytesMediaSource(streamName);
+        mediaSource.configure(new BytesMediaSourceConfiguration.Builder()
+                .withFps(30)
+                .withRetentionPeriodInHours(1)
+                .build());
+
+        mStream = new NativeKinesisVideoProducerStream(this, mediaSource.getStreamInfo(), STREAM_HANDLE, log,
+                null, null);
+        return mStream;
+    }
+
+    @Override
+    public void putFrame(final long streamHandle, @Nonnull final KinesisVideoFrame kinesisVideoFrame)
+            throws ProducerException {
+        // The native producer copies the frame out of the direct buffer
+        final long availableBytes = mAvailableBytes.addAndGet(kinesisVideoFrame.getData().remaining());
+        mStream.streamDataAvailable(UPLOAD_HANDLE, 0, availableBytes);
+    }
+
+    @Override
+    public void getStreamData(final long streamHandle,
+                              final long uploadHandle,
+                              @Nonnull final byte[] fillBuffer,
+                              final int offset,
+                              final int length,
+                              @Nonnull final ReadResult readResult) {
+        final int bytesRead = take(length);
+        for (int copied = 0; copied < bytesRead; copied += PATTERN.length) {
+            System.arraycopy(PATTERN, 0, fillBuffer, offset + copied, Math.min(PATTERN.length, bytesRead - copied));
+        }
+
+        readResult.setReadResult(bytesRead, false);
+    }
+
+    @Nonnull
+    @Override
+    public KinesisVideoMetrics getMetrics() {
+        return new KinesisVideoMetrics();
+    }
+
+    private int take(final int length) {
+        long available;
+        int taken;
+        do {
+            available = mAvailableBytes.get();
+            taken = (int) Math.min(length, available);
+        } while (taken > 0 && !mAvailableBytes.compareAndSet(available, available - taken));
+
+        return taken;
+    }
+
+    /**
+     * Callbacks which do nothing, the fake never calls into the service
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T noOp(final Class<T> callbacksClass) {
+        return (T) Proxy.newProxyInstance(callbacksClass.getClassLoader(), new Class<?>[] { callbacksClass },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+                    }
+                });
+    }
+}
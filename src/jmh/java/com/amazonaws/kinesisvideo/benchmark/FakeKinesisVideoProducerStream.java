@@ -0,0 +1,136 @@
+package com.amazonaws.kinesisvideo.benchmark;
+
+import com.amazonaws.kinesisvideo.internal.producer.DataAvailabilityMetrics;
+import com.amazonaws.kinesisvideo.internal.producer.FragmentLatencyMetrics;
+import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoProducerStream;
+import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoStreamMetrics;
+import com.amazonaws.kinesisvideo.internal.producer.ReadResult;
+import com.amazonaws.kinesisvideo.producer.KinesisVideoFragmentAck;
+import com.amazonaws.kinesisvideo.producer.KinesisVideoFrame;
+import com.amazonaws.kinesisvideo.streaming.DefaultStreamCallbacks;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.InputStream;
+
+/**
+ * Producer stream which only counts the frames and the fragment acks handed to it, for benchmarking the
+ * code which feeds a stream without the native library.
+ */
+public class FakeKinesisVideoProducerStream extends DefaultStreamCallbacks implements KinesisVideoProducerStream {
+    private static final long STREAM_HANDLE = 1;
+
+    private final String mStreamName;
+    private final DataAvailabilityMetrics mDataAvailabilityMetrics = new DataAvailabilityMetrics();
+    private final FragmentLatencyMetrics mFragmentLatencyMetrics = new FragmentLatencyMetrics();
+    private long mFrames;
+    private long mFragmentAcks;
+    private long mUndecodedAcks;
+
+    public FakeKinesisVideoProducerStream(@Nonnull final String streamName) {
+        mStreamName = streamName;
+    }
+
+    public long getFrames() {
+        return mFrames;
+    }
+
+    public long getFragmentAcks() {
+        return mFragmentAcks;
+    }
+
+    public long getUndecodedAcks() {
+        return mUndecodedAcks;
+    }
+
+    @Override
+    public InputStream getDataStream(final long uploadHandle) {
+        throw new UnsupportedOperationException("The fake stream has no data");
+    }
+
+    @Override
+    public void getStreamData(final long uploadHandle, @Nonnull final byte[] fillBuffer, final int offset,
+                              final int length, @Nonnull final ReadResult readResult) {
+        readResult.setReadResult(0, true);
+    }
+
+    @Override
+    public void putFrame(@Nonnull final KinesisVideoFrame kinesisVideoFrame) {
+        mFrames++;
+    }
+
+    @Override
+    public void putFragmentMetadata(@Nonnull final String metadataName, @Nonnull final String metadataValue,
+                                    final boolean persistent) {
+        // Not tracked
+    }
+
+    @Override
+    public void fragmentAck(final long uploadHandle, @Nonnull final KinesisVideoFragmentAck kinesisVideoFragmentAck) {
+        mFragmentAcks++;
+        mFragmentLatencyMetrics.recordFragmentAck(uploadHandle, kinesisVideoFragmentAck);
+    }
+
+    @Override
+    public void parseFragmentAck(final long uploadHandle, @Nonnull final String kinesisVideoFragmentAck) {
+        mUndecodedAcks++;
+    }
+
+    @Override
+    public void streamFormatChanged(@Nullable final byte[] codecPrivateData, final int trackId) {
+        // Not tracked
+    }
+
+    @Override
+    public long getStreamHandle() {
+        return STREAM_HANDLE;
+    }
+
+    @Override
+    public String getStreamName() {
+        return mStreamName;
+    }
+
+    @Override
+    public void stopStream() {
+        // Nothing to stop
+    }
+
+    @Override
+    public void stopStreamSync() {
+        // Nothing to stop
+    }
+
+    @Override
+    public void streamTerminated(final long uploadHandle, final int statusCode) {
+        // Nothing to terminate
+    }
+
+    @Nonnull
+    @Override
+    public KinesisVideoStreamMetrics getMetrics() {
+        return new KinesisVideoStreamMetrics();
+    }
+
+    @Nonnull
+    @Override
+    public DataAvailabilityMetrics getDataAvailabilityMetrics() {
+        return mDataAvailabilityMetrics;
+    }
+
+    @Nonnull
+    @Override
+    public FragmentLatencyMetrics getFragmentLatencyMetrics() {
+        return mFragmentLatencyMetrics;
+    }
+
+    @Override
+    public void streamFreed() {
+        // Nothing to free
+    }
+
+    @Override
+    public void resetConnection() {
+        // Nothing to reset
+    }
+}
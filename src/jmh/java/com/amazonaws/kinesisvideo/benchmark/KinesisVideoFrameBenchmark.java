@@ -0,0 +1,80 @@
+package com.amazonaws.kinesisvideo.benchmark;
+
+import com.amazonaws.kinesisvideo.producer.FrameBuffer;
+import com.amazonaws.kinesisvideo.producer.FrameBufferPool;
+import com.amazonaws.kinesisvideo.producer.FrameFlags;
+import com.amazonaws.kinesisvideo.producer.KinesisVideoFrame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Constructs a frame and gets its data the way the native put does, for the heap, direct and pooled frame data.
+ * The heap data is copied into a new direct buffer on every {@link KinesisVideoFrame#getData()}.
+ *
+ * Run with -prof gc to see the allocation rate difference.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KinesisVideoFrameBenchmark {
+    private static final long FRAME_DURATION = 333333;
+
+    @Param({ "16384", "262144" })
+    public int frameSize;
+
+    private ByteBuffer heapData;
+    private ByteBuffer directData;
+    private FrameBufferPool frameBufferPool;
+    private int index;
+
+    @Setup
+    public void setup() {
+        final byte[] payload = new byte[frameSize];
+        new Random(42).nextBytes(payload);
+        heapData = ByteBuffer.wrap(payload);
+        directData = ByteBuffer.allocateDirect(frameSize);
+        directData.put(payload).flip();
+        frameBufferPool = new FrameBufferPool(FrameBufferPool.DEFAULT_MAX_POOLED_BYTES);
+    }
+
+    @Benchmark
+    public ByteBuffer heapFrame() {
+        return createFrame(heapData).getData();
+    }
+
+    @Benchmark
+    public ByteBuffer directFrame() {
+        return createFrame(directData).getData();
+    }
+
+    @Benchmark
+    public int pooledFrame() {
+        final FrameBuffer frameBuffer = frameBufferPool.acquire(frameSize);
+        final KinesisVideoFrame frame = new KinesisVideoFrame(index++, FrameFlags.FRAME_FLAG_NONE, index, index,
+                FRAME_DURATION, frameBuffer, 0);
+        final int size = frame.getData().remaining();
+        frameBuffer.release();
+        return size;
+    }
+
+    private KinesisVideoFrame createFrame(final ByteBuffer data) {
+        data.rewind();
+        return new KinesisVideoFrame(index++, FrameFlags.FRAME_FLAG_NONE, index, index, FRAME_DURATION, data, 0);
+    }
+}
@@ -0,0 +1,90 @@
+package com.amazonaws.kinesisvideo.benchmark;
+
+import com.amazonaws.kinesisvideo.internal.producer.jni.NativeKinesisVideoProducerStream;
+import com.amazonaws.kinesisvideo.producer.FrameFlags;
+import com.amazonaws.kinesisvideo.producer.KinesisVideoFrame;
+import com.amazonaws.kinesisvideo.producer.ProducerException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the data availability signalling between the frame puts and the upload reader of a producer stream
+ * running on the {@link FakeKinesisVideoProducer}.
+ *
+ * The handoff group puts frames on one thread while another reads them, parking whenever it has caught up.
+ * The putThenRead benchmark does both on one thread, so the reader never parks, as the baseline cost of the
+ * notification and the read.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NativeDataInputStreamBenchmark {
+    private static final int FRAME_SIZE = 4096;
+    private static final int READ_SIZE = 64 * 1024;
+
+    private NativeKinesisVideoProducerStream stream;
+    private InputStream dataStream;
+    private KinesisVideoFrame frame;
+
+    @Setup
+    public void setup() throws ProducerException {
+        final ByteBuffer data = ByteBuffer.allocateDirect(FRAME_SIZE);
+        frame = new KinesisVideoFrame(0, FrameFlags.FRAME_FLAG_NONE, 0, 0, 0, data, 0);
+        stream = new FakeKinesisVideoProducer().createFakeStream("benchmark-stream");
+        dataStream = stream.getDataStream(FakeKinesisVideoProducer.UPLOAD_HANDLE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        dataStream.close();
+    }
+
+    /**
+     * Buffer of each reading thread
+     */
+    @State(Scope.Thread)
+    public static class ReadBuffer {
+        final byte[] buffer = new byte[READ_SIZE];
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public void put() throws ProducerException {
+        // The puts go on through the warmdown until the reader is done, so a parked reader always wakes up
+        stream.putFrame(frame);
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public int read(final ReadBuffer readBuffer) throws IOException {
+        return dataStream.read(readBuffer.buffer);
+    }
+
+    @Benchmark
+    @Group("putThenRead")
+    public int putThenRead(final ReadBuffer readBuffer) throws ProducerException, IOException {
+        stream.putFrame(frame);
+        return dataStream.read(readBuffer.buffer, 0, FRAME_SIZE);
+    }
+}
@@ -0,0 +1,134 @@
+package com.amazonaws.kinesisvideo.benchmark;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.kinesisvideo.client.signing.KinesisVideoAWS4Signer;
+import com.amazonaws.kinesisvideo.client.signing.KinesisVideoSigV4Signer;
+import com.amazonaws.kinesisvideo.config.ClientConfiguration;
+import com.amazonaws.kinesisvideo.http.HttpClient;
+import com.amazonaws.kinesisvideo.http.HttpMethodName;
+import com.amazonaws.kinesisvideo.signing.KinesisVideoSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the SDK based {@link KinesisVideoAWS4Signer} with the {@link KinesisVideoSigV4Signer} when signing
+ * the PutMedia request headers.
+ *
+ * Run with -prof gc to see the allocation rate difference.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SigV4SignerBenchmark {
+    private static final URI PUT_MEDIA_URI =
+            URI.create("https://s-1234abcd.kinesisvideo.us-west-2.amazonaws.com/putMedia");
+
+    private Map<String, String> headers;
+    private KinesisVideoSigner sdkSigner;
+    private KinesisVideoSigner sigV4Signer;
+
+    @Setup
+    public void setup() {
+        headers = new HashMap<String, String>();
+        headers.put("Host", PUT_MEDIA_URI.getHost());
+        headers.put("x-amzn-stream-name", "benchmark-stream");
+        headers.put("Transfer-Encoding", "chunked");
+        headers.put("Connection", "keep-alive");
+        headers.put("User-Agent", "AWS-SDK-KVS benchmark/1.0");
+        headers.put("x-amzn-producer-start-timestamp", "1700000000.000");
+        headers.put("x-amzn-fragment-timecode-type", "ABSOLUTE");
+
+        final AWSCredentialsProvider credentialsProvider = new AWSCredentialsProvider() {
+            private final AWSCredentials mCredentials = new BasicSessionCredentials("AKID", "secret", "token");
+
+            @Override
+            public AWSCredentials getCredentials() {
+                return mCredentials;
+            }
+
+            @Override
+            public void refresh() {
+                // Static credentials
+            }
+        };
+
+        final ClientConfiguration configuration = ClientConfiguration.builder()
+                .serviceName("kinesisvideo")
+                .region("us-west-2")
+                .build();
+
+        sdkSigner = new KinesisVideoAWS4Signer(credentialsProvider, configuration);
+        sigV4Signer = new KinesisVideoSigV4Signer(credentialsProvider, configuration);
+    }
+
+    @Benchmark
+    public Map<String, String> sdkSigner() {
+        return sign(sdkSigner);
+    }
+
+    @Benchmark
+    public Map<String, String> sigV4Signer() {
+        return sign(sigV4Signer);
+    }
+
+    private Map<String, String> sign(final KinesisVideoSigner signer) {
+        final PutMediaRequest request = new PutMediaRequest(new HashMap<String, String>(headers));
+        signer.sign(request);
+        return request.getHeaders();
+    }
+
+    /**
+     * Bodiless PutMedia request as the streaming payload is not signed.
+     */
+    static final class PutMediaRequest implements HttpClient {
+        private final Map<String, String> mHeaders;
+
+        PutMediaRequest(final Map<String, String> headers) {
+            mHeaders = headers;
+        }
+
+        @Override
+        public HttpMethodName getMethod() {
+            return HttpMethodName.POST;
+        }
+
+        @Override
+        public URI getUri() {
+            return PUT_MEDIA_URI;
+        }
+
+        @Override
+        public Map<String, String> getHeaders() {
+            return mHeaders;
+        }
+
+        @Override
+        public InputStream getContent() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+}
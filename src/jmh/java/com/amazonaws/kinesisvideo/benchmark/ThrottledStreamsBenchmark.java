@@ -0,0 +1,127 @@
+package com.amazonaws.kinesisvideo.benchmark;
+
+import com.amazonaws.kinesisvideo.common.function.Consumer;
+import com.amazonaws.kinesisvideo.stream.throttling.BandwidthMeasuringOutputStream;
+import com.amazonaws.kinesisvideo.stream.throttling.DiscreteTimePeriodsThrottler;
+import com.amazonaws.kinesisvideo.stream.throttling.OpsPerSecondMeasurer;
+import com.amazonaws.kinesisvideo.stream.throttling.ThrottledInputStream;
+import com.amazonaws.kinesisvideo.stream.throttling.ThrottledOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves a 10MB payload through the throttling and measuring streams byte by byte, which is what their bulk
+ * reads and writes used to fall back to, and in one bulk call.
+ *
+ * Every invocation gets a new throttler whose target is high enough to never sleep within the payload, so only
+ * the per call overhead is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThrottledStreamsBenchmark {
+    private static final int PAYLOAD_SIZE = 10 * 1024 * 1024;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int UNLIMITED_OPS_PER_SECOND = Integer.MAX_VALUE;
+    private static final int DISCRETENESS_HZ = 10;
+
+    private byte[] payload;
+    private byte[] readBuffer;
+    private OutputStream sink;
+    private OutputStream measuringOutputStream;
+
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        payload = new byte[PAYLOAD_SIZE];
+        new Random(42).nextBytes(payload);
+        readBuffer = new byte[READ_BUFFER_SIZE];
+
+        sink = new ChunkEncoderBenchmark.BlackholeOutputStream(blackhole);
+        measuringOutputStream = new BandwidthMeasuringOutputStream(sink, new OpsPerSecondMeasurer(
+                new Consumer<Long>() {
+                    @Override
+                    public void accept(final Long bytesPerSecond) {
+                        blackhole.consume(bytesPerSecond);
+                    }
+                }));
+    }
+
+    @Benchmark
+    public void measuringOutputStreamPerByte() throws IOException {
+        writePerByte(measuringOutputStream);
+    }
+
+    @Benchmark
+    public void measuringOutputStreamBulk() throws IOException {
+        measuringOutputStream.write(payload, 0, payload.length);
+    }
+
+    @Benchmark
+    public void throttledOutputStreamPerByte() throws IOException {
+        writePerByte(createThrottledOutputStream());
+    }
+
+    @Benchmark
+    public void throttledOutputStreamBulk() throws IOException {
+        createThrottledOutputStream().write(payload, 0, payload.length);
+    }
+
+    @Benchmark
+    public int throttledInputStreamPerByte() throws IOException {
+        final InputStream inputStream = createThrottledInputStream();
+        int sum = 0;
+        int b;
+        while ((b = inputStream.read()) != -1) {
+            sum += b;
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public int throttledInputStreamBulk() throws IOException {
+        final InputStream inputStream = createThrottledInputStream();
+        int total = 0;
+        int bytesRead;
+        while ((bytesRead = inputStream.read(readBuffer, 0, readBuffer.length)) != -1) {
+            total += bytesRead;
+        }
+
+        return total;
+    }
+
+    private void writePerByte(final OutputStream outputStream) throws IOException {
+        for (final byte b : payload) {
+            outputStream.write(b);
+        }
+    }
+
+    private OutputStream createThrottledOutputStream() {
+        return new ThrottledOutputStream(sink,
+                new DiscreteTimePeriodsThrottler(UNLIMITED_OPS_PER_SECOND, DISCRETENESS_HZ));
+    }
+
+    private InputStream createThrottledInputStream() {
+        return new ThrottledInputStream(new ByteArrayInputStream(payload),
+                new DiscreteTimePeriodsThrottler(UNLIMITED_OPS_PER_SECOND, DISCRETENESS_HZ));
+    }
+}
@@ -0,0 +1,92 @@
+package com.amazonaws.kinesisvideo.internal.service;
+
+import com.amazonaws.kinesisvideo.benchmark.FakeKinesisVideoProducerStream;
+import com.amazonaws.kinesisvideo.common.function.Consumer;
+import com.amazonaws.kinesisvideo.encoding.ChunkDecoder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a PutMedia ACK stream of {@link #ACK_COUNT} chunked ACK events with the {@link AckConsumer}, which
+ * reports them to a fake producer stream, and with the line based {@link ChunkDecoder} for comparison.
+ *
+ * Lives in the package of the {@link AckConsumer} as the consumer is package private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AckConsumerBenchmark {
+    private static final int ACK_COUNT = 100;
+    private static final long UPLOAD_HANDLE = 1;
+    private static final Logger log = LogManager.getLogger(AckConsumerBenchmark.class);
+    private static final String[] EVENT_TYPES = { "BUFFERING", "RECEIVED", "PERSISTED" };
+
+    private byte[] ackStream;
+    private FakeKinesisVideoProducerStream stream;
+
+    @Setup
+    public void setup() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int i = 0; i < ACK_COUNT; i++) {
+            final byte[] ack = ("{\"EventType\":\"" + EVENT_TYPES[i % EVENT_TYPES.length]
+                    + "\",\"FragmentTimecode\":" + (1700000000000L + i / EVENT_TYPES.length * 2000)
+                    + ",\"FragmentNumber\":\"9134385233318150666908441974200077706515712" + i + "\"}")
+                    .getBytes(StandardCharsets.US_ASCII);
+            writeAscii(bytes, Integer.toHexString(ack.length) + "\r\n");
+            bytes.write(ack, 0, ack.length);
+            writeAscii(bytes, "\r\n");
+        }
+
+        writeAscii(bytes, "0\r\n\r\n");
+        ackStream = bytes.toByteArray();
+        stream = new FakeKinesisVideoProducerStream("benchmark-stream");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACK_COUNT)
+    public long ackConsumer() {
+        new AckConsumer(UPLOAD_HANDLE, stream, log).accept(new ByteArrayInputStream(ackStream));
+        return stream.getFragmentAcks();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACK_COUNT)
+    public void chunkDecoder(final Blackhole blackhole) {
+        ChunkDecoder.parseResponseBodyAndDecodeAck(
+                new BufferedReader(new InputStreamReader(new ByteArrayInputStream(ackStream),
+                        StandardCharsets.US_ASCII)),
+                new Consumer<String>() {
+                    @Override
+                    public void accept(final String ack) {
+                        blackhole.consume(ack);
+                    }
+                });
+    }
+
+    private static void writeAscii(final ByteArrayOutputStream bytes, final String text) {
+        final byte[] ascii = text.getBytes(StandardCharsets.US_ASCII);
+        bytes.write(ascii, 0, ascii.length);
+    }
+}
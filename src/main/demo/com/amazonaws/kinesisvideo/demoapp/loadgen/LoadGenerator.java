@@ -0,0 +1,291 @@
+package com.amazonaws.kinesisvideo.demoapp.loadgen;
+
+import com.amazonaws.kinesisvideo.client.KinesisVideoClient;
+import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
+import com.amazonaws.kinesisvideo.internal.mediasource.bytes.BytesMediaSourceConfiguration;
+import com.amazonaws.kinesisvideo.internal.producer.LatencyHistogram;
+
+import javax.annotation.Nonnull;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+
+/**
+ * Drives synthetic streams through a {@link KinesisVideoClient} and reports how the producer keeps up.
+ *
+ * The streams are {@link com.amazonaws.kinesisvideo.internal.mediasource.bytes.BytesMediaSource}s registered
+ * through {@link KinesisVideoClient#registerMediaSource}. Per stream and in aggregate the report has the
+ * generated MB/s, the upload MB/s measured by the producer, the dropped frames and fragments, the stream errors
+ * and the key frame put to PERSISTED ack latency percentiles. The process CPU usage and allocation rate are
+ * reported in aggregate.
+ *
+ * {@link #runFixed} runs a fixed number of streams. {@link #runRamp} adds streams step by step until a step
+ * drops frames or fragments or the CPU usage goes over the limit, which gives the max stream count per core
+ * for the configured workload.
+ */
+public final class LoadGenerator {
+    private static final double BYTES_IN_A_MEGABYTE = 1024 * 1024;
+
+    private final KinesisVideoClient mKinesisVideoClient;
+    private final BytesMediaSourceConfiguration mConfiguration;
+    private final String mStreamNamePrefix;
+    private final PrintStream mOut;
+    private final ProcessResourceSampler mResourceSampler = new ProcessResourceSampler();
+    private final List<LoadGeneratorStream> mStreams = new ArrayList<LoadGeneratorStream>();
+    private final int mCoreCount = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * @param kinesisVideoClient Client to register the streams with, must allow for the max stream count
+     * @param configuration Workload of every stream
+     * @param streamNamePrefix The streams are named prefix-0, prefix-1 and so on
+     * @param out Where to print the reports to
+     */
+    public LoadGenerator(@Nonnull final KinesisVideoClient kinesisVideoClient,
+                         @Nonnull final BytesMediaSourceConfiguration configuration,
+                         @Nonnull final String streamNamePrefix,
+                         @Nonnull final PrintStream out) {
+        mKinesisVideoClient = checkNotNull(kinesisVideoClient);
+        mConfiguration = checkNotNull(configuration);
+        mStreamNamePrefix = checkNotNull(streamNamePrefix);
+        mOut = checkNotNull(out);
+    }
+
+    /**
+     * Runs the streams for the given time, printing the aggregate every report interval and the per stream
+     * report at the end.
+     */
+    public void runFixed(final int streamCount, final long durationMillis, final long reportIntervalMillis)
+            throws KinesisVideoException, InterruptedException {
+        checkArgument(streamCount > 0);
+        addStreams(streamCount);
+        final Window run = new Window();
+        runWindow(run, durationMillis, reportIntervalMillis);
+        printReport("Run of " + streamCount + " streams", run, true);
+    }
+
+    /**
+     * Adds the streams step by step until a step is unhealthy or the max count is reached.
+     *
+     * @param initialStreamCount Streams to start with
+     * @param stepStreamCount Streams to add for every next step
+     * @param maxStreamCount Streams to stop at
+     * @param stepDurationMillis How long each step runs, the streams added by the step warm up in the first half
+     * @param maxCpuPercent Max CPU usage of a healthy step, in percent of all the cores
+     * @return the stream count of the last healthy step, 0 if even the first one wasn't
+     */
+    public int runRamp(final int initialStreamCount,
+                       final int stepStreamCount,
+                       final int maxStreamCount,
+                       final long stepDurationMillis,
+                       final double maxCpuPercent) throws KinesisVideoException, InterruptedException {
+        checkArgument(initialStreamCount > 0 && stepStreamCount > 0 && maxStreamCount >= initialStreamCount);
+        int healthyStreamCount = 0;
+        int streamCount = initialStreamCount;
+        while (streamCount <= maxStreamCount) {
+            addStreams(streamCount - mStreams.size());
+            Thread.sleep(stepDurationMillis / 2);
+
+            final Window step = new Window();
+            runWindow(step, stepDurationMillis / 2, stepDurationMillis / 2);
+            final Totals totals = step.getTotals();
+            final boolean healthy = totals.mDroppedFrames == 0
+                    && totals.mDroppedFragments == 0
+                    && step.getCpuPercent() <= maxCpuPercent;
+            printReport("Step of " + streamCount + " streams, " + (healthy ? "healthy" : "unhealthy"), step, false);
+            if (!healthy) {
+                break;
+            }
+
+            healthyStreamCount = streamCount;
+            streamCount += stepStreamCount;
+        }
+
+        mOut.println(String.format(Locale.ROOT, "Max healthy streams: %d on %d cores, %.2f per core",
+                healthyStreamCount, mCoreCount, (double) healthyStreamCount / mCoreCount));
+        return healthyStreamCount;
+    }
+
+    /**
+     * Unregisters all the streams.
+     */
+    public void stop() throws KinesisVideoException {
+        for (final LoadGeneratorStream stream : mStreams) {
+            mKinesisVideoClient.unregisterMediaSource(stream.getMediaSource());
+        }
+
+        mStreams.clear();
+    }
+
+    private void addStreams(final int count) throws KinesisVideoException {
+        for (int i = 0; i < count; i++) {
+            final LoadGeneratorStream stream =
+                    new LoadGeneratorStream(mStreamNamePrefix + "-" + mStreams.size(), mConfiguration);
+            mKinesisVideoClient.registerMediaSource(stream.getMediaSource());
+            stream.getMediaSource().start();
+            mStreams.add(stream);
+        }
+    }
+
+    private void runWindow(@Nonnull final Window window, final long durationMillis, final long reportIntervalMillis)
+            throws InterruptedException {
+        final long endNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        long remainingNanos;
+        while ((remainingNanos = endNanos - System.nanoTime()) > 0) {
+            final Window interval = new Window();
+            TimeUnit.NANOSECONDS.sleep(Math.min(remainingNanos, TimeUnit.MILLISECONDS.toNanos(reportIntervalMillis)));
+            mResourceSampler.sample();
+            window.sampleTransferRates();
+            interval.sampleTransferRates();
+            mOut.println(formatTotals("interval", interval, interval.getTotals())
+                    + String.format(Locale.ROOT, ", cpu %.1f%%", interval.getCpuPercent()));
+        }
+
+        mResourceSampler.sample();
+    }
+
+    private void printReport(@Nonnull final String title, @Nonnull final Window window, final boolean perStream) {
+        mOut.println("=== " + title + " ===");
+        if (perStream) {
+            for (final LoadGeneratorStream stream : mStreams) {
+                final Totals totals = window.getTotals(stream);
+                if (totals != null) {
+                    mOut.println(formatTotals(stream.getStreamName(), window, totals));
+                }
+            }
+        }
+
+        final Totals totals = window.getTotals();
+        mOut.println(formatTotals("aggregate", window, totals));
+        mOut.println(String.format(Locale.ROOT,
+                "process: cpu %.1f%% of %d cores, %.2f MB/s allocated, %.2f streams per busy core",
+                window.getCpuPercent(), mCoreCount, window.getAllocatedBytes() / BYTES_IN_A_MEGABYTE
+                        / window.getSeconds(),
+                totals.mStreamCount / Math.max(0.01, window.getCpuPercent() / 100 * mCoreCount)));
+    }
+
+    private static String formatTotals(@Nonnull final String name,
+                                       @Nonnull final Window window,
+                                       @Nonnull final Totals totals) {
+        final double seconds = window.getSeconds();
+        final LatencyHistogram.Snapshot latency = totals.mPersistedLatency;
+        return String.format(Locale.ROOT,
+                "%s: streams %d, generated %.3f MB/s, uploaded %.3f MB/s, dropped frames %d, "
+                        + "dropped fragments %d, errors %d, persisted ack p50 %.1f ms p90 %.1f ms p99 %.1f ms "
+                        + "max %.1f ms (%d acks since start)",
+                name,
+                totals.mStreamCount,
+                totals.mGeneratedBytes / BYTES_IN_A_MEGABYTE / seconds,
+                totals.mTransferRate / BYTES_IN_A_MEGABYTE,
+                totals.mDroppedFrames,
+                totals.mDroppedFragments,
+                totals.mStreamErrors,
+                latency.getPercentileMillis(50),
+                latency.getPercentileMillis(90),
+                latency.getPercentileMillis(99),
+                latency.getMaxMillis(),
+                latency.getCount());
+    }
+
+    /**
+     * Counters of a stream or of all the streams over a window
+     */
+    private static final class Totals {
+        private int mStreamCount;
+        private long mGeneratedBytes;
+        private long mDroppedFrames;
+        private long mDroppedFragments;
+        private long mStreamErrors;
+        private double mTransferRate;
+        private LatencyHistogram.Snapshot mPersistedLatency = new LatencyHistogram().getSnapshot();
+
+        private void add(@Nonnull final Totals other) {
+            mStreamCount += other.mStreamCount;
+            mGeneratedBytes += other.mGeneratedBytes;
+            mDroppedFrames += other.mDroppedFrames;
+            mDroppedFragments += other.mDroppedFragments;
+            mStreamErrors += other.mStreamErrors;
+            mTransferRate += other.mTransferRate;
+            mPersistedLatency = mPersistedLatency.merge(other.mPersistedLatency);
+        }
+    }
+
+    /**
+     * The counter values at the start of a time window, the totals of the window are the differences with
+     * the current values. Only the streams present at the start are counted.
+     */
+    private final class Window {
+        private final long mStartNanos = System.nanoTime();
+        private final long mStartCpuNanos = mResourceSampler.getProcessCpuNanos();
+        private final long mStartAllocatedBytes = mResourceSampler.getAllocatedBytes();
+        private final Map<LoadGeneratorStream, Totals> mStart = new HashMap<LoadGeneratorStream, Totals>();
+        private final Map<LoadGeneratorStream, Double> mTransferRateSums = new HashMap<LoadGeneratorStream, Double>();
+        private int mTransferRateSamples;
+
+        private Window() {
+            for (final LoadGeneratorStream stream : mStreams) {
+                final Totals start = new Totals();
+                start.mGeneratedBytes = stream.getGeneratedBytes();
+                start.mDroppedFrames = stream.getDroppedFrames();
+                start.mDroppedFragments = stream.getDroppedFragments();
+                start.mStreamErrors = stream.getStreamErrors();
+                mStart.put(stream, start);
+                mTransferRateSums.put(stream, 0.0);
+            }
+        }
+
+        private void sampleTransferRates() {
+            for (final Map.Entry<LoadGeneratorStream, Double> entry : mTransferRateSums.entrySet()) {
+                entry.setValue(entry.getValue() + entry.getKey().getTransferRate());
+            }
+
+            mTransferRateSamples++;
+        }
+
+        private Totals getTotals(@Nonnull final LoadGeneratorStream stream) {
+            final Totals start = mStart.get(stream);
+            if (start == null) {
+                return null;
+            }
+
+            final Totals totals = new Totals();
+            totals.mStreamCount = 1;
+            totals.mGeneratedBytes = stream.getGeneratedBytes() - start.mGeneratedBytes;
+            totals.mDroppedFrames = stream.getDroppedFrames() - start.mDroppedFrames;
+            totals.mDroppedFragments = stream.getDroppedFragments() - start.mDroppedFragments;
+            totals.mStreamErrors = stream.getStreamErrors() - start.mStreamErrors;
+            totals.mTransferRate = mTransferRateSamples == 0 ? 0
+                    : mTransferRateSums.get(stream) / mTransferRateSamples;
+            totals.mPersistedLatency = stream.getPersistedLatency();
+            return totals;
+        }
+
+        private Totals getTotals() {
+            final Totals totals = new Totals();
+            for (final LoadGeneratorStream stream : mStart.keySet()) {
+                totals.add(getTotals(stream));
+            }
+
+            return totals;
+        }
+
+        private double getSeconds() {
+            return Math.max(1, System.nanoTime() - mStartNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        }
+
+        private double getCpuPercent() {
+            final double cpuNanos = mResourceSampler.getProcessCpuNanos() - mStartCpuNanos;
+            return cpuNanos / TimeUnit.SECONDS.toNanos(1) / getSeconds() / mCoreCount * 100;
+        }
+
+        private long getAllocatedBytes() {
+            return mResourceSampler.getAllocatedBytes() - mStartAllocatedBytes;
+        }
+    }
+}
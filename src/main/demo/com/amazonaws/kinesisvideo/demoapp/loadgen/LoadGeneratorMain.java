@@ -0,0 +1,122 @@
+package com.amazonaws.kinesisvideo.demoapp.loadgen;
+
+import com.amazonaws.kinesisvideo.client.KinesisVideoClient;
+import com.amazonaws.kinesisvideo.client.KinesisVideoClientConfiguration;
+import com.amazonaws.kinesisvideo.demoapp.auth.AuthHelper;
+import com.amazonaws.kinesisvideo.internal.mediasource.bytes.BytesMediaSourceConfiguration;
+import com.amazonaws.kinesisvideo.internal.mediasource.bytes.FrameSizeDistribution;
+import com.amazonaws.kinesisvideo.java.auth.JavaCredentialsProviderImpl;
+import com.amazonaws.kinesisvideo.java.client.KinesisVideoJavaClientFactory;
+import com.amazonaws.kinesisvideo.producer.DeviceInfo;
+import com.amazonaws.kinesisvideo.producer.StorageInfo;
+import com.amazonaws.kinesisvideo.storage.DefaultStorageCallbacks;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load generator entry point, configured through the system properties:
+ *
+ * <pre>
+ * kvs-load.streams                  streams of a fixed run (10)
+ * kvs-load.duration-seconds         length of a fixed run (60)
+ * kvs-load.report-interval-seconds  interval of the aggregate reports (10)
+ * kvs-load.ramp                     ramp the stream count up instead of a fixed run (false)
+ * kvs-load.ramp-step                streams to add per step, also the initial count (5)
+ * kvs-load.ramp-max                 max streams of the ramp (200)
+ * kvs-load.step-seconds             length of a ramp step (60)
+ * kvs-load.max-cpu-percent          max CPU usage of a healthy step (80)
+ * kvs-load.fps                      frames per second (30)
+ * kvs-load.bitrate                  bits per second per stream (2000000)
+ * kvs-load.gop                      frames per GOP (60)
+ * kvs-load.key-frame-ratio          key frame size over the other frames (8)
+ * kvs-load.frame-size-distribution  CONSTANT, UNIFORM or NORMAL (NORMAL)
+ * kvs-load.frame-size-deviation     frame size deviation as a fraction of the mean (0.2)
+ * kvs-load.tracks                   tracks per stream (1)
+ * kvs-load.stream-prefix            stream name prefix (kvs-load)
+ * kvs-load.region                   region (us-west-2)
+ * kvs-load.endpoint                 control plane endpoint override, e.g. a local mock
+ * kvs-load.storage-megabytes        content store size (1024)
+ * </pre>
+ *
+ * The credentials are taken from the aws.accessKeyId and aws.secretKey system properties.
+ */
+public final class LoadGeneratorMain {
+    private static final String PREFIX = "kvs-load.";
+    private static final int DEVICE_VERSION = 0;
+    private static final int SPILL_RATIO_90_PERCENT = 90;
+    private static final String STORAGE_PATH = "/tmp";
+    private static final int NUMBER_OF_THREADS_IN_POOL = 2;
+
+    private LoadGeneratorMain() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final boolean ramp = Boolean.parseBoolean(System.getProperty(PREFIX + "ramp", "false"));
+        final int streams = Integer.getInteger(PREFIX + "streams", 10);
+        final int rampStep = Integer.getInteger(PREFIX + "ramp-step", 5);
+        final int rampMax = Integer.getInteger(PREFIX + "ramp-max", 200);
+
+        final BytesMediaSourceConfiguration configuration = new BytesMediaSourceConfiguration.Builder()
+                .withFps(Integer.getInteger(PREFIX + "fps", 30))
+                .withBitrate(Integer.getInteger(PREFIX + "bitrate", 2000000))
+                .withGopLength(Integer.getInteger(PREFIX + "gop", 60))
+                .withKeyFrameSizeRatio(Double.parseDouble(System.getProperty(PREFIX + "key-frame-ratio", "8")))
+                .withFrameSizeDistribution(
+                        FrameSizeDistribution.valueOf(System.getProperty(PREFIX + "frame-size-distribution", "NORMAL")),
+                        Double.parseDouble(System.getProperty(PREFIX + "frame-size-deviation", "0.2")))
+                .withTrackCount(Integer.getInteger(PREFIX + "tracks", 1))
+                .withRetentionPeriodInHours(1)
+                .build();
+
+        final KinesisVideoClient kinesisVideoClient = createKinesisVideoClient(ramp ? rampMax : streams);
+        final LoadGenerator loadGenerator = new LoadGenerator(kinesisVideoClient, configuration,
+                System.getProperty(PREFIX + "stream-prefix", "kvs-load"), System.out);
+        try {
+            if (ramp) {
+                loadGenerator.runRamp(rampStep, rampStep, rampMax,
+                        TimeUnit.SECONDS.toMillis(Integer.getInteger(PREFIX + "step-seconds", 60)),
+                        Double.parseDouble(System.getProperty(PREFIX + "max-cpu-percent", "80")));
+            } else {
+                loadGenerator.runFixed(streams,
+                        TimeUnit.SECONDS.toMillis(Integer.getInteger(PREFIX + "duration-seconds", 60)),
+                        TimeUnit.SECONDS.toMillis(Integer.getInteger(PREFIX + "report-interval-seconds", 10)));
+            }
+        } finally {
+            loadGenerator.stop();
+            kinesisVideoClient.free();
+        }
+    }
+
+    private static KinesisVideoClient createKinesisVideoClient(final int maxStreamCount) throws Exception {
+        final KinesisVideoClientConfiguration.Builder configurationBuilder = KinesisVideoClientConfiguration.builder()
+                .withRegion(System.getProperty(PREFIX + "region", "us-west-2"))
+                .withCredentialsProvider(
+                        new JavaCredentialsProviderImpl(AuthHelper.getSystemPropertiesCredentialsProvider()))
+                .withStorageCallbacks(new DefaultStorageCallbacks());
+        final String endpoint = System.getProperty(PREFIX + "endpoint");
+        if (endpoint != null) {
+            configurationBuilder.withEndpoint(endpoint);
+        }
+
+        final long storageSize = Long.getLong(PREFIX + "storage-megabytes", 1024) * 1024 * 1024;
+        final DeviceInfo deviceInfo = new DeviceInfo(DEVICE_VERSION,
+                "java-load-generator",
+                new StorageInfo(0,
+                        StorageInfo.DeviceStorageType.DEVICE_STORAGE_TYPE_IN_MEM,
+                        storageSize,
+                        SPILL_RATIO_90_PERCENT,
+                        STORAGE_PATH),
+                maxStreamCount,
+                null);
+
+        final ScheduledExecutorService executor = Executors.newScheduledThreadPool(NUMBER_OF_THREADS_IN_POOL,
+                new ThreadFactoryBuilder().setNameFormat("KVS-LoadGeneratorExecutor-%d").build());
+
+        return KinesisVideoJavaClientFactory.createKinesisVideoClient(configurationBuilder.build(), deviceInfo,
+                executor);
+    }
+}
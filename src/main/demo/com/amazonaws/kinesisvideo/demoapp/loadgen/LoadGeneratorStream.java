@@ -0,0 +1,106 @@
+package com.amazonaws.kinesisvideo.demoapp.loadgen;
+
+import com.amazonaws.kinesisvideo.internal.client.mediasource.MediaSourceSink;
+import com.amazonaws.kinesisvideo.internal.mediasource.bytes.BytesMediaSource;
+import com.amazonaws.kinesisvideo.internal.mediasource.bytes.BytesMediaSourceConfiguration;
+import com.amazonaws.kinesisvideo.internal.producer.LatencyHistogram;
+import com.amazonaws.kinesisvideo.producer.ProducerException;
+import com.amazonaws.kinesisvideo.streaming.DefaultStreamCallbacks;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One synthetic stream of the load generator, counts the drops and the errors the producer reports for it.
+ */
+final class LoadGeneratorStream extends DefaultStreamCallbacks {
+    private static final LatencyHistogram.Snapshot NO_LATENCIES = new LatencyHistogram().getSnapshot();
+
+    private final String mStreamName;
+    private final BytesMediaSource mMediaSource;
+    private final AtomicLong mDroppedFrames = new AtomicLong();
+    private final AtomicLong mDroppedFragments = new AtomicLong();
+    private final AtomicLong mStreamErrors = new AtomicLong();
+
+    LoadGeneratorStream(@Nonnull final String streamName,
+                        @Nonnull final BytesMediaSourceConfiguration configuration) {
+        mStreamName = streamName;
+        mMediaSource = new BytesMediaSource(streamName, this);
+        mMediaSource.configure(configuration);
+    }
+
+    @Nonnull
+    String getStreamName() {
+        return mStreamName;
+    }
+
+    @Nonnull
+    BytesMediaSource getMediaSource() {
+        return mMediaSource;
+    }
+
+    @Override
+    public void droppedFrameReport(final long frameTimecode) throws ProducerException {
+        mDroppedFrames.incrementAndGet();
+    }
+
+    @Override
+    public void droppedFragmentReport(final long fragmentTimecode) throws ProducerException {
+        mDroppedFragments.incrementAndGet();
+    }
+
+    @Override
+    public void streamErrorReport(final long uploadHandle, final long frameTimecode, final long statusCode)
+            throws ProducerException {
+        mStreamErrors.incrementAndGet();
+    }
+
+    long getDroppedFrames() {
+        return mDroppedFrames.get();
+    }
+
+    long getDroppedFragments() {
+        return mDroppedFragments.get();
+    }
+
+    long getStreamErrors() {
+        return mStreamErrors.get();
+    }
+
+    long getGeneratedBytes() {
+        return mMediaSource.getGeneratedBytes();
+    }
+
+    long getGeneratedFrames() {
+        return mMediaSource.getGeneratedFrames();
+    }
+
+    /**
+     * Returns the current upload rate of the stream in bytes per second as measured by the producer
+     */
+    long getTransferRate() {
+        final MediaSourceSink sink = mMediaSource.getMediaSourceSink();
+        if (sink == null || sink.getProducerStream() == null) {
+            return 0;
+        }
+
+        try {
+            return sink.getProducerStream().getMetrics().getCurrentTransferRate();
+        } catch (final ProducerException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the latencies from the key frame put to the PERSISTED ack since the stream was registered
+     */
+    @Nonnull
+    LatencyHistogram.Snapshot getPersistedLatency() {
+        final MediaSourceSink sink = mMediaSource.getMediaSourceSink();
+        if (sink == null || sink.getProducerStream() == null) {
+            return NO_LATENCIES;
+        }
+
+        return sink.getProducerStream().getFragmentLatencyMetrics().getPersistedLatency().getSnapshot();
+    }
+}
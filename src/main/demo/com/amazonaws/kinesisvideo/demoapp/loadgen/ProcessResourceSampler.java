@@ -0,0 +1,75 @@
+package com.amazonaws.kinesisvideo.demoapp.loadgen;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running totals of the CPU time and the heap allocations of this process, read from the platform MXBeans.
+ *
+ * The allocations are summed from the per thread counters on every {@link #sample()}, so the allocations of the
+ * threads which ended between two samples are missed. Both totals stay 0 on the JVMs without the
+ * com.sun.management extensions.
+ */
+final class ProcessResourceSampler {
+    private final com.sun.management.OperatingSystemMXBean mOsBean;
+    private final com.sun.management.ThreadMXBean mThreadBean;
+    private final Map<Long, Long> mThreadAllocatedBytes = new HashMap<Long, Long>();
+    private long mAllocatedBytes;
+
+    ProcessResourceSampler() {
+        final OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        mOsBean = osBean instanceof com.sun.management.OperatingSystemMXBean
+                ? (com.sun.management.OperatingSystemMXBean) osBean
+                : null;
+
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+            mThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+            mThreadBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            mThreadBean = null;
+        }
+    }
+
+    /**
+     * Updates the allocation total with the threads alive now.
+     */
+    synchronized void sample() {
+        if (mThreadBean == null) {
+            return;
+        }
+
+        final long[] threadIds = mThreadBean.getAllThreadIds();
+        final long[] allocatedBytes = mThreadBean.getThreadAllocatedBytes(threadIds);
+        final Map<Long, Long> previous = new HashMap<Long, Long>(mThreadAllocatedBytes);
+        mThreadAllocatedBytes.clear();
+        for (int i = 0; i < threadIds.length; i++) {
+            if (allocatedBytes[i] < 0) {
+                // Ended since the ids were taken
+                continue;
+            }
+
+            final Long previousBytes = previous.get(threadIds[i]);
+            mAllocatedBytes += allocatedBytes[i] - (previousBytes == null ? 0 : previousBytes);
+            mThreadAllocatedBytes.put(threadIds[i], allocatedBytes[i]);
+        }
+    }
+
+    /**
+     * Returns the CPU time used by the process so far
+     */
+    long getProcessCpuNanos() {
+        return mOsBean == null ? 0 : Math.max(0, mOsBean.getProcessCpuTime());
+    }
+
+    /**
+     * Returns the bytes allocated on the heap up to the last {@link #sample()}
+     */
+    synchronized long getAllocatedBytes() {
+        return mAllocatedBytes;
+    }
+}
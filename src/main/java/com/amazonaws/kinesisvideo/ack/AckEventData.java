@@ -1,9 +1,22 @@
 package com.amazonaws.kinesisvideo.ack;
 
+/**
+ * Mutable representation of a single PutMedia ACK event.
+ *
+ * NOTE: Instances are reused by {@link AckEventDecoder} for every decoded event so consumers should copy the
+ * values they need to keep.
+ */
 public class AckEventData {
+    public static final String EVENT_TYPE_BUFFERING = "BUFFERING";
+    public static final String EVENT_TYPE_RECEIVED = "RECEIVED";
+    public static final String EVENT_TYPE_PERSISTED = "PERSISTED";
+    public static final String EVENT_TYPE_ERROR = "ERROR";
+    public static final String EVENT_TYPE_IDLE = "IDLE";
+
     private String type;
     private int errorCode;
     private long fragmentTimecode;
+    private String fragmentNumber;
 
     public String getType() {
         return type;
@@ -28,4 +41,22 @@ public class AckEventData {
     public void setFragmentTimecode(final long fragmentTimecode) {
         this.fragmentTimecode = fragmentTimecode;
     }
+
+    public String getFragmentNumber() {
+        return fragmentNumber;
+    }
+
+    public void setFragmentNumber(final String fragmentNumber) {
+        this.fragmentNumber = fragmentNumber;
+    }
+
+    /**
+     * Clears the values so the object can be reused for the next event.
+     */
+    public void reset() {
+        type = null;
+        errorCode = 0;
+        fragmentTimecode = 0;
+        fragmentNumber = null;
+    }
 }
@@ -0,0 +1,310 @@
+package com.amazonaws.kinesisvideo.ack;
+
+import com.amazonaws.kinesisvideo.common.function.Consumer;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+
+/**
+ * Incremental decoder for the stream of PutMedia ACK JSON objects, e.g.
+ * <pre>
+ * {"EventType":"PERSISTED","FragmentTimecode":1234,"FragmentNumber":"91343852333181432392682062607743920146264"}
+ * </pre>
+ *
+ * The bytes can be fed in arbitrary pieces - an object split across reads or chunks is reassembled and several
+ * objects in one piece are all decoded. The known fields are decoded straight from the bytes into a single
+ * reused {@link AckEventData}, only the fragment number needs a new String. Unknown fields are skipped.
+ *
+ * Objects which can't be decoded, including those with an unknown event type, are handed to the fallback
+ * consumer as text so they can still be parsed by other means.
+ *
+ * NOTE: This class is not thread safe.
+ */
+public final class AckEventDecoder {
+    /**
+     * ACK objects are ~150 bytes, anything beyond this is not an ACK
+     */
+    private static final int MAX_EVENT_SIZE = 4 * 1024;
+
+    private static final byte[] KEY_EVENT_TYPE = bytes("EventType");
+    private static final byte[] KEY_FRAGMENT_TIMECODE = bytes("FragmentTimecode");
+    private static final byte[] KEY_FRAGMENT_NUMBER = bytes("FragmentNumber");
+    private static final byte[] KEY_ERROR_ID = bytes("ErrorId");
+
+    private static final String[] EVENT_TYPES = {
+            AckEventData.EVENT_TYPE_BUFFERING,
+            AckEventData.EVENT_TYPE_RECEIVED,
+            AckEventData.EVENT_TYPE_PERSISTED,
+            AckEventData.EVENT_TYPE_ERROR,
+            AckEventData.EVENT_TYPE_IDLE
+    };
+    private static final byte[][] EVENT_TYPE_BYTES = new byte[EVENT_TYPES.length][];
+
+    static {
+        for (int i = 0; i < EVENT_TYPES.length; i++) {
+            EVENT_TYPE_BYTES[i] = bytes(EVENT_TYPES[i]);
+        }
+    }
+
+    private final Consumer<AckEventData> mAckConsumer;
+    private final Consumer<String> mUndecodedAckConsumer;
+    private final AckEventData mAckEventData = new AckEventData();
+    private final byte[] mEventBuffer = new byte[MAX_EVENT_SIZE];
+
+    /**
+     * Framing state which survives across the decode calls
+     */
+    private int mEventLength = 0;
+    private int mDepth = 0;
+    private boolean mInString = false;
+    private boolean mEscaped = false;
+    private boolean mOverflow = false;
+
+    /**
+     * Parsing position within mEventBuffer
+     */
+    private int mPosition;
+
+    public AckEventDecoder(@Nonnull final Consumer<AckEventData> ackConsumer,
+                           @Nonnull final Consumer<String> undecodedAckConsumer) {
+        mAckConsumer = checkNotNull(ackConsumer);
+        mUndecodedAckConsumer = checkNotNull(undecodedAckConsumer);
+    }
+
+    /**
+     * Feeds the next piece of the ACK stream. Complete events are delivered synchronously.
+     */
+    public void decode(@Nonnull final byte[] bytes, final int offset, final int length) {
+        for (int i = offset; i < offset + length; i++) {
+            final byte b = bytes[i];
+
+            if (mDepth == 0) {
+                // Skip whatever is between the objects
+                if (b == '{') {
+                    mDepth = 1;
+                    mEventLength = 0;
+                    mOverflow = false;
+                    append(b);
+                }
+
+                continue;
+            }
+
+            append(b);
+
+            if (mInString) {
+                if (mEscaped) {
+                    mEscaped = false;
+                } else if (b == '\\') {
+                    mEscaped = true;
+                } else if (b == '"') {
+                    mInString = false;
+                }
+            } else if (b == '"') {
+                mInString = true;
+            } else if (b == '{') {
+                mDepth++;
+            } else if (b == '}' && --mDepth == 0) {
+                completeEvent();
+            }
+        }
+    }
+
+    private void append(final byte b) {
+        if (mEventLength == mEventBuffer.length) {
+            mOverflow = true;
+            return;
+        }
+
+        mEventBuffer[mEventLength++] = b;
+    }
+
+    private void completeEvent() {
+        if (!mOverflow && parseEvent()) {
+            mAckConsumer.accept(mAckEventData);
+        } else {
+            mUndecodedAckConsumer.accept(new String(mEventBuffer, 0, mEventLength, StandardCharsets.UTF_8));
+        }
+
+        mEventLength = 0;
+    }
+
+    /**
+     * Parses a flat JSON object in mEventBuffer into mAckEventData.
+     *
+     * @return whether the object is a well formed ACK
+     */
+    private boolean parseEvent() {
+        mAckEventData.reset();
+        mPosition = 1;
+
+        while (true) {
+            skipWhitespace();
+            if (mPosition >= mEventLength) {
+                return false;
+            }
+
+            if (mEventBuffer[mPosition] == '}') {
+                return mAckEventData.getType() != null;
+            }
+
+            if (mEventBuffer[mPosition] == ',') {
+                mPosition++;
+                continue;
+            }
+
+            // Key
+            final int keyStart = mPosition + 1;
+            final int keyEnd = skipString();
+            if (keyEnd < 0) {
+                return false;
+            }
+
+            skipWhitespace();
+            if (mPosition >= mEventLength || mEventBuffer[mPosition] != ':') {
+                return false;
+            }
+
+            mPosition++;
+            skipWhitespace();
+            if (mPosition >= mEventLength) {
+                return false;
+            }
+
+            if (!parseValue(keyStart, keyEnd - keyStart)) {
+                return false;
+            }
+        }
+    }
+
+    private boolean parseValue(final int keyStart, final int keyLength) {
+        if (mEventBuffer[mPosition] == '"') {
+            final int valueStart = mPosition + 1;
+            final int valueEnd = skipString();
+            if (valueEnd < 0) {
+                return false;
+            }
+
+            if (matches(keyStart, keyLength, KEY_EVENT_TYPE)) {
+                mAckEventData.setType(toEventType(valueStart, valueEnd - valueStart));
+            } else if (matches(keyStart, keyLength, KEY_FRAGMENT_NUMBER)) {
+                mAckEventData.setFragmentNumber(
+                        new String(mEventBuffer, valueStart, valueEnd - valueStart, StandardCharsets.US_ASCII));
+            } else if (matches(keyStart, keyLength, KEY_FRAGMENT_TIMECODE)) {
+                // Some producers of ACK JSON quote the numbers
+                mAckEventData.setFragmentTimecode(parseLong(valueStart, valueEnd));
+            } else if (matches(keyStart, keyLength, KEY_ERROR_ID)) {
+                mAckEventData.setErrorCode((int) parseLong(valueStart, valueEnd));
+            }
+
+            return true;
+        }
+
+        // Number or literal
+        final int valueStart = mPosition;
+        while (mPosition < mEventLength) {
+            final byte b = mEventBuffer[mPosition];
+            if (b == ',' || b == '}' || isWhitespace(b)) {
+                break;
+            }
+
+            if (b == '{' || b == '[') {
+                // Nested values are not part of the ACK format
+                return false;
+            }
+
+            mPosition++;
+        }
+
+        if (matches(keyStart, keyLength, KEY_FRAGMENT_TIMECODE)) {
+            mAckEventData.setFragmentTimecode(parseLong(valueStart, mPosition));
+        } else if (matches(keyStart, keyLength, KEY_ERROR_ID)) {
+            mAckEventData.setErrorCode((int) parseLong(valueStart, mPosition));
+        }
+
+        return true;
+    }
+
+    /**
+     * Skips the string starting at the current position.
+     *
+     * @return Index of the closing quote or -1 if malformed
+     */
+    private int skipString() {
+        if (mEventBuffer[mPosition] != '"') {
+            return -1;
+        }
+
+        mPosition++;
+        while (mPosition < mEventLength) {
+            final byte b = mEventBuffer[mPosition];
+            if (b == '\\') {
+                mPosition += 2;
+                continue;
+            }
+
+            if (b == '"') {
+                return mPosition++;
+            }
+
+            mPosition++;
+        }
+
+        return -1;
+    }
+
+    private void skipWhitespace() {
+        while (mPosition < mEventLength && isWhitespace(mEventBuffer[mPosition])) {
+            mPosition++;
+        }
+    }
+
+    private long parseLong(final int start, final int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            final int digit = mEventBuffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+
+            value = value * 10 + digit;
+        }
+
+        return value;
+    }
+
+    private String toEventType(final int start, final int length) {
+        for (int i = 0; i < EVENT_TYPE_BYTES.length; i++) {
+            if (matches(start, length, EVENT_TYPE_BYTES[i])) {
+                return EVENT_TYPES[i];
+            }
+        }
+
+        // Unknown event type - let the fallback handle it
+        return null;
+    }
+
+    private boolean matches(final int start, final int length, final byte[] expected) {
+        if (length != expected.length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (mEventBuffer[start + i] != expected[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isWhitespace(final byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
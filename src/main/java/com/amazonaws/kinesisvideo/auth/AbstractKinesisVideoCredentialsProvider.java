@@ -34,7 +34,7 @@ public abstract class AbstractKinesisVideoCredentialsProvider implements Kinesis
         final long currentMillis = System.currentTimeMillis();
         if (null == credentials
                 || forceUpdate
-                || currentMillis <= credentials.getExpiration().getTime()) {
+                || currentMillis >= credentials.getExpiration().getTime()) {
             // Force update the credentials which in derived classes will actually retrieve new credentials.
             credentials = updateCredentials();
         }
@@ -0,0 +1,281 @@
+package com.amazonaws.kinesisvideo.auth;
+
+import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
+import com.amazonaws.kinesisvideo.common.preconditions.Preconditions;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Credentials provider which serves the cached credentials of another provider and refreshes them in the
+ * background ahead of their expiry.
+ *
+ * The refresh is scheduled a jittered interval before the expiration, and no later than the max age of the
+ * credentials, so the clients rotating their tokens together don't all hit the provider at once. Concurrent
+ * refreshes are collapsed into a single call to the underlying provider. The callers only wait when there
+ * are no valid credentials cached.
+ *
+ * NOTE: {@link #getUpdatedCredentials()} serves the cached credentials too as they are refreshed ahead of
+ * their expiry.
+ */
+public final class CachingKinesisVideoCredentialsProvider implements KinesisVideoCredentialsProvider {
+    private static final Logger log = LogManager.getLogger(CachingKinesisVideoCredentialsProvider.class);
+
+    /**
+     * Default time before the expiration to refresh the credentials at
+     */
+    public static final long DEFAULT_REFRESH_AHEAD_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * Default max random time added to the refresh ahead time
+     */
+    public static final long DEFAULT_MAX_JITTER_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Default max time to serve the credentials for, including the ones which never expire
+     */
+    public static final long DEFAULT_MAX_CREDENTIALS_AGE_MILLIS = TimeUnit.MINUTES.toMillis(15);
+
+    /**
+     * Default time to wait for the underlying provider when there are no valid credentials cached
+     */
+    public static final long DEFAULT_FETCH_TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Delay of the retry after a failed background refresh
+     */
+    private static final long RETRY_DELAY_MILLIS = 5000;
+
+    private final KinesisVideoCredentialsProvider mCredentialsProvider;
+    private final ScheduledExecutorService mExecutor;
+    private final long mRefreshAheadMillis;
+    private final long mMaxJitterMillis;
+    private final long mMaxCredentialsAgeMillis;
+    private final long mFetchTimeoutMillis;
+    private final CredentialsRefreshMetrics mMetrics = new CredentialsRefreshMetrics();
+    private final Object mRefreshLock = new Object();
+
+    private volatile KinesisVideoCredentials mCredentials;
+    private volatile long mRefreshAtMillis;
+    private FutureTask<KinesisVideoCredentials> mRefresh;
+    private ScheduledFuture<?> mScheduledRefresh;
+
+    private final Runnable mRefreshTask = new Runnable() {
+        @Override
+        public void run() {
+            refreshAsync();
+        }
+    };
+
+    public CachingKinesisVideoCredentialsProvider(@Nonnull final KinesisVideoCredentialsProvider credentialsProvider,
+                                                  @Nonnull final ScheduledExecutorService executor) {
+        this(credentialsProvider, executor, DEFAULT_REFRESH_AHEAD_MILLIS, DEFAULT_MAX_JITTER_MILLIS,
+                DEFAULT_MAX_CREDENTIALS_AGE_MILLIS, DEFAULT_FETCH_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param credentialsProvider Provider to get the credentials from
+     * @param executor Executor to refresh the credentials on
+     * @param refreshAheadMillis Time before the expiration to refresh the credentials at
+     * @param maxJitterMillis Max random time added to the refresh ahead time
+     * @param maxCredentialsAgeMillis Max time to serve the credentials for before refreshing them
+     * @param fetchTimeoutMillis Time to wait for the credentials when there are no valid ones cached
+     */
+    public CachingKinesisVideoCredentialsProvider(@Nonnull final KinesisVideoCredentialsProvider credentialsProvider,
+                                                  @Nonnull final ScheduledExecutorService executor,
+                                                  final long refreshAheadMillis,
+                                                  final long maxJitterMillis,
+                                                  final long maxCredentialsAgeMillis,
+                                                  final long fetchTimeoutMillis) {
+        Preconditions.checkArgument(refreshAheadMillis >= 0);
+        Preconditions.checkArgument(maxJitterMillis >= 0);
+        Preconditions.checkArgument(maxCredentialsAgeMillis > 0);
+        Preconditions.checkArgument(fetchTimeoutMillis > 0);
+        mCredentialsProvider = Preconditions.checkNotNull(credentialsProvider);
+        mExecutor = Preconditions.checkNotNull(executor);
+        mRefreshAheadMillis = refreshAheadMillis;
+        mMaxJitterMillis = maxJitterMillis;
+        mMaxCredentialsAgeMillis = maxCredentialsAgeMillis;
+        mFetchTimeoutMillis = fetchTimeoutMillis;
+    }
+
+    @Nullable
+    @Override
+    public KinesisVideoCredentials getCredentials() throws KinesisVideoException {
+        final KinesisVideoCredentials credentials = mCredentials;
+        final long now = System.currentTimeMillis();
+        if (credentials != null && now < credentials.getExpiration().getTime()) {
+            mMetrics.recordCacheHit();
+            if (now >= mRefreshAtMillis) {
+                refreshAsync();
+            }
+
+            return credentials;
+        }
+
+        return awaitRefresh();
+    }
+
+    @Nullable
+    @Override
+    public KinesisVideoCredentials getUpdatedCredentials() throws KinesisVideoException {
+        return getCredentials();
+    }
+
+    /**
+     * Returns the metrics of the refreshes
+     */
+    @Nonnull
+    public CredentialsRefreshMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    private void refreshAsync() {
+        final FutureTask<KinesisVideoCredentials> refresh;
+        synchronized (mRefreshLock) {
+            if (mRefresh != null) {
+                return;
+            }
+
+            refresh = startRefresh();
+        }
+
+        try {
+            mExecutor.execute(refresh);
+        } catch (final RejectedExecutionException e) {
+            log.debug("Refreshing the credentials was rejected");
+            synchronized (mRefreshLock) {
+                mRefresh = null;
+            }
+        }
+    }
+
+    @Nullable
+    private KinesisVideoCredentials awaitRefresh() throws KinesisVideoException {
+        final FutureTask<KinesisVideoCredentials> refresh;
+        boolean started = false;
+        synchronized (mRefreshLock) {
+            if (mRefresh == null) {
+                startRefresh();
+                started = true;
+            }
+
+            refresh = mRefresh;
+        }
+
+        if (started) {
+            try {
+                mExecutor.execute(refresh);
+            } catch (final RejectedExecutionException e) {
+                refresh.run();
+            }
+        }
+
+        try {
+            return refresh.get(mFetchTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof KinesisVideoException) {
+                throw (KinesisVideoException) e.getCause();
+            }
+
+            throw new KinesisVideoException(e.getCause());
+        } catch (final TimeoutException e) {
+            throw new KinesisVideoException("Timed out getting the credentials", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KinesisVideoException(e);
+        }
+    }
+
+    /**
+     * Must be called under the refresh lock
+     */
+    @Nonnull
+    private FutureTask<KinesisVideoCredentials> startRefresh() {
+        mRefresh = new FutureTask<KinesisVideoCredentials>(new Callable<KinesisVideoCredentials>() {
+            @Override
+            public KinesisVideoCredentials call() throws KinesisVideoException {
+                final long startNanos = System.nanoTime();
+                boolean failed = true;
+                try {
+                    final KinesisVideoCredentials credentials = mCredentialsProvider.getUpdatedCredentials();
+                    if (credentials != null) {
+                        mCredentials = credentials;
+                        scheduleRefresh(credentials);
+                        failed = false;
+                    }
+
+                    return credentials;
+                } finally {
+                    mMetrics.recordRefresh(System.nanoTime() - startNanos, failed);
+                    synchronized (mRefreshLock) {
+                        mRefresh = null;
+                        if (failed) {
+                            scheduleRetry();
+                        }
+                    }
+                }
+            }
+        });
+
+        return mRefresh;
+    }
+
+    private void scheduleRefresh(@Nonnull final KinesisVideoCredentials credentials) {
+        final long now = System.currentTimeMillis();
+        final long expiration = credentials.getExpiration().getTime();
+        final long jitter = mMaxJitterMillis == 0 ? 0 : ThreadLocalRandom.current().nextLong(mMaxJitterMillis + 1);
+
+        // Short lived credentials are refreshed once three quarters of their lifetime has passed
+        final long refreshAhead = Math.min(mRefreshAheadMillis + jitter, Math.max(0, expiration - now) / 4);
+        final long maxAge = mMaxCredentialsAgeMillis - Math.min(jitter, mMaxCredentialsAgeMillis / 4);
+        mRefreshAtMillis = Math.min(expiration - refreshAhead, now + maxAge);
+
+        synchronized (mRefreshLock) {
+            schedule(mRefreshAtMillis - now);
+        }
+    }
+
+    /**
+     * Must be called under the refresh lock
+     */
+    private void scheduleRetry() {
+        final KinesisVideoCredentials credentials = mCredentials;
+        if (credentials == null) {
+            // The next caller fetches the credentials
+            return;
+        }
+
+        final long untilExpiration = credentials.getExpiration().getTime() - System.currentTimeMillis();
+        if (untilExpiration > 0) {
+            schedule(Math.min(RETRY_DELAY_MILLIS, untilExpiration));
+        }
+    }
+
+    /**
+     * Must be called under the refresh lock
+     */
+    private void schedule(final long delayMillis) {
+        if (mScheduledRefresh != null) {
+            mScheduledRefresh.cancel(false);
+        }
+
+        try {
+            mScheduledRefresh = mExecutor.schedule(mRefreshTask, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            // The executor has been shut down, the callers refresh the credentials on access
+            mScheduledRefresh = null;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.amazonaws.kinesisvideo.auth;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of the credentials refreshes of a {@link CachingKinesisVideoCredentialsProvider}.
+ */
+public class CredentialsRefreshMetrics {
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong refreshTimeNanos = new AtomicLong();
+    private final AtomicLong maxRefreshTimeNanos = new AtomicLong();
+
+    /**
+     * Records a call to the underlying credentials provider
+     *
+     * @param refreshTimeNanos time the call took in nanoseconds
+     * @param failed whether the call failed
+     */
+    public void recordRefresh(final long refreshTimeNanos, final boolean failed) {
+        refreshes.incrementAndGet();
+        if (failed) {
+            failures.incrementAndGet();
+        }
+
+        this.refreshTimeNanos.addAndGet(refreshTimeNanos);
+        long max = maxRefreshTimeNanos.get();
+        while (refreshTimeNanos > max && !maxRefreshTimeNanos.compareAndSet(max, refreshTimeNanos)) {
+            max = maxRefreshTimeNanos.get();
+        }
+    }
+
+    /**
+     * Records a call served with the cached credentials
+     */
+    public void recordCacheHit() {
+        cacheHits.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of the calls to the underlying credentials provider
+     * @return number of refreshes
+     */
+    public long getRefreshes() {
+        return refreshes.get();
+    }
+
+    /**
+     * Returns the number of the failed calls to the underlying credentials provider
+     * @return number of failures
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Returns the number of the calls served with the cached credentials
+     * @return number of cache hits
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Returns the average time of a refresh in milliseconds
+     * @return average refresh time
+     */
+    public long getAverageRefreshTimeInMillis() {
+        final long refreshes = getRefreshes();
+        return refreshes == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(refreshTimeNanos.get() / refreshes);
+    }
+
+    /**
+     * Returns the longest time a refresh took in milliseconds
+     * @return max refresh time
+     */
+    public long getMaxRefreshTimeInMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxRefreshTimeNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "refreshes: " + getRefreshes()
+                + ", failures: " + getFailures()
+                + ", cache hits: " + getCacheHits()
+                + ", average refresh time: " + getAverageRefreshTimeInMillis() + " ms"
+                + ", max refresh time: " + getMaxRefreshTimeInMillis() + " ms";
+    }
+}
@@ -11,56 +11,44 @@ import com.amazonaws.kinesisvideo.producer.Time;
 import javax.annotation.Nullable;
 import javax.annotation.Nonnull;
 
-import java.io.*;
-import java.util.concurrent.*;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Default AuthCallbacks implementation based on the credentials provider
  */
 public class DefaultAuthCallbacks implements AuthCallbacks {
-    /**
-     * Default timeout for the credentials
-     */
-    private static final int CREDENTIALS_UPDATE_TIMEOUT_MILLIS = 10000;
-
     /**
      * A sentinel value indicating the credentials never expire
      */
     public static final long CREDENTIALS_NEVER_EXPIRE = Long.MAX_VALUE;
 
     /**
-     * Stored credentials provider
-     */
-    private final KinesisVideoCredentialsProvider credentialsProvider;
-
-    /**
-     * Executor service to use as the calls can come in on the main thread.
+     * Credentials provider caching the credentials of the configured one
      */
-    private final ScheduledExecutorService executor;
+    private final CachingKinesisVideoCredentialsProvider credentialsProvider;
 
     /**
      * Used for logging
      */
     private final Logger log;
 
-    /**
-     * Stores the serialized credentials
-     */
-    private byte[] serializedCredentials;
-
-    /**
-     * Expiration of the credentials
-     */
-    private long expiration;
-
     public DefaultAuthCallbacks(@Nonnull KinesisVideoCredentialsProvider credentialsProvider,
                                 @Nonnull final ScheduledExecutorService executor,
                                 @Nonnull Logger log) {
-        this.credentialsProvider = Preconditions.checkNotNull(credentialsProvider);
-        this.executor = Preconditions.checkNotNull(executor);
+        this.credentialsProvider = new CachingKinesisVideoCredentialsProvider(
+                Preconditions.checkNotNull(credentialsProvider),
+                Preconditions.checkNotNull(executor));
         this.log = Preconditions.checkNotNull(log);
     }
 
+    /**
+     * Returns the metrics of the credentials refreshes
+     */
+    @Nonnull
+    public CredentialsRefreshMetrics getCredentialsRefreshMetrics() {
+        return credentialsProvider.getMetrics();
+    }
+
     @Nullable
     @Override
     public AuthInfo getDeviceCertificate() {
@@ -70,54 +58,17 @@ public class DefaultAuthCallbacks implements AuthCallbacks {
     @Nullable
     @Override
     public AuthInfo getSecurityToken() {
-        final Runnable task = new Runnable() {
-            @Override
-            public void run() {
-                // Get the updated credentials and serialize it
-
-                final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-                try {
-                    final KinesisVideoCredentials credentials = credentialsProvider.getUpdatedCredentials();
-                    expiration = credentials.getExpiration().getTime() * Time.HUNDREDS_OF_NANOS_IN_A_MILLISECOND;
-
-                    final ObjectOutput outputStream = new ObjectOutputStream(byteArrayOutputStream);
-                    outputStream.writeObject(credentials);
-                    outputStream.flush();
-                    serializedCredentials = byteArrayOutputStream.toByteArray();
-                    outputStream.close();
-                } catch (final IOException e) {
-                    // return null
-                    serializedCredentials = null;
-                    expiration = 0;
-                    log.error("Exception was thrown trying to get updated credentials", e);
-                } catch (final KinesisVideoException e) {
-                    // return null
-                    serializedCredentials = null;
-                    expiration = 0;
-                    log.error("Exception was thrown trying to get updated credentials", e);
-                } finally {
-                    try {
-                        byteArrayOutputStream.close();
-                    }
-                    catch(final IOException e) {
-                        // Do nothing
-                        log.error("Closing the byte array stream threw an exception", e);
-                    }
-                }
-            }
-        };
-
-        final ScheduledFuture<?> future = executor.schedule(task, 0, TimeUnit.NANOSECONDS);
-
-        // Await for the future to complete
+        // Serves the cached credentials, only waits for the provider if none are valid
+        byte[] serializedCredentials = null;
+        long expiration = 0;
         try {
-            future.get(CREDENTIALS_UPDATE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
-        } catch (final InterruptedException e) {
-            log.error("Awaiting for the credentials update threw an exception", e);
-        } catch (final ExecutionException e) {
-            log.error("Awaiting for the credentials update threw an exception", e);
-        } catch (final TimeoutException e) {
-            log.error("Awaiting for the credentials update threw an exception", e);
+            final KinesisVideoCredentials credentials = credentialsProvider.getUpdatedCredentials();
+            if (credentials != null) {
+                expiration = credentials.getExpiration().getTime() * Time.HUNDREDS_OF_NANOS_IN_A_MILLISECOND;
+                serializedCredentials = KinesisVideoCredentialsCodec.encode(credentials);
+            }
+        } catch (final KinesisVideoException e) {
+            log.error("Exception was thrown trying to get updated credentials", e);
         }
 
         return new AuthInfo(
@@ -0,0 +1,121 @@
+package com.amazonaws.kinesisvideo.auth;
+
+import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
+import com.amazonaws.kinesisvideo.common.preconditions.Preconditions;
+
+import javax.annotation.Nonnull;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Date;
+
+/**
+ * Encodes the credentials into the security tokens handed over to the native producer and decodes them back
+ * when the token is passed to the service callbacks.
+ *
+ * The token has a fixed layout instead of the Java serialization form so encoding and decoding cost no
+ * reflection and decoding can't instantiate arbitrary classes:
+ * <pre>
+ *     magic (2 bytes) | version (1 byte) | flags (1 byte) | expiration in millis (8 bytes)
+ *     | access key length (4 bytes) | access key | secret key length (4 bytes) | secret key
+ *     | session token length (4 bytes) | session token, only if the has session token flag is set
+ * </pre>
+ * The strings are UTF-8 encoded.
+ */
+public final class KinesisVideoCredentialsCodec {
+    private static final short MAGIC = 0x4B56; // "KV"
+    private static final byte VERSION = 1;
+    private static final byte FLAG_HAS_SESSION_TOKEN = 0x01;
+    private static final int HEADER_SIZE = 2 + 1 + 1 + 8;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private KinesisVideoCredentialsCodec() {
+        // Static methods only
+    }
+
+    /**
+     * Encodes the credentials into a security token.
+     */
+    @Nonnull
+    public static byte[] encode(@Nonnull final KinesisVideoCredentials credentials) {
+        Preconditions.checkNotNull(credentials);
+        final byte[] accessKey = credentials.getAccessKey().getBytes(UTF_8);
+        final byte[] secretKey = credentials.getSecretKey().getBytes(UTF_8);
+        final byte[] sessionToken = credentials.getSessionToken() == null
+                ? null
+                : credentials.getSessionToken().getBytes(UTF_8);
+
+        final int size = HEADER_SIZE
+                + 4 + accessKey.length
+                + 4 + secretKey.length
+                + (sessionToken == null ? 0 : 4 + sessionToken.length);
+
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putShort(MAGIC);
+        buffer.put(VERSION);
+        buffer.put(sessionToken == null ? 0 : FLAG_HAS_SESSION_TOKEN);
+        buffer.putLong(credentials.getExpiration().getTime());
+        putBytes(buffer, accessKey);
+        putBytes(buffer, secretKey);
+        if (sessionToken != null) {
+            putBytes(buffer, sessionToken);
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * Decodes the credentials from a security token produced by {@link #encode}.
+     *
+     * @throws KinesisVideoException if the token is not in the expected format
+     */
+    @Nonnull
+    public static KinesisVideoCredentials decode(@Nonnull final byte[] token) throws KinesisVideoException {
+        Preconditions.checkNotNull(token);
+        final ByteBuffer buffer = ByteBuffer.wrap(token);
+        try {
+            if (buffer.getShort() != MAGIC) {
+                throw new KinesisVideoException("The security token is not an encoded credentials token");
+            }
+
+            final byte version = buffer.get();
+            if (version != VERSION) {
+                throw new KinesisVideoException("Unsupported security token version " + version);
+            }
+
+            final byte flags = buffer.get();
+            final long expiration = buffer.getLong();
+            final String accessKey = getString(buffer);
+            final String secretKey = getString(buffer);
+            final String sessionToken = (flags & FLAG_HAS_SESSION_TOKEN) != 0 ? getString(buffer) : null;
+
+            if (buffer.hasRemaining()) {
+                throw new KinesisVideoException("Trailing bytes in the security token");
+            }
+
+            return new KinesisVideoCredentials(accessKey, secretKey, sessionToken,
+                    expiration == KinesisVideoCredentials.CREDENTIALS_NEVER_EXPIRE.getTime()
+                            ? KinesisVideoCredentials.CREDENTIALS_NEVER_EXPIRE
+                            : new Date(expiration));
+        } catch (final BufferUnderflowException e) {
+            throw new KinesisVideoException("Truncated security token", e);
+        }
+    }
+
+    private static void putBytes(@Nonnull final ByteBuffer buffer, @Nonnull final byte[] bytes) {
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    @Nonnull
+    private static String getString(@Nonnull final ByteBuffer buffer) throws KinesisVideoException {
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new KinesisVideoException("Invalid string length " + length + " in the security token");
+        }
+
+        final String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,65 @@
+package com.amazonaws.kinesisvideo.client;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grows the read size to cover the data the producer reported as available (as reported through the
+ * stream data available callback) up to a cap, so high bitrate streams drain the buffer in few large reads.
+ *
+ * When writing a chunk takes longer than the latency threshold the network is under pressure and the read
+ * size is halved, down to the minimum, so that smaller chunks keep flowing instead of large bursts. The waits of
+ * the bandwidth throttler don't count towards the write time.
+ */
+public final class AdaptiveChunkSizePolicy implements ChunkSizePolicy {
+    public static final int DEFAULT_MIN_CHUNK_SIZE = 4 * 1024;
+    public static final int DEFAULT_MAX_CHUNK_SIZE = 256 * 1024;
+    public static final long DEFAULT_LATENCY_THRESHOLD_IN_MILLIS = 200;
+
+    private final int mMinChunkSize;
+    private final int mMaxChunkSize;
+    private final long mLatencyThresholdInNanos;
+
+    public AdaptiveChunkSizePolicy() {
+        this(DEFAULT_MIN_CHUNK_SIZE, DEFAULT_MAX_CHUNK_SIZE, DEFAULT_LATENCY_THRESHOLD_IN_MILLIS);
+    }
+
+    public AdaptiveChunkSizePolicy(final int minChunkSize,
+                                   final int maxChunkSize,
+                                   final long latencyThresholdInMillis) {
+        checkArgument(minChunkSize > 0, "Min chunk size must be positive");
+        checkArgument(maxChunkSize >= minChunkSize, "Max chunk size must not be less than min chunk size");
+        checkArgument(latencyThresholdInMillis > 0, "Latency threshold must be positive");
+        mMinChunkSize = minChunkSize;
+        mMaxChunkSize = maxChunkSize;
+        mLatencyThresholdInNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdInMillis);
+    }
+
+    @Override
+    public int getInitialReadSize() {
+        return mMinChunkSize;
+    }
+
+    @Override
+    public int getMaxReadSize() {
+        return mMaxChunkSize;
+    }
+
+    @Override
+    public int nextReadSize(final int currentReadSize, final long availableBytes, final long lastChunkSendTimeNanos) {
+        if (lastChunkSendTimeNanos > mLatencyThresholdInNanos) {
+            return Math.max(mMinChunkSize, currentReadSize / 2);
+        }
+
+        if (availableBytes > currentReadSize) {
+            // Round up to the power of two to avoid resizing on every small fluctuation
+            final long target = availableBytes >= mMaxChunkSize
+                    ? mMaxChunkSize
+                    : Integer.highestOneBit((int) availableBytes - 1) << 1;
+            return (int) Math.max(mMinChunkSize, Math.min(mMaxChunkSize, target));
+        }
+
+        return Math.max(mMinChunkSize, Math.min(mMaxChunkSize, currentReadSize));
+    }
+}
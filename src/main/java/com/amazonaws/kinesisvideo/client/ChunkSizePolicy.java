@@ -0,0 +1,32 @@
+package com.amazonaws.kinesisvideo.client;
+
+/**
+ * Decides how many bytes {@link PutMediaClient} pulls from the MKV stream per read. Each read results in
+ * one chunk on the wire, so the read size determines the number of JNI transitions, chunk encodings and
+ * socket writes per second.
+ *
+ * NOTE: Implementations must be stateless as a single policy can be shared by many uploads. The per-upload
+ * state is passed into {@link #nextReadSize(int, long, long)} by the caller.
+ */
+public interface ChunkSizePolicy {
+    /**
+     * Returns the read size used for the very first read of an upload session.
+     */
+    int getInitialReadSize();
+
+    /**
+     * Returns the largest read size the policy will ever return. Used to size the read buffer once.
+     */
+    int getMaxReadSize();
+
+    /**
+     * Returns the read size to use for the next read.
+     *
+     * @param currentReadSize Read size used for the previous read
+     * @param availableBytes Number of bytes the producer reported as ready to be read, 0 if unknown
+     * @param lastChunkSendTimeNanos Time spent writing the previous chunk to the network, without the time the
+     *                               upload was held back by its bandwidth throttler
+     * @return Next read size between 1 and {@link #getMaxReadSize()}
+     */
+    int nextReadSize(int currentReadSize, long availableBytes, long lastChunkSendTimeNanos);
+}
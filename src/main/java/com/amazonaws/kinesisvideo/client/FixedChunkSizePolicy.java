@@ -0,0 +1,35 @@
+package com.amazonaws.kinesisvideo.client;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+
+/**
+ * Always reads the same number of bytes.
+ */
+public final class FixedChunkSizePolicy implements ChunkSizePolicy {
+    /**
+     * Read size used by the SDK historically.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private final int mChunkSize;
+
+    public FixedChunkSizePolicy(final int chunkSize) {
+        checkArgument(chunkSize > 0, "Chunk size must be positive");
+        mChunkSize = chunkSize;
+    }
+
+    @Override
+    public int getInitialReadSize() {
+        return mChunkSize;
+    }
+
+    @Override
+    public int getMaxReadSize() {
+        return mChunkSize;
+    }
+
+    @Override
+    public int nextReadSize(final int currentReadSize, final long availableBytes, final long lastChunkSendTimeNanos) {
+        return mChunkSize;
+    }
+}
@@ -1,7 +1,16 @@
 package com.amazonaws.kinesisvideo.client;
 
 import com.amazonaws.kinesisvideo.auth.KinesisVideoCredentialsProvider;
+import com.amazonaws.kinesisvideo.http.NioHttpTransport;
+import com.amazonaws.kinesisvideo.http.SharedSslContexts;
+import com.amazonaws.kinesisvideo.internal.mediasource.FrameQueueFullPolicy;
 import com.amazonaws.kinesisvideo.producer.StorageCallbacks;
+import com.amazonaws.kinesisvideo.stream.throttling.HierarchicalBandwidthScheduler;
+
+import javax.net.ssl.SSLContext;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
 
 /**
  * Configuration for KinesisVideoClient.
@@ -11,12 +20,30 @@ public final class KinesisVideoClientConfiguration {
     private final KinesisVideoCredentialsProvider credentialsProvider;
     private final StorageCallbacks storageCallbacks;
     private final String endpoint;
+    private final ChunkSizePolicy putMediaChunkSizePolicy;
+    private final NioHttpTransport nioTransport;
+    private final int frameQueueCapacity;
+    private final FrameQueueFullPolicy frameQueueFullPolicy;
+    private final long serviceCallCacheTtlMillis;
+    private final long serviceCallCacheNegativeTtlMillis;
+    private final SSLContext sslContext;
+    private final HierarchicalBandwidthScheduler bandwidthScheduler;
+    private final long metricsSamplingIntervalMillis;
 
     private KinesisVideoClientConfiguration(final Builder builder) {
         this.region = builder.region;
         this.credentialsProvider = builder.credentialsProvider;
         this.storageCallbacks = builder.storageCallbacks;
         this.endpoint = builder.endpoint;
+        this.putMediaChunkSizePolicy = builder.putMediaChunkSizePolicy;
+        this.nioTransport = builder.nioTransport;
+        this.frameQueueCapacity = builder.frameQueueCapacity;
+        this.frameQueueFullPolicy = builder.frameQueueFullPolicy;
+        this.serviceCallCacheTtlMillis = builder.serviceCallCacheTtlMillis;
+        this.serviceCallCacheNegativeTtlMillis = builder.serviceCallCacheNegativeTtlMillis;
+        this.sslContext = builder.sslContext;
+        this.bandwidthScheduler = builder.bandwidthScheduler;
+        this.metricsSamplingIntervalMillis = builder.metricsSamplingIntervalMillis;
     }
 
     public static Builder builder() {
@@ -66,12 +93,59 @@ public final class KinesisVideoClientConfiguration {
         return this.endpoint;
     }
 
+    public ChunkSizePolicy getPutMediaChunkSizePolicy() {
+        return this.putMediaChunkSizePolicy;
+    }
+
+    public NioHttpTransport getNioTransport() {
+        return this.nioTransport;
+    }
+
+    public int getFrameQueueCapacity() {
+        return this.frameQueueCapacity;
+    }
+
+    public FrameQueueFullPolicy getFrameQueueFullPolicy() {
+        return this.frameQueueFullPolicy;
+    }
+
+    public long getServiceCallCacheTtlMillis() {
+        return this.serviceCallCacheTtlMillis;
+    }
+
+    public long getServiceCallCacheNegativeTtlMillis() {
+        return this.serviceCallCacheNegativeTtlMillis;
+    }
+
+    public SSLContext getSslContext() {
+        return this.sslContext;
+    }
+
+    public HierarchicalBandwidthScheduler getBandwidthScheduler() {
+        return this.bandwidthScheduler;
+    }
+
+    public long getMetricsSamplingIntervalMillis() {
+        return this.metricsSamplingIntervalMillis;
+    }
+
     public static class Builder {
         private String region;
         private KinesisVideoCredentialsProvider credentialsProvider;
         private StorageCallbacks storageCallbacks =
                 KinesisVideoClientConfigurationDefaults.NO_OP_STORAGE_CALLBACKS;
         private String endpoint;
+        private ChunkSizePolicy putMediaChunkSizePolicy =
+                KinesisVideoClientConfigurationDefaults.DEFAULT_PUT_MEDIA_CHUNK_SIZE_POLICY;
+        private NioHttpTransport nioTransport;
+        private int frameQueueCapacity = 0;
+        private FrameQueueFullPolicy frameQueueFullPolicy = FrameQueueFullPolicy.BLOCK;
+        private long serviceCallCacheTtlMillis = 0;
+        private long serviceCallCacheNegativeTtlMillis = 0;
+        private SSLContext sslContext = SharedSslContexts.getDefault();
+        private HierarchicalBandwidthScheduler bandwidthScheduler;
+        private long metricsSamplingIntervalMillis =
+                KinesisVideoClientConfigurationDefaults.DEFAULT_METRICS_SAMPLING_INTERVAL_MILLIS;
 
         public Builder withRegion(final String region) {
             this.region = region;
@@ -93,8 +167,88 @@ public final class KinesisVideoClientConfiguration {
             return this;
         }
 
+        /**
+         * Sets the policy which decides how much data each PutMedia read pulls from the producer and sends as
+         * one chunk. Use {@link AdaptiveChunkSizePolicy} for high bitrate streams. Can't be combined with the
+         * NIO transport, which sends the data as it becomes available in chunks of up to 16KB.
+         */
+        public Builder withPutMediaChunkSizePolicy(final ChunkSizePolicy putMediaChunkSizePolicy) {
+            this.putMediaChunkSizePolicy = putMediaChunkSizePolicy;
+            return this;
+        }
+
+        /**
+         * Runs the PutMedia uploads of the producer streams on the shared selector based transport instead of
+         * two dedicated threads per upload. The transport is owned by the caller who closes it once the client
+         * is freed. The uploads are throttled by the bandwidth scheduler and resolve the endpoint through the
+         * shared DNS cache. A custom PutMedia chunk size policy is rejected as it doesn't apply to them.
+         */
+        public Builder withNioTransport(final NioHttpTransport nioTransport) {
+            this.nioTransport = nioTransport;
+            return this;
+        }
+
+        /**
+         * Hands the frames of the media sources over to a drain thread per stream through a ring buffer of
+         * capacity frames, so a stall of the native content store doesn't stall the thread offering the frames.
+         * The drain thread puts the buffered frames in order as soon as they are offered. The full policy
+         * decides what happens to the frames offered while the ring buffer is full. The media sources must not modify the frame data after handing the frame over.
+         * The capacity must be a power of two. Without this the frames are put on the offering thread.
+         */
+        public Builder withAsyncFrameIngestion(final int capacity, final FrameQueueFullPolicy fullPolicy) {
+            checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1, "Capacity must be a power of two");
+            this.frameQueueCapacity = capacity;
+            this.frameQueueFullPolicy = checkNotNull(fullPolicy);
+            return this;
+        }
+
+        /**
+         * Caches the stream descriptions and the data endpoints for ttlMillis instead of calling the service
+         * every time the producer reconnects. Failed calls are cached for negativeTtlMillis. The results are
+         * reloaded in the background ahead of their expiry. A TTL of 0, the default, disables the cache.
+         */
+        public Builder withServiceCallCache(final long ttlMillis, final long negativeTtlMillis) {
+            this.serviceCallCacheTtlMillis = ttlMillis;
+            this.serviceCallCacheNegativeTtlMillis = negativeTtlMillis;
+            return this;
+        }
+
+        /**
+         * Sets the TLS context of the PutMedia connections. Defaults to the TLS 1.2 context shared by the
+         * SDK so reconnects resume the previous TLS session. Use {@link SharedSslContexts#get(boolean)} to
+         * allow TLS 1.3.
+         */
+        public Builder withSslContext(final SSLContext sslContext) {
+            this.sslContext = sslContext;
+            return this;
+        }
+
+        /**
+         * Throttles the PutMedia uploads of the producer streams with the scheduler, which shares its host
+         * wide rate between the streams by their weights. The scheduler can be shared by several clients.
+         * A stream's share is handed to the other streams once the stream is freed.
+         */
+        public Builder withBandwidthScheduler(final HierarchicalBandwidthScheduler bandwidthScheduler) {
+            this.bandwidthScheduler = bandwidthScheduler;
+            return this;
+        }
+
+        /**
+         * Sets how often the client and the stream metrics are sampled from the native producer into the
+         * snapshot returned by the client, and logged at debug level. An interval of 0 disables the sampling.
+         */
+        public Builder withMetricsSamplingInterval(final long intervalMillis) {
+            this.metricsSamplingIntervalMillis = intervalMillis;
+            return this;
+        }
+
         public KinesisVideoClientConfiguration build() {
             sanitizeBuilder(this);
+            final ChunkSizePolicy defaultChunkSizePolicy =
+                    KinesisVideoClientConfigurationDefaults.DEFAULT_PUT_MEDIA_CHUNK_SIZE_POLICY;
+            checkArgument(nioTransport == null || putMediaChunkSizePolicy == null
+                    || putMediaChunkSizePolicy == defaultChunkSizePolicy,
+                    "The PutMedia chunk size policy is not supported on the NIO transport");
             return new KinesisVideoClientConfiguration(this);
         }
     }
@@ -16,8 +16,13 @@ public final class KinesisVideoClientConfigurationDefaults {
 
     public static final int DEFAULT_SERVICE_CALL_TIMEOUT_IN_MILLIS = 5000;
 
+    public static final long DEFAULT_METRICS_SAMPLING_INTERVAL_MILLIS = 10000;
+
     static final StorageCallbacks NO_OP_STORAGE_CALLBACKS = new DefaultStorageCallbacks();
 
+    static final ChunkSizePolicy DEFAULT_PUT_MEDIA_CHUNK_SIZE_POLICY =
+            new FixedChunkSizePolicy(FixedChunkSizePolicy.DEFAULT_CHUNK_SIZE);
+
     public static String getControlPlaneEndpoint(final @Nonnull String region) {
         return String.format(PROD_CONTROL_PLANE_ENDPOINT_FORMAT, region);
     }
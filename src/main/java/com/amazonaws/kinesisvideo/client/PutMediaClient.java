@@ -3,17 +3,23 @@ package com.amazonaws.kinesisvideo.client;
 import com.amazonaws.kinesisvideo.common.function.Consumer;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
-import com.amazonaws.kinesisvideo.encoding.ChunkEncoder;
+import com.amazonaws.kinesisvideo.encoding.ChunkedOutputStream;
+import com.amazonaws.kinesisvideo.http.NioHttpConnection;
+import com.amazonaws.kinesisvideo.http.NioHttpHandler;
+import com.amazonaws.kinesisvideo.http.NioHttpTransport;
 import com.amazonaws.kinesisvideo.http.ParallelSimpleHttpClient;
+import com.amazonaws.kinesisvideo.http.SharedSslContexts;
 import com.amazonaws.kinesisvideo.signing.KinesisVideoSigner;
 import com.amazonaws.kinesisvideo.stream.throttling.BandwidthMeasuringOutputStream;
 import com.amazonaws.kinesisvideo.stream.throttling.BandwidthThrottledOutputStream;
 import com.amazonaws.kinesisvideo.stream.throttling.BandwidthThrottler;
 import com.amazonaws.kinesisvideo.stream.throttling.BandwidthThrottlerImpl;
 import com.amazonaws.kinesisvideo.stream.throttling.OpsPerSecondMeasurer;
+import com.amazonaws.kinesisvideo.stream.throttling.WriteTimeMeasuringOutputStream;
 import com.amazonaws.kinesisvideo.util.VersionUtil;
 
 import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkState;
 import static com.amazonaws.kinesisvideo.http.HttpMethodName.POST;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -21,9 +27,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import javax.net.ssl.SSLContext;
 
 /**
  * Client for making a PutMedia API call on Kinesis Video Streams.
@@ -39,7 +47,6 @@ public final class PutMediaClient {
     private static final String CONNECTION = "connection";
     private static final String KEEP_ALIVE = "keep-alive";
     private static final String USER_AGENT = "user-agent";
-    private static final int BUFFER_SIZE = 4096; // 4KB
     private static final double MILLI_TO_SEC = 1000;
     private static final int LOGGING_INTERVAL = 250; // Rougly every 10 seconds in 25 fps
     private final Builder mBuilder;
@@ -63,31 +70,63 @@ public final class PutMediaClient {
         putMediaWithSender(sendChunkEncodedMvkStream(sleepTime));
     }
 
+    /**
+     * Runs the PutMedia on the shared transport. The MKV data is pulled by the handler rather than read from
+     * the MKV stream by this client. The handler is in charge of throttling the data it hands over, the
+     * transport sends it in chunks of up to 16KB. The throttling, bandwidth logging and file output options of
+     * this client are rejected as they can't apply. The chunk size policy is ignored.
+     *
+     * @param transport Transport to run the request on
+     * @param handler Handler of the request body and the ACK response
+     * @return The connection to signal the data availability on
+     */
+    public NioHttpConnection putMediaNonBlocking(final NioHttpTransport transport, final NioHttpHandler handler)
+            throws IOException {
+        checkNotNull(transport);
+        checkNotNull(handler);
+        checkState(mBuilder.mBandwidthThrottler == null && mBuilder.upstreamKbps == null,
+                "Throttling is not supported on the NIO transport");
+        checkState(!mBuilder.mLogUsedBandwidth, "Bandwidth logging is not supported on the NIO transport");
+        checkState(mBuilder.mFileOutputPath == null, "File output is not supported on the NIO transport");
+        return transport.connect(createSignedRequest(createRequestBuilder()), handler);
+    }
+
     private void putMediaWithSender(final Consumer<OutputStream> sender) {
-        final ParallelSimpleHttpClient.Builder clientBuilder = ParallelSimpleHttpClient.builder()
-            .uri(mBuilder.mUri).method(POST)
-            .header(STREAM_NAME_HEADER, mBuilder.mStreamName)
-            .header(TRANSFER_ENCODING, CHUNKED)
-            .header(CONNECTION, KEEP_ALIVE)
-            .header(USER_AGENT, VersionUtil.getUserAgent());
+        checkNotNull(mBuilder.mAcksReceiver);
+        final ParallelSimpleHttpClient.Builder clientBuilder = createRequestBuilder();
         clientBuilder.setReceiverCallback(mBuilder.mAcksReceiver);
-        clientBuilder.header(PRODUCER_START_TIMESTAMP_HEADER,
-                             String.format(Locale.US, "%.3f", mBuilder.mTimestamp / MILLI_TO_SEC));
-        clientBuilder.header(FRAGMENT_TIME_CODE_TYPE_HEADER, mBuilder.mFragmentTimecodeType);
         clientBuilder.completionCallback(mBuilder.mCompletion);
         clientBuilder.setSenderCallback(sender);
         // Timeout if no response is received from the server for put(i.e., acks)
         // Socket will/should be closed by the consumer by throwing the SocketTimeoutException
         clientBuilder.setTimeout(mBuilder.mReceiveTimeout);
-        httpClient = clientBuilder.build();
-        sign(httpClient);
+        httpClient = createSignedRequest(clientBuilder);
+        httpClient.connectAndProcessInBackground();
+    }
+
+    private ParallelSimpleHttpClient.Builder createRequestBuilder() {
+        return ParallelSimpleHttpClient.builder()
+            .uri(mBuilder.mUri).method(POST)
+            .sslContext(mBuilder.mSslContext)
+            .header(STREAM_NAME_HEADER, mBuilder.mStreamName)
+            .header(TRANSFER_ENCODING, CHUNKED)
+            .header(CONNECTION, KEEP_ALIVE)
+            .header(USER_AGENT, VersionUtil.getUserAgent())
+            .header(PRODUCER_START_TIMESTAMP_HEADER,
+                    String.format(Locale.US, "%.3f", mBuilder.mTimestamp / MILLI_TO_SEC))
+            .header(FRAGMENT_TIME_CODE_TYPE_HEADER, mBuilder.mFragmentTimecodeType);
+    }
+
+    private ParallelSimpleHttpClient createSignedRequest(final ParallelSimpleHttpClient.Builder clientBuilder) {
+        final ParallelSimpleHttpClient client = clientBuilder.build();
+        sign(client);
         // add additional unsigned headers
         if (mBuilder.unsignedHeaders != null) {
             for (final String headerName : mBuilder.unsignedHeaders.keySet()) {
                 clientBuilder.header(headerName, mBuilder.unsignedHeaders.get(headerName));
             }
         }
-        httpClient.connectAndProcessInBackground();
+        return client;
     }
 
     public void close() throws IOException {
@@ -106,14 +145,24 @@ public final class PutMediaClient {
             public void accept(final OutputStream rawOutputStream) {
                 FileOutputStream outputFileStream = null;
                 try {
-                    final OutputStream throttledOutputStream = throttleAndMeasureOutput(rawOutputStream);
+                    // Times the network writes only, the throttling waits would shrink the chunks for nothing
+                    final WriteTimeMeasuringOutputStream timedOutputStream =
+                            new WriteTimeMeasuringOutputStream(rawOutputStream);
+                    final OutputStream throttledOutputStream = throttleAndMeasureOutput(timedOutputStream);
+                    final ChunkSizePolicy chunkSizePolicy = mBuilder.mChunkSizePolicy;
+                    final ChunkedOutputStream chunkedOutputStream =
+                            new ChunkedOutputStream(throttledOutputStream, chunkSizePolicy.getMaxReadSize());
                     outputFileStream = createOutputFileStream();
-                    final byte[] buffer = new byte[BUFFER_SIZE];
+                    final ByteBuffer buffer = ByteBuffer.allocate(chunkSizePolicy.getMaxReadSize());
+                    int readSize = chunkSizePolicy.getInitialReadSize();
+                    long lastChunkSendTimeNanos = 0;
                     int mkvBytesRead;
                     long counter = 0;
                     boolean continueLoop = true;
                     while (continueLoop) {
-                        mkvBytesRead = mBuilder.mMkvStream.read(buffer);
+                        buffer.clear();
+                        buffer.limit(readSize);
+                        mkvBytesRead = readMkvStream(buffer);
                         counter++;
                         if (counter % LOGGING_INTERVAL == 0) {
                             log.debug("Sending data, counter: {}", counter);
@@ -122,14 +171,24 @@ public final class PutMediaClient {
                             log.info("End-of-stream is reported. Terminating...");
                             continueLoop = false;
                         } else {
-                            throttledOutputStream.write(ChunkEncoder.encode(buffer, mkvBytesRead));
-                            tryWriteToFile(outputFileStream, buffer, mkvBytesRead);
+                            buffer.flip();
+                            final ByteBuffer fileBuffer = outputFileStream == null ? null : buffer.duplicate();
+                            final long writeTimeNanos = timedOutputStream.getWriteTimeNanos();
+                            chunkedOutputStream.write(buffer);
+                            lastChunkSendTimeNanos = timedOutputStream.getWriteTimeNanos() - writeTimeNanos;
+                            tryWriteToFile(outputFileStream, fileBuffer);
+                            final int nextReadSize = chunkSizePolicy.nextReadSize(readSize,
+                                    mBuilder.mMkvStream.available(), lastChunkSendTimeNanos);
+                            if (nextReadSize != readSize) {
+                                log.debug("Changing read size from {} to {} bytes", readSize, nextReadSize);
+                                readSize = nextReadSize;
+                            }
                             if (fragmentThrottle > 0) {
                                 Thread.sleep(fragmentThrottle);
                             }
                         }
                     }
-                    throttledOutputStream.write(ChunkEncoder.encode(buffer, 0));
+                    chunkedOutputStream.finish();
                     rawOutputStream.flush();
                     log.debug("Data sent. counter: {}", counter);
                 } catch (final Exception e) {
@@ -142,12 +201,25 @@ public final class PutMediaClient {
         };
     }
 
+    private int readMkvStream(final ByteBuffer buffer) throws IOException {
+        final int bytesRead = mBuilder.mMkvStream.read(buffer.array(), buffer.arrayOffset(), buffer.remaining());
+        if (bytesRead > 0) {
+            buffer.position(bytesRead);
+        }
+
+        return bytesRead;
+    }
+
     private OutputStream throttleAndMeasureOutput(final OutputStream rawOutputStream) {
         final OutputStream throttledOutputStream = throttleStream(rawOutputStream);
         return mBuilder.mLogUsedBandwidth ? logBytesPerSecond(throttledOutputStream) : throttledOutputStream;
     }
 
     private OutputStream throttleStream(final OutputStream rawOutputStream) {
+        if (mBuilder.mBandwidthThrottler != null) {
+            return new BandwidthThrottledOutputStream(rawOutputStream, mBuilder.mBandwidthThrottler);
+        }
+
         if (mBuilder.upstreamKbps != null) {
             final BandwidthThrottler throttler = new BandwidthThrottlerImpl(mBuilder.upstreamKbps * BITS_IN_A_KILOBIT);
             return new BandwidthThrottledOutputStream(rawOutputStream, throttler);
@@ -178,12 +250,14 @@ public final class PutMediaClient {
         }
     }
 
-    private void tryWriteToFile(final FileOutputStream fileOutputStream, final byte[] buffer, final int bytesToWrite) {
+    private void tryWriteToFile(final FileOutputStream fileOutputStream, final ByteBuffer buffer) {
         if (fileOutputStream == null) {
             return;
         }
         try {
-            fileOutputStream.write(buffer, 0, bytesToWrite);
+            while (buffer.hasRemaining()) {
+                fileOutputStream.getChannel().write(buffer);
+            }
             fileOutputStream.flush();
         } catch (final IOException e) {
             e.printStackTrace();
@@ -218,7 +292,10 @@ public final class PutMediaClient {
         private boolean mLogUsedBandwidth;
         private String mFileOutputPath;
         private Long upstreamKbps;
+        private BandwidthThrottler mBandwidthThrottler;
+        private ChunkSizePolicy mChunkSizePolicy = new FixedChunkSizePolicy(FixedChunkSizePolicy.DEFAULT_CHUNK_SIZE);
         private Consumer<Exception> mCompletion;
+        private SSLContext mSslContext = SharedSslContexts.getDefault();
         // TODO: Set to correct output channel
         private Map<String, String> unsignedHeaders;
 
@@ -290,6 +367,44 @@ public final class PutMediaClient {
             return this;
         }
 
+        /**
+         * Throttles the upload with a throttler shared with other uploads, for example one of
+         * {@link com.amazonaws.kinesisvideo.stream.throttling.HierarchicalBandwidthScheduler}. Takes precedence
+         * over {@link #upstreamKbps(long)}.
+         *
+         * @param bandwidthThrottler Throttler of the upload
+         * @return Builder object
+         */
+        public Builder bandwidthThrottler(final BandwidthThrottler bandwidthThrottler) {
+            mBandwidthThrottler = bandwidthThrottler;
+            return this;
+        }
+
+        /**
+         * Sets the policy deciding how many bytes are read from the MKV stream and sent as one chunk.
+         * Defaults to fixed 4KB reads.
+         * <p>
+         * @param chunkSizePolicy Chunk size policy, e.g. {@link FixedChunkSizePolicy} or
+         *                        {@link AdaptiveChunkSizePolicy}
+         * @return Builder object
+         */
+        public Builder chunkSizePolicy(final ChunkSizePolicy chunkSizePolicy) {
+            mChunkSizePolicy = chunkSizePolicy;
+            return this;
+        }
+
+        /**
+         * Sets the context of the TLS connection. The connections sharing the context resume each other's
+         * TLS sessions. Defaults to the shared TLS 1.2 context.
+         *
+         * @param sslContext TLS context
+         * @return Builder object
+         */
+        public Builder sslContext(final SSLContext sslContext) {
+            mSslContext = sslContext;
+            return this;
+        }
+
         /**
          * Add additional unsigned header. For testing use only.
          *
@@ -309,7 +424,8 @@ public final class PutMediaClient {
             checkNotNull(mUri);
             checkNotNull(mStreamName);
             checkNotNull(mMkvStream);
-            checkNotNull(mAcksReceiver);
+            checkNotNull(mChunkSizePolicy);
+            checkNotNull(mSslContext);
             return new PutMediaClient(this);
         }
     }
@@ -0,0 +1,394 @@
+package com.amazonaws.kinesisvideo.client.signing;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSSessionCredentials;
+import com.amazonaws.auth.AnonymousAWSCredentials;
+import com.amazonaws.kinesisvideo.common.preconditions.Preconditions;
+import com.amazonaws.kinesisvideo.config.ClientConfiguration;
+import com.amazonaws.kinesisvideo.http.HttpClient;
+import com.amazonaws.kinesisvideo.http.HttpMethodName;
+import com.amazonaws.kinesisvideo.signing.KinesisVideoSigner;
+import com.amazonaws.util.SdkHttpUtils;
+import com.amazonaws.util.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * SigV4 signer producing the same signatures as {@link KinesisVideoAWS4Signer} without converting every
+ * request into an AWS SDK request.
+ *
+ * The derived signing keys are cached per date, region, service and access key id, and the sorted canonical
+ * header names and the signed headers string are cached per header set, so signing a request with the fixed
+ * KVS headers only formats the header values and computes two hashes and the signature.
+ */
+public class KinesisVideoSigV4Signer implements KinesisVideoSigner {
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String TERMINATOR = "aws4_request";
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final String CONTENT_HASH_HEADER = "x-amz-content-sha256";
+    private static final String CONTENT_UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final String AUTH_HEADER = "Authorization";
+    private static final String DATE_HEADER = "X-Amz-Date";
+    private static final String HOST_HEADER = "Host";
+    private static final String SECURITY_TOKEN_HEADER = "X-Amz-Security-Token";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final DateTimeFormatter AMZ_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'", Locale.US).withZone(ZoneOffset.UTC);
+
+    /**
+     * Bound of the cached signing keys and header templates, the caches are reset once it's reached
+     */
+    private static final int MAX_CACHED_ENTRIES = 64;
+
+    private static final ConcurrentMap<String, byte[]> SIGNING_KEYS = new ConcurrentHashMap<String, byte[]>();
+    private static final ConcurrentMap<String, HeaderTemplate> HEADER_TEMPLATES =
+            new ConcurrentHashMap<String, HeaderTemplate>();
+    private static volatile SigningDate sLastSigningDate = new SigningDate(-1, "", "");
+
+    private static final ThreadLocal<MessageDigest> SHA256 = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (final GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    private static final ThreadLocal<Mac> HMAC = new ThreadLocal<Mac>() {
+        @Override
+        protected Mac initialValue() {
+            try {
+                return Mac.getInstance(HMAC_SHA256);
+            } catch (final GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    private final AWSCredentialsProvider mCredentialsProvider;
+    private final String mServiceName;
+    private final String mRegion;
+    private volatile CanonicalPath mLastCanonicalPath = new CanonicalPath(null, "/");
+
+    public KinesisVideoSigV4Signer(@Nonnull final AWSCredentialsProvider credentialsProvider,
+                                   @Nonnull final ClientConfiguration config) {
+        mCredentialsProvider = Preconditions.checkNotNull(credentialsProvider);
+        mServiceName = Preconditions.checkNotNull(config).getServiceName();
+        mRegion = config.getRegion();
+    }
+
+    @Override
+    public void sign(final HttpClient httpClient) {
+        sign(httpClient, System.currentTimeMillis());
+    }
+
+    void sign(@Nonnull final HttpClient httpClient, final long timeInMillis) {
+        final AWSCredentials credentials = mCredentialsProvider.getCredentials();
+        if (credentials == null || credentials instanceof AnonymousAWSCredentials) {
+            addContentHeader(httpClient);
+            return;
+        }
+
+        final String accessKey = trim(credentials.getAWSAccessKeyId());
+        final String secretKey = trim(credentials.getAWSSecretKey());
+        final String securityToken = credentials instanceof AWSSessionCredentials
+                ? trim(((AWSSessionCredentials) credentials).getSessionToken())
+                : null;
+
+        final SigningDate signingDate = getSigningDate(timeInMillis);
+        final String scope = signingDate.mDateStamp + "/" + mRegion + "/" + mServiceName + "/" + TERMINATOR;
+        final URI uri = httpClient.getUri();
+        final Map<String, String> headers = httpClient.getHeaders();
+        final HeaderTemplate template = getHeaderTemplate(headers, securityToken != null);
+
+        final StringBuilder canonicalRequest = new StringBuilder(512);
+        canonicalRequest.append(httpClient.getMethod().name()).append('\n')
+                .append(getCanonicalPath(uri.getPath())).append('\n')
+                // The query parameters are not signed by KinesisVideoAWS4Signer either
+                .append('\n');
+
+        for (int i = 0; i < template.mNames.length; i++) {
+            final String name = template.mNames[i];
+            final String value;
+            if (HOST_HEADER.equals(name)) {
+                value = uri.getHost();
+            } else if (DATE_HEADER.equals(name)) {
+                value = signingDate.mAmzDate;
+            } else if (SECURITY_TOKEN_HEADER.equals(name)) {
+                value = securityToken;
+            } else {
+                value = headers.get(name);
+            }
+
+            canonicalRequest.append(template.mLowerCaseNames[i]).append(':');
+            if (value != null) {
+                StringUtils.appendCompactedString(canonicalRequest, value);
+            }
+
+            canonicalRequest.append('\n');
+        }
+
+        canonicalRequest.append('\n')
+                .append(template.mSignedHeaders).append('\n')
+                .append(calculateContentHash(httpClient));
+
+        final String stringToSign = ALGORITHM + "\n"
+                + signingDate.mAmzDate + "\n"
+                + scope + "\n"
+                + toHex(sha256(canonicalRequest.toString()));
+
+        final byte[] signingKey = getSigningKey(accessKey, secretKey, signingDate.mDateStamp);
+        final String signature = toHex(hmac(signingKey, stringToSign));
+
+        headers.put(AUTH_HEADER, ALGORITHM + " Credential=" + accessKey + "/" + scope
+                + ", SignedHeaders=" + template.mSignedHeaders
+                + ", Signature=" + signature);
+        headers.put(DATE_HEADER, signingDate.mAmzDate);
+        if (securityToken != null) {
+            headers.put(SECURITY_TOKEN_HEADER, securityToken);
+        }
+
+        addContentHeader(httpClient);
+    }
+
+    protected boolean shouldAddContentUnsignedPayloadInHeader(final String httpMethodName) {
+        return HttpMethodName.POST.name().equals(httpMethodName);
+    }
+
+    private void addContentHeader(@Nonnull final HttpClient httpClient) {
+        if (shouldAddContentUnsignedPayloadInHeader(httpClient.getMethod().name())) {
+            httpClient.getHeaders().put(CONTENT_HASH_HEADER, CONTENT_UNSIGNED_PAYLOAD);
+        }
+    }
+
+    private String calculateContentHash(@Nonnull final HttpClient httpClient) {
+        if (shouldAddContentUnsignedPayloadInHeader(httpClient.getMethod().name())) {
+            return CONTENT_UNSIGNED_PAYLOAD;
+        }
+
+        final InputStream content = httpClient.getContent();
+        final MessageDigest digest = SHA256.get();
+        digest.reset();
+        if (content != null) {
+            if (!content.markSupported()) {
+                throw new IllegalStateException("Unable to read request payload to sign request.");
+            }
+
+            try {
+                content.mark(Integer.MAX_VALUE);
+                final byte[] buffer = new byte[4096];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+
+                content.reset();
+            } catch (final IOException e) {
+                throw new IllegalStateException("Unable to read request payload to sign request.", e);
+            }
+        }
+
+        return toHex(digest.digest());
+    }
+
+    private String getCanonicalPath(@Nullable final String path) {
+        final CanonicalPath last = mLastCanonicalPath;
+        if (path != null && path.equals(last.mPath)) {
+            return last.mCanonicalPath;
+        }
+
+        String canonicalPath = SdkHttpUtils.appendUri("", path);
+        if (canonicalPath == null || canonicalPath.isEmpty()) {
+            canonicalPath = "/";
+        } else {
+            canonicalPath = SdkHttpUtils.urlEncode(canonicalPath, true);
+            if (!canonicalPath.startsWith("/")) {
+                canonicalPath = "/" + canonicalPath;
+            }
+        }
+
+        mLastCanonicalPath = new CanonicalPath(path, canonicalPath);
+        return canonicalPath;
+    }
+
+    private byte[] getSigningKey(@Nonnull final String accessKey,
+                                 @Nonnull final String secretKey,
+                                 @Nonnull final String dateStamp) {
+        // Keyed by the access key id, which identifies the secret key, so the secret key isn't kept around
+        final String cacheKey = dateStamp + "/" + mRegion + "/" + mServiceName + "/" + accessKey;
+        byte[] signingKey = SIGNING_KEYS.get(cacheKey);
+        if (signingKey == null) {
+            final byte[] dateKey = hmac(("AWS4" + secretKey).getBytes(UTF_8), dateStamp);
+            final byte[] regionKey = hmac(dateKey, mRegion);
+            final byte[] serviceKey = hmac(regionKey, mServiceName);
+            signingKey = hmac(serviceKey, TERMINATOR);
+            if (SIGNING_KEYS.size() >= MAX_CACHED_ENTRIES) {
+                SIGNING_KEYS.clear();
+            }
+
+            SIGNING_KEYS.put(cacheKey, signingKey);
+        }
+
+        return signingKey;
+    }
+
+    @Nonnull
+    private static HeaderTemplate getHeaderTemplate(@Nonnull final Map<String, String> headers,
+                                                    final boolean hasSecurityToken) {
+        final StringBuilder key = new StringBuilder(128).append(hasSecurityToken);
+        for (final String name : headers.keySet()) {
+            key.append('\n').append(name);
+        }
+
+        final String cacheKey = key.toString();
+        HeaderTemplate template = HEADER_TEMPLATES.get(cacheKey);
+        if (template == null) {
+            template = new HeaderTemplate(headers, hasSecurityToken);
+            if (HEADER_TEMPLATES.size() >= MAX_CACHED_ENTRIES) {
+                HEADER_TEMPLATES.clear();
+            }
+
+            HEADER_TEMPLATES.put(cacheKey, template);
+        }
+
+        return template;
+    }
+
+    @Nonnull
+    private static SigningDate getSigningDate(final long timeInMillis) {
+        final long second = timeInMillis / 1000;
+        SigningDate signingDate = sLastSigningDate;
+        if (signingDate.mSecond != second) {
+            final String amzDate = AMZ_DATE_FORMAT.format(Instant.ofEpochSecond(second));
+            signingDate = new SigningDate(second, amzDate, amzDate.substring(0, 8));
+            sLastSigningDate = signingDate;
+        }
+
+        return signingDate;
+    }
+
+    private static byte[] sha256(@Nonnull final String data) {
+        final MessageDigest digest = SHA256.get();
+        digest.reset();
+        return digest.digest(data.getBytes(UTF_8));
+    }
+
+    private static byte[] hmac(@Nonnull final byte[] key, @Nonnull final String data) {
+        try {
+            final Mac mac = HMAC.get();
+            mac.init(new SecretKeySpec(key, HMAC_SHA256));
+            return mac.doFinal(data.getBytes(UTF_8));
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to calculate a request signature", e);
+        }
+    }
+
+    private static String toHex(@Nonnull final byte[] bytes) {
+        final char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+
+        return new String(hex);
+    }
+
+    @Nullable
+    private static String trim(@Nullable final String value) {
+        return value == null ? null : value.trim();
+    }
+
+    /**
+     * Names of the signed headers in the canonical order
+     */
+    private static final class HeaderTemplate {
+        private final String[] mNames;
+        private final String[] mLowerCaseNames;
+        private final String mSignedHeaders;
+
+        HeaderTemplate(@Nonnull final Map<String, String> headers, final boolean hasSecurityToken) {
+            final List<String> names = new ArrayList<String>(headers.size() + 3);
+            for (final String name : headers.keySet()) {
+                if (!isExcluded(name)) {
+                    names.add(name);
+                }
+            }
+
+            addIfAbsent(names, HOST_HEADER);
+            addIfAbsent(names, DATE_HEADER);
+            if (hasSecurityToken) {
+                addIfAbsent(names, SECURITY_TOKEN_HEADER);
+            }
+
+            Collections.sort(names, String.CASE_INSENSITIVE_ORDER);
+            mNames = names.toArray(new String[names.size()]);
+            mLowerCaseNames = new String[mNames.length];
+            final StringBuilder signedHeaders = new StringBuilder();
+            for (int i = 0; i < mNames.length; i++) {
+                mLowerCaseNames[i] = StringUtils.lowerCase(mNames[i]);
+                if (i > 0) {
+                    signedHeaders.append(';');
+                }
+
+                signedHeaders.append(mLowerCaseNames[i]);
+            }
+
+            mSignedHeaders = signedHeaders.toString();
+        }
+
+        private static boolean isExcluded(@Nonnull final String name) {
+            return "connection".equalsIgnoreCase(name) || "x-amzn-trace-id".equalsIgnoreCase(name);
+        }
+
+        private static void addIfAbsent(@Nonnull final List<String> names, @Nonnull final String name) {
+            if (!names.contains(name)) {
+                names.add(name);
+            }
+        }
+    }
+
+    private static final class CanonicalPath {
+        private final String mPath;
+        private final String mCanonicalPath;
+
+        CanonicalPath(@Nullable final String path, @Nonnull final String canonicalPath) {
+            mPath = path;
+            mCanonicalPath = canonicalPath;
+        }
+    }
+
+    private static final class SigningDate {
+        private final long mSecond;
+        private final String mAmzDate;
+        private final String mDateStamp;
+
+        SigningDate(final long second, @Nonnull final String amzDate, @Nonnull final String dateStamp) {
+            mSecond = second;
+            mAmzDate = amzDate;
+            mDateStamp = dateStamp;
+        }
+    }
+}
@@ -86,17 +86,49 @@ public final class ChunkDecoder {
         return builder.toString();
     }
 
+    /**
+     * Reads byte by byte so nothing past the delimiter is consumed from the stream. Only the tail of the buffer
+     * is compared against the delimiter on each byte.
+     *
+     * NOTE: Prefer {@link HttpResponseReader} which reads in bulk when the caller can use it as the stream.
+     */
     private static String readInputStream(final InputStream inputStream, final byte[] delimiter)
             throws IOException {
 
         final byte[] buffer = new byte[BUFFER_SIZE];
-        int result = 0, offset = 0;
-        do {
-            result = inputStream.read(buffer, offset++, 1);
-        } while (result > -1 && arrayIndexOf(buffer, 0, offset, delimiter) == -1);
+        int offset = 0;
+        while (true) {
+            final int result = inputStream.read();
+            if (result < 0) {
+                break;
+            }
+
+            if (offset == buffer.length) {
+                throw new IOException("Response line exceeds " + BUFFER_SIZE + " bytes");
+            }
+
+            buffer[offset++] = (byte) result;
+            if (endsWith(buffer, offset, delimiter)) {
+                break;
+            }
+        }
         return new String(buffer, 0, offset, StandardCharsets.UTF_8);
     }
 
+    private static boolean endsWith(final byte[] buffer, final int length, final byte[] suffix) {
+        if (length < suffix.length) {
+            return false;
+        }
+
+        for (int i = 0, j = length - suffix.length; i < suffix.length; i++, j++) {
+            if (buffer[j] != suffix[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     public static int arrayIndexOf(final byte[] haystack, final int tail, final int head, final byte[] needle) {
         int index = tail;
         while (index != head) {
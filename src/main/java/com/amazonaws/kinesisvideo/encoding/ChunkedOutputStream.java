@@ -0,0 +1,196 @@
+package com.amazonaws.kinesisvideo.encoding;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Streaming chunked transfer encoder.
+ *
+ * Every non-empty write is emitted as a single HTTP/1.1 chunk: hex size, CRLF, payload, CRLF. The chunk is
+ * assembled in a buffer that is allocated once and reused, so the underlying stream sees one write per chunk
+ * and no per-chunk garbage is produced. Payloads larger than the buffer are written straight through.
+ *
+ * {@link #finish()} writes the terminating zero-length chunk without closing the underlying stream, which is
+ * what the PutMedia sender needs as the socket is still used for reading the acks.
+ *
+ * NOTE: This class is not thread safe.
+ */
+public final class ChunkedOutputStream extends OutputStream implements WritableByteChannel {
+    /**
+     * Maximum number of hex digits for an int chunk size.
+     */
+    private static final int MAX_CHUNK_SIZE_DIGITS = 8;
+    private static final int CRLF_LENGTH = 2;
+    private static final int CHUNK_OVERHEAD = MAX_CHUNK_SIZE_DIGITS + 2 * CRLF_LENGTH;
+    private static final byte[] CRLF = { '\r', '\n' };
+    private static final byte[] LAST_CHUNK = { '0', '\r', '\n', '\r', '\n' };
+    private static final byte[] HEX_DIGITS = {
+            '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
+
+    private final OutputStream mOutputStream;
+    private final byte[] mChunkBuffer;
+    private final byte[] mSingleByte = new byte[1];
+    private boolean mFinished = false;
+    private boolean mClosed = false;
+
+    /**
+     * @param outputStream Underlying stream, typically the socket output stream
+     * @param maxBufferedPayloadSize Largest payload which is assembled into a single write
+     */
+    public ChunkedOutputStream(final OutputStream outputStream, final int maxBufferedPayloadSize) {
+        checkArgument(maxBufferedPayloadSize > 0);
+        mOutputStream = checkNotNull(outputStream);
+        mChunkBuffer = new byte[maxBufferedPayloadSize + CHUNK_OVERHEAD];
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        mSingleByte[0] = (byte) b;
+        write(mSingleByte, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        ensureWritable();
+
+        // Zero length chunk is the terminator - never emit it implicitly
+        if (len == 0) {
+            return;
+        }
+
+        if (len + CHUNK_OVERHEAD <= mChunkBuffer.length) {
+            int position = writeChunkHeader(len);
+            System.arraycopy(b, off, mChunkBuffer, position, len);
+            position += len;
+            mChunkBuffer[position++] = '\r';
+            mChunkBuffer[position++] = '\n';
+            mOutputStream.write(mChunkBuffer, 0, position);
+        } else {
+            mOutputStream.write(mChunkBuffer, 0, writeChunkHeader(len));
+            mOutputStream.write(b, off, len);
+            mOutputStream.write(CRLF);
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of the buffer as a single chunk, advancing its position.
+     *
+     * @param src Buffer to encode. Direct and heap buffers are both supported.
+     * @return Number of payload bytes written
+     */
+    @Override
+    public int write(final ByteBuffer src) throws IOException {
+        if (mClosed) {
+            throw new ClosedChannelException();
+        }
+
+        final int len = src.remaining();
+        if (src.hasArray()) {
+            write(src.array(), src.arrayOffset() + src.position(), len);
+            src.position(src.position() + len);
+            return len;
+        }
+
+        ensureWritable();
+        if (len == 0) {
+            return 0;
+        }
+
+        if (len + CHUNK_OVERHEAD <= mChunkBuffer.length) {
+            int position = writeChunkHeader(len);
+            src.get(mChunkBuffer, position, len);
+            position += len;
+            mChunkBuffer[position++] = '\r';
+            mChunkBuffer[position++] = '\n';
+            mOutputStream.write(mChunkBuffer, 0, position);
+        } else {
+            mOutputStream.write(mChunkBuffer, 0, writeChunkHeader(len));
+            final int payloadBufferSize = mChunkBuffer.length;
+            while (src.hasRemaining()) {
+                final int toCopy = Math.min(payloadBufferSize, src.remaining());
+                src.get(mChunkBuffer, 0, toCopy);
+                mOutputStream.write(mChunkBuffer, 0, toCopy);
+            }
+            mOutputStream.write(CRLF);
+        }
+
+        return len;
+    }
+
+    /**
+     * Writes the terminating zero-length chunk. Subsequent writes will fail.
+     * The underlying stream is flushed but not closed.
+     */
+    public void finish() throws IOException {
+        if (mFinished) {
+            return;
+        }
+
+        mFinished = true;
+        mOutputStream.write(LAST_CHUNK);
+        mOutputStream.flush();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        mOutputStream.flush();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !mClosed;
+    }
+
+    /**
+     * Finishes the chunked stream and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (mClosed) {
+            return;
+        }
+
+        try {
+            finish();
+        } finally {
+            mClosed = true;
+            mOutputStream.close();
+        }
+    }
+
+    private void ensureWritable() throws IOException {
+        if (mClosed || mFinished) {
+            throw new IOException("Chunked stream has already been finished");
+        }
+    }
+
+    /**
+     * Writes the hex chunk size followed by CRLF at the start of the chunk buffer.
+     *
+     * @return Position right after the header
+     */
+    private int writeChunkHeader(final int size) {
+        int digits = 1;
+        while (digits < MAX_CHUNK_SIZE_DIGITS && (size >>> (4 * digits)) != 0) {
+            digits++;
+        }
+
+        for (int i = digits - 1, shift = 0; i >= 0; i--, shift += 4) {
+            mChunkBuffer[i] = HEX_DIGITS[(size >>> shift) & 0xF];
+        }
+
+        mChunkBuffer[digits] = '\r';
+        mChunkBuffer[digits + 1] = '\n';
+        return digits + CRLF_LENGTH;
+    }
+}
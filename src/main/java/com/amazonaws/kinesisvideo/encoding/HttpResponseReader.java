@@ -0,0 +1,345 @@
+package com.amazonaws.kinesisvideo.encoding;
+
+import com.amazonaws.kinesisvideo.model.ResponseStatus;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+
+/**
+ * Buffered, incremental reader for an HTTP/1.1 response with a chunked body.
+ *
+ * The underlying stream is read in bulk into a single buffer which is reused for the lifetime of the response.
+ * Line delimiters are searched for incrementally, i.e. the bytes which have already been scanned are never
+ * scanned again when more data arrives. Lines longer than the buffer are rejected instead of overflowing.
+ *
+ * The response is consumed in order: {@link #readStatusLine()}, {@link #readHeaders()} and then either the
+ * chunk level API ({@link #readChunkSize()} / {@link #readChunkData(byte[], int, int)}) or the raw
+ * {@link InputStream} API. The raw API returns the bytes which were read ahead while parsing the head first,
+ * so the reader can be handed over to a consumer in place of the original stream.
+ *
+ * NOTE: This class is not thread safe.
+ */
+public final class HttpResponseReader extends InputStream {
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Returned from {@link #readChunkSize()} when the stream ends before the next chunk header.
+     */
+    public static final int END_OF_STREAM = -1;
+
+    private static final int HEX_RADIX = 16;
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private final InputStream mInputStream;
+    private final byte[] mBuffer;
+
+    /**
+     * Buffered bytes are in [mStart, mEnd)
+     */
+    private int mStart = 0;
+    private int mEnd = 0;
+
+    /**
+     * Number of bytes past mStart which have already been scanned for the line delimiter
+     */
+    private int mScanned = 0;
+
+    /**
+     * Bytes remaining in the current chunk payload and whether the chunk's trailing CRLF is still to be consumed
+     */
+    private int mChunkRemaining = 0;
+    private boolean mChunkTrailerPending = false;
+
+    public HttpResponseReader(@Nonnull final InputStream inputStream) {
+        this(inputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    public HttpResponseReader(@Nonnull final InputStream inputStream, final int bufferSize) {
+        checkArgument(bufferSize > 0);
+        mInputStream = checkNotNull(inputStream);
+        mBuffer = new byte[bufferSize];
+    }
+
+    /**
+     * Reads and parses the status line, e.g. "HTTP/1.1 200 OK".
+     */
+    @Nonnull
+    public ResponseStatus readStatusLine() throws IOException {
+        final int lineLength = readLine();
+        if (lineLength < 0) {
+            throw new IOException("End of stream while reading the status line");
+        }
+
+        final String statusLine = consumeLineAsString(lineLength);
+        final int firstSpace = statusLine.indexOf(' ');
+        if (firstSpace < 0) {
+            throw new IOException("Malformed status line: " + statusLine);
+        }
+
+        final int secondSpace = statusLine.indexOf(' ', firstSpace + 1);
+        final String statusCode = secondSpace < 0
+                ? statusLine.substring(firstSpace + 1)
+                : statusLine.substring(firstSpace + 1, secondSpace);
+
+        try {
+            return ResponseStatus.builder()
+                    .protocol(statusLine.substring(0, firstSpace))
+                    .statusCode(Integer.parseInt(statusCode.trim()))
+                    .reason(secondSpace < 0 ? "" : statusLine.substring(secondSpace + 1).trim())
+                    .build();
+        } catch (final NumberFormatException e) {
+            throw new IOException("Malformed status line: " + statusLine, e);
+        }
+    }
+
+    /**
+     * Reads the headers up to and including the empty line terminating the response head.
+     */
+    @Nonnull
+    public Map<String, String> readHeaders() throws IOException {
+        final Map<String, String> headers = new HashMap<String, String>();
+        int lineLength;
+        while ((lineLength = readLine()) > 0) {
+            final String line = consumeLineAsString(lineLength);
+            final int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+            }
+        }
+
+        if (lineLength < 0) {
+            throw new IOException("End of stream while reading the headers");
+        }
+
+        // Consume the terminating empty line
+        consumeLine(0);
+        return headers;
+    }
+
+    /**
+     * Reads the next chunk header, skipping whatever is left of the current chunk.
+     *
+     * @return Chunk payload size, 0 for the last chunk or {@link #END_OF_STREAM}
+     */
+    public int readChunkSize() throws IOException {
+        while (mChunkRemaining > 0) {
+            if (!ensureBuffered()) {
+                return END_OF_STREAM;
+            }
+
+            final int toSkip = Math.min(mChunkRemaining, mEnd - mStart);
+            mStart += toSkip;
+            mChunkRemaining -= toSkip;
+        }
+
+        if (mChunkTrailerPending) {
+            final int trailerLength = readLine();
+            if (trailerLength < 0) {
+                return END_OF_STREAM;
+            }
+
+            consumeLine(trailerLength);
+            mChunkTrailerPending = false;
+        }
+
+        int lineLength;
+        do {
+            // Tolerate empty lines between the chunks
+            lineLength = readLine();
+            if (lineLength < 0) {
+                return END_OF_STREAM;
+            }
+
+            if (lineLength == 0) {
+                consumeLine(0);
+            }
+        } while (lineLength == 0);
+
+        final int chunkSize = parseHex(mStart, lineLength);
+        consumeLine(lineLength);
+
+        mChunkRemaining = chunkSize;
+        mChunkTrailerPending = chunkSize > 0;
+        return chunkSize;
+    }
+
+    /**
+     * Reads the payload of the current chunk.
+     *
+     * @return Number of bytes read, 0 if the current chunk has been fully read or -1 on end of stream
+     */
+    public int readChunkData(@Nonnull final byte[] b, final int off, final int len) throws IOException {
+        if (mChunkRemaining == 0 || len == 0) {
+            return 0;
+        }
+
+        final int bytesRead = read(b, off, Math.min(len, mChunkRemaining));
+        if (bytesRead > 0) {
+            mChunkRemaining -= bytesRead;
+        }
+
+        return bytesRead;
+    }
+
+    /**
+     * Returns the remaining payload byte count of the current chunk.
+     */
+    public int getChunkRemaining() {
+        return mChunkRemaining;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureBuffered()) {
+            return -1;
+        }
+
+        mScanned = 0;
+        return mBuffer[mStart++] & 0xFF;
+    }
+
+    @Override
+    public int read(@Nonnull final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        mScanned = 0;
+        final int buffered = mEnd - mStart;
+        if (buffered > 0) {
+            final int toCopy = Math.min(buffered, len);
+            System.arraycopy(mBuffer, mStart, b, off, toCopy);
+            mStart += toCopy;
+            return toCopy;
+        }
+
+        // Nothing buffered - read straight into the caller's array
+        return mInputStream.read(b, off, len);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (mEnd - mStart) + mInputStream.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        mInputStream.close();
+    }
+
+    /**
+     * Makes sure a complete line is buffered starting at mStart.
+     *
+     * @return Length of the line excluding CRLF or -1 on end of stream
+     */
+    private int readLine() throws IOException {
+        while (true) {
+            for (int i = mStart + mScanned; i < mEnd; i++) {
+                if (mBuffer[i] == LF) {
+                    mScanned = 0;
+                    final int lineEnd = (i > mStart && mBuffer[i - 1] == CR) ? i - 1 : i;
+                    return lineEnd - mStart;
+                }
+            }
+
+            mScanned = mEnd - mStart;
+            if (!fill()) {
+                return -1;
+            }
+        }
+    }
+
+    private void consumeLine(final int lineLength) {
+        int newStart = mStart + lineLength;
+        if (newStart < mEnd && mBuffer[newStart] == CR) {
+            newStart++;
+        }
+
+        mStart = newStart + 1;
+        mScanned = 0;
+    }
+
+    private String consumeLineAsString(final int lineLength) {
+        final String line = new String(mBuffer, mStart, lineLength, StandardCharsets.US_ASCII);
+        consumeLine(lineLength);
+        return line;
+    }
+
+    private int parseHex(final int offset, final int length) throws IOException {
+        int value = 0;
+        int digits = 0;
+        int significantDigits = 0;
+        for (int i = offset; i < offset + length; i++) {
+            final byte b = mBuffer[i];
+            if (b == ';') {
+                // Chunk extension follows
+                break;
+            }
+
+            final int digit = Character.digit(b, HEX_RADIX);
+            if (digit < 0) {
+                if (b == ' ' || b == '\t') {
+                    continue;
+                }
+
+                throw new IOException("Malformed chunk size: "
+                        + new String(mBuffer, offset, length, StandardCharsets.US_ASCII));
+            }
+
+            // Leading zeros are valid and don't count towards the size limit
+            if ((value != 0 || digit != 0) && ++significantDigits > 7) {
+                throw new IOException("Chunk size is too large");
+            }
+
+            digits++;
+            value = (value << 4) | digit;
+        }
+
+        if (digits == 0) {
+            throw new IOException("Missing chunk size");
+        }
+
+        return value;
+    }
+
+    private boolean ensureBuffered() throws IOException {
+        return mStart < mEnd || fill();
+    }
+
+    /**
+     * Reads more bytes into the buffer, compacting it first if needed.
+     *
+     * @return false on end of stream
+     */
+    private boolean fill() throws IOException {
+        if (mEnd == mBuffer.length) {
+            if (mStart == 0) {
+                throw new IOException("Line exceeds the buffer size of " + mBuffer.length + " bytes");
+            }
+
+            final int buffered = mEnd - mStart;
+            System.arraycopy(mBuffer, mStart, mBuffer, 0, buffered);
+            mStart = 0;
+            mEnd = buffered;
+        } else if (mStart == mEnd) {
+            mStart = 0;
+            mEnd = 0;
+        }
+
+        final int bytesRead = mInputStream.read(mBuffer, mEnd, mBuffer.length - mEnd);
+        if (bytesRead <= 0) {
+            return false;
+        }
+
+        mEnd += bytesRead;
+        return true;
+    }
+}
@@ -1,5 +1,6 @@
 package com.amazonaws.kinesisvideo.http;
 
+import com.amazonaws.kinesisvideo.socket.DnsResolverCache;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.http.conn.ssl.DefaultHostnameVerifier;
@@ -98,7 +99,7 @@ public class HostnameVerifyingX509ExtendedTrustManager extends X509ExtendedTrust
         x509ExtendedTrustManager.checkClientTrusted(chain, authType, engine);
         if (clientSideHostnameVerificationEnabled) {
             try {
-                performHostVerification(InetAddress.getByName(engine.getPeerHost()), chain[0]);
+                performHostVerification(resolvePeer(engine), chain[0]);
             } catch (UnknownHostException e) {
                 throw new CertificateException("Failed to verify host", e);
             }
@@ -112,12 +113,20 @@ public class HostnameVerifyingX509ExtendedTrustManager extends X509ExtendedTrust
             final SSLEngine engine) throws CertificateException {
         x509ExtendedTrustManager.checkServerTrusted(chain, authType, engine);
         try {
-            performHostVerification(InetAddress.getByName(engine.getPeerHost()), chain[0]);
+            performHostVerification(resolvePeer(engine), chain[0]);
         } catch (UnknownHostException e) {
             throw new CertificateException("Failed to verify host", e);
         }
     }
 
+    /**
+     * Returns the address of the engine's peer host from the DNS cache the connections are resolved through, so
+     * the handshake doesn't do its own DNS lookup of the host which has just been connected to.
+     */
+    private static InetAddress resolvePeer(final SSLEngine engine) throws UnknownHostException {
+        return DnsResolverCache.getDefault().resolve(engine.getPeerHost())[0];
+    }
+
     @Override
     public void checkClientTrusted(final X509Certificate[] chain, final String authType) throws CertificateException {
         x509ExtendedTrustManager.checkClientTrusted(chain, authType);
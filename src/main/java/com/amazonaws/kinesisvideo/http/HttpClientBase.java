@@ -10,6 +10,8 @@ import java.util.Map;
 
 import org.apache.http.entity.ContentType;
 
+import javax.net.ssl.SSLContext;
+
 public abstract class HttpClientBase implements HttpClient {
     
     private static final String HOST_HEADER = "Host";
@@ -67,6 +69,7 @@ public abstract class HttpClientBase implements HttpClient {
         protected int mSocketTimeoutInMillis;
         protected ContentType mContentType;
         protected String mContentInJson;
+        protected SSLContext mSslContext;
         
         public abstract T builderType();
 
@@ -74,6 +77,7 @@ public abstract class HttpClientBase implements HttpClient {
             mHeaders = new HashMap<String, String>();
             mConnectionTimeoutInMillis = DEFAULT_CONNECTION_TIMEOUT_IN_MILLIS;
             mSocketTimeoutInMillis = DEFAULT_SOCKET_TIMEOUT_IN_MILLIS;
+            mSslContext = SharedSslContexts.getDefault();
         }
 
         public T withUri(final URI uri) {
@@ -111,5 +115,13 @@ public abstract class HttpClientBase implements HttpClient {
             mContentInJson = contentInJson;
             return builderType();
         }
+
+        /**
+         * Sets the TLS context, defaults to the TLS 1.2 context shared by the SDK.
+         */
+        public T withSslContext(final SSLContext sslContext) {
+            mSslContext = sslContext;
+            return builderType();
+        }
     } 
 }
@@ -3,9 +3,6 @@ package com.amazonaws.kinesisvideo.http;
 import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
 
 import java.io.IOException;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.util.Map;
 
 import org.apache.http.HttpEntity;
@@ -22,9 +19,6 @@ import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
 import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
 import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
 
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.X509ExtendedTrustManager;
-
 /**
  * Http Async Client which uses Apache HttpAsyncClient internally to make
  * the http request and invoke callbacks when there is data ready to consume.
@@ -56,25 +50,15 @@ public final class KinesisVideoApacheHttpAsyncClient extends HttpClientBase {
     }
 
     private CloseableHttpAsyncClient buildHttpAsyncClient() {
-        try {
-            final SSLContext sslContext = SSLContext.getInstance("TLSv1.2");
-            sslContext.init(null, new X509ExtendedTrustManager[] {
-                    new HostnameVerifyingX509ExtendedTrustManager(true)}, new SecureRandom());
-
-            final SSLIOSessionStrategy sslSessionStrategy = new SSLIOSessionStrategy(sslContext);
+        final SSLIOSessionStrategy sslSessionStrategy = new SSLIOSessionStrategy(mBuilder.mSslContext);
 
-            return HttpAsyncClientBuilder.create()
-                    .setSSLStrategy(sslSessionStrategy)
-                    .setDefaultRequestConfig(RequestConfig.custom()
-                            .setConnectTimeout(mBuilder.mConnectionTimeoutInMillis)
-                            .setSocketTimeout(mBuilder.mSocketTimeoutInMillis)
-                            .build())
-                    .build();
-        } catch (final KeyManagementException e) {
-            throw new RuntimeException("Exception while building Apache http client", e);
-        } catch (final NoSuchAlgorithmException e) {
-            throw new RuntimeException("Exception while building Apache http client", e);
-        }
+        return HttpAsyncClientBuilder.create()
+                .setSSLStrategy(sslSessionStrategy)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(mBuilder.mConnectionTimeoutInMillis)
+                        .setSocketTimeout(mBuilder.mSocketTimeoutInMillis)
+                        .build())
+                .build();
     }
     
     public static final class Builder extends BuilderBase<Builder> {
@@ -3,9 +3,6 @@ package com.amazonaws.kinesisvideo.http;
 import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
 
 import java.io.IOException;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.util.Map;
 
 import org.apache.http.HttpEntity;
@@ -18,9 +15,6 @@ import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.X509ExtendedTrustManager;
-
 /**
  * Http Client which uses Apache HttpClient internally to make
  * the http request and get the response.
@@ -54,27 +48,17 @@ public final class KinesisVideoApacheHttpClient extends HttpClientBase {
     }
 
     private CloseableHttpClient buildHttpClient() {
-        try {
-            final SSLContext sslContext = SSLContext.getInstance("TLSv1.2");
-            sslContext.init(null, new X509ExtendedTrustManager[] {
-                    new HostnameVerifyingX509ExtendedTrustManager(true)}, new SecureRandom());
+        final SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(mBuilder.mSslContext);
 
-            final SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(sslContext);
-
-            return HttpClients.custom()
-                    .setSSLSocketFactory(sslSocketFactory)
-                    .setDefaultRequestConfig(RequestConfig.custom()
-                            .setConnectTimeout(mBuilder.mConnectionTimeoutInMillis)
-                            .build())
-                    .setDefaultSocketConfig(SocketConfig.custom()
-                            .setSoTimeout(mBuilder.mSocketTimeoutInMillis)
-                            .build())
-                    .build();
-        } catch (final KeyManagementException e) {
-            throw new RuntimeException("Exception while building Apache http client", e);
-        } catch (final NoSuchAlgorithmException e) {
-            throw new RuntimeException("Exception while building Apache http client", e);
-        }
+        return HttpClients.custom()
+                .setSSLSocketFactory(sslSocketFactory)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(mBuilder.mConnectionTimeoutInMillis)
+                        .build())
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setSoTimeout(mBuilder.mSocketTimeoutInMillis)
+                        .build())
+                .build();
     }
 
     @Override
@@ -0,0 +1,553 @@
+package com.amazonaws.kinesisvideo.http;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Single request/response exchange running on a {@link NioHttpTransport} selector thread.
+ *
+ * The request body is written with the chunked transfer encoding. Each chunk is produced in place: room for a
+ * fixed width chunk header is reserved, the handler fills the payload straight into the outbound buffer and the
+ * header is written afterwards. The header uses a fixed number of hex digits with leading zeros, which is valid
+ * chunk size syntax, so the payload never has to be moved.
+ *
+ * The resolved addresses of the host are tried in turn, each one gets the connect timeout. Once connected, the
+ * connection fails if it's waiting on the peer and no data has moved for the idle timeout. The selector thread
+ * checks both deadlines. The TLS handshake tasks, which validate the certificates, run on the handshake
+ * executor so they never block the other connections of the selector thread.
+ *
+ * Apart from {@link #signalRequestBodyAvailable()} and {@link #close()}, which can be called from any thread,
+ * all of the state is confined to the selector thread.
+ */
+public final class NioHttpConnection {
+    /**
+     * Payload size of a request body chunk. Matches the maximum TLS record plaintext size so a chunk is wrapped
+     * into one or two records.
+     */
+    static final int MAX_CHUNK_PAYLOAD_SIZE = 16 * 1024;
+
+    private static final int PLAIN_INBOUND_BUFFER_SIZE = 16 * 1024;
+    private static final int CHUNK_SIZE_DIGITS = 8;
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CRLF = { '\r', '\n' };
+    private static final byte[] LAST_CHUNK = { '0', '\r', '\n', '\r', '\n' };
+    private static final int CHUNK_HEADER_SIZE = CHUNK_SIZE_DIGITS + CRLF.length;
+    private static final int CHUNK_TRAILER_SIZE = CRLF.length + LAST_CHUNK.length;
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
+    private final Logger log = LogManager.getLogger(NioHttpConnection.class);
+    private final InetAddress[] mAddresses;
+    private final int mPort;
+    private final SSLEngine mSslEngine;
+    private final NioHttpHandler mHandler;
+    private final NioHttpTransport.SelectorLoop mSelectorLoop;
+    private final Executor mHandshakeExecutor;
+    private final long mConnectTimeoutNanos;
+    private final long mIdleTimeoutNanos;
+    private final NioHttpResponseParser mResponseParser;
+    private final AtomicBoolean mProcessingScheduled = new AtomicBoolean(false);
+
+    /**
+     * Plain text request bytes pending to be written or wrapped, kept in read mode
+     */
+    private final ByteBuffer mOutboundAppBuffer;
+
+    /**
+     * TLS records pending to be written and received TLS records pending to be unwrapped, kept in write mode.
+     * Not used for plain text connections.
+     */
+    private final ByteBuffer mOutboundNetBuffer;
+    private final ByteBuffer mInboundNetBuffer;
+
+    /**
+     * Plain text response bytes, kept in write mode
+     */
+    private final ByteBuffer mInboundAppBuffer;
+
+    private Selector mSelector;
+    private SocketChannel mChannel;
+    private SelectionKey mSelectionKey;
+    private int mNextAddress = 0;
+    private long mConnectDeadlineNanos;
+    private long mLastProgressNanos;
+    private boolean mConnected = false;
+    private boolean mDelegatedTasksRunning = false;
+    private boolean mRequestBodyComplete = false;
+    private boolean mFinished = false;
+
+    // CHECKSTYLE:SUPPRESS:ParameterNumber
+    NioHttpConnection(@Nonnull final InetAddress[] addresses,
+                      final int port,
+                      @Nullable final SSLEngine sslEngine,
+                      @Nonnull final byte[] requestHead,
+                      @Nonnull final NioHttpHandler handler,
+                      @Nonnull final NioHttpTransport.SelectorLoop selectorLoop,
+                      @Nonnull final Executor handshakeExecutor,
+                      final long connectTimeoutMillis,
+                      final long idleTimeoutMillis) {
+        mAddresses = addresses;
+        mPort = port;
+        mSslEngine = sslEngine;
+        mHandler = handler;
+        mSelectorLoop = selectorLoop;
+        mHandshakeExecutor = handshakeExecutor;
+        mConnectTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(connectTimeoutMillis);
+        mIdleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        mResponseParser = new NioHttpResponseParser(handler);
+
+        mOutboundAppBuffer = ByteBuffer.allocateDirect(Math.max(requestHead.length,
+                CHUNK_HEADER_SIZE + MAX_CHUNK_PAYLOAD_SIZE + CHUNK_TRAILER_SIZE));
+        mOutboundAppBuffer.put(requestHead);
+        mOutboundAppBuffer.flip();
+
+        if (sslEngine == null) {
+            mOutboundNetBuffer = null;
+            mInboundNetBuffer = null;
+            mInboundAppBuffer = ByteBuffer.allocate(PLAIN_INBOUND_BUFFER_SIZE);
+        } else {
+            final int packetBufferSize = sslEngine.getSession().getPacketBufferSize();
+            mOutboundNetBuffer = ByteBuffer.allocateDirect(packetBufferSize);
+            mInboundNetBuffer = ByteBuffer.allocateDirect(packetBufferSize);
+            mInboundAppBuffer = ByteBuffer.allocate(sslEngine.getSession().getApplicationBufferSize());
+        }
+    }
+
+    /**
+     * Signals that more of the request body is available. The handler is asked for the data on the selector
+     * thread. Signals which arrive while processing is already scheduled are coalesced.
+     */
+    public void signalRequestBodyAvailable() {
+        if (mProcessingScheduled.compareAndSet(false, true)) {
+            mSelectorLoop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    mProcessingScheduled.set(false);
+                    process();
+                }
+            });
+        }
+    }
+
+    /**
+     * Aborts the exchange. The handler is completed with an exception unless the response has already been
+     * fully received.
+     */
+    public void close() {
+        mSelectorLoop.execute(new Runnable() {
+            @Override
+            public void run() {
+                finish(mResponseParser.isDone() ? null : new IOException("Connection has been closed"));
+            }
+        });
+    }
+
+    void register(@Nonnull final Selector selector) {
+        if (mFinished) {
+            return;
+        }
+
+        mSelector = selector;
+        try {
+            connectNextAddress(null);
+        } catch (final Exception e) {
+            finish(e);
+        }
+    }
+
+    void onSelected(@Nonnull final SelectionKey key) {
+        if (key != mSelectionKey) {
+            // Key of an abandoned connection attempt
+            return;
+        }
+
+        try {
+            if (!mConnected && key.isConnectable()) {
+                final boolean connected;
+                try {
+                    connected = mChannel.finishConnect();
+                } catch (final IOException e) {
+                    onConnectFailed(e);
+                    return;
+                }
+
+                if (connected) {
+                    onConnected();
+                }
+
+                return;
+            }
+
+            process();
+        } catch (final Exception e) {
+            finish(e);
+        }
+    }
+
+    /**
+     * Fails the connection attempt or the connection whose deadline has passed. Called by the selector thread
+     * for every connection periodically.
+     */
+    void checkDeadline(final long nowNanos) {
+        if (mFinished || mSelector == null) {
+            return;
+        }
+
+        try {
+            if (!mConnected) {
+                if (nowNanos - mConnectDeadlineNanos >= 0) {
+                    onConnectFailed(new SocketTimeoutException("Connecting to "
+                            + mAddresses[mNextAddress - 1].getHostAddress() + " timed out"));
+                }
+            } else if (isWaitingOnPeer() && nowNanos - mLastProgressNanos >= mIdleTimeoutNanos) {
+                finish(new SocketTimeoutException("No data has been sent or received for "
+                        + TimeUnit.NANOSECONDS.toMillis(mIdleTimeoutNanos) + " ms"));
+            }
+        } catch (final Exception e) {
+            finish(e);
+        }
+    }
+
+    /**
+     * Starts connecting to the next address which can be connected to, fails the connection once all of the
+     * addresses have been tried.
+     */
+    private void connectNextAddress(@Nullable final IOException previousFailure) throws IOException {
+        IOException failure = previousFailure;
+        while (mNextAddress < mAddresses.length) {
+            final InetAddress address = mAddresses[mNextAddress++];
+            try {
+                mChannel = SocketChannel.open();
+                mChannel.configureBlocking(false);
+                mChannel.socket().setTcpNoDelay(true);
+                mSelectionKey = mChannel.register(mSelector, SelectionKey.OP_CONNECT, this);
+                mConnectDeadlineNanos = System.nanoTime() + mConnectTimeoutNanos;
+                if (mChannel.connect(new InetSocketAddress(address, mPort))) {
+                    onConnected();
+                }
+
+                return;
+            } catch (final IOException e) {
+                log.debug("Connecting to {} failed", address.getHostAddress(), e);
+                closeChannel();
+                failure = e;
+            }
+        }
+
+        throw failure;
+    }
+
+    private void onConnectFailed(@Nonnull final IOException exception) throws IOException {
+        log.debug("Connecting to {} failed", mAddresses[mNextAddress - 1].getHostAddress(), exception);
+        closeChannel();
+        connectNextAddress(exception);
+    }
+
+    private void onConnected() throws IOException {
+        mConnected = true;
+        mLastProgressNanos = System.nanoTime();
+        if (mSslEngine != null) {
+            mSslEngine.beginHandshake();
+        }
+
+        process();
+    }
+
+    /**
+     * Moves the data in both directions for as long as there is progress and then waits for the socket.
+     */
+    private void process() {
+        if (mFinished || !mConnected || mDelegatedTasksRunning) {
+            return;
+        }
+
+        try {
+            boolean progress;
+            do {
+                progress = processInbound();
+                if (!mFinished && !mDelegatedTasksRunning) {
+                    progress |= processOutbound();
+                }
+
+                if (progress) {
+                    mLastProgressNanos = System.nanoTime();
+                }
+            } while (progress && !mFinished && !mDelegatedTasksRunning);
+
+            if (mDelegatedTasksRunning) {
+                // Resumed once the handshake tasks are done
+                mSelectionKey.interestOps(0);
+            } else if (!mFinished) {
+                updateInterestOps();
+            }
+        } catch (final Exception e) {
+            finish(e);
+        }
+    }
+
+    private boolean processInbound() throws IOException {
+        if (mSslEngine == null) {
+            final int bytesRead = mChannel.read(mInboundAppBuffer);
+            deliverInbound();
+            if (bytesRead < 0) {
+                onEndOfResponseStream();
+            }
+
+            return bytesRead > 0;
+        }
+
+        final int bytesRead = mChannel.read(mInboundNetBuffer);
+        boolean progress = bytesRead > 0;
+        while (!mFinished) {
+            mInboundNetBuffer.flip();
+            final SSLEngineResult result = mSslEngine.unwrap(mInboundNetBuffer, mInboundAppBuffer);
+            mInboundNetBuffer.compact();
+            runDelegatedTasks(result.getHandshakeStatus());
+            deliverInbound();
+
+            if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+                onEndOfResponseStream();
+                return progress;
+            }
+
+            if (mDelegatedTasksRunning || result.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW
+                    || (result.bytesConsumed() == 0 && result.bytesProduced() == 0)) {
+                break;
+            }
+
+            progress = true;
+        }
+
+        if (bytesRead < 0) {
+            onEndOfResponseStream();
+        }
+
+        return progress;
+    }
+
+    private void deliverInbound() throws IOException {
+        if (mInboundAppBuffer.position() > 0) {
+            mResponseParser.parse(mInboundAppBuffer.array(), mInboundAppBuffer.arrayOffset(),
+                    mInboundAppBuffer.position());
+            mInboundAppBuffer.clear();
+            if (mResponseParser.isDone()) {
+                finish(null);
+            }
+        }
+    }
+
+    private void onEndOfResponseStream() {
+        // Responses without a length are delimited by the connection close
+        finish(mResponseParser.isDone() || mResponseParser.isBodyUntilClose()
+                ? null
+                : new IOException("Connection closed before the response has been received"));
+    }
+
+    private boolean processOutbound() throws IOException {
+        if (!mOutboundAppBuffer.hasRemaining()) {
+            produceRequestBody();
+        }
+
+        if (mSslEngine == null) {
+            return mOutboundAppBuffer.hasRemaining() && mChannel.write(mOutboundAppBuffer) > 0;
+        }
+
+        boolean progress = flushOutboundNetBuffer();
+        if (mOutboundNetBuffer.position() > 0) {
+            // Socket is full
+            return progress;
+        }
+
+        final HandshakeStatus handshakeStatus = mSslEngine.getHandshakeStatus();
+        final boolean handshaking = handshakeStatus != HandshakeStatus.NOT_HANDSHAKING
+                && handshakeStatus != HandshakeStatus.FINISHED;
+        if (handshaking && handshakeStatus != HandshakeStatus.NEED_WRAP) {
+            runDelegatedTasks(handshakeStatus);
+            return progress;
+        }
+
+        if (!handshaking && !mOutboundAppBuffer.hasRemaining()) {
+            return progress;
+        }
+
+        final SSLEngineResult result = mSslEngine.wrap(handshaking ? EMPTY_BUFFER : mOutboundAppBuffer,
+                mOutboundNetBuffer);
+        if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+            throw new SSLException("TLS engine has been closed");
+        }
+
+        runDelegatedTasks(result.getHandshakeStatus());
+        return flushOutboundNetBuffer() || progress || result.bytesProduced() > 0;
+    }
+
+    /**
+     * Pulls the next chunk of the request body from the handler into the empty outbound buffer.
+     */
+    private void produceRequestBody() throws IOException {
+        if (mRequestBodyComplete) {
+            return;
+        }
+
+        final ByteBuffer buffer = mOutboundAppBuffer;
+        buffer.clear();
+        buffer.position(CHUNK_HEADER_SIZE);
+        buffer.limit(CHUNK_HEADER_SIZE + MAX_CHUNK_PAYLOAD_SIZE);
+        final int result = mHandler.readRequestBody(buffer);
+        final int payloadSize = buffer.position() - CHUNK_HEADER_SIZE;
+        buffer.limit(buffer.capacity());
+        if (payloadSize > 0 || result < 0) {
+            // The idle time counts from the data to send, not from the last write before the body paused
+            mLastProgressNanos = System.nanoTime();
+        }
+
+        if (payloadSize > 0) {
+            writeChunkHeader(buffer, payloadSize);
+            buffer.put(CRLF);
+        } else {
+            buffer.position(0);
+        }
+
+        if (result < 0) {
+            buffer.put(LAST_CHUNK);
+            mRequestBodyComplete = true;
+        }
+
+        buffer.flip();
+        if (payloadSize == 0 && !mRequestBodyComplete) {
+            // Nothing to send, skip the reserved header
+            buffer.position(buffer.limit());
+        }
+    }
+
+    private static void writeChunkHeader(final ByteBuffer buffer, final int payloadSize) {
+        int value = payloadSize;
+        for (int i = CHUNK_SIZE_DIGITS - 1; i >= 0; i--) {
+            buffer.put(i, HEX_DIGITS[value & 0xF]);
+            value >>>= 4;
+        }
+
+        buffer.put(CHUNK_SIZE_DIGITS, CRLF[0]);
+        buffer.put(CHUNK_SIZE_DIGITS + 1, CRLF[1]);
+    }
+
+    private boolean flushOutboundNetBuffer() throws IOException {
+        if (mOutboundNetBuffer.position() == 0) {
+            return false;
+        }
+
+        mOutboundNetBuffer.flip();
+        final int bytesWritten = mChannel.write(mOutboundNetBuffer);
+        mOutboundNetBuffer.compact();
+        return bytesWritten > 0;
+    }
+
+    /**
+     * Hands the handshake tasks over to the handshake executor, the connection is processed again once they are
+     * done. The certificate validation can be slow, e.g. revocation checks, and must not hold up the selector.
+     */
+    private void runDelegatedTasks(final HandshakeStatus handshakeStatus) {
+        if (handshakeStatus != HandshakeStatus.NEED_TASK || mDelegatedTasksRunning) {
+            return;
+        }
+
+        mDelegatedTasksRunning = true;
+        mHandshakeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Runnable task;
+                    while ((task = mSslEngine.getDelegatedTask()) != null) {
+                        task.run();
+                    }
+                } finally {
+                    mSelectorLoop.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            mDelegatedTasksRunning = false;
+                            mLastProgressNanos = System.nanoTime();
+                            process();
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private boolean isOutboundPending() {
+        return mSslEngine == null
+                ? mOutboundAppBuffer.hasRemaining()
+                : mOutboundNetBuffer.position() > 0;
+    }
+
+    /**
+     * @return Whether the connection can't move on without the peer, as opposed to waiting for the request body
+     */
+    private boolean isWaitingOnPeer() {
+        if (mDelegatedTasksRunning) {
+            return false;
+        }
+
+        if (mSslEngine != null) {
+            final HandshakeStatus handshakeStatus = mSslEngine.getHandshakeStatus();
+            if (handshakeStatus != HandshakeStatus.NOT_HANDSHAKING && handshakeStatus != HandshakeStatus.FINISHED) {
+                return true;
+            }
+        }
+
+        return isOutboundPending() || mRequestBodyComplete;
+    }
+
+    private void updateInterestOps() {
+        mSelectionKey.interestOps(isOutboundPending()
+                ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                : SelectionKey.OP_READ);
+    }
+
+    private void closeChannel() {
+        if (mChannel == null) {
+            return;
+        }
+
+        try {
+            mChannel.close();
+        } catch (final IOException e) {
+            log.error("Closing the channel threw an exception", e);
+        }
+    }
+
+    /**
+     * Closes the connection and completes the handler, only the first call has an effect.
+     */
+    void finish(@Nullable final Exception exception) {
+        if (mFinished) {
+            return;
+        }
+
+        mFinished = true;
+        if (exception != null && !(exception instanceof ClosedChannelException)) {
+            log.debug("Connection finished with an exception", exception);
+        }
+
+        closeChannel();
+        mHandler.onComplete(exception);
+    }
+}
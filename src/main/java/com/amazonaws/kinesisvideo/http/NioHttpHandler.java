@@ -0,0 +1,44 @@
+package com.amazonaws.kinesisvideo.http;
+
+import com.amazonaws.kinesisvideo.model.ResponseStatus;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Callbacks of a request running on {@link NioHttpTransport}.
+ *
+ * All of the methods are invoked on the transport's selector thread and must not block as the thread is shared
+ * by many connections.
+ */
+public interface NioHttpHandler {
+    /**
+     * Fills the next piece of the chunk encoded request body. Called after
+     * {@link NioHttpConnection#signalRequestBodyAvailable()} until it returns 0.
+     *
+     * @param dst Direct buffer to fill from its position up to its limit
+     * @return Number of bytes written, 0 if there is nothing to send right now or -1 at the end of the body
+     */
+    int readRequestBody(@Nonnull ByteBuffer dst) throws IOException;
+
+    /**
+     * Invoked once the response status line and headers have been received.
+     */
+    void onResponseHead(@Nonnull ResponseStatus responseStatus, @Nonnull Map<String, String> headers);
+
+    /**
+     * Invoked with the response body bytes as they arrive, with the chunk framing removed.
+     * The array is reused after the call returns.
+     */
+    void onResponseBody(@Nonnull byte[] bytes, int offset, int length);
+
+    /**
+     * Invoked exactly once when the exchange completes or fails. The connection is closed at this point.
+     *
+     * @param exception null on successful completion
+     */
+    void onComplete(@Nullable Exception exception);
+}
@@ -0,0 +1,237 @@
+package com.amazonaws.kinesisvideo.http;
+
+import com.amazonaws.kinesisvideo.model.ResponseStatus;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Push based HTTP/1.1 response parser used by {@link NioHttpConnection}.
+ *
+ * Unlike {@link com.amazonaws.kinesisvideo.encoding.HttpResponseReader}, which pulls from a blocking stream,
+ * this parser is fed whatever bytes have arrived and keeps its state between the calls. Body bytes are handed
+ * to the handler straight from the fed array.
+ */
+final class NioHttpResponseParser {
+    private static final int MAX_LINE_LENGTH = 8 * 1024;
+    private static final int HEX_RADIX = 16;
+    private static final String TRANSFER_ENCODING = "transfer-encoding";
+    private static final String CONTENT_LENGTH = "content-length";
+    private static final String CHUNKED = "chunked";
+
+    private enum State {
+        STATUS_LINE,
+        HEADERS,
+        CHUNK_SIZE,
+        CHUNK_DATA,
+        CHUNK_DATA_END,
+        TRAILERS,
+        FIXED_LENGTH_BODY,
+        BODY_UNTIL_CLOSE,
+        DONE
+    }
+
+    private final NioHttpHandler mHandler;
+    private final byte[] mLine = new byte[MAX_LINE_LENGTH];
+    private final Map<String, String> mHeaders = new HashMap<String, String>();
+    private int mLineLength = 0;
+    private State mState = State.STATUS_LINE;
+    private ResponseStatus mResponseStatus;
+    private long mRemaining = 0;
+
+    NioHttpResponseParser(@Nonnull final NioHttpHandler handler) {
+        mHandler = handler;
+    }
+
+    /**
+     * @return Whether the complete response has been parsed
+     */
+    boolean isDone() {
+        return mState == State.DONE;
+    }
+
+    /**
+     * @return Whether the response is delimited by the connection close
+     */
+    boolean isBodyUntilClose() {
+        return mState == State.BODY_UNTIL_CLOSE;
+    }
+
+    /**
+     * Parses the next piece of the response.
+     */
+    void parse(@Nonnull final byte[] bytes, final int offset, final int length) throws IOException {
+        int position = offset;
+        final int end = offset + length;
+
+        while (position < end && mState != State.DONE) {
+            switch (mState) {
+                case CHUNK_DATA:
+                case FIXED_LENGTH_BODY: {
+                    final int toDeliver = (int) Math.min(mRemaining, end - position);
+                    mHandler.onResponseBody(bytes, position, toDeliver);
+                    position += toDeliver;
+                    mRemaining -= toDeliver;
+                    if (mRemaining == 0) {
+                        mState = mState == State.CHUNK_DATA ? State.CHUNK_DATA_END : State.DONE;
+                    }
+                    break;
+                }
+                case BODY_UNTIL_CLOSE:
+                    mHandler.onResponseBody(bytes, position, end - position);
+                    position = end;
+                    break;
+                default:
+                    position = appendLine(bytes, position, end);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Accumulates the line and processes it once complete.
+     *
+     * @return Position after the consumed bytes
+     */
+    private int appendLine(final byte[] bytes, final int offset, final int end) throws IOException {
+        for (int i = offset; i < end; i++) {
+            final byte b = bytes[i];
+            if (b == '\n') {
+                final int lineLength = mLineLength > 0 && mLine[mLineLength - 1] == '\r'
+                        ? mLineLength - 1
+                        : mLineLength;
+                mLineLength = 0;
+                onLine(lineLength);
+                return i + 1;
+            }
+
+            if (mLineLength == mLine.length) {
+                throw new IOException("Response line exceeds " + MAX_LINE_LENGTH + " bytes");
+            }
+
+            mLine[mLineLength++] = b;
+        }
+
+        return end;
+    }
+
+    private void onLine(final int length) throws IOException {
+        switch (mState) {
+            case STATUS_LINE:
+                if (length > 0) {
+                    mResponseStatus = parseStatusLine(new String(mLine, 0, length, StandardCharsets.US_ASCII));
+                    mState = State.HEADERS;
+                }
+                break;
+            case HEADERS:
+                if (length == 0) {
+                    onHeadersComplete();
+                } else {
+                    final String line = new String(mLine, 0, length, StandardCharsets.US_ASCII);
+                    final int colon = line.indexOf(':');
+                    if (colon > 0) {
+                        mHeaders.put(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+                    }
+                }
+                break;
+            case CHUNK_SIZE:
+                if (length > 0) {
+                    mRemaining = parseChunkSize(length);
+                    mState = mRemaining == 0 ? State.TRAILERS : State.CHUNK_DATA;
+                }
+                break;
+            case CHUNK_DATA_END:
+                mState = State.CHUNK_SIZE;
+                break;
+            case TRAILERS:
+                if (length == 0) {
+                    mState = State.DONE;
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unexpected parser state " + mState);
+        }
+    }
+
+    private void onHeadersComplete() throws IOException {
+        mHandler.onResponseHead(mResponseStatus, mHeaders);
+
+        String transferEncoding = null;
+        String contentLength = null;
+        for (final Map.Entry<String, String> header : mHeaders.entrySet()) {
+            if (TRANSFER_ENCODING.equalsIgnoreCase(header.getKey())) {
+                transferEncoding = header.getValue();
+            } else if (CONTENT_LENGTH.equalsIgnoreCase(header.getKey())) {
+                contentLength = header.getValue();
+            }
+        }
+
+        if (transferEncoding != null && transferEncoding.toLowerCase().contains(CHUNKED)) {
+            mState = State.CHUNK_SIZE;
+        } else if (contentLength != null) {
+            try {
+                mRemaining = Long.parseLong(contentLength.trim());
+            } catch (final NumberFormatException e) {
+                throw new IOException("Malformed content length " + contentLength, e);
+            }
+            mState = mRemaining == 0 ? State.DONE : State.FIXED_LENGTH_BODY;
+        } else {
+            mState = State.BODY_UNTIL_CLOSE;
+        }
+    }
+
+    private static ResponseStatus parseStatusLine(final String statusLine) throws IOException {
+        final String[] parts = statusLine.split(" ", 3);
+        if (parts.length < 2) {
+            throw new IOException("Malformed status line: " + statusLine);
+        }
+
+        try {
+            return ResponseStatus.builder()
+                    .protocol(parts[0])
+                    .statusCode(Integer.parseInt(parts[1].trim()))
+                    .reason(parts.length > 2 ? parts[2].trim() : "")
+                    .build();
+        } catch (final NumberFormatException e) {
+            throw new IOException("Malformed status line: " + statusLine, e);
+        }
+    }
+
+    private long parseChunkSize(final int length) throws IOException {
+        long value = 0;
+        int digits = 0;
+        int significantDigits = 0;
+        for (int i = 0; i < length; i++) {
+            if (mLine[i] == ';') {
+                break;
+            }
+
+            final int digit = Character.digit(mLine[i], HEX_RADIX);
+            if (digit < 0) {
+                if (mLine[i] == ' ' || mLine[i] == '\t') {
+                    continue;
+                }
+
+                throw new IOException("Malformed chunk size: "
+                        + new String(mLine, 0, length, StandardCharsets.US_ASCII));
+            }
+
+            // Leading zeros are valid and don't count towards the size limit
+            if ((value != 0 || digit != 0) && ++significantDigits > 15) {
+                throw new IOException("Chunk size is too large");
+            }
+
+            digits++;
+            value = (value << 4) | digit;
+        }
+
+        if (digits == 0) {
+            throw new IOException("Missing chunk size");
+        }
+
+        return value;
+    }
+}
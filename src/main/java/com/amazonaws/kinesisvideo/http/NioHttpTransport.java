@@ -0,0 +1,293 @@
+package com.amazonaws.kinesisvideo.http;
+
+import com.amazonaws.kinesisvideo.socket.DnsResolverCache;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkState;
+
+/**
+ * HTTP/1.1 transport which multiplexes long running streaming requests over a small, fixed number of selector
+ * threads instead of dedicating a sender and a receiver thread to every connection.
+ *
+ * Each connection is pinned to one selector thread for its whole lifetime, all of its IO, TLS processing and
+ * {@link NioHttpHandler} callbacks happen on that thread. Connections are spread over the threads round robin.
+ *
+ * The host names are resolved through {@link DnsResolverCache}, same as the blocking connections, so only the
+ * first connection to a host waits for the DNS server. The addresses are tried in turn with the connect timeout
+ * each. A connection which waits on the peer without any data moving for the idle timeout is failed.
+ *
+ * The transport is meant to be shared by all of the streams of a client and closed when the client is freed.
+ */
+public final class NioHttpTransport implements Closeable {
+    public static final long DEFAULT_CONNECT_TIMEOUT_MILLIS = 10000;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30000;
+
+    private static final int DEFAULT_HTTP_PORT = 80;
+    private static final int DEFAULT_HTTPS_PORT = 443;
+    private static final String SPACE = " ";
+    private static final String CRLF = "\r\n";
+    private static final String HTTP_1_1 = "HTTP/1.1";
+    private static final String HEADER_SEPARATOR = ": ";
+    private static final String THREAD_NAME_FORMAT = "KVS-NioTransport-%d";
+    private static final String HANDSHAKE_THREAD_NAME = "KVS-NioTransport-Handshake";
+    private static final long DEADLINE_CHECK_INTERVAL_MILLIS = 500;
+
+    private final Logger log = LogManager.getLogger(NioHttpTransport.class);
+    private final SSLContext mSslContext;
+    private final DnsResolverCache mResolver;
+    private final long mConnectTimeoutMillis;
+    private final long mIdleTimeoutMillis;
+    private final ExecutorService mHandshakeExecutor;
+    private final SelectorLoop[] mSelectorLoops;
+    private final AtomicInteger mNextSelectorLoop = new AtomicInteger();
+    private volatile boolean mClosed = false;
+
+    /**
+     * Creates the transport with the TLS 1.2 context shared by the SDK.
+     *
+     * @param selectorThreads Number of selector threads to multiplex the connections over
+     */
+    public NioHttpTransport(final int selectorThreads) throws IOException {
+        this(selectorThreads, SharedSslContexts.getDefault());
+    }
+
+    public NioHttpTransport(final int selectorThreads, @Nonnull final SSLContext sslContext) throws IOException {
+        this(selectorThreads, sslContext, DnsResolverCache.getDefault());
+    }
+
+    public NioHttpTransport(final int selectorThreads,
+                            @Nonnull final SSLContext sslContext,
+                            @Nonnull final DnsResolverCache resolver) throws IOException {
+        this(selectorThreads, sslContext, resolver, DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param connectTimeoutMillis Time to connect to each of the addresses of the host
+     * @param idleTimeoutMillis Time a connection may wait on the peer, e.g. with a full socket or for the
+     *                          response, without sending or receiving any data
+     */
+    public NioHttpTransport(final int selectorThreads,
+                            @Nonnull final SSLContext sslContext,
+                            @Nonnull final DnsResolverCache resolver,
+                            final long connectTimeoutMillis,
+                            final long idleTimeoutMillis) throws IOException {
+        checkArgument(selectorThreads > 0, "At least one selector thread is required");
+        checkArgument(connectTimeoutMillis > 0, "Connect timeout must be positive");
+        checkArgument(idleTimeoutMillis > 0, "Idle timeout must be positive");
+        mSslContext = checkNotNull(sslContext);
+        mResolver = checkNotNull(resolver);
+        mConnectTimeoutMillis = connectTimeoutMillis;
+        mIdleTimeoutMillis = idleTimeoutMillis;
+        mHandshakeExecutor = createHandshakeExecutor();
+        mSelectorLoops = new SelectorLoop[selectorThreads];
+        for (int i = 0; i < selectorThreads; i++) {
+            mSelectorLoops[i] = new SelectorLoop(String.format(THREAD_NAME_FORMAT, i));
+        }
+    }
+
+    /**
+     * Opens a connection and sends the request head. The request body is chunk encoded and pulled from the
+     * handler whenever {@link NioHttpConnection#signalRequestBodyAvailable()} is called.
+     *
+     * @param request Request to send, its method, URI path and headers make up the request head
+     * @param handler Handler of the request body and the response
+     * @return The connection
+     */
+    @Nonnull
+    public NioHttpConnection connect(@Nonnull final HttpClient request, @Nonnull final NioHttpHandler handler)
+            throws IOException {
+        checkNotNull(request);
+        checkNotNull(handler);
+        checkState(!mClosed, "Transport is closed");
+
+        final URI uri = request.getUri();
+        final boolean isHttps = "https".equalsIgnoreCase(uri.getScheme());
+        final int port = uri.getPort() > 0
+                ? uri.getPort()
+                : isHttps ? DEFAULT_HTTPS_PORT : DEFAULT_HTTP_PORT;
+        final InetAddress[] addresses = mResolver.resolve(uri.getHost());
+        final SSLEngine sslEngine = isHttps ? createSslEngine(uri.getHost(), port) : null;
+
+        // The connection is opened on the selector thread, connect failures are reported through the handler
+        final SelectorLoop selectorLoop = nextSelectorLoop();
+        final NioHttpConnection connection = new NioHttpConnection(addresses, port, sslEngine,
+                toRequestHead(request), handler, selectorLoop, mHandshakeExecutor, mConnectTimeoutMillis,
+                mIdleTimeoutMillis);
+        selectorLoop.execute(new Runnable() {
+            @Override
+            public void run() {
+                connection.register(selectorLoop.mSelector);
+            }
+        });
+
+        return connection;
+    }
+
+    /**
+     * Stops the selector threads. The connections which are still open are completed with an exception.
+     */
+    @Override
+    public void close() {
+        mClosed = true;
+        for (final SelectorLoop selectorLoop : mSelectorLoops) {
+            selectorLoop.stop();
+        }
+
+        mHandshakeExecutor.shutdown();
+    }
+
+    private SelectorLoop nextSelectorLoop() {
+        final int index = (mNextSelectorLoop.getAndIncrement() & Integer.MAX_VALUE) % mSelectorLoops.length;
+        return mSelectorLoops[index];
+    }
+
+    private SSLEngine createSslEngine(final String host, final int port) {
+        final SSLEngine sslEngine = mSslContext.createSSLEngine(host, port);
+        sslEngine.setUseClientMode(true);
+        return sslEngine;
+    }
+
+    private static ExecutorService createHandshakeExecutor() {
+        // No queue, a handshake never waits for the handshakes of the other connections
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, HANDSHAKE_THREAD_NAME);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    private static byte[] toRequestHead(final HttpClient request) {
+        final StringBuilder head = new StringBuilder()
+                .append(request.getMethod()).append(SPACE)
+                .append(request.getUri().getPath()).append(SPACE)
+                .append(HTTP_1_1).append(CRLF);
+        for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            head.append(header.getKey()).append(HEADER_SEPARATOR).append(header.getValue()).append(CRLF);
+        }
+
+        return head.append(CRLF).toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Selector thread serving a subset of the connections.
+     */
+    final class SelectorLoop implements Runnable {
+        private final Selector mSelector;
+        private final Queue<Runnable> mTasks = new ConcurrentLinkedQueue<Runnable>();
+        private final Thread mThread;
+        private volatile boolean mStopped = false;
+
+        private SelectorLoop(final String threadName) throws IOException {
+            mSelector = Selector.open();
+            mThread = new Thread(this, threadName);
+            mThread.setDaemon(true);
+            mThread.start();
+        }
+
+        /**
+         * Runs the task on the selector thread.
+         */
+        void execute(@Nonnull final Runnable task) {
+            mTasks.add(task);
+            mSelector.wakeup();
+        }
+
+        private void stop() {
+            mStopped = true;
+            mSelector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            final long deadlineCheckIntervalNanos = TimeUnit.MILLISECONDS.toNanos(DEADLINE_CHECK_INTERVAL_MILLIS);
+            long nextDeadlineCheckNanos = System.nanoTime() + deadlineCheckIntervalNanos;
+            try {
+                while (!mStopped) {
+                    mSelector.select(DEADLINE_CHECK_INTERVAL_MILLIS);
+                    runTasks();
+
+                    final Iterator<SelectionKey> selectedKeys = mSelector.selectedKeys().iterator();
+                    while (selectedKeys.hasNext()) {
+                        final SelectionKey key = selectedKeys.next();
+                        selectedKeys.remove();
+                        ((NioHttpConnection) key.attachment()).onSelected(key);
+                    }
+
+                    final long nowNanos = System.nanoTime();
+                    if (nowNanos - nextDeadlineCheckNanos >= 0) {
+                        nextDeadlineCheckNanos = nowNanos + deadlineCheckIntervalNanos;
+                        checkDeadlines(nowNanos);
+                    }
+                }
+            } catch (final Throwable e) {
+                log.error("Selector thread {} failed", mThread.getName(), e);
+            } finally {
+                shutdown();
+            }
+        }
+
+        private void checkDeadlines(final long nowNanos) {
+            // Copied as a connection trying its next address registers a new key
+            for (final SelectionKey key : new ArrayList<SelectionKey>(mSelector.keys())) {
+                if (key.isValid()) {
+                    ((NioHttpConnection) key.attachment()).checkDeadline(nowNanos);
+                }
+            }
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while ((task = mTasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (final RuntimeException e) {
+                    log.error("Selector task threw an exception", e);
+                }
+            }
+        }
+
+        private void shutdown() {
+            // Connections which were handed over but not yet registered are failed by their register task
+            runTasks();
+            final IOException closedException = new IOException("Transport is closed");
+            for (final SelectionKey key : mSelector.keys()) {
+                ((NioHttpConnection) key.attachment()).finish(closedException);
+            }
+
+            try {
+                mSelector.close();
+            } catch (final IOException e) {
+                log.error("Closing the selector threw an exception", e);
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.amazonaws.kinesisvideo.common.function.Consumer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import com.amazonaws.kinesisvideo.socket.SocketFactory;
+import com.amazonaws.kinesisvideo.util.KinesisVideoExecutors;
 
 import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
 import java.io.BufferedWriter;
@@ -18,7 +19,7 @@ import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import javax.net.ssl.SSLContext;
 
 public final class ParallelSimpleHttpClient implements HttpClient {
     private static final String SPACE = " ";
@@ -66,7 +67,7 @@ public final class ParallelSimpleHttpClient implements HttpClient {
     }
 
     private void initSocket() throws IOException {
-        mSocket = new SocketFactory().createSocket(mBuilder.mUri);
+        mSocket = new SocketFactory(mBuilder.mSslContext).createSocket(mBuilder.mUri);
         if (mBuilder.mTimeout != null) {
             mSocket.setSoTimeout(mBuilder.mTimeout);
         }
@@ -136,7 +137,7 @@ public final class ParallelSimpleHttpClient implements HttpClient {
 
     private void sendPayloadInBackground() {
         if (mBuilder.mSender != null) {
-            payloadSender = Executors.newFixedThreadPool(1);
+            payloadSender = KinesisVideoExecutors.newSingleThreadExecutor("KVS-PutMedia-Sender");
             payloadSender.execute(new Runnable() {
                 @Override
                 public void run() {
@@ -163,7 +164,7 @@ public final class ParallelSimpleHttpClient implements HttpClient {
 
     private void receiveResponseInBackground() {
         if (mBuilder.mReceiver != null) {
-            responseReceiver = Executors.newFixedThreadPool(1);
+            responseReceiver = KinesisVideoExecutors.newSingleThreadExecutor("KVS-PutMedia-Receiver");
             responseReceiver.execute(new Runnable() {
                 @Override
                 public void run() {
@@ -215,6 +216,7 @@ public final class ParallelSimpleHttpClient implements HttpClient {
         private Consumer<InputStream> mReceiver;
         private Integer mTimeout;
         private Consumer<Exception> mCompletion;
+        private SSLContext mSslContext = SharedSslContexts.getDefault();
         // TODO: Set to correct output channel
 
         private Builder() {
@@ -262,6 +264,14 @@ public final class ParallelSimpleHttpClient implements HttpClient {
             return this;
         }
 
+        /**
+         * Sets the context of the TLS connection. Defaults to the shared TLS 1.2 context.
+         */
+        public Builder sslContext(final SSLContext sslContext) {
+            mSslContext = checkNotNull(sslContext);
+            return this;
+        }
+
         public ParallelSimpleHttpClient build() {
             checkNotNull(mUri);
             return new ParallelSimpleHttpClient(this);
@@ -0,0 +1,100 @@
+package com.amazonaws.kinesisvideo.http;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * Process wide TLS contexts shared by all of the connections of the SDK.
+ *
+ * Sharing the context shares its client session cache, so the reconnects to an endpoint resume the previous
+ * TLS session instead of doing a full handshake. The sessions are cached per host and port, so one context
+ * serves all of the endpoints. The trust manager, which loads the default trust store, is set up once.
+ */
+public final class SharedSslContexts {
+    private static final Logger log = LogManager.getLogger(SharedSslContexts.class);
+
+    /**
+     * Max number of TLS sessions kept for resumption in each context
+     */
+    public static final int SESSION_CACHE_SIZE = 256;
+
+    /**
+     * Time the TLS sessions can be resumed for
+     */
+    public static final int SESSION_TIMEOUT_SECONDS = 4 * 60 * 60;
+
+    private static final String TLS_1_2 = "TLSv1.2";
+    private static final String TLS_1_3 = "TLSv1.3";
+    private static final KeyManager[] NO_KEY_MANAGERS = null;
+
+    private static X509ExtendedTrustManager sTrustManager;
+    private static SSLContext sTls12Context;
+    private static SSLContext sTls13Context;
+
+    private SharedSslContexts() {
+        // Static class
+    }
+
+    /**
+     * Returns the TLS 1.2 context used by default
+     */
+    @Nonnull
+    public static SSLContext getDefault() {
+        return get(false);
+    }
+
+    /**
+     * Returns the shared context.
+     *
+     * @param tls13Enabled Whether to negotiate TLS 1.3 when the JVM and the server support it. Falls back
+     *                     to the TLS 1.2 context on the JVMs without TLS 1.3.
+     */
+    @Nonnull
+    public static synchronized SSLContext get(final boolean tls13Enabled) {
+        if (tls13Enabled && sTls13Context == null) {
+            try {
+                sTls13Context = createContext(TLS_1_3);
+            } catch (final NoSuchAlgorithmException e) {
+                log.warn("TLS 1.3 is not supported by the JVM, using TLS 1.2");
+                sTls13Context = get(false);
+            }
+        }
+
+        if (!tls13Enabled && sTls12Context == null) {
+            try {
+                sTls12Context = createContext(TLS_1_2);
+            } catch (final NoSuchAlgorithmException e) {
+                throw new IllegalStateException("Unable to initialize the TLS context", e);
+            }
+        }
+
+        return tls13Enabled ? sTls13Context : sTls12Context;
+    }
+
+    private static SSLContext createContext(@Nonnull final String protocol) throws NoSuchAlgorithmException {
+        final SSLContext context = SSLContext.getInstance(protocol);
+        if (sTrustManager == null) {
+            sTrustManager = new HostnameVerifyingX509ExtendedTrustManager(true);
+        }
+
+        try {
+            context.init(NO_KEY_MANAGERS, new X509ExtendedTrustManager[] { sTrustManager }, new SecureRandom());
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize the TLS context", e);
+        }
+
+        final SSLSessionContext sessionContext = context.getClientSessionContext();
+        sessionContext.setSessionCacheSize(SESSION_CACHE_SIZE);
+        sessionContext.setSessionTimeout(SESSION_TIMEOUT_SECONDS);
+        return context;
+    }
+}
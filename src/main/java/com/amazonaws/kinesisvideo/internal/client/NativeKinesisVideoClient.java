@@ -10,18 +10,24 @@ import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.amazonaws.kinesisvideo.auth.DefaultAuthCallbacks;
 import com.amazonaws.kinesisvideo.client.KinesisVideoClientConfiguration;
 import com.amazonaws.kinesisvideo.internal.client.mediasource.MediaSource;
 import com.amazonaws.kinesisvideo.internal.client.mediasource.MediaSourceConfiguration;
+import com.amazonaws.kinesisvideo.internal.client.mediasource.MediaSourceSink;
 import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import com.amazonaws.kinesisvideo.common.preconditions.Preconditions;
+import com.amazonaws.kinesisvideo.internal.mediasource.AsyncMediaSourceSink;
+import com.amazonaws.kinesisvideo.internal.mediasource.FrameQueueFullPolicy;
 import com.amazonaws.kinesisvideo.internal.mediasource.ProducerStreamSink;
 import com.amazonaws.kinesisvideo.producer.AuthCallbacks;
 import com.amazonaws.kinesisvideo.producer.DeviceInfo;
+import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoMetricsSampler;
+import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoMetricsSnapshot;
 import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoProducer;
 import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoProducerStream;
 import com.amazonaws.kinesisvideo.producer.ProducerException;
@@ -65,11 +71,37 @@ public class NativeKinesisVideoClient extends AbstractKinesisVideoClient {
     private final StreamCallbacks mStreamCallbacks;
     private final ServiceCallbacks mServiceCallbacks;
 
+    /**
+     * Executor of the metrics sampling, null when the client is created without one
+     */
+    private final ScheduledExecutorService mExecutor;
+
+    /**
+     * Capacity of the ring buffers of the media source sinks, 0 when the frames are put on the offering thread
+     */
+    private final int mFrameQueueCapacity;
+    private final FrameQueueFullPolicy mFrameQueueFullPolicy;
+
+    /**
+     * Interval of the metrics sampling, 0 when the metrics are not sampled
+     */
+    private final long mMetricsSamplingIntervalMillis;
+
+    /**
+     * Map of the media source to its sink which puts the frames on a drain thread
+     */
+    private final Map<MediaSource, AsyncMediaSourceSink> mMediaSourceToAsyncSinkMap;
+
     /**
      * Underlying Kinesis Video producer object.
      */
     private KinesisVideoProducer kinesisVideoProducer;
 
+    /**
+     * Samples the producer metrics, null when the sampling is disabled
+     */
+    private KinesisVideoMetricsSampler mMetricsSampler;
+
     public NativeKinesisVideoClient(
             @Nonnull final KinesisVideoClientConfiguration configuration,
             @Nonnull final KinesisVideoServiceClient serviceClient,
@@ -91,7 +123,11 @@ public class NativeKinesisVideoClient extends AbstractKinesisVideoClient {
                         log),
                 configuration.getStorageCallbacks(),
                 new DefaultServiceCallbacksImpl(log, executor, configuration, serviceClient),
-                new DefaultStreamCallbacks());
+                new DefaultStreamCallbacks(),
+                configuration.getFrameQueueCapacity(),
+                configuration.getFrameQueueFullPolicy(),
+                configuration.getMetricsSamplingIntervalMillis(),
+                executor);
     }
 
     public NativeKinesisVideoClient(
@@ -100,15 +136,38 @@ public class NativeKinesisVideoClient extends AbstractKinesisVideoClient {
             @Nonnull final StorageCallbacks storageCallbacks,
             @Nonnull final ServiceCallbacks serviceCallbacks,
             @Nonnull final StreamCallbacks streamCallbacks) {
+        this(log, authCallbacks, storageCallbacks, serviceCallbacks, streamCallbacks, 0,
+                FrameQueueFullPolicy.BLOCK, 0, null);
+    }
+
+    // CHECKSTYLE:SUPPRESS:ParameterNumber
+    private NativeKinesisVideoClient(
+            @Nonnull final Logger log,
+            @Nonnull final AuthCallbacks authCallbacks,
+            @Nonnull final StorageCallbacks storageCallbacks,
+            @Nonnull final ServiceCallbacks serviceCallbacks,
+            @Nonnull final StreamCallbacks streamCallbacks,
+            final int frameQueueCapacity,
+            @Nonnull final FrameQueueFullPolicy frameQueueFullPolicy,
+            final long metricsSamplingIntervalMillis,
+            @Nullable final ScheduledExecutorService executor) {
 
         super(log);
 
+        Preconditions.checkArgument(frameQueueCapacity >= 0);
+        Preconditions.checkArgument(metricsSamplingIntervalMillis >= 0);
+
         mAuthCallbacks = checkNotNull(authCallbacks);
         mStorageCallbacks = checkNotNull(storageCallbacks);
         mServiceCallbacks = checkNotNull(serviceCallbacks);
         mStreamCallbacks = checkNotNull(streamCallbacks);
+        mExecutor = executor;
+        mFrameQueueCapacity = frameQueueCapacity;
+        mFrameQueueFullPolicy = checkNotNull(frameQueueFullPolicy);
+        mMetricsSamplingIntervalMillis = metricsSamplingIntervalMillis;
 
         mMediaSourceToStreamMap = new HashMap<MediaSource, KinesisVideoProducerStream>();
+        mMediaSourceToAsyncSinkMap = new HashMap<MediaSource, AsyncMediaSourceSink>();
     }
 
     /**
@@ -117,9 +176,26 @@ public class NativeKinesisVideoClient extends AbstractKinesisVideoClient {
     @Override
     public void initialize(@Nonnull final DeviceInfo deviceInfo) throws KinesisVideoException {
         kinesisVideoProducer = initializeNewKinesisVideoProducer(deviceInfo);
+        if (mMetricsSamplingIntervalMillis > 0 && mExecutor != null) {
+            mMetricsSampler = new KinesisVideoMetricsSampler(mLog, kinesisVideoProducer, mExecutor,
+                    mMetricsSamplingIntervalMillis);
+            mMetricsSampler.start();
+        }
+
         super.initialize(deviceInfo);
     }
 
+    /**
+     * Returns the latest sample of the client and the stream metrics. Doesn't call into the native producer.
+     *
+     * @return latest snapshot, {@link KinesisVideoMetricsSnapshot#EMPTY} if the metrics are not sampled
+     */
+    @Nonnull
+    public KinesisVideoMetricsSnapshot getMetricsSnapshot() {
+        final KinesisVideoMetricsSampler metricsSampler = mMetricsSampler;
+        return metricsSampler == null ? KinesisVideoMetricsSnapshot.EMPTY : metricsSampler.getSnapshot();
+    }
+
     @Override
     public void registerMediaSource(@Nonnull final MediaSource mediaSource) throws KinesisVideoException {
         Preconditions.checkNotNull(mediaSource);
@@ -129,8 +205,11 @@ public class NativeKinesisVideoClient extends AbstractKinesisVideoClient {
         }
 
         final KinesisVideoProducerStream producerStream = kinesisVideoProducer.createStreamSync(mediaSource.getStreamInfo(), streamCallbacks);
-        mediaSource.initialize(new ProducerStreamSink(producerStream));
+        mediaSource.initialize(createMediaSourceSink(mediaSource, producerStream));
         mServiceCallbacks.addStream(producerStream);
+        if (mMetricsSampler != null) {
+            mMetricsSampler.addStream(producerStream);
+        }
         mMediaSourceToStreamMap.put(mediaSource, producerStream);
         super.registerMediaSource(mediaSource);
     }
@@ -144,8 +223,11 @@ public class NativeKinesisVideoClient extends AbstractKinesisVideoClient {
         }
 
         final KinesisVideoProducerStream producerStream = kinesisVideoProducer.createStream(mediaSource.getStreamInfo(), streamCallbacks);
-        mediaSource.initialize(new ProducerStreamSink(producerStream));
+        mediaSource.initialize(createMediaSourceSink(mediaSource, producerStream));
         mServiceCallbacks.addStream(producerStream);
+        if (mMetricsSampler != null) {
+            mMetricsSampler.addStream(producerStream);
+        }
         mMediaSourceToStreamMap.put(mediaSource, producerStream);
         super.registerMediaSource(mediaSource);
     }
@@ -158,9 +240,14 @@ public class NativeKinesisVideoClient extends AbstractKinesisVideoClient {
 
         final KinesisVideoProducerStream producerStream = mMediaSourceToStreamMap.remove(mediaSource);
         try {
+            flushMediaSourceSink(mediaSource);
+
             // The following call will blocked till the stopped event completes
             producerStream.stopStreamSync();
         } finally {
+            if (mMetricsSampler != null) {
+                mMetricsSampler.removeStream(producerStream);
+            }
             kinesisVideoProducer.freeStream(producerStream);
             mServiceCallbacks.removeStream(producerStream);
         }
@@ -172,10 +259,18 @@ public class NativeKinesisVideoClient extends AbstractKinesisVideoClient {
         super.freeMediaSource(mediaSource);
 
         final KinesisVideoProducerStream producerStream = mMediaSourceToStreamMap.remove(mediaSource);
+        final AsyncMediaSourceSink asyncSink = mMediaSourceToAsyncSinkMap.remove(mediaSource);
+        if (asyncSink != null) {
+            asyncSink.close();
+        }
+
         try {
             // The following call will not blocked during the stopped event
             producerStream.streamClosed(INVALID_UPLOAD_HANDLE_VALUE);
         } finally {
+            if (mMetricsSampler != null) {
+                mMetricsSampler.removeStream(producerStream);
+            }
             kinesisVideoProducer.freeStream(producerStream);
             mServiceCallbacks.removeStream(producerStream);
         }
@@ -188,6 +283,7 @@ public class NativeKinesisVideoClient extends AbstractKinesisVideoClient {
             for (final MediaSource mediaSource : mMediaSources) {
                 final KinesisVideoProducerStream producerStream = mMediaSourceToStreamMap.get(mediaSource);
                 try {
+                    flushMediaSourceSink(mediaSource);
                     producerStream.stopStreamSync();
                 } catch (final KinesisVideoException e) {
                     mLog.error("Failed to stop media source {} due to Exception.", mediaSource);
@@ -196,6 +292,7 @@ public class NativeKinesisVideoClient extends AbstractKinesisVideoClient {
             }
         } finally {
             mMediaSourceToStreamMap.clear();
+            mMediaSourceToAsyncSinkMap.clear();
         }
     }
 
@@ -217,6 +314,10 @@ public class NativeKinesisVideoClient extends AbstractKinesisVideoClient {
         if (isInitialized()) {
             super.free();
 
+            if (mMetricsSampler != null) {
+                mMetricsSampler.stop();
+            }
+
             mServiceCallbacks.free();
             kinesisVideoProducer.stopStreams();
             kinesisVideoProducer.free();
@@ -225,6 +326,32 @@ public class NativeKinesisVideoClient extends AbstractKinesisVideoClient {
         }
     }
 
+    private MediaSourceSink createMediaSourceSink(@Nonnull final MediaSource mediaSource,
+                                                  @Nonnull final KinesisVideoProducerStream producerStream) {
+        if (mFrameQueueCapacity > 0) {
+            final AsyncMediaSourceSink sink = new AsyncMediaSourceSink(producerStream, mFrameQueueCapacity,
+                    mFrameQueueFullPolicy);
+            mMediaSourceToAsyncSinkMap.put(mediaSource, sink);
+            return sink;
+        }
+
+        return new ProducerStreamSink(producerStream);
+    }
+
+    /**
+     * Puts the frames still pending in the ring buffer before the stream is stopped.
+     */
+    private void flushMediaSourceSink(@Nonnull final MediaSource mediaSource) throws KinesisVideoException {
+        final AsyncMediaSourceSink asyncSink = mMediaSourceToAsyncSinkMap.remove(mediaSource);
+        if (asyncSink != null) {
+            try {
+                asyncSink.flush();
+            } finally {
+                asyncSink.close();
+            }
+        }
+    }
+
     /**
      * Initialize a new native {@link com.amazonaws.kinesisvideo.internal.producer.KinesisVideoProducer}.
      * Used internally by {@link #initialize} and visible for testing.
@@ -0,0 +1,423 @@
+package com.amazonaws.kinesisvideo.internal.mediasource;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+import static com.amazonaws.kinesisvideo.util.StreamInfoConstants.DEFAULT_TRACK_ID;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
+import com.amazonaws.kinesisvideo.internal.client.mediasource.MediaSourceSink;
+import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoProducerStream;
+import com.amazonaws.kinesisvideo.producer.FrameFlags;
+import com.amazonaws.kinesisvideo.producer.KinesisVideoFrame;
+import com.amazonaws.kinesisvideo.producer.ProducerException;
+import com.amazonaws.kinesisvideo.util.KinesisVideoExecutors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Implementation of the MediaSourceSink interface that hands the frames over to a drain thread through a bounded
+ * ring buffer so a stall of the native content store doesn't stall the encoder or the capture thread.
+ *
+ * The ring buffer is allocated up front and has a single consumer, the drain thread, which puts the buffered
+ * frames into the KinesisVideoProducerStream one at a time in the offered order. The offering
+ * threads are serialized by a lock so the ring buffer has a single producer as well. What happens to a frame
+ * offered while the ring buffer is full is decided by the {@link FrameQueueFullPolicy}. The dropped frames are
+ * reported through the droppedFrameReport stream callback on the thread which drops them.
+ *
+ * Codec private data and fragment metadata wait for the buffered frames to be put first so the ordering is kept.
+ * A failure to put the frames is logged by the drain thread and thrown from the next call of the sink.
+ *
+ * NOTE: The frames are put after onFrame has returned so the media source must not modify the frame data
+ * once it's handed over. Pooled frame data is released once the frame is put or dropped.
+ */
+public class AsyncMediaSourceSink implements MediaSourceSink {
+    private static final Logger log = LogManager.getLogger(AsyncMediaSourceSink.class);
+    private static final long PARK_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long CLOSE_WARNING_INTERVAL_MILLIS = 5000;
+
+    private final KinesisVideoProducerStream producerStream;
+    private final FrameQueueFullPolicy fullPolicy;
+    // Holds the buffered frames only, the slots are cleared once their frames are put or dropped
+    private final AtomicReferenceArray<KinesisVideoFrame> ring;
+    private final int mask;
+    private final ExecutorService executor = KinesisVideoExecutors.newSingleThreadExecutor("KVS-FrameDrain");
+    private final Lock producerLock = new ReentrantLock();
+
+    // Sequence of the oldest buffered frame, advanced by the drain thread and by the offering thread dropping frames
+    private final AtomicLong head = new AtomicLong(0);
+    // Sequence of the next offered frame, advanced by the offering thread only
+    private final AtomicLong tail = new AtomicLong(0);
+    private final AtomicLong droppedFrames = new AtomicLong(0);
+
+    private volatile Thread drainThread;
+    private volatile boolean drainWaiting = false;
+    private volatile Thread waitingProducer;
+    // Set before the drain thread claims a frame and cleared once it is put
+    private volatile boolean putting = false;
+    private volatile boolean closed = false;
+    private volatile ProducerException drainError;
+
+    // Guarded by the producer lock
+    private boolean droppingUntilKeyFrame = false;
+
+    /**
+     * @param producerStream Stream to put the frames into
+     * @param capacity Number of frames the ring buffer holds, a power of two
+     * @param fullPolicy What to do with the frames offered while the ring buffer is full
+     */
+    public AsyncMediaSourceSink(@Nonnull final KinesisVideoProducerStream producerStream,
+                                final int capacity,
+                                @Nonnull final FrameQueueFullPolicy fullPolicy) {
+        checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1, "Capacity must be a power of two");
+        this.producerStream = checkNotNull(producerStream);
+        this.fullPolicy = checkNotNull(fullPolicy);
+        this.ring = new AtomicReferenceArray<KinesisVideoFrame>(capacity);
+        this.mask = capacity - 1;
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        });
+    }
+
+    @Override
+    public void onFrame(@Nonnull final KinesisVideoFrame kinesisVideoFrame) throws KinesisVideoException {
+        checkNotNull(kinesisVideoFrame);
+        producerLock.lock();
+        try {
+            throwDrainError();
+            if (droppingUntilKeyFrame) {
+                if (!isKeyFrame(kinesisVideoFrame)) {
+                    drop(kinesisVideoFrame);
+                    return;
+                }
+
+                droppingUntilKeyFrame = false;
+            }
+
+            while (!closed && isFull()) {
+                switch (fullPolicy) {
+                    case DROP_NON_KEY_FRAMES:
+                        if (!isKeyFrame(kinesisVideoFrame)) {
+                            drop(kinesisVideoFrame);
+                            return;
+                        }
+
+                        awaitDrain(false);
+                        break;
+                    case DROP_OLDEST_GOP:
+                        if (dropOldestGop() && !isKeyFrame(kinesisVideoFrame)) {
+                            droppingUntilKeyFrame = true;
+                            drop(kinesisVideoFrame);
+                            return;
+                        }
+
+                        break;
+                    default:
+                        awaitDrain(false);
+                        break;
+                }
+            }
+
+            if (closed) {
+                kinesisVideoFrame.release();
+                throw new KinesisVideoException("Frame sink of stream " + producerStream.getStreamName()
+                        + " is closed");
+            }
+
+            final long sequence = tail.get();
+            ring.set((int) sequence & mask, kinesisVideoFrame);
+            // Volatile write so the drain thread either sees the frame or is seen waiting
+            tail.set(sequence + 1);
+            if (drainWaiting) {
+                LockSupport.unpark(drainThread);
+            }
+        } finally {
+            producerLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the buffered frames are put into the stream.
+     */
+    public void flush() throws KinesisVideoException {
+        producerLock.lock();
+        try {
+            awaitDrained();
+        } finally {
+            producerLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the drain thread and drops the frames which are still buffered. Call {@link #flush()} first to put them.
+     * Blocks until the drain thread has returned from the stream, so the stream can be freed once this returns.
+     */
+    public void close() {
+        closed = true;
+        final Thread drain = drainThread;
+        if (drain != null) {
+            LockSupport.unpark(drain);
+        }
+
+        signalProducer();
+        executor.shutdown();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(CLOSE_WARNING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+
+                log.warn("Frame drain of stream {} is still putting frames, waiting for it to stop",
+                        producerStream.getStreamName());
+            } catch (final InterruptedException e) {
+                // The stream must not be freed under the drain thread, keep waiting
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        producerLock.lock();
+        try {
+            final long first = head.get();
+            final long end = tail.get();
+            if (head.compareAndSet(first, end)) {
+                dropBuffered(first, end);
+            }
+        } finally {
+            producerLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of the frames dropped because the ring buffer was full or the sink was closed
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    /**
+     * Returns the number of the frames waiting in the ring buffer
+     */
+    public int getBufferedFrames() {
+        return (int) (tail.get() - head.get());
+    }
+
+    @Override
+    public void onCodecPrivateData(@Nullable final byte[] codecPrivateData) throws KinesisVideoException {
+        onCodecPrivateData(codecPrivateData, DEFAULT_TRACK_ID);
+    }
+
+    @Override
+    public void onCodecPrivateData(@Nullable final byte[] bytes, final int trackId) throws KinesisVideoException {
+        producerLock.lock();
+        try {
+            awaitDrained();
+            producerStream.streamFormatChanged(bytes, trackId);
+        } finally {
+            producerLock.unlock();
+        }
+    }
+
+    @Override
+    public void onFragmentMetadata(final String metadataName, final String metadataValue, final boolean persistent)
+            throws KinesisVideoException {
+        producerLock.lock();
+        try {
+            awaitDrained();
+            producerStream.putFragmentMetadata(metadataName, metadataValue, persistent);
+        } finally {
+            producerLock.unlock();
+        }
+    }
+
+    @Override
+    public KinesisVideoProducerStream getProducerStream() {
+        return producerStream;
+    }
+
+    private void drain() {
+        drainThread = Thread.currentThread();
+        try {
+            while (!closed && !Thread.currentThread().isInterrupted()) {
+                final long first = head.get();
+                if (first == tail.get()) {
+                    awaitFrames();
+                    continue;
+                }
+
+                final int index = (int) first & mask;
+                final KinesisVideoFrame kinesisVideoFrame = ring.get(index);
+                putting = true;
+                if (!head.compareAndSet(first, first + 1)) {
+                    // The offering thread has dropped the oldest frames meanwhile
+                    putting = false;
+                    continue;
+                }
+
+                // Fails if the offering thread has already reused the slot
+                ring.compareAndSet(index, kinesisVideoFrame, null);
+
+                signalProducer();
+                try {
+                    put(kinesisVideoFrame);
+                } finally {
+                    putting = false;
+                    signalProducer();
+                }
+            }
+        } finally {
+            if (!closed) {
+                log.error("Frame drain of stream {} stopped unexpectedly", producerStream.getStreamName());
+                closed = true;
+            }
+
+            signalProducer();
+        }
+    }
+
+    private void put(final KinesisVideoFrame kinesisVideoFrame) {
+        try {
+            producerStream.putFrame(kinesisVideoFrame);
+        } catch (final ProducerException e) {
+            log.error("Putting a frame into stream {} failed", producerStream.getStreamName(), e);
+            drainError = e;
+        } finally {
+            // The frame data has been copied into the content store, don't hold on to it
+            kinesisVideoFrame.release();
+        }
+    }
+
+    private void awaitFrames() {
+        // Published before re-checking the ring buffer so a frame offered in between unparks this thread
+        drainWaiting = true;
+        try {
+            if (!closed && head.get() == tail.get()) {
+                LockSupport.parkNanos(this, PARK_TIMEOUT_NANOS);
+            }
+        } finally {
+            drainWaiting = false;
+        }
+    }
+
+    /**
+     * Waits for the drain thread to make room or, with untilDrained, to put all the buffered frames.
+     * Called with the producer lock held.
+     */
+    private void awaitDrain(final boolean untilDrained) throws KinesisVideoException {
+        // Published before re-checking the ring buffer so a drain in between unparks this thread
+        waitingProducer = Thread.currentThread();
+        try {
+            if (!closed && (untilDrained ? !isDrained() : isFull())) {
+                LockSupport.parkNanos(this, PARK_TIMEOUT_NANOS);
+            }
+        } finally {
+            waitingProducer = null;
+        }
+
+        if (Thread.currentThread().isInterrupted()) {
+            throw new KinesisVideoException("Interrupted while waiting for the frames of stream "
+                    + producerStream.getStreamName() + " to be put");
+        }
+    }
+
+    private void awaitDrained() throws KinesisVideoException {
+        while (!closed && !isDrained()) {
+            awaitDrain(true);
+        }
+
+        throwDrainError();
+    }
+
+    private void signalProducer() {
+        final Thread producer = waitingProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+    }
+
+    private boolean isFull() {
+        return tail.get() - head.get() == ring.length();
+    }
+
+    private boolean isDrained() {
+        // The head is read first, the drain thread sets the putting flag before it advances the head
+        return head.get() == tail.get() && !putting;
+    }
+
+    /**
+     * Drops the buffered frames up to the next buffered key frame, all of them if there is none.
+     * Called with the producer lock held.
+     *
+     * @return whether all the buffered frames have been dropped, false if the drain thread has taken them first
+     */
+    private boolean dropOldestGop() {
+        final long first = head.get();
+        final long end = tail.get();
+        long gopEnd = end;
+        for (long sequence = first + 1; sequence < end; sequence++) {
+            final KinesisVideoFrame kinesisVideoFrame = ring.get((int) sequence & mask);
+            if (kinesisVideoFrame == null) {
+                // Cleared by the drain thread which has taken the frames past the head read above
+                return false;
+            }
+
+            if (isKeyFrame(kinesisVideoFrame)) {
+                gopEnd = sequence;
+                break;
+            }
+        }
+
+        if (!head.compareAndSet(first, gopEnd)) {
+            return false;
+        }
+
+        dropBuffered(first, gopEnd);
+        return gopEnd == end;
+    }
+
+    private void dropBuffered(final long first, final long end) {
+        for (long sequence = first; sequence < end; sequence++) {
+            drop(ring.getAndSet((int) sequence & mask, null));
+        }
+    }
+
+    private void drop(final KinesisVideoFrame kinesisVideoFrame) {
+        kinesisVideoFrame.release();
+        droppedFrames.incrementAndGet();
+        try {
+            producerStream.droppedFrameReport(kinesisVideoFrame.getPresentationTs());
+        } catch (final ProducerException e) {
+            log.error("Reporting the dropped frame of stream {} failed", producerStream.getStreamName(), e);
+        }
+    }
+
+    private void throwDrainError() throws ProducerException {
+        final ProducerException error = drainError;
+        if (error != null) {
+            drainError = null;
+            throw error;
+        }
+    }
+
+    private static boolean isKeyFrame(final KinesisVideoFrame kinesisVideoFrame) {
+        return FrameFlags.isKeyFrame(kinesisVideoFrame.getFlags());
+    }
+}
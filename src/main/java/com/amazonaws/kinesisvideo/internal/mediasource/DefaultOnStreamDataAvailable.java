@@ -15,6 +15,7 @@ public class DefaultOnStreamDataAvailable implements OnStreamDataAvailable {
     public void onFrameDataAvailable(final KinesisVideoFrame frame) throws KinesisVideoException {
         // ignore frame of size 0
         if (frame.getSize() == 0) {
+            frame.release();
             throw new KinesisVideoException("Empty frame is provided in frame data available.");
         }
 
@@ -0,0 +1,22 @@
+package com.amazonaws.kinesisvideo.internal.mediasource;
+
+/**
+ * What {@link AsyncMediaSourceSink} does with a frame offered while its ring buffer is full.
+ */
+public enum FrameQueueFullPolicy {
+    /**
+     * Waits in onFrame until the drain thread has made room.
+     */
+    BLOCK,
+
+    /**
+     * Drops the offered frame unless it's a key frame, the key frames wait for room.
+     */
+    DROP_NON_KEY_FRAMES,
+
+    /**
+     * Drops the buffered frames up to the next buffered key frame, all of them if there is none. In the latter
+     * case the offered frames are dropped too until the next key frame so no GOP is put without its key frame.
+     */
+    DROP_OLDEST_GOP
+}
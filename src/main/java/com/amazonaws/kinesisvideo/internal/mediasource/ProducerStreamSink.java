@@ -21,7 +21,7 @@ import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoProducerStream;
  * an instance of this sink is created, and the media source is initialized with this.
  *
  * It's then media source's job to produce the frames and push them into the sink
- * it has been initialized with
+ * it has been initialized with. The sink releases the pooled frame data once the frame is put.
  */
 public class ProducerStreamSink implements MediaSourceSink {
     private final KinesisVideoProducerStream producerStream;
@@ -33,7 +33,12 @@ public class ProducerStreamSink implements MediaSourceSink {
     @Override
     public void onFrame(@Nonnull final KinesisVideoFrame kinesisVideoFrame) throws KinesisVideoException {
         checkNotNull(kinesisVideoFrame);
-        producerStream.putFrame(kinesisVideoFrame);
+        try {
+            producerStream.putFrame(kinesisVideoFrame);
+        } finally {
+            // The frame data has been copied into the content store
+            kinesisVideoFrame.release();
+        }
     }
 
     @Override
@@ -2,13 +2,17 @@ package com.amazonaws.kinesisvideo.internal.mediasource.bytes;
 
 import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
 import com.amazonaws.kinesisvideo.internal.mediasource.OnStreamDataAvailable;
+import com.amazonaws.kinesisvideo.producer.FrameBuffer;
+import com.amazonaws.kinesisvideo.producer.FrameBufferPool;
 import com.amazonaws.kinesisvideo.producer.KinesisVideoFrame;
 import com.amazonaws.kinesisvideo.stream.throttling.DiscreteTimePeriodsThrottler;
+import com.amazonaws.kinesisvideo.util.KinesisVideoExecutors;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Random;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -16,33 +20,69 @@ import org.apache.commons.logging.LogFactory;
 import static com.amazonaws.kinesisvideo.producer.FrameFlags.FRAME_FLAG_KEY_FRAME;
 import static com.amazonaws.kinesisvideo.producer.FrameFlags.FRAME_FLAG_NONE;
 import static com.amazonaws.kinesisvideo.producer.Time.HUNDREDS_OF_NANOS_IN_A_MILLISECOND;
-
+import static com.amazonaws.kinesisvideo.producer.Time.HUNDREDS_OF_NANOS_IN_A_SECOND;
+import static com.amazonaws.kinesisvideo.util.StreamInfoConstants.DEFAULT_TRACK_ID;
+
+/**
+ * Generates synthetic frames at the configured frame rate, see {@link BytesMediaSourceConfiguration}.
+ *
+ * With the bitrate set the mean frame sizes are derived from it so a GOP carries bitrate / fps * GOP length bits
+ * split evenly between the tracks, the key frames being the configured ratio larger than the other video frames.
+ * Without it every frame is 1KB. The frame data is the frame counter followed by a fixed pattern.
+ */
 public class BytesGenerator {
     private static final int DISCRETENESS_10HZ = 10;
     private static final int MAX_FRAME_SIZE_BYTES_1024 = 1024;
-    private static final int KEY_FRAME_EVERY_60_FRAMES = 60;
-    private static final long DEFAULT_FRAME_DURATION_33MS = 33L;
+    private static final int MIN_FRAME_SIZE_BYTES = 16;
+    private static final int MAX_FRAME_SIZE_BYTES = 16 * 1024 * 1024;
+    private static final int BITS_IN_A_BYTE = 8;
+    private static final byte[] PATTERN = createPattern(8 * 1024);
 
     private OnStreamDataAvailable streamDataAvailable;
 
-    private final ExecutorService executor = Executors.newFixedThreadPool(1);
+    private final ExecutorService executor = KinesisVideoExecutors.newSingleThreadExecutor("KVS-BytesGenerator");
     private final DiscreteTimePeriodsThrottler throttler;
-    private final byte[][] framesData = new byte[][]{
-            new byte[MAX_FRAME_SIZE_BYTES_1024],
-            new byte[MAX_FRAME_SIZE_BYTES_1024],
-            new byte[MAX_FRAME_SIZE_BYTES_1024],
-            new byte[MAX_FRAME_SIZE_BYTES_1024],
-            new byte[MAX_FRAME_SIZE_BYTES_1024],
-            new byte[MAX_FRAME_SIZE_BYTES_1024]
-    };
+    private final Random random = new Random();
 
     private final Log log = LogFactory.getLog(BytesGenerator.class);
+    private final int gopLength;
+    private final int trackCount;
+    private final long frameDuration;
+    private final double keyFrameSize;
+    private final double videoFrameSize;
+    private final double otherTrackFrameSize;
+    private final FrameSizeDistribution frameSizeDistribution;
+    private final double frameSizeDeviation;
+    private final AtomicLong generatedFrames = new AtomicLong();
+    private final AtomicLong generatedBytes = new AtomicLong();
     private volatile boolean isRunning;
     private int frameCounter;
 
     public BytesGenerator(final int fps) {
+        this(new BytesMediaSourceConfiguration.Builder().withFps(fps).build());
+    }
+
+    public BytesGenerator(final BytesMediaSourceConfiguration configuration) {
         frameCounter = 0;
-        throttler = new DiscreteTimePeriodsThrottler(fps, DISCRETENESS_10HZ);
+        throttler = new DiscreteTimePeriodsThrottler(configuration.getFps(), DISCRETENESS_10HZ);
+        gopLength = configuration.getGopLength();
+        trackCount = configuration.getTrackCount();
+        frameDuration = HUNDREDS_OF_NANOS_IN_A_SECOND / Math.max(1, configuration.getFps());
+        frameSizeDistribution = configuration.getFrameSizeDistribution();
+        frameSizeDeviation = configuration.getFrameSizeDeviation();
+
+        final double keyFrameSizeRatio = configuration.getKeyFrameSizeRatio();
+        if (configuration.getBitrate() > 0 && configuration.getFps() > 0) {
+            final double trackBytesPerGop = (double) configuration.getBitrate() / BITS_IN_A_BYTE
+                    * gopLength / configuration.getFps() / trackCount;
+            videoFrameSize = trackBytesPerGop / (gopLength - 1 + keyFrameSizeRatio);
+            otherTrackFrameSize = trackBytesPerGop / gopLength;
+        } else {
+            videoFrameSize = MAX_FRAME_SIZE_BYTES_1024;
+            otherTrackFrameSize = MAX_FRAME_SIZE_BYTES_1024;
+        }
+
+        keyFrameSize = videoFrameSize * keyFrameSizeRatio;
     }
 
     public void onStreamDataAvailable(final OnStreamDataAvailable streamDataAvailable) {
@@ -63,6 +103,20 @@ public class BytesGenerator {
         isRunning = false;
     }
 
+    /**
+     * Returns the number of the frames generated so far across all the tracks
+     */
+    public long getGeneratedFrames() {
+        return generatedFrames.get();
+    }
+
+    /**
+     * Returns the number of the frame bytes generated so far across all the tracks
+     */
+    public long getGeneratedBytes() {
+        return generatedBytes.get();
+    }
+
     private void startGeneratorInBackground() {
         executor.execute(new Runnable() {
             @Override
@@ -78,11 +132,16 @@ public class BytesGenerator {
 
     private void generateBytesAndNotifyListener() throws KinesisVideoException {
         while (isRunning) {
-            fillArrayWithDigitsOfFramesCounter();
-
-            if (streamDataAvailable != null) {
-                streamDataAvailable
-                        .onFrameDataAvailable(createKinesisVideoFrame());
+            final long currentTimeMs = System.currentTimeMillis();
+            for (int track = 0; track < trackCount; track++) {
+                final KinesisVideoFrame frame = createKinesisVideoFrame(currentTimeMs, track);
+                generatedFrames.incrementAndGet();
+                generatedBytes.addAndGet(frame.getSize());
+                if (streamDataAvailable != null) {
+                    streamDataAvailable.onFrameDataAvailable(frame);
+                } else {
+                    frame.release();
+                }
             }
 
             frameCounter++;
@@ -91,34 +150,53 @@ public class BytesGenerator {
         }
     }
 
-    private KinesisVideoFrame createKinesisVideoFrame() {
-        final long currentTimeMs = System.currentTimeMillis();
+    private KinesisVideoFrame createKinesisVideoFrame(final long currentTimeMs, final int track) {
         final long decodingTs = currentTimeMs * HUNDREDS_OF_NANOS_IN_A_MILLISECOND;
         final long presentationTs = currentTimeMs * HUNDREDS_OF_NANOS_IN_A_MILLISECOND;
 
-        final long frameDuration = DEFAULT_FRAME_DURATION_33MS * HUNDREDS_OF_NANOS_IN_A_MILLISECOND / 2;
+        final boolean isKeyFrame = track == 0 && isKeyFrame();
+        final int flags = isKeyFrame ? FRAME_FLAG_KEY_FRAME : FRAME_FLAG_NONE;
 
-        final int flags = isKeyFrame() ? FRAME_FLAG_KEY_FRAME : FRAME_FLAG_NONE;
+        final FrameBuffer frameBuffer = FrameBufferPool.getDefault().acquire(nextFrameSize(track, isKeyFrame));
+        fillWithDigitsOfFramesCounter(frameBuffer.getBuffer());
 
         return new KinesisVideoFrame(frameCounter,
                 flags,
                 decodingTs,
                 presentationTs,
                 frameDuration,
-                ByteBuffer.wrap(framesData[frameCounter % framesData.length]));
+                frameBuffer,
+                DEFAULT_TRACK_ID + track);
+    }
+
+    int nextFrameSize(final int track, final boolean isKeyFrame) {
+        final double meanSize = isKeyFrame ? keyFrameSize : track == 0 ? videoFrameSize : otherTrackFrameSize;
+        final double size = meanSize * frameSizeDistribution.nextFactor(random, frameSizeDeviation);
+        return (int) Math.max(MIN_FRAME_SIZE_BYTES, Math.min(MAX_FRAME_SIZE_BYTES, Math.round(size)));
     }
 
     private boolean isKeyFrame() {
-        return frameCounter % KEY_FRAME_EVERY_60_FRAMES == 0;
+        return frameCounter % gopLength == 0;
     }
 
-    private void fillArrayWithDigitsOfFramesCounter() {
+    private void fillWithDigitsOfFramesCounter(final ByteBuffer frameData) {
         final String counterString = String.valueOf(frameCounter) + "|";
         final byte[] counterBytes = counterString.getBytes(StandardCharsets.US_ASCII);
-        final byte[] frameData = this.framesData[frameCounter % this.framesData.length];
 
-        for (int i = 0; i < frameData.length; i++) {
-            frameData[i] = counterBytes[i % counterBytes.length];
+        frameData.put(counterBytes, 0, Math.min(counterBytes.length, frameData.remaining()));
+        while (frameData.hasRemaining()) {
+            frameData.put(PATTERN, 0, Math.min(PATTERN.length, frameData.remaining()));
         }
+
+        frameData.flip();
+    }
+
+    private static byte[] createPattern(final int size) {
+        final byte[] pattern = new byte[size];
+        for (int i = 0; i < size; i++) {
+            pattern[i] = (byte) ('0' + i % 10);
+        }
+
+        return pattern;
     }
 }
@@ -1,5 +1,8 @@
 package com.amazonaws.kinesisvideo.internal.mediasource.bytes;
 
+import static com.amazonaws.kinesisvideo.producer.MkvTrackInfoType.AUDIO;
+import static com.amazonaws.kinesisvideo.producer.MkvTrackInfoType.UNKNOWN;
+import static com.amazonaws.kinesisvideo.producer.MkvTrackInfoType.VIDEO;
 import static com.amazonaws.kinesisvideo.producer.StreamInfo.NalAdaptationFlags.NAL_ADAPTATION_FLAG_NONE;
 import static com.amazonaws.kinesisvideo.producer.Time.HUNDREDS_OF_NANOS_IN_AN_HOUR;
 import static com.amazonaws.kinesisvideo.util.StreamInfoConstants.ABSOLUTE_TIMECODES;
@@ -9,6 +12,7 @@ import static com.amazonaws.kinesisvideo.util.StreamInfoConstants.DEFAULT_GOP_DU
 import static com.amazonaws.kinesisvideo.util.StreamInfoConstants.DEFAULT_REPLAY_DURATION;
 import static com.amazonaws.kinesisvideo.util.StreamInfoConstants.DEFAULT_STALENESS_DURATION;
 import static com.amazonaws.kinesisvideo.util.StreamInfoConstants.DEFAULT_TIMESCALE;
+import static com.amazonaws.kinesisvideo.util.StreamInfoConstants.DEFAULT_TRACK_ID;
 import static com.amazonaws.kinesisvideo.util.StreamInfoConstants.FRAMERATE_30;
 import static com.amazonaws.kinesisvideo.util.StreamInfoConstants.KEYFRAME_FRAGMENTATION;
 import static com.amazonaws.kinesisvideo.util.StreamInfoConstants.MAX_LATENCY_ZERO;
@@ -30,22 +34,34 @@ import com.amazonaws.kinesisvideo.client.mediasource.MediaSourceState;
 import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
 import com.amazonaws.kinesisvideo.common.preconditions.Preconditions;
 import com.amazonaws.kinesisvideo.internal.mediasource.DefaultOnStreamDataAvailable;
+import com.amazonaws.kinesisvideo.producer.MkvTrackInfoType;
 import com.amazonaws.kinesisvideo.producer.StreamCallbacks;
 import com.amazonaws.kinesisvideo.producer.StreamInfo;
 import com.amazonaws.kinesisvideo.producer.Tag;
+import com.amazonaws.kinesisvideo.producer.TrackInfo;
 
 public class BytesMediaSource implements MediaSource {
     private static final String TAG = "BytesMediaSource";
 
     private final String streamName;
+    private final StreamCallbacks streamCallbacks;
 
     private BytesMediaSourceConfiguration configuration;
     private MediaSourceState mediaSourceState;
     private MediaSourceSink mediaSourceSink;
-    private BytesGenerator bytesGenerator;
+    private volatile BytesGenerator bytesGenerator;
 
     public BytesMediaSource(final @Nonnull String streamName) {
+        this(streamName, null);
+    }
+
+    /**
+     * @param streamName Name of the stream
+     * @param streamCallbacks Callbacks of the stream, null for the client's ones
+     */
+    public BytesMediaSource(final @Nonnull String streamName, final @Nullable StreamCallbacks streamCallbacks) {
         this.streamName = streamName;
+        this.streamCallbacks = streamCallbacks;
     }
 
     @Override
@@ -74,20 +90,29 @@ public class BytesMediaSource implements MediaSource {
                 ABSOLUTE_TIMECODES,
                 REQUEST_FRAGMENT_ACKS,
                 RECOVER_ON_FAILURE,
-                null,
-                null,
-                DEFAULT_BITRATE,
-                FRAMERATE_30,
+                configuration.getBitrate() > 0 ? configuration.getBitrate() : DEFAULT_BITRATE,
+                configuration.getFps() > 0 ? configuration.getFps() : FRAMERATE_30,
                 DEFAULT_BUFFER_DURATION,
                 DEFAULT_REPLAY_DURATION,
                 DEFAULT_STALENESS_DURATION,
                 DEFAULT_TIMESCALE,
                 RECALCULATE_METRICS,
-                null,
                 new Tag[] {
                         new Tag("device", "Test Device"),
                         new Tag("stream", "Test Stream") },
-                NAL_ADAPTATION_FLAG_NONE);
+                NAL_ADAPTATION_FLAG_NONE,
+                null,
+                createTrackInfoList(configuration.getTrackCount()));
+    }
+
+    private static TrackInfo[] createTrackInfoList(final int trackCount) {
+        final TrackInfo[] trackInfoList = new TrackInfo[trackCount];
+        for (int i = 0; i < trackCount; i++) {
+            final MkvTrackInfoType trackType = i == 0 ? VIDEO : i == 1 ? AUDIO : UNKNOWN;
+            trackInfoList[i] = new TrackInfo(DEFAULT_TRACK_ID + i, null, null, null, trackType);
+        }
+
+        return trackInfoList;
     }
 
     @Override
@@ -109,7 +134,7 @@ public class BytesMediaSource implements MediaSource {
     @Override
     public void start() throws KinesisVideoException {
         mediaSourceState = MediaSourceState.RUNNING;
-        bytesGenerator = new BytesGenerator(configuration.getFps());
+        bytesGenerator = new BytesGenerator(configuration);
         bytesGenerator.onStreamDataAvailable(new DefaultOnStreamDataAvailable(mediaSourceSink));
         bytesGenerator.start();
     }
@@ -139,6 +164,22 @@ public class BytesMediaSource implements MediaSource {
     @Nullable
     @Override
     public StreamCallbacks getStreamCallbacks() {
-        return null;
+        return streamCallbacks;
+    }
+
+    /**
+     * Returns the number of the frame bytes generated since the last start
+     */
+    public long getGeneratedBytes() {
+        final BytesGenerator generator = bytesGenerator;
+        return generator == null ? 0 : generator.getGeneratedBytes();
+    }
+
+    /**
+     * Returns the number of the frames generated since the last start
+     */
+    public long getGeneratedFrames() {
+        final BytesGenerator generator = bytesGenerator;
+        return generator == null ? 0 : generator.getGeneratedFrames();
     }
 }
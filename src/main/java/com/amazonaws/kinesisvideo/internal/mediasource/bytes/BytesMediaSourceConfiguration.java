@@ -2,17 +2,29 @@ package com.amazonaws.kinesisvideo.internal.mediasource.bytes;
 
 import com.amazonaws.kinesisvideo.internal.client.mediasource.MediaSourceConfiguration;
 
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+
 public class BytesMediaSourceConfiguration implements MediaSourceConfiguration {
 
     private static final String MEDIA_SOURCE_TYPE = "BytesMediaSource";
     private static final String MEDIA_SOURCE_DESCRIPTION = "Generates bytes in specific "
             + "configuration. Useful for debugging";
 
+    private static final int DEFAULT_GOP_LENGTH = 60;
+    private static final int DEFAULT_TRACK_COUNT = 1;
+
     public static class Builder
             implements MediaSourceConfiguration.Builder<BytesMediaSourceConfiguration> {
 
         private int fps;
         private long retentionPeriodInHours;
+        private int bitrate;
+        private int gopLength = DEFAULT_GOP_LENGTH;
+        private double keyFrameSizeRatio = 1;
+        private FrameSizeDistribution frameSizeDistribution = FrameSizeDistribution.CONSTANT;
+        private double frameSizeDeviation;
+        private int trackCount = DEFAULT_TRACK_COUNT;
 
         public Builder withFps(final int fps) {
             this.fps = fps;
@@ -24,6 +36,60 @@ public class BytesMediaSourceConfiguration implements MediaSourceConfiguration {
             return this;
         }
 
+        /**
+         * Average bitrate of the stream across all the tracks, 0 for the fixed 1KB frames
+         *
+         * @param bitrate bits per second
+         */
+        public Builder withBitrate(final int bitrate) {
+            checkArgument(bitrate >= 0);
+            this.bitrate = bitrate;
+            return this;
+        }
+
+        /**
+         * Number of the frames from one key frame to the next one, the fragment length with the key frame
+         * fragmentation
+         */
+        public Builder withGopLength(final int gopLength) {
+            checkArgument(gopLength > 0);
+            this.gopLength = gopLength;
+            return this;
+        }
+
+        /**
+         * How much larger the key frames are than the other frames on average
+         */
+        public Builder withKeyFrameSizeRatio(final double keyFrameSizeRatio) {
+            checkArgument(keyFrameSizeRatio >= 1);
+            this.keyFrameSizeRatio = keyFrameSizeRatio;
+            return this;
+        }
+
+        /**
+         * Distribution of the frame sizes around their mean
+         *
+         * @param frameSizeDistribution distribution
+         * @param frameSizeDeviation deviation as a fraction of the mean, see {@link FrameSizeDistribution}
+         */
+        public Builder withFrameSizeDistribution(final FrameSizeDistribution frameSizeDistribution,
+                                                 final double frameSizeDeviation) {
+            checkArgument(frameSizeDeviation >= 0);
+            this.frameSizeDistribution = checkNotNull(frameSizeDistribution);
+            this.frameSizeDeviation = frameSizeDeviation;
+            return this;
+        }
+
+        /**
+         * Number of the tracks. The first one is video with the key frames, the second one audio and the others
+         * of an unknown type. Every track gets a frame at every tick of the frame rate.
+         */
+        public Builder withTrackCount(final int trackCount) {
+            checkArgument(trackCount > 0);
+            this.trackCount = trackCount;
+            return this;
+        }
+
         @Override
         public BytesMediaSourceConfiguration build() {
             return new BytesMediaSourceConfiguration(this);
@@ -44,6 +110,30 @@ public class BytesMediaSourceConfiguration implements MediaSourceConfiguration {
         return mBuilder.retentionPeriodInHours;
     }
 
+    public int getBitrate() {
+        return mBuilder.bitrate;
+    }
+
+    public int getGopLength() {
+        return mBuilder.gopLength;
+    }
+
+    public double getKeyFrameSizeRatio() {
+        return mBuilder.keyFrameSizeRatio;
+    }
+
+    public FrameSizeDistribution getFrameSizeDistribution() {
+        return mBuilder.frameSizeDistribution;
+    }
+
+    public double getFrameSizeDeviation() {
+        return mBuilder.frameSizeDeviation;
+    }
+
+    public int getTrackCount() {
+        return mBuilder.trackCount;
+    }
+
     @Override
     public String getMediaSourceType() {
         return MEDIA_SOURCE_TYPE;
@@ -0,0 +1,43 @@
+package com.amazonaws.kinesisvideo.internal.mediasource.bytes;
+
+import java.util.Random;
+
+/**
+ * Distribution of the synthetic frame sizes around their mean.
+ */
+public enum FrameSizeDistribution {
+    /**
+     * Every frame is of the mean size
+     */
+    CONSTANT {
+        @Override
+        double nextFactor(final Random random, final double deviation) {
+            return 1;
+        }
+    },
+
+    /**
+     * Uniform between mean * (1 - deviation) and mean * (1 + deviation)
+     */
+    UNIFORM {
+        @Override
+        double nextFactor(final Random random, final double deviation) {
+            return 1 + deviation * (2 * random.nextDouble() - 1);
+        }
+    },
+
+    /**
+     * Normal with the standard deviation of mean * deviation
+     */
+    NORMAL {
+        @Override
+        double nextFactor(final Random random, final double deviation) {
+            return 1 + deviation * random.nextGaussian();
+        }
+    };
+
+    /**
+     * Returns the factor to multiply the mean frame size by
+     */
+    abstract double nextFactor(Random random, double deviation);
+}
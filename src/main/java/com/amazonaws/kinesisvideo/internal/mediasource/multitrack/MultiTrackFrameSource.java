@@ -2,7 +2,10 @@ package com.amazonaws.kinesisvideo.internal.mediasource.multitrack;
 
 import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
 import com.amazonaws.kinesisvideo.internal.mediasource.OnStreamDataAvailable;
+import com.amazonaws.kinesisvideo.producer.FrameBuffer;
+import com.amazonaws.kinesisvideo.producer.FrameBufferPool;
 import com.amazonaws.kinesisvideo.producer.KinesisVideoFrame;
+import com.amazonaws.kinesisvideo.util.KinesisVideoExecutors;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -10,7 +13,6 @@ import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import static com.amazonaws.kinesisvideo.producer.FrameFlags.FRAME_FLAG_KEY_FRAME;
 import static com.amazonaws.kinesisvideo.producer.FrameFlags.FRAME_FLAG_NONE;
@@ -24,15 +26,7 @@ public class MultiTrackFrameSource {
     private OnStreamDataAvailable streamDataAvailable;
     private final int fps;
 
-    private final ExecutorService executor = Executors.newFixedThreadPool(1);
-    private final byte[][] framesData = new byte[][]{
-            new byte[MAX_FRAME_SIZE_BYTES_1024],
-            new byte[MAX_FRAME_SIZE_BYTES_1024],
-            new byte[MAX_FRAME_SIZE_BYTES_1024],
-            new byte[MAX_FRAME_SIZE_BYTES_1024],
-            new byte[MAX_FRAME_SIZE_BYTES_1024],
-            new byte[MAX_FRAME_SIZE_BYTES_1024]
-    };
+    private final ExecutorService executor = KinesisVideoExecutors.newSingleThreadExecutor("KVS-MultiTrackFrameSource");
 
     private final Log log = LogFactory.getLog(MultiTrackFrameSource.class);
     private volatile boolean isRunning;
@@ -76,8 +70,6 @@ public class MultiTrackFrameSource {
 
     private void generateBytesAndNotifyListener() throws KinesisVideoException {
         while (isRunning) {
-            fillArrayWithDigitsOfFramesCounter();
-
             if (streamDataAvailable != null) {
                 streamDataAvailable
                         .onFrameDataAvailable(createKinesisVideoFrame());
@@ -99,25 +91,29 @@ public class MultiTrackFrameSource {
         final long presentationTs = currentTimeMs * HUNDREDS_OF_NANOS_IN_A_MILLISECOND;
         final int flags = isKeyFrame() ? FRAME_FLAG_KEY_FRAME : FRAME_FLAG_NONE;
 
+        final FrameBuffer frameBuffer = FrameBufferPool.getDefault().acquire(MAX_FRAME_SIZE_BYTES_1024);
+        fillWithDigitsOfFramesCounter(frameBuffer.getBuffer());
+
         return new KinesisVideoFrame(frameCounter,
                 flags,
                 decodingTs,
                 presentationTs,
                 FRAME_DURATION_0_MS,
-                ByteBuffer.wrap(framesData[frameCounter % framesData.length]));
+                frameBuffer);
     }
 
     private boolean isKeyFrame() {
         return frameCounter % FRAME_RATE_25 == 0;
     }
 
-    private void fillArrayWithDigitsOfFramesCounter() {
+    private void fillWithDigitsOfFramesCounter(final ByteBuffer frameData) {
         final String counterString = String.valueOf(frameCounter) + "|";
         final byte[] counterBytes = counterString.getBytes(StandardCharsets.US_ASCII);
-        final byte[] frameData = this.framesData[frameCounter % this.framesData.length];
 
-        for (int i = 0; i < frameData.length; i++) {
-            frameData[i] = counterBytes[i % counterBytes.length];
+        while (frameData.hasRemaining()) {
+            frameData.put(counterBytes, 0, Math.min(counterBytes.length, frameData.remaining()));
         }
+
+        frameData.flip();
     }
 }
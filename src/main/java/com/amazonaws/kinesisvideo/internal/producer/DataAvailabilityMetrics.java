@@ -0,0 +1,93 @@
+package com.amazonaws.kinesisvideo.internal.producer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of the data availability signalling between the native stream data callbacks and the upload readers.
+ *
+ * Unlike {@link KinesisVideoStreamMetrics} these are collected on the Java side and updated concurrently by the
+ * callback and reader threads.
+ */
+public class DataAvailabilityMetrics {
+    private final AtomicLong notifications = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong wakeups = new AtomicLong();
+    private final AtomicLong spuriousWakeups = new AtomicLong();
+    private final AtomicLong waitTimeNanos = new AtomicLong();
+
+    public void recordNotification() {
+        notifications.incrementAndGet();
+    }
+
+    /**
+     * Records a reader which had to park as there was no data available
+     *
+     * @param waitTimeNanos time spent parked in nanoseconds
+     */
+    public void recordWait(final long waitTimeNanos) {
+        waits.incrementAndGet();
+        this.waitTimeNanos.addAndGet(waitTimeNanos);
+    }
+
+    /**
+     * Records a parked reader waking up
+     *
+     * @param spurious whether the reader woke without a data availability notification, including the timeouts
+     */
+    public void recordWakeup(final boolean spurious) {
+        wakeups.incrementAndGet();
+        if (spurious) {
+            spuriousWakeups.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of the data availability notifications
+     * @return number of notifications
+     */
+    public long getNotifications() {
+        return notifications.get();
+    }
+
+    /**
+     * Returns the number of the reads which had to wait for the data
+     * @return number of waits
+     */
+    public long getWaits() {
+        return waits.get();
+    }
+
+    /**
+     * Returns the number of times a waiting reader has woken up
+     * @return number of wakeups
+     */
+    public long getWakeups() {
+        return wakeups.get();
+    }
+
+    /**
+     * Returns the number of wakeups without the data availability notification
+     * @return number of spurious wakeups
+     */
+    public long getSpuriousWakeups() {
+        return spuriousWakeups.get();
+    }
+
+    /**
+     * Returns the overall time the readers have spent waiting in milliseconds
+     * @return wait time
+     */
+    public long getWaitTimeInMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitTimeNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "notifications: " + getNotifications()
+                + ", waits: " + getWaits()
+                + ", wakeups: " + getWakeups()
+                + ", spurious wakeups: " + getSpuriousWakeups()
+                + ", wait time: " + getWaitTimeInMillis() + " ms";
+    }
+}
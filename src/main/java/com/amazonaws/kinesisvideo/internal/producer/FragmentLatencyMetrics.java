@@ -0,0 +1,179 @@
+package com.amazonaws.kinesisvideo.internal.producer;
+
+import com.amazonaws.kinesisvideo.producer.FragmentAckType;
+import com.amazonaws.kinesisvideo.producer.KinesisVideoFragmentAck;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.amazonaws.kinesisvideo.producer.Time.HUNDREDS_OF_NANOS_IN_A_MILLISECOND;
+
+/**
+ * End to end latencies of the fragments of a stream, from the key frame starting the fragment being put to each of
+ * the fragment acks.
+ *
+ * The fragments are matched with the acks by the key frame presentation timestamp in milliseconds. The ack
+ * timestamp is the fragment timecode in milliseconds, which is relative to the stream start time of the upload
+ * with relative fragment timecodes, so the start time of each upload is recorded with
+ * {@link #recordUploadStart(long, long)} and added to the timecodes of its acks. The put times of up to {@link #MAX_PENDING_FRAGMENTS} fragments are kept until
+ * their PERSISTED or ERROR ack arrives, the oldest ones are dropped past that. Like
+ * {@link DataAvailabilityMetrics} these are collected on the Java side and updated concurrently without locking.
+ */
+public class FragmentLatencyMetrics {
+    /**
+     * Max number of the fragments waiting for the PERSISTED or ERROR ack
+     */
+    public static final int MAX_PENDING_FRAGMENTS = 1024;
+
+    /**
+     * Max number of the uploads whose timecode base is kept, the upload handles only grow so the oldest go first
+     */
+    private static final int MAX_UPLOADS = 16;
+
+    private final ConcurrentSkipListMap<Long, Long> pendingFragments = new ConcurrentSkipListMap<Long, Long>();
+    private final ConcurrentSkipListMap<Long, Long> uploadTimecodeBases = new ConcurrentSkipListMap<Long, Long>();
+    private final LatencyHistogram bufferingLatency = new LatencyHistogram();
+    private final LatencyHistogram receivedLatency = new LatencyHistogram();
+    private final LatencyHistogram persistedLatency = new LatencyHistogram();
+    private final LatencyHistogram errorLatency = new LatencyHistogram();
+    private final AtomicLong unmatchedAcks = new AtomicLong();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    /**
+     * Records the put time of a key frame starting a fragment
+     *
+     * @param presentationTs presentation timestamp of the key frame in 100ns
+     */
+    public void recordKeyFrame(final long presentationTs) {
+        // The skip list size() walks the whole map, so the count is kept on the side
+        if (pendingFragments.put(presentationTs / HUNDREDS_OF_NANOS_IN_A_MILLISECOND, System.nanoTime()) == null
+                && pendingCount.incrementAndGet() > MAX_PENDING_FRAGMENTS
+                && pendingFragments.pollFirstEntry() != null) {
+            pendingCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Records the start of an upload
+     *
+     * @param uploadHandle handle of the upload
+     * @param timecodeBaseMillis stream start time of the upload in milliseconds with relative fragment timecodes,
+     *                           0 with absolute ones
+     */
+    public void recordUploadStart(final long uploadHandle, final long timecodeBaseMillis) {
+        uploadTimecodeBases.put(uploadHandle, timecodeBaseMillis);
+        if (uploadTimecodeBases.size() > MAX_UPLOADS) {
+            uploadTimecodeBases.pollFirstEntry();
+        }
+    }
+
+    /**
+     * Records the latency of the fragment ack
+     *
+     * @param uploadHandle handle of the upload the ack belongs to
+     * @param fragmentAck ack of a fragment, its timestamp is the fragment timecode in milliseconds
+     */
+    public void recordFragmentAck(final long uploadHandle, @Nonnull final KinesisVideoFragmentAck fragmentAck) {
+        final LatencyHistogram histogram = getHistogram(fragmentAck.getAckType().getIntType());
+        if (histogram == null) {
+            return;
+        }
+
+        final long nowNanos = System.nanoTime();
+        final Long timecodeBase = uploadTimecodeBases.get(uploadHandle);
+        final Long fragmentTimecode = fragmentAck.getTimestamp() + (timecodeBase == null ? 0 : timecodeBase);
+        final boolean isFinal = histogram == persistedLatency || histogram == errorLatency;
+        final Long putTimeNanos = isFinal
+                ? pendingFragments.remove(fragmentTimecode)
+                : pendingFragments.get(fragmentTimecode);
+        if (putTimeNanos == null) {
+            unmatchedAcks.incrementAndGet();
+            return;
+        }
+
+        if (isFinal) {
+            pendingCount.decrementAndGet();
+        }
+
+        histogram.recordNanos(nowNanos - putTimeNanos);
+    }
+
+    /**
+     * Returns the latencies from the key frame put to the BUFFERING ack
+     * @return buffering latency histogram
+     */
+    @Nonnull
+    public LatencyHistogram getBufferingLatency() {
+        return bufferingLatency;
+    }
+
+    /**
+     * Returns the latencies from the key frame put to the RECEIVED ack
+     * @return received latency histogram
+     */
+    @Nonnull
+    public LatencyHistogram getReceivedLatency() {
+        return receivedLatency;
+    }
+
+    /**
+     * Returns the latencies from the key frame put to the PERSISTED ack, the ingest to durable latency
+     * @return persisted latency histogram
+     */
+    @Nonnull
+    public LatencyHistogram getPersistedLatency() {
+        return persistedLatency;
+    }
+
+    /**
+     * Returns the latencies from the key frame put to the ERROR ack
+     * @return error latency histogram
+     */
+    @Nonnull
+    public LatencyHistogram getErrorLatency() {
+        return errorLatency;
+    }
+
+    /**
+     * Returns the number of the acks which didn't match any of the put fragments
+     * @return number of unmatched acks
+     */
+    public long getUnmatchedAcks() {
+        return unmatchedAcks.get();
+    }
+
+    /**
+     * Returns the number of the fragments waiting for the PERSISTED or ERROR ack
+     * @return number of pending fragments
+     */
+    public int getPendingFragments() {
+        return pendingCount.get();
+    }
+
+    private LatencyHistogram getHistogram(final int ackType) {
+        switch (ackType) {
+            case FragmentAckType.FRAGMENT_ACK_TYPE_BUFFERING:
+                return bufferingLatency;
+            case FragmentAckType.FRAGMENT_ACK_TYPE_RECEIVED:
+                return receivedLatency;
+            case FragmentAckType.FRAGMENT_ACK_TYPE_PERSISTED:
+                return persistedLatency;
+            case FragmentAckType.FRAGMENT_ACK_TYPE_ERROR:
+                return errorLatency;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "buffering: {" + bufferingLatency
+                + "}, received: {" + receivedLatency
+                + "}, persisted: {" + persistedLatency
+                + "}, error: {" + errorLatency
+                + "}, unmatched acks: " + getUnmatchedAcks()
+                + ", pending fragments: " + getPendingFragments();
+    }
+}
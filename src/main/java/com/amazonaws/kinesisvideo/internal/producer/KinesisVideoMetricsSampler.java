@@ -0,0 +1,170 @@
+package com.amazonaws.kinesisvideo.internal.producer;
+
+import com.amazonaws.kinesisvideo.producer.ProducerException;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+
+/**
+ * Samples the client and the stream metrics from the native producer at a fixed interval, off the frame path.
+ *
+ * Every sample is published as a new {@link KinesisVideoMetricsSnapshot} which the readers get through
+ * {@link #getSnapshot()} without locking or calling into the native code. The samples are logged at debug level.
+ *
+ * The streams must be removed before they are freed and the sampler stopped before the producer is freed,
+ * both calls wait for a sample in progress to finish.
+ */
+public final class KinesisVideoMetricsSampler {
+    private final Logger mLog;
+    private final KinesisVideoProducer mProducer;
+    private final ScheduledExecutorService mExecutor;
+    private final long mIntervalMillis;
+    private final Map<String, KinesisVideoProducerStream> mStreams =
+            new HashMap<String, KinesisVideoProducerStream>();
+    private volatile KinesisVideoMetricsSnapshot mSnapshot = KinesisVideoMetricsSnapshot.EMPTY;
+    private ScheduledFuture<?> mSampleFuture;
+
+    /**
+     * @param log Logger to log the samples at debug level to
+     * @param producer Producer to sample the client metrics of
+     * @param executor Executor to sample on
+     * @param intervalMillis Time between the samples
+     */
+    public KinesisVideoMetricsSampler(@Nonnull final Logger log,
+                                      @Nonnull final KinesisVideoProducer producer,
+                                      @Nonnull final ScheduledExecutorService executor,
+                                      final long intervalMillis) {
+        checkArgument(intervalMillis > 0);
+        mLog = checkNotNull(log);
+        mProducer = checkNotNull(producer);
+        mExecutor = checkNotNull(executor);
+        mIntervalMillis = intervalMillis;
+    }
+
+    /**
+     * Starts sampling, the first sample is taken after one interval.
+     */
+    public synchronized void start() {
+        if (mSampleFuture != null) {
+            return;
+        }
+
+        mSampleFuture = mExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    sample();
+                } catch (final RuntimeException e) {
+                    // Thrown out of the task it would cancel the sampling for good
+                    mLog.error("Sampling the metrics threw an exception", e);
+                }
+            }
+        }, mIntervalMillis, mIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops sampling. The last snapshot stays available.
+     */
+    public synchronized void stop() {
+        if (mSampleFuture != null) {
+            mSampleFuture.cancel(false);
+            mSampleFuture = null;
+        }
+    }
+
+    public synchronized void addStream(@Nonnull final KinesisVideoProducerStream stream) {
+        checkNotNull(stream);
+        mStreams.put(stream.getStreamName(), stream);
+    }
+
+    public synchronized void removeStream(@Nonnull final KinesisVideoProducerStream stream) {
+        checkNotNull(stream);
+        if (mStreams.get(stream.getStreamName()) == stream) {
+            mStreams.remove(stream.getStreamName());
+        }
+    }
+
+    /**
+     * Returns the latest sample, {@link KinesisVideoMetricsSnapshot#EMPTY} until the first one is taken
+     */
+    @Nonnull
+    public KinesisVideoMetricsSnapshot getSnapshot() {
+        return mSnapshot;
+    }
+
+    synchronized void sample() {
+        if (mSampleFuture == null) {
+            // Stopped while this run was waiting for the lock
+            return;
+        }
+
+        final KinesisVideoMetrics clientMetrics;
+        try {
+            clientMetrics = mProducer.getMetrics();
+        } catch (final ProducerException e) {
+            mLog.debug("Unable to get the client metrics", e);
+            return;
+        }
+
+        final Map<String, KinesisVideoMetricsSnapshot.StreamMetricsSnapshot> streamMetrics =
+                new HashMap<String, KinesisVideoMetricsSnapshot.StreamMetricsSnapshot>();
+        for (final Map.Entry<String, KinesisVideoProducerStream> entry : mStreams.entrySet()) {
+            try {
+                streamMetrics.put(entry.getKey(),
+                        new KinesisVideoMetricsSnapshot.StreamMetricsSnapshot(entry.getValue().getMetrics()));
+            } catch (final ProducerException e) {
+                mLog.debug("Unable to get the metrics of stream {}", entry.getKey(), e);
+            }
+        }
+
+        final KinesisVideoMetricsSnapshot snapshot =
+                new KinesisVideoMetricsSnapshot(System.currentTimeMillis(), clientMetrics, streamMetrics);
+        mSnapshot = snapshot;
+        if (mLog.isDebugEnabled()) {
+            logSnapshot(snapshot);
+        }
+    }
+
+    private void logSnapshot(@Nonnull final KinesisVideoMetricsSnapshot snapshot) {
+        mLog.debug("Kinesis Video client metrics"
+                        + "\n\t>> Overall storage size: {}"
+                        + "\n\t>> Available storage size: {}"
+                        + "\n\t>> Allocated storage size: {}"
+                        + "\n\t>> Total view allocation size: {}"
+                        + "\n\t>> Total streams frame rate: {}"
+                        + "\n\t>> Total streams transfer rate: {}",
+                snapshot.getContentStoreSize(),
+                snapshot.getContentStoreAvailableSize(),
+                snapshot.getContentStoreAllocatedSize(),
+                snapshot.getTotalContentViewSize(),
+                snapshot.getTotalFrameRate(),
+                snapshot.getTotalTransferRate());
+
+        for (final Map.Entry<String, KinesisVideoMetricsSnapshot.StreamMetricsSnapshot> entry
+                : snapshot.getStreamMetrics().entrySet()) {
+            final KinesisVideoMetricsSnapshot.StreamMetricsSnapshot streamMetrics = entry.getValue();
+            mLog.debug("Kinesis Video stream {} metrics"
+                            + "\n\t>> Current view duration (ms): {}"
+                            + "\n\t>> Overall view duration (ms): {}"
+                            + "\n\t>> Current view size: {}"
+                            + "\n\t>> Overall view size: {}"
+                            + "\n\t>> Current frame rate: {}"
+                            + "\n\t>> Current transfer rate: {}",
+                    entry.getKey(),
+                    streamMetrics.getCurrentViewDurationInMillis(),
+                    streamMetrics.getOverallViewDurationInMillis(),
+                    streamMetrics.getCurrentViewSize(),
+                    streamMetrics.getOverallViewSize(),
+                    streamMetrics.getCurrentFrameRate(),
+                    streamMetrics.getCurrentTransferRate());
+        }
+    }
+}
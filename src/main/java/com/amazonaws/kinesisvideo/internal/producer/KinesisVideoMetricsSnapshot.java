@@ -0,0 +1,164 @@
+package com.amazonaws.kinesisvideo.internal.producer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable copy of the client and the stream metrics taken by the {@link KinesisVideoMetricsSampler}.
+ * Can be read from any thread without locking.
+ */
+public final class KinesisVideoMetricsSnapshot {
+    /**
+     * Snapshot returned before the first sample has been taken
+     */
+    public static final KinesisVideoMetricsSnapshot EMPTY = new KinesisVideoMetricsSnapshot(0,
+            new KinesisVideoMetrics(), Collections.<String, StreamMetricsSnapshot>emptyMap());
+
+    private final long timestampMillis;
+    private final long contentStoreSize;
+    private final long contentStoreAvailableSize;
+    private final long contentStoreAllocatedSize;
+    private final long totalContentViewSize;
+    private final long totalFrameRate;
+    private final long totalTransferRate;
+    private final Map<String, StreamMetricsSnapshot> streamMetrics;
+
+    /**
+     * @param timestampMillis Wall clock time the metrics were taken at
+     * @param clientMetrics Client metrics to copy
+     * @param streamMetrics Snapshots of the stream metrics by the stream name
+     */
+    public KinesisVideoMetricsSnapshot(final long timestampMillis,
+                                       @Nonnull final KinesisVideoMetrics clientMetrics,
+                                       @Nonnull final Map<String, StreamMetricsSnapshot> streamMetrics) {
+        this.timestampMillis = timestampMillis;
+        this.contentStoreSize = clientMetrics.getContentStoreSize();
+        this.contentStoreAvailableSize = clientMetrics.getContentStoreAvailableSize();
+        this.contentStoreAllocatedSize = clientMetrics.getContentStoreAllocatedSize();
+        this.totalContentViewSize = clientMetrics.getTotalContentViewSize();
+        this.totalFrameRate = clientMetrics.getTotalFrameRate();
+        this.totalTransferRate = clientMetrics.getTotalTransferRate();
+        this.streamMetrics = Collections.unmodifiableMap(new HashMap<String, StreamMetricsSnapshot>(streamMetrics));
+    }
+
+    /**
+     * Returns the wall clock time the metrics were taken at, 0 for the {@link #EMPTY} snapshot
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public long getContentStoreSize() {
+        return contentStoreSize;
+    }
+
+    public long getContentStoreAvailableSize() {
+        return contentStoreAvailableSize;
+    }
+
+    public long getContentStoreAllocatedSize() {
+        return contentStoreAllocatedSize;
+    }
+
+    public long getTotalContentViewSize() {
+        return totalContentViewSize;
+    }
+
+    public long getTotalFrameRate() {
+        return totalFrameRate;
+    }
+
+    public long getTotalTransferRate() {
+        return totalTransferRate;
+    }
+
+    /**
+     * Returns the snapshots of the stream metrics by the stream name
+     */
+    @Nonnull
+    public Map<String, StreamMetricsSnapshot> getStreamMetrics() {
+        return streamMetrics;
+    }
+
+    /**
+     * Returns the snapshot of the stream metrics or null if the stream wasn't sampled
+     */
+    @Nullable
+    public StreamMetricsSnapshot getStreamMetrics(@Nonnull final String streamName) {
+        return streamMetrics.get(streamName);
+    }
+
+    @Override
+    public String toString() {
+        return "KinesisVideoMetricsSnapshot{"
+                + "timestampMillis=" + timestampMillis
+                + ", contentStoreSize=" + contentStoreSize
+                + ", contentStoreAvailableSize=" + contentStoreAvailableSize
+                + ", contentStoreAllocatedSize=" + contentStoreAllocatedSize
+                + ", totalContentViewSize=" + totalContentViewSize
+                + ", totalFrameRate=" + totalFrameRate
+                + ", totalTransferRate=" + totalTransferRate
+                + ", streamMetrics=" + streamMetrics
+                + '}';
+    }
+
+    /**
+     * Immutable copy of the metrics of one stream.
+     */
+    public static final class StreamMetricsSnapshot {
+        private final long currentViewDurationInMillis;
+        private final long overallViewDurationInMillis;
+        private final long currentViewSize;
+        private final long overallViewSize;
+        private final double currentFrameRate;
+        private final long currentTransferRate;
+
+        public StreamMetricsSnapshot(@Nonnull final KinesisVideoStreamMetrics streamMetrics) {
+            this.currentViewDurationInMillis = streamMetrics.getCurrentViewDurationInMillis();
+            this.overallViewDurationInMillis = streamMetrics.getOverallViewDurationInMillis();
+            this.currentViewSize = streamMetrics.getCurrentViewSize();
+            this.overallViewSize = streamMetrics.getOverallViewSize();
+            this.currentFrameRate = streamMetrics.getCurrentFrameRate();
+            this.currentTransferRate = streamMetrics.getCurrentTransferRate();
+        }
+
+        public long getCurrentViewDurationInMillis() {
+            return currentViewDurationInMillis;
+        }
+
+        public long getOverallViewDurationInMillis() {
+            return overallViewDurationInMillis;
+        }
+
+        public long getCurrentViewSize() {
+            return currentViewSize;
+        }
+
+        public long getOverallViewSize() {
+            return overallViewSize;
+        }
+
+        public double getCurrentFrameRate() {
+            return currentFrameRate;
+        }
+
+        public long getCurrentTransferRate() {
+            return currentTransferRate;
+        }
+
+        @Override
+        public String toString() {
+            return "StreamMetricsSnapshot{"
+                    + "currentViewDurationInMillis=" + currentViewDurationInMillis
+                    + ", overallViewDurationInMillis=" + overallViewDurationInMillis
+                    + ", currentViewSize=" + currentViewSize
+                    + ", overallViewSize=" + overallViewSize
+                    + ", currentFrameRate=" + currentFrameRate
+                    + ", currentTransferRate=" + currentTransferRate
+                    + '}';
+        }
+    }
+}
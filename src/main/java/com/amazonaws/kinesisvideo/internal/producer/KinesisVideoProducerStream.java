@@ -130,6 +130,20 @@ public interface KinesisVideoProducerStream extends StreamCallbacks {
     @Nonnull
     KinesisVideoStreamMetrics getMetrics() throws ProducerException;
 
+    /**
+     * Returns the metrics of the data availability signalling to the upload readers.
+     * @return Data availability metrics
+     */
+    @Nonnull
+    DataAvailabilityMetrics getDataAvailabilityMetrics();
+
+    /**
+     * Returns the latencies of the fragments from the key frame put to the fragment acks.
+     * @return Fragment latency metrics
+     */
+    @Nonnull
+    FragmentLatencyMetrics getFragmentLatencyMetrics();
+
     /**
      * Free the Kinesis Video stream.
      */
@@ -0,0 +1,187 @@
+package com.amazonaws.kinesisvideo.internal.producer;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+
+/**
+ * Lock free latency histogram with log-linear buckets, in the manner of HdrHistogram.
+ *
+ * The latencies are kept in microseconds. Values below 128us are exact, above that every power of two range is
+ * split into 64 buckets, so a recorded value is off by less than 1.6%. Values above about 19 hours are counted
+ * as the max. Recording is a couple of atomic increments and never allocates, so it can be done on the
+ * callback threads.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final long MAX_TRACKABLE_MICROS = (1L << 36) - 1;
+    private static final int BUCKET_COUNT = getIndex(MAX_TRACKABLE_MICROS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Records a latency
+     *
+     * @param latencyNanos latency in nanoseconds, negative values are recorded as 0
+     */
+    public void recordNanos(final long latencyNanos) {
+        final long micros = Math.min(MAX_TRACKABLE_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        counts.incrementAndGet(getIndex(micros));
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet(micros);
+
+        long max = maxMicros.get();
+        while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+            max = maxMicros.get();
+        }
+    }
+
+    /**
+     * Returns the number of the recorded latencies
+     * @return number of latencies
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Copies the current counts. The latencies recorded while copying may or may not make it into the snapshot.
+     * @return snapshot of the histogram
+     */
+    public Snapshot getSnapshot() {
+        final long[] snapshotCounts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshotCounts[i] = counts.get(i);
+            count += snapshotCounts[i];
+        }
+
+        return new Snapshot(snapshotCounts, count, totalMicros.get(), maxMicros.get());
+    }
+
+    @Override
+    public String toString() {
+        return getSnapshot().toString();
+    }
+
+    private static int getIndex(final long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+
+        final int shift = 63 - Long.numberOfLeadingZeros(micros) - (SUB_BUCKET_BITS - 1);
+        return shift * SUB_BUCKET_HALF_COUNT + (int) (micros >>> shift);
+    }
+
+    private static long getHighestEquivalentMicros(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        final int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        final long lowest = (long) (index % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Point in time copy of a {@link LatencyHistogram}.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalMicros;
+        private final long maxMicros;
+
+        private Snapshot(final long[] counts, final long count, final long totalMicros, final long maxMicros) {
+            this.counts = counts;
+            this.count = count;
+            this.totalMicros = totalMicros;
+            this.maxMicros = maxMicros;
+        }
+
+        /**
+         * Returns the number of the latencies in the snapshot
+         * @return number of latencies
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the mean latency in milliseconds, 0 if nothing has been recorded
+         * @return mean latency
+         */
+        public double getMeanMillis() {
+            return count == 0 ? 0 : (double) totalMicros / count / 1000;
+        }
+
+        /**
+         * Returns the max latency in milliseconds
+         * @return max latency
+         */
+        public double getMaxMillis() {
+            return maxMicros / 1000.0;
+        }
+
+        /**
+         * Returns the latency in milliseconds which the given percentage of the recorded latencies don't exceed,
+         * 0 if nothing has been recorded
+         *
+         * @param percentile percentile between 0 and 100
+         * @return latency at the percentile
+         */
+        public double getPercentileMillis(final double percentile) {
+            checkArgument(percentile >= 0 && percentile <= 100);
+            if (count == 0) {
+                return 0;
+            }
+
+            final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(getHighestEquivalentMicros(i), maxMicros) / 1000.0;
+                }
+            }
+
+            return getMaxMillis();
+        }
+
+        /**
+         * Combines the latencies of this and the other snapshot, e.g. to get the percentiles across streams
+         *
+         * @param other snapshot to add
+         * @return new snapshot with the latencies of both
+         */
+        public Snapshot merge(@Nonnull final Snapshot other) {
+            checkNotNull(other);
+            final long[] mergedCounts = new long[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                mergedCounts[i] = counts[i] + other.counts[i];
+            }
+
+            return new Snapshot(mergedCounts, count + other.count, totalMicros + other.totalMicros,
+                    Math.max(maxMicros, other.maxMicros));
+        }
+
+        @Override
+        public String toString() {
+            return "count: " + count
+                    + ", mean: " + getMeanMillis() + " ms"
+                    + ", p50: " + getPercentileMillis(50) + " ms"
+                    + ", p90: " + getPercentileMillis(90) + " ms"
+                    + ", p99: " + getPercentileMillis(99) + " ms"
+                    + ", max: " + getMaxMillis() + " ms";
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.amazonaws.kinesisvideo.internal.producer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Stream data source which can be drained without blocking a thread.
+ *
+ * Instead of parking a reader thread until the producer signals the data availability, the consumer registers
+ * a listener which is invoked on every data availability notification and then drains the channel with
+ * {@link #readAvailable(ByteBuffer)} until it returns 0.
+ */
+public interface StreamDataChannel extends ReadableByteChannel {
+    /**
+     * Reads the data which is ready without waiting.
+     *
+     * @param dst Buffer to fill from its position up to its limit
+     * @return Number of bytes read, 0 if no data is ready or -1 on end-of-stream
+     */
+    int readAvailable(@Nonnull ByteBuffer dst) throws IOException;
+
+    /**
+     * Sets the listener to invoke when data becomes available or the stream ends. The listener is invoked on
+     * the producer callback thread so it must not block. If data is already pending when the listener is set
+     * it is invoked right away.
+     *
+     * @param listener Listener or null to remove
+     */
+    void setDataAvailableListener(@Nullable Runnable listener);
+}
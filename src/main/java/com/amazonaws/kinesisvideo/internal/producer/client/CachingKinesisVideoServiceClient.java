@@ -0,0 +1,215 @@
+package com.amazonaws.kinesisvideo.internal.producer.client;
+
+import com.amazonaws.kinesisvideo.auth.KinesisVideoCredentialsProvider;
+import com.amazonaws.kinesisvideo.client.KinesisVideoClientConfiguration;
+import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
+import com.amazonaws.kinesisvideo.common.function.Consumer;
+import com.amazonaws.kinesisvideo.common.preconditions.Preconditions;
+import com.amazonaws.kinesisvideo.http.NioHttpConnection;
+import com.amazonaws.kinesisvideo.http.NioHttpHandler;
+import com.amazonaws.kinesisvideo.producer.StreamDescription;
+import com.amazonaws.kinesisvideo.producer.StreamStatus;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Service client which caches the stream descriptions and the data endpoints of the wrapped client.
+ *
+ * The native state machine describes the stream and gets its data endpoint every time it reconnects or
+ * rotates the streaming token while these almost never change. Only the descriptions of the active streams
+ * are cached. Creating or deleting a stream through this client drops its cached results, as does a failed
+ * PutMedia call to the cached data endpoint.
+ */
+public final class CachingKinesisVideoServiceClient implements NonBlockingPutMediaServiceClient {
+    /**
+     * Max number of the cached results of each call
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private final KinesisVideoServiceClient mServiceClient;
+    private final ServiceResultCache<StreamDescription> mStreamDescriptions;
+    private final ServiceResultCache<String> mDataEndpoints;
+
+    /**
+     * @param serviceClient Service client making the calls
+     * @param ttlMillis Time to keep the results for
+     * @param negativeTtlMillis Time to keep the failures for, 0 to not cache them
+     * @param refreshExecutor Executor to reload the results ahead of their expiry on
+     */
+    public CachingKinesisVideoServiceClient(@Nonnull final KinesisVideoServiceClient serviceClient,
+                                            final long ttlMillis,
+                                            final long negativeTtlMillis,
+                                            @Nonnull final Executor refreshExecutor) {
+        mServiceClient = Preconditions.checkNotNull(serviceClient);
+        mStreamDescriptions = new ServiceResultCache<StreamDescription>(DEFAULT_MAX_ENTRIES, ttlMillis,
+                negativeTtlMillis, refreshExecutor);
+        mDataEndpoints = new ServiceResultCache<String>(DEFAULT_MAX_ENTRIES, ttlMillis, negativeTtlMillis,
+                refreshExecutor);
+    }
+
+    @Override
+    public void initialize(@Nonnull final KinesisVideoClientConfiguration configuration)
+            throws KinesisVideoException {
+        mServiceClient.initialize(configuration);
+    }
+
+    @Override
+    public String createStream(@Nonnull final String streamName,
+                               @Nonnull final String deviceName,
+                               @Nonnull final String contentType,
+                               @Nullable final String kmsKeyId,
+                               final long retentionPeriodInHours,
+                               final long timeoutInMillis,
+                               @Nullable final KinesisVideoCredentialsProvider kinesisVideoCredentialsProvider)
+            throws KinesisVideoException {
+        try {
+            return mServiceClient.createStream(streamName, deviceName, contentType, kmsKeyId,
+                    retentionPeriodInHours, timeoutInMillis, kinesisVideoCredentialsProvider);
+        } finally {
+            invalidate(streamName);
+        }
+    }
+
+    @Override
+    public StreamDescription describeStream(@Nonnull final String streamName,
+                                            final long timeoutInMillis,
+                                            @Nullable final KinesisVideoCredentialsProvider
+                                                    kinesisVideoCredentialsProvider)
+            throws KinesisVideoException {
+        final StreamDescription streamDescription = mStreamDescriptions.get(streamName,
+                new ServiceResultCache.Loader<StreamDescription>() {
+                    @Override
+                    public StreamDescription load() throws KinesisVideoException {
+                        return mServiceClient.describeStream(streamName, timeoutInMillis,
+                                kinesisVideoCredentialsProvider);
+                    }
+                });
+
+        if (streamDescription == null || streamDescription.getStreamStatus() != StreamStatus.ACTIVE.intValue()) {
+            // The state machine polls the stream until it becomes active
+            mStreamDescriptions.invalidate(streamName);
+        }
+
+        return streamDescription;
+    }
+
+    @Override
+    public void deleteStream(@Nonnull final String streamName,
+                             @Nonnull final String version,
+                             final Date creationTime,
+                             final long timeoutInMillis,
+                             @Nullable final KinesisVideoCredentialsProvider kinesisVideoCredentialsProvider)
+            throws KinesisVideoException {
+        try {
+            mServiceClient.deleteStream(streamName, version, creationTime, timeoutInMillis,
+                    kinesisVideoCredentialsProvider);
+        } finally {
+            invalidate(streamName);
+        }
+    }
+
+    @Override
+    public void tagStream(@Nonnull final String streamArn,
+                          @Nullable final Map<String, String> tags,
+                          final long timeoutInMillis,
+                          @Nullable final KinesisVideoCredentialsProvider kinesisVideoCredentialsProvider)
+            throws KinesisVideoException {
+        mServiceClient.tagStream(streamArn, tags, timeoutInMillis, kinesisVideoCredentialsProvider);
+    }
+
+    @Override
+    public String getDataEndpoint(@Nonnull final String streamName,
+                                  @Nonnull final String apiName,
+                                  final long timeoutInMillis,
+                                  @Nullable final KinesisVideoCredentialsProvider kinesisVideoCredentialsProvider)
+            throws KinesisVideoException {
+        return mDataEndpoints.get(dataEndpointKey(streamName, apiName), new ServiceResultCache.Loader<String>() {
+            @Override
+            public String load() throws KinesisVideoException {
+                return mServiceClient.getDataEndpoint(streamName, apiName, timeoutInMillis,
+                        kinesisVideoCredentialsProvider);
+            }
+        });
+    }
+
+    // CHECKSTYLE:SUPPRESS:ParameterNumber
+    @Override
+    public void putMedia(@Nonnull final String streamName,
+                         @Nonnull final String containerType,
+                         final long streamStartTimeInMillis,
+                         final boolean absoluteFragmentTimes,
+                         final boolean ackRequired,
+                         @Nonnull final String dataEndpoint,
+                         final long timeoutInMillis,
+                         @Nullable final KinesisVideoCredentialsProvider kinesisVideoCredentialsProvider,
+                         @Nonnull final InputStream dataStream,
+                         @Nonnull final Consumer<InputStream> acksConsumer,
+                         @Nullable final Consumer<Exception> completionCallback)
+            throws KinesisVideoException {
+        try {
+            mServiceClient.putMedia(streamName, containerType, streamStartTimeInMillis, absoluteFragmentTimes,
+                    ackRequired, dataEndpoint, timeoutInMillis, kinesisVideoCredentialsProvider, dataStream,
+                    acksConsumer, new Consumer<Exception>() {
+                        @Override
+                        public void accept(@Nullable final Exception object) {
+                            if (object != null) {
+                                mDataEndpoints.invalidatePrefix(dataEndpointKey(streamName, ""));
+                            }
+
+                            if (completionCallback != null) {
+                                completionCallback.accept(object);
+                            }
+                        }
+                    });
+        } catch (final KinesisVideoException e) {
+            mDataEndpoints.invalidatePrefix(dataEndpointKey(streamName, ""));
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isNonBlockingPutMediaEnabled() {
+        return mServiceClient instanceof NonBlockingPutMediaServiceClient
+                && ((NonBlockingPutMediaServiceClient) mServiceClient).isNonBlockingPutMediaEnabled();
+    }
+
+    // CHECKSTYLE:SUPPRESS:ParameterNumber
+    @Nonnull
+    @Override
+    public NioHttpConnection putMediaNonBlocking(@Nonnull final String streamName,
+                                                 @Nonnull final String containerType,
+                                                 final long streamStartTimeInMillis,
+                                                 final boolean absoluteFragmentTimes,
+                                                 final boolean ackRequired,
+                                                 @Nonnull final String dataEndpoint,
+                                                 final long timeoutInMillis,
+                                                 @Nullable final KinesisVideoCredentialsProvider
+                                                         kinesisVideoCredentialsProvider,
+                                                 @Nonnull final NioHttpHandler handler)
+            throws KinesisVideoException {
+        Preconditions.checkState(isNonBlockingPutMediaEnabled(), "Non-blocking PutMedia is not enabled");
+        try {
+            return ((NonBlockingPutMediaServiceClient) mServiceClient).putMediaNonBlocking(streamName,
+                    containerType, streamStartTimeInMillis, absoluteFragmentTimes, ackRequired, dataEndpoint,
+                    timeoutInMillis, kinesisVideoCredentialsProvider, handler);
+        } catch (final KinesisVideoException e) {
+            mDataEndpoints.invalidatePrefix(dataEndpointKey(streamName, ""));
+            throw e;
+        }
+    }
+
+    private void invalidate(@Nonnull final String streamName) {
+        mStreamDescriptions.invalidate(streamName);
+        mDataEndpoints.invalidatePrefix(dataEndpointKey(streamName, ""));
+    }
+
+    private static String dataEndpointKey(@Nonnull final String streamName, @Nonnull final String apiName) {
+        // Stream names can't contain a slash
+        return streamName + "/" + apiName;
+    }
+}
@@ -0,0 +1,49 @@
+package com.amazonaws.kinesisvideo.internal.producer.client;
+
+import com.amazonaws.kinesisvideo.auth.KinesisVideoCredentialsProvider;
+import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
+import com.amazonaws.kinesisvideo.http.NioHttpConnection;
+import com.amazonaws.kinesisvideo.http.NioHttpHandler;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Service client which can run PutMedia on a shared selector based transport instead of dedicating threads
+ * to each upload.
+ */
+public interface NonBlockingPutMediaServiceClient extends KinesisVideoServiceClient {
+    /**
+     * @return Whether the non-blocking PutMedia has been configured
+     */
+    boolean isNonBlockingPutMediaEnabled();
+
+    /**
+     * Puts media as a long-running operation without blocking any thread.
+     * <p>
+     * NOTE: The call returns once the connection is initiated. The handler is called back on the transport
+     * thread to pull the media data and to consume the response.
+     *
+     * @param streamName                - Name of the stream
+     * @param containerType             - Container type
+     * @param streamStartTimeInMillis   - Stream start time
+     * @param absoluteFragmentTimes     - Whether to use absolute fragment times
+     * @param ackRequired               - Whether acks are required
+     * @param dataEndpoint              - The data endpoint to use
+     * @param timeoutInMillis           - Timeout in milliseconds
+     * @param kinesisVideoCredentialsProvider - Credentials to use
+     * @param handler                   - Handler of the media data and the response
+     * @return The connection to signal the data availability on
+     */
+    @Nonnull
+    NioHttpConnection putMediaNonBlocking(@Nonnull final String streamName,
+                                          @Nonnull final String containerType,
+                                          final long streamStartTimeInMillis,
+                                          final boolean absoluteFragmentTimes,
+                                          final boolean ackRequired,
+                                          @Nonnull final String dataEndpoint,
+                                          long timeoutInMillis,
+                                          @Nullable final KinesisVideoCredentialsProvider kinesisVideoCredentialsProvider,
+                                          @Nonnull final NioHttpHandler handler)
+            throws KinesisVideoException;
+}
@@ -0,0 +1,232 @@
+package com.amazonaws.kinesisvideo.internal.producer.client;
+
+import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
+import com.amazonaws.kinesisvideo.common.preconditions.Preconditions;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Size bounded cache of the service call results.
+ *
+ * Concurrent calls for a missing key are de-duplicated so only one of them calls the service and the others
+ * wait for its result. Failures are cached for the negative TTL. A result accessed after most of its TTL has
+ * passed is reloaded on the executor while the cached result keeps being returned.
+ */
+final class ServiceResultCache<V> {
+    private static final Logger log = LogManager.getLogger(ServiceResultCache.class);
+
+    /**
+     * Fraction of the TTL after which an accessed result is reloaded ahead of its expiry
+     */
+    private static final double REFRESH_AHEAD_FRACTION = 0.8;
+
+    /**
+     * Loads the result from the service
+     */
+    interface Loader<V> {
+        V load() throws KinesisVideoException;
+    }
+
+    private final ConcurrentMap<String, Entry<V>> mEntries = new ConcurrentHashMap<String, Entry<V>>();
+    private final int mMaxEntries;
+    private final long mTtlNanos;
+    private final long mNegativeTtlNanos;
+    private final long mRefreshAfterNanos;
+    private final Executor mRefreshExecutor;
+
+    ServiceResultCache(final int maxEntries,
+                       final long ttlMillis,
+                       final long negativeTtlMillis,
+                       @Nonnull final Executor refreshExecutor) {
+        Preconditions.checkArgument(maxEntries > 0);
+        Preconditions.checkArgument(ttlMillis > 0);
+        Preconditions.checkArgument(negativeTtlMillis >= 0);
+        mMaxEntries = maxEntries;
+        mTtlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        mNegativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        mRefreshAfterNanos = (long) (mTtlNanos * REFRESH_AHEAD_FRACTION);
+        mRefreshExecutor = Preconditions.checkNotNull(refreshExecutor);
+    }
+
+    /**
+     * Returns the cached result or loads it with the loader.
+     *
+     * @throws KinesisVideoException the failure of the load, which might have been cached
+     */
+    V get(@Nonnull final String key, @Nonnull final Loader<V> loader) throws KinesisVideoException {
+        while (true) {
+            Entry<V> entry = mEntries.get(key);
+            if (entry == null) {
+                final Entry<V> created = new Entry<V>();
+                entry = mEntries.putIfAbsent(key, created);
+                if (entry == null) {
+                    evictIfFull();
+                    return load(key, created, loader);
+                }
+            }
+
+            entry.awaitLoaded();
+            final long now = System.nanoTime();
+            if (now - entry.mExpiresAtNanos >= 0) {
+                mEntries.remove(key, entry);
+                continue;
+            }
+
+            if (entry.mFailure == null && now - entry.mLoadedAtNanos >= mRefreshAfterNanos) {
+                refreshAsync(key, entry, loader);
+            }
+
+            return entry.getResult();
+        }
+    }
+
+    /**
+     * Drops the result for the key.
+     */
+    void invalidate(@Nonnull final String key) {
+        mEntries.remove(key);
+    }
+
+    /**
+     * Drops the results for the keys starting with the prefix.
+     */
+    void invalidatePrefix(@Nonnull final String prefix) {
+        final Iterator<String> iterator = mEntries.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().startsWith(prefix)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    int size() {
+        return mEntries.size();
+    }
+
+    private V load(@Nonnull final String key, @Nonnull final Entry<V> entry, @Nonnull final Loader<V> loader)
+            throws KinesisVideoException {
+        try {
+            final V result = loader.load();
+            entry.complete(result, null, mTtlNanos);
+            return result;
+        } catch (final KinesisVideoException e) {
+            entry.complete(null, e, mNegativeTtlNanos);
+            if (mNegativeTtlNanos == 0) {
+                mEntries.remove(key, entry);
+            }
+
+            throw e;
+        } catch (final RuntimeException e) {
+            entry.complete(null, new KinesisVideoException(e), 0);
+            mEntries.remove(key, entry);
+            throw e;
+        }
+    }
+
+    private void refreshAsync(@Nonnull final String key, @Nonnull final Entry<V> entry,
+                              @Nonnull final Loader<V> loader) {
+        if (!entry.mRefreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            mRefreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        final Entry<V> refreshed = new Entry<V>();
+                        refreshed.complete(loader.load(), null, mTtlNanos);
+                        mEntries.replace(key, entry, refreshed);
+                    } catch (final KinesisVideoException | RuntimeException e) {
+                        // Keep returning the cached result until it expires
+                        log.debug("Refreshing the cached result for {} failed", key, e);
+                    } finally {
+                        // Lets a later access retry the refresh of a result which is still cached
+                        entry.mRefreshing.set(false);
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            entry.mRefreshing.set(false);
+            log.debug("Refreshing the cached result for {} was rejected", key);
+        }
+    }
+
+    private void evictIfFull() {
+        if (mEntries.size() <= mMaxEntries) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+        Map.Entry<String, Entry<V>> oldest = null;
+        final Iterator<Map.Entry<String, Entry<V>>> iterator = mEntries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, Entry<V>> next = iterator.next();
+            final Entry<V> entry = next.getValue();
+            if (!entry.isLoaded()) {
+                continue;
+            }
+
+            if (now - entry.mExpiresAtNanos >= 0) {
+                iterator.remove();
+            } else if (oldest == null || entry.mExpiresAtNanos - oldest.getValue().mExpiresAtNanos < 0) {
+                oldest = next;
+            }
+        }
+
+        if (mEntries.size() > mMaxEntries && oldest != null) {
+            mEntries.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private static final class Entry<V> {
+        private final CountDownLatch mLoaded = new CountDownLatch(1);
+        private final AtomicBoolean mRefreshing = new AtomicBoolean(false);
+        private volatile V mResult;
+        private volatile KinesisVideoException mFailure;
+        private volatile long mLoadedAtNanos;
+        private volatile long mExpiresAtNanos;
+
+        void complete(final V result, final KinesisVideoException failure, final long ttlNanos) {
+            mResult = result;
+            mFailure = failure;
+            mLoadedAtNanos = System.nanoTime();
+            mExpiresAtNanos = mLoadedAtNanos + ttlNanos;
+            mLoaded.countDown();
+        }
+
+        boolean isLoaded() {
+            return mLoaded.getCount() == 0;
+        }
+
+        void awaitLoaded() throws KinesisVideoException {
+            try {
+                mLoaded.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new KinesisVideoException(e);
+            }
+        }
+
+        V getResult() throws KinesisVideoException {
+            final KinesisVideoException failure = mFailure;
+            if (failure != null) {
+                // Every caller gets its own exception with its own stack trace
+                throw new KinesisVideoException(String.valueOf(failure.getMessage()), failure);
+            }
+
+            return mResult;
+        }
+    }
+}
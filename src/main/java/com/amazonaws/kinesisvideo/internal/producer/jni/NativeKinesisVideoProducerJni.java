@@ -119,11 +119,6 @@ public class NativeKinesisVideoProducerJni implements KinesisVideoProducer {
      */
     private final CountDownLatch mReadyLatch;
 
-    /**
-     * Used to store metrics. The metrics can be updated.
-     */
-    private final KinesisVideoMetrics mKinesisVideoMetrics;
-
     /**
      * Used to store device info
      */
@@ -186,7 +181,6 @@ public class NativeKinesisVideoProducerJni implements KinesisVideoProducer {
         mReadyLatch = Preconditions.checkNotNull(readyLatch);
         mLibraryLoader = new NativeLibraryLoader(mLog);
         mServiceCallbacks.initialize(this);
-        mKinesisVideoMetrics = new KinesisVideoMetrics();
     }
 
     /**
@@ -284,9 +278,12 @@ public class NativeKinesisVideoProducerJni implements KinesisVideoProducer {
     public KinesisVideoMetrics getMetrics() throws ProducerException
     {
         Preconditions.checkState(isInitialized());
-        getKinesisVideoMetrics(mClientHandle, mKinesisVideoMetrics);
 
-        return mKinesisVideoMetrics;
+        // Filled into a new object every time so the callers never see it change under them
+        final KinesisVideoMetrics kinesisVideoMetrics = new KinesisVideoMetrics();
+        getKinesisVideoMetrics(mClientHandle, kinesisVideoMetrics);
+
+        return kinesisVideoMetrics;
     }
 
     /**
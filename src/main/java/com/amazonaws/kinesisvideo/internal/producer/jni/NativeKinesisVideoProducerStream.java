@@ -5,11 +5,13 @@ import com.amazonaws.kinesisvideo.common.preconditions.Preconditions;
 import com.amazonaws.kinesisvideo.producer.FrameFlags;
 import com.amazonaws.kinesisvideo.producer.KinesisVideoFragmentAck;
 import com.amazonaws.kinesisvideo.producer.KinesisVideoFrame;
-import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoMetrics;
+import com.amazonaws.kinesisvideo.internal.producer.DataAvailabilityMetrics;
+import com.amazonaws.kinesisvideo.internal.producer.FragmentLatencyMetrics;
 import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoProducerStream;
 import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoStreamMetrics;
 import com.amazonaws.kinesisvideo.producer.ProducerException;
 import com.amazonaws.kinesisvideo.internal.producer.ReadResult;
+import com.amazonaws.kinesisvideo.internal.producer.StreamDataChannel;
 import com.amazonaws.kinesisvideo.producer.StreamCallbacks;
 import com.amazonaws.kinesisvideo.producer.StreamInfo;
 import com.amazonaws.kinesisvideo.producer.DeviceInfo;
@@ -19,10 +21,14 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Implementation of {@link KinesisVideoProducerStream}
@@ -32,19 +38,28 @@ import java.util.concurrent.TimeUnit;
 public class NativeKinesisVideoProducerStream implements KinesisVideoProducerStream
 {
     final static long TIMEOUT_IN_MS = 30000; // 30 seconds
-    private class NativeDataInputStream extends InputStream {
+    private class NativeDataInputStream extends InputStream implements StreamDataChannel {
         /**
          * Whether the stream has been closed
          */
         private volatile boolean mStreamClosed = false;
 
         // Set the notification values
-        private final Object mMonitor = new Object();
-        private boolean mDataAvailable = false;
-        private long mAvailableDataSize = 0;
+        // The native callback thread only sets the flag and unparks the reader, the reader never blocks it
+        private final AtomicBoolean mDataAvailable = new AtomicBoolean(false);
+        // Bytes reported by the last notification less the bytes read since then
+        private final AtomicLong mPendingBytes = new AtomicLong(0);
+        private volatile Thread mWaitingReader;
         private final ReadResult mReadResult;
+        // Filled by the native producer when reading into a direct buffer, only one reader reads at a time
+        private byte[] mScratch;
         final long mUploadHandle;
 
+        /**
+         * Listener for the non-blocking consumers
+         */
+        private volatile Runnable mDataAvailableListener;
+
         public NativeDataInputStream(final long uploadHandle) {
             mUploadHandle = uploadHandle;
             mReadResult = new ReadResult();
@@ -61,41 +76,137 @@ public class NativeKinesisVideoProducerStream implements KinesisVideoProducerStr
                         final int off,
                         final int len)
                 throws IOException {
+            return readStreamData(b, off, len);
+        }
+
+        /**
+         * Channel-style read. The native producer fills Java arrays only, so heap buffers are filled through
+         * their backing array and direct buffers through a scratch array of the stream.
+         */
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            if (dst.hasArray()) {
+                final int bytesRead = readStreamData(dst.array(), dst.arrayOffset() + dst.position(),
+                        dst.remaining());
+                if (bytesRead > 0) {
+                    dst.position(dst.position() + bytesRead);
+                }
+
+                return bytesRead;
+            }
+
+            final byte[] scratch = getScratch(dst.remaining());
+            final int bytesRead = readStreamData(scratch, 0, dst.remaining());
+            if (bytesRead > 0) {
+                dst.put(scratch, 0, bytesRead);
+            }
+
+            return bytesRead;
+        }
+
+        @Override
+        public int readAvailable(final ByteBuffer dst) throws IOException {
+            if (mStreamClosed) {
+                return -1;
+            }
+
+            // Cleared the same way as by the blocking read, a notification in the meantime sets it again
+            if (!mDataAvailable.getAndSet(false)) {
+                return 0;
+            }
+
+            final byte[] b = dst.hasArray() ? dst.array() : getScratch(dst.remaining());
+            final int off = dst.hasArray() ? dst.arrayOffset() + dst.position() : 0;
+            try {
+                mKinesisVideoProducerJni.getStreamData(mStreamHandle, mUploadHandle, b, off, dst.remaining(),
+                        mReadResult);
+            } catch (final ProducerException e) {
+                mLog.error("Reader threw an exception", e);
+                throw new IOException(e);
+            }
+
+            final int bytesRead = mReadResult.getReadBytes();
+            if (dst.hasArray()) {
+                dst.position(dst.position() + bytesRead);
+            } else {
+                dst.put(b, 0, bytesRead);
+            }
+
+            onBytesRead(bytesRead);
+
+            if (mReadResult.isEndOfStream()) {
+                mLog.info("Received end-of-stream indicator for {}, uploadHandle {}",
+                        mStreamInfo.getName(), mUploadHandle);
+                mStreamClosed = true;
+                return bytesRead == 0 ? -1 : bytesRead;
+            }
+
+            return bytesRead;
+        }
+
+        @Override
+        public void setDataAvailableListener(@Nullable final Runnable listener) {
+            mDataAvailableListener = listener;
+            if (listener != null && (mDataAvailable.get() || mStreamClosed)) {
+                listener.run();
+            }
+        }
+
+        /**
+         * Returns the estimate of the bytes ready to be read based on the last data availability notification.
+         */
+        @Override
+        public int available() {
+            final long pendingBytes = mPendingBytes.get();
+            return pendingBytes <= 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, pendingBytes);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !mStreamClosed;
+        }
+
+        /**
+         * Returns the scratch array of the direct buffer reads, grown to the length if needed.
+         */
+        private byte[] getScratch(final int length) {
+            if (mScratch == null || mScratch.length < length) {
+                mScratch = new byte[length];
+            }
+
+            return mScratch;
+        }
+
+        /**
+         * Blocks until the data is available and fills the array.
+         */
+        private int readStreamData(@Nonnull final byte[] b,
+                                   final int off,
+                                   final int len)
+                throws IOException {
             if (mStreamClosed) {
                 mLog.warn("Stream {} with uploadHandle {} has been closed", mStreamInfo.getName(), mUploadHandle);
             }
 
             // Read from the KinesisVideo Producer
             // NOTE: This implementation is a blocking call and the blocking
-            // is handled by simply spin-locking until the data is available.
+            // is handled by parking until the data is available.
             int bytesRead = -1;
 
             while (!mStreamClosed) {
-                synchronized (mMonitor) {
-                    while (!mDataAvailable && !mStreamClosed) {
-                        try {
-                            mLog.debug("no data for stream {} with uploadHandle {}, waiting", mStreamInfo.getName(),
-                                    mUploadHandle);
-                            mMonitor.wait(TIMEOUT_IN_MS);
-                        } catch (final InterruptedException e) {
-                            mLog.error("Waiting for the data availability with uploadHandle {}", mUploadHandle);
-                            mLog.error(e);
-                        }
-                    }
-
-                    // Clear the availability indicator for now
-                    mDataAvailable = false;
-                    if (mStreamClosed) {
-                        // Indicate the EOS
-                        bytesRead = -1;
-                        mLog.debug("Being notified to close stream {} with uploadHandle {}",
-                                mStreamInfo.getName(), mUploadHandle);
-                        return bytesRead;
-                    }
+                // Clears the availability indicator for now
+                awaitDataAvailable();
+                if (mStreamClosed) {
+                    // Indicate the EOS
+                    bytesRead = -1;
+                    mLog.debug("Being notified to close stream {} with uploadHandle {}",
+                            mStreamInfo.getName(), mUploadHandle);
+                    return bytesRead;
                 }
 
                 try {
-                    mKinesisVideoProducerJni.getStreamData(mStreamHandle, mUploadHandle, b, off, len, mReadResult);
+                    mKinesisVideoProducerJni.getStreamData(mStreamHandle, mUploadHandle, b, off, len,
+                            mReadResult);
                     bytesRead = mReadResult.getReadBytes();
                     mLog.trace("getStreamData fill {} bytes for stream {} with uploadHandle {}", bytesRead,
                             mStreamInfo.getName(), mUploadHandle);
@@ -114,16 +225,11 @@ public class NativeKinesisVideoProducerStream implements KinesisVideoProducerStr
                         }
                     }
 
-                    synchronized (mMonitor) {
-                        if (bytesRead != 0) {
-                            // Got some bytes - break from the loop.
-                            // Make sure we don't await again if we still have some data
-                            if (bytesRead != -1 && mAvailableDataSize - bytesRead > 0) {
-                                mDataAvailable = true;
-                            }
-
-                            break;
-                        }
+                    if (bytesRead != 0) {
+                        // Got some bytes - break from the loop.
+                        // Make sure we don't await again if we still have some data
+                        onBytesRead(bytesRead);
+                        break;
                     }
                 } catch (final ProducerException e) {
                     mLog.error("Reader threw an exception", e);
@@ -141,6 +247,45 @@ public class NativeKinesisVideoProducerStream implements KinesisVideoProducerStr
             return bytesRead;
         }
 
+        /**
+         * Parks the reader until the data availability is signalled or the stream is closed and clears the
+         * availability indicator. Only a single reader thread waits on the stream at a time.
+         */
+        private void awaitDataAvailable() {
+            if (mDataAvailable.getAndSet(false)) {
+                return;
+            }
+
+            // Published before re-checking the flag so a notification in between unparks this thread
+            mWaitingReader = Thread.currentThread();
+            final long waitStartNanos = System.nanoTime();
+            try {
+                while (!mDataAvailable.getAndSet(false) && !mStreamClosed) {
+                    mLog.debug("no data for stream {} with uploadHandle {}, waiting", mStreamInfo.getName(),
+                            mUploadHandle);
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(TIMEOUT_IN_MS));
+                    if (Thread.interrupted()) {
+                        mLog.error("Waiting for the data availability with uploadHandle {} was interrupted",
+                                mUploadHandle);
+                    }
+
+                    mDataAvailabilityMetrics.recordWakeup(!mDataAvailable.get() && !mStreamClosed);
+                }
+            } finally {
+                mWaitingReader = null;
+                mDataAvailabilityMetrics.recordWait(System.nanoTime() - waitStartNanos);
+            }
+        }
+
+        /**
+         * Keeps the availability indicator set while the last notification still has bytes to read.
+         */
+        private void onBytesRead(final int bytesRead) {
+            if (bytesRead > 0 && mPendingBytes.addAndGet(-bytesRead) > 0) {
+                mDataAvailable.set(true);
+            }
+        }
+
         @Override
         public int read(final byte[] b)
                 throws IOException
@@ -160,24 +305,32 @@ public class NativeKinesisVideoProducerStream implements KinesisVideoProducerStr
         }
 
         protected void notifyReaderThread(final long duration, final long availableSize) {
-            // Unblock the awaiting reading code block
-            synchronized (mMonitor) {
-                mAvailableDataSize = availableSize;
-                mLog.debug("Data availability notification. Upload handle: {}, Size: {}, Duration {} ",
-                        mUploadHandle, availableSize, duration);
+            mPendingBytes.set(availableSize);
+            mLog.debug("Data availability notification. Upload handle: {}, Size: {}, Duration {} ",
+                    mUploadHandle, availableSize, duration);
+            mDataAvailabilityMetrics.recordNotification();
 
-                mDataAvailable = true;
-
-                mMonitor.notify();
-            }
+            // Unblock the awaiting reading code block
+            signalReader();
         }
 
         protected void endOfReaderThread() {
+            mStreamClosed = true;
+
             // Unblock the awaiting reading code block
-            synchronized (mMonitor) {
-                mDataAvailable = true;
-                mStreamClosed = true;
-                mMonitor.notify();
+            signalReader();
+        }
+
+        private void signalReader() {
+            mDataAvailable.set(true);
+            final Thread waitingReader = mWaitingReader;
+            if (waitingReader != null) {
+                LockSupport.unpark(waitingReader);
+            }
+
+            final Runnable listener = mDataAvailableListener;
+            if (listener != null) {
+                listener.run();
             }
         }
     }
@@ -191,7 +344,8 @@ public class NativeKinesisVideoProducerStream implements KinesisVideoProducerStr
     private final CountDownLatch mReadyLatch;
     private final CountDownLatch mStoppedLatch;
     private final Logger mLog;
-    private final KinesisVideoStreamMetrics mStreamMetrics;
+    private final DataAvailabilityMetrics mDataAvailabilityMetrics;
+    private final FragmentLatencyMetrics mFragmentLatencyMetrics;
     private final Map<Long, NativeDataInputStream> mInputStreamMap;
 
     public NativeKinesisVideoProducerStream(final @Nonnull NativeKinesisVideoProducerJni kinesisVideoProducerJni,
@@ -208,7 +362,8 @@ public class NativeKinesisVideoProducerStream implements KinesisVideoProducerStr
         mReadyLatch = new CountDownLatch(1);
         mStoppedLatch = new CountDownLatch(1);
         mLog = Preconditions.checkNotNull(log);
-        mStreamMetrics = new KinesisVideoStreamMetrics();
+        mDataAvailabilityMetrics = new DataAvailabilityMetrics();
+        mFragmentLatencyMetrics = new FragmentLatencyMetrics();
         mInputStreamMap = new HashMap<Long, NativeDataInputStream>();
         mDeviceInfo = deviceInfo;
     }
@@ -243,35 +398,8 @@ public class NativeKinesisVideoProducerStream implements KinesisVideoProducerStr
                 FrameFlags.isKeyFrame(kinesisVideoFrame.getFlags()),
                 kinesisVideoFrame.getTrackId());
 
-        // Print out metrics on every key-frame
         if (FrameFlags.isKeyFrame(kinesisVideoFrame.getFlags())) {
-            final KinesisVideoMetrics kinesisVideoMetrics = mKinesisVideoProducerJni.getMetrics();
-            final KinesisVideoStreamMetrics streamMetrics = getMetrics();
-            mLog.debug("Kinesis Video client and stream metrics"
-                            + "\n\t>> Overall storage size: {}"
-                            + "\n\t>> Available storage size: {}"
-                            + "\n\t>> Allocated storage size: {}"
-                            + "\n\t>> Total view allocation size: {}"
-                            + "\n\t>> Total streams frame rate: {}"
-                            + "\n\t>> Total streams transfer rate: {}"
-                            + "\n\t>> Current view duration: {}"
-                            + "\n\t>> Overall view duration: {}"
-                            + "\n\t>> Current view size: {}"
-                            + "\n\t>> Overall view size: {}"
-                            + "\n\t>> Current frame rate: {}"
-                            + "\n\t>> Current transfer rate: {}",
-                    kinesisVideoMetrics.getContentStoreSize(),
-                    kinesisVideoMetrics.getContentStoreAvailableSize(),
-                    kinesisVideoMetrics.getContentStoreAllocatedSize(),
-                    kinesisVideoMetrics.getTotalContentViewSize(),
-                    kinesisVideoMetrics.getTotalFrameRate(),
-                    kinesisVideoMetrics.getTotalTransferRate(),
-                    streamMetrics.getCurrentViewDurationInTimeUnits(),
-                    streamMetrics.getOverallViewDurationInTimeUnits(),
-                    streamMetrics.getCurrentViewSize(),
-                    streamMetrics.getOverallViewSize(),
-                    streamMetrics.getCurrentFrameRate(),
-                    streamMetrics.getCurrentTransferRate());
+            mFragmentLatencyMetrics.recordKeyFrame(kinesisVideoFrame.getPresentationTs());
         }
 
         mKinesisVideoProducerJni.putFrame(mStreamHandle, kinesisVideoFrame);
@@ -360,8 +488,21 @@ public class NativeKinesisVideoProducerStream implements KinesisVideoProducerStr
     @Override
     public KinesisVideoStreamMetrics getMetrics() throws ProducerException {
         Preconditions.checkState(mStreamHandle != NativeKinesisVideoProducerJni.INVALID_STREAM_HANDLE_VALUE);
-        mKinesisVideoProducerJni.getStreamMetrics(mStreamHandle, mStreamMetrics);
-        return mStreamMetrics;
+        final KinesisVideoStreamMetrics streamMetrics = new KinesisVideoStreamMetrics();
+        mKinesisVideoProducerJni.getStreamMetrics(mStreamHandle, streamMetrics);
+        return streamMetrics;
+    }
+
+    @Nonnull
+    @Override
+    public DataAvailabilityMetrics getDataAvailabilityMetrics() {
+        return mDataAvailabilityMetrics;
+    }
+
+    @Nonnull
+    @Override
+    public FragmentLatencyMetrics getFragmentLatencyMetrics() {
+        return mFragmentLatencyMetrics;
     }
 
     @Override
@@ -408,6 +549,7 @@ public class NativeKinesisVideoProducerStream implements KinesisVideoProducerStr
     public void fragmentAckReceived(final long uploadHandle,
                                     @Nonnull final KinesisVideoFragmentAck fragmentAck) throws ProducerException
     {
+        mFragmentLatencyMetrics.recordFragmentAck(uploadHandle, fragmentAck);
         if (mStreamCallbacks != null) {
             mStreamCallbacks.fragmentAckReceived(uploadHandle, fragmentAck);
         }
@@ -468,7 +610,7 @@ public class NativeKinesisVideoProducerStream implements KinesisVideoProducerStr
     @Override
     public void streamClosed(final long uploadHandle) throws ProducerException
     {
-        mLog.debug("Stream {} is closed", mStreamInfo.getName());
+        mLog.debug("Stream {} is closed, data availability: {}", mStreamInfo.getName(), mDataAvailabilityMetrics);
 
         if (uploadHandle == ReadResult.INVALID_UPLOAD_HANDLE_VALUE) {
             for (final Map.Entry<Long, NativeDataInputStream> stream : mInputStreamMap.entrySet()) {
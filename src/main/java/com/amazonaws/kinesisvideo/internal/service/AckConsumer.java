@@ -1,24 +1,27 @@
 package com.amazonaws.kinesisvideo.internal.service;
 
+import com.amazonaws.kinesisvideo.ack.AckEventData;
+import com.amazonaws.kinesisvideo.ack.AckEventDecoder;
 import com.amazonaws.kinesisvideo.common.function.Consumer;
+import com.amazonaws.kinesisvideo.encoding.HttpResponseReader;
 import org.apache.logging.log4j.Logger;
 import com.amazonaws.kinesisvideo.common.preconditions.Preconditions;
 import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoProducerStream;
 import com.amazonaws.kinesisvideo.internal.producer.jni.NativeKinesisVideoProducerJni;
+import com.amazonaws.kinesisvideo.producer.FragmentAckType;
+import com.amazonaws.kinesisvideo.producer.KinesisVideoFragmentAck;
 import com.amazonaws.kinesisvideo.producer.ProducerException;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 class AckConsumer implements Consumer<InputStream> {
     private static final long STOPPED_TIMEOUT_IN_MILLISECONDS = 15000;
     private static final int FOUR_KB = 4096;
-    private static final String END_OF_STREAM_MSG = "0\r\n\r\n";
     private final KinesisVideoProducerStream stream;
     private InputStream ackStream = null;
     private final CountDownLatch stoppedLatch;
@@ -51,33 +54,37 @@ class AckConsumer implements Consumer<InputStream> {
     private void processAckInputStream() {
         Preconditions.checkNotNull(stream);
 
+        // Reuse the reader which has parsed the response head, if any, along with its read-ahead buffer
+        final HttpResponseReader responseReader = ackStream instanceof HttpResponseReader
+                ? (HttpResponseReader) ackStream
+                : new HttpResponseReader(ackStream);
+        final AckEventDecoder ackEventDecoder = createAckEventDecoder(uploadHandle, stream, log);
         final byte[] buffer = new byte[FOUR_KB];
         int bytesRead;
         log.info("Starting ACK processing");
         try {
             while (!closed) {
                 // This is a blocking operation
-                bytesRead = ackStream.read(buffer);
+                final int chunkSize = responseReader.readChunkSize();
 
-                String bytesString = null;
-                if (bytesRead > 0) {
-                    bytesString = new String(buffer, 0, bytesRead, StandardCharsets.UTF_8);
-                }
-
-                // Check for end-of-stream and 0 before processing
+                // Check for end-of-stream and the last chunk before processing
                 if (stream.getStreamHandle() == NativeKinesisVideoProducerJni.INVALID_STREAM_HANDLE_VALUE
-                        || bytesRead <= 0 || END_OF_STREAM_MSG.equals(bytesString)) {
+                        || chunkSize == HttpResponseReader.END_OF_STREAM || chunkSize == 0) {
                     // End-of-stream
                     log.debug("Received end-of-stream for ACKs.");
                     closed = true;
-                } else if (bytesRead != 0) {
-                    log.debug("Received ACK bits: {}", bytesString);
-                    try {
-                        stream.parseFragmentAck(uploadHandle, bytesString);
-                    } catch (final ProducerException e) {
-                        // Log the exception
-                        log.error("Processing ACK threw an exception. Logging and continuing.", e);
+                    continue;
+                }
+
+                while (responseReader.getChunkRemaining() > 0) {
+                    bytesRead = responseReader.readChunkData(buffer, 0, buffer.length);
+                    if (bytesRead < 0) {
+                        log.debug("Received end-of-stream for ACKs within a chunk.");
+                        closed = true;
+                        break;
                     }
+
+                    ackEventDecoder.decode(buffer, 0, bytesRead);
                 }
             }
 
@@ -90,6 +97,77 @@ class AckConsumer implements Consumer<InputStream> {
         }
     }
 
+    /**
+     * Creates the decoder which reports the ACKs of the upload to the stream.
+     */
+    @Nonnull
+    static AckEventDecoder createAckEventDecoder(final long uploadHandle,
+                                                 @Nonnull final KinesisVideoProducerStream stream,
+                                                 @Nonnull final Logger log) {
+        return new AckEventDecoder(fragmentAckConsumer(uploadHandle, stream, log),
+                undecodedAckConsumer(uploadHandle, stream, log));
+    }
+
+    private static Consumer<AckEventData> fragmentAckConsumer(final long uploadHandle,
+                                                              final KinesisVideoProducerStream stream,
+                                                              final Logger log) {
+        return new Consumer<AckEventData>() {
+            @Override
+            public void accept(final AckEventData ackEventData) {
+                // The timecode is passed as received, the native layer applies the timecode scale
+                // the same way it does for the parsed ACK text.
+                final String fragmentNumber = ackEventData.getFragmentNumber();
+                final KinesisVideoFragmentAck fragmentAck = new KinesisVideoFragmentAck(
+                        toFragmentAckType(ackEventData.getType()),
+                        ackEventData.getFragmentTimecode(),
+                        fragmentNumber == null ? "" : fragmentNumber,
+                        ackEventData.getErrorCode());
+
+                log.debug("Received ACK {} for fragment timecode {}", ackEventData.getType(),
+                        ackEventData.getFragmentTimecode());
+                try {
+                    stream.fragmentAck(uploadHandle, fragmentAck);
+                } catch (final ProducerException e) {
+                    // Log the exception
+                    log.error("Processing ACK threw an exception. Logging and continuing.", e);
+                }
+            }
+        };
+    }
+
+    private static Consumer<String> undecodedAckConsumer(final long uploadHandle,
+                                                         final KinesisVideoProducerStream stream,
+                                                         final Logger log) {
+        return new Consumer<String>() {
+            @Override
+            public void accept(final String ack) {
+                log.debug("Passing undecoded ACK to the native parser: {}", ack);
+                try {
+                    stream.parseFragmentAck(uploadHandle, ack);
+                } catch (final ProducerException e) {
+                    // Log the exception
+                    log.error("Processing ACK threw an exception. Logging and continuing.", e);
+                }
+            }
+        };
+    }
+
+    private static int toFragmentAckType(final String eventType) {
+        if (AckEventData.EVENT_TYPE_BUFFERING.equals(eventType)) {
+            return FragmentAckType.FRAGMENT_ACK_TYPE_BUFFERING;
+        } else if (AckEventData.EVENT_TYPE_RECEIVED.equals(eventType)) {
+            return FragmentAckType.FRAGMENT_ACK_TYPE_RECEIVED;
+        } else if (AckEventData.EVENT_TYPE_PERSISTED.equals(eventType)) {
+            return FragmentAckType.FRAGMENT_ACK_TYPE_PERSISTED;
+        } else if (AckEventData.EVENT_TYPE_ERROR.equals(eventType)) {
+            return FragmentAckType.FRAGMENT_ACK_TYPE_ERROR;
+        } else if (AckEventData.EVENT_TYPE_IDLE.equals(eventType)) {
+            return FragmentAckType.FRAGMENT_ACK_TYPE_IDLE;
+        }
+
+        return FragmentAckType.FRAGMENT_ACK_TYPE_UNDEFINED;
+    }
+
     public void close() throws ProducerException {
         // Trigger stopping
         closed = true;
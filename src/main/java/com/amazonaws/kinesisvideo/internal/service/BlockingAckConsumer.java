@@ -3,7 +3,7 @@ package com.amazonaws.kinesisvideo.internal.service;
 import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
 import com.amazonaws.kinesisvideo.common.function.Consumer;
 import org.apache.logging.log4j.Logger;
-import com.amazonaws.kinesisvideo.encoding.ChunkDecoder;
+import com.amazonaws.kinesisvideo.encoding.HttpResponseReader;
 import com.amazonaws.kinesisvideo.model.ResponseStatus;
 import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoProducerStream;
 import com.amazonaws.kinesisvideo.internal.service.exception.AccessDeniedException;
@@ -11,6 +11,7 @@ import com.amazonaws.kinesisvideo.internal.service.exception.AmazonServiceExcept
 import com.amazonaws.kinesisvideo.internal.service.exception.ResourceNotFoundException;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
 
@@ -42,26 +43,19 @@ class BlockingAckConsumer implements Consumer<InputStream> {
     public void accept(final @Nonnull InputStream inputStream) {
         checkNotNull(inputStream);
 
+        // The reader buffers the socket reads and passes the read-ahead body bytes on to the ack consumer
+        final HttpResponseReader responseReader = new HttpResponseReader(inputStream);
+
         // Await for the header
         try {
-            final ResponseStatus responseStatus = ChunkDecoder.readStatusLine(inputStream);
-            final int responseCode = responseStatus.getStatusCode();
-            switch (responseCode) {
-                case HTTP_OK:
-                    log.info("PutMedia call for stream {} return OK with request id {}",
-                            kinesisVideoProducerStream.getStreamName(), ChunkDecoder.decodeHeaders(inputStream));
-                    break;
-                case HTTP_BAD_REQUEST:
-                    throw new AmazonServiceException("PutMedia call returned bad request: "
-                            + responseStatus.getReason());
-                case HTTP_NOT_FOUND:
-                    throw new ResourceNotFoundException("Resource not found: " + responseStatus.getReason());
-                case HTTP_ACCESS_DENIED:
-                    throw new AccessDeniedException("Access is denied: " + responseStatus.getReason());
-                default:
-                    throw new AmazonServiceException("PutMedia call returned status code " + responseCode +
-                            " with reason: " + responseStatus.getReason());
+            final ResponseStatus responseStatus = responseReader.readStatusLine();
+            final RuntimeException responseException = toResponseException(responseStatus);
+            if (responseException != null) {
+                throw responseException;
             }
+
+            log.info("PutMedia call for stream {} return OK with request id {}",
+                    kinesisVideoProducerStream.getStreamName(), responseReader.readHeaders());
         } catch (final Exception e) {
             // Store the exception
             storedException = e;
@@ -72,7 +66,31 @@ class BlockingAckConsumer implements Consumer<InputStream> {
 
         // Forward to the origin if no exceptions have been thrown
         if (storedException == null) {
-            inputStreamConsumer.accept(inputStream);
+            inputStreamConsumer.accept(responseReader);
+        }
+    }
+
+    /**
+     * Maps the PutMedia response status to the exception to report.
+     *
+     * @return null if the call succeeded
+     */
+    @Nullable
+    static RuntimeException toResponseException(@Nonnull final ResponseStatus responseStatus) {
+        final int responseCode = responseStatus.getStatusCode();
+        switch (responseCode) {
+            case HTTP_OK:
+                return null;
+            case HTTP_BAD_REQUEST:
+                return new AmazonServiceException("PutMedia call returned bad request: "
+                        + responseStatus.getReason());
+            case HTTP_NOT_FOUND:
+                return new ResourceNotFoundException("Resource not found: " + responseStatus.getReason());
+            case HTTP_ACCESS_DENIED:
+                return new AccessDeniedException("Access is denied: " + responseStatus.getReason());
+            default:
+                return new AmazonServiceException("PutMedia call returned status code " + responseCode +
+                        " with reason: " + responseStatus.getReason());
         }
     }
 
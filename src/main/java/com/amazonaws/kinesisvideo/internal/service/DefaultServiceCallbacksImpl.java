@@ -1,6 +1,7 @@
 package com.amazonaws.kinesisvideo.internal.service;
 
 import com.amazonaws.kinesisvideo.auth.KinesisVideoCredentials;
+import com.amazonaws.kinesisvideo.auth.KinesisVideoCredentialsCodec;
 import com.amazonaws.kinesisvideo.auth.KinesisVideoCredentialsProvider;
 import com.amazonaws.kinesisvideo.auth.StaticCredentialsProvider;
 import com.amazonaws.kinesisvideo.client.KinesisVideoClientConfiguration;
@@ -8,19 +9,26 @@ import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
 import com.amazonaws.kinesisvideo.common.function.Consumer;
 import org.apache.logging.log4j.Logger;
 import com.amazonaws.kinesisvideo.common.preconditions.Preconditions;
+import com.amazonaws.kinesisvideo.http.NioHttpConnection;
+import com.amazonaws.kinesisvideo.internal.producer.FragmentLatencyMetrics;
 import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoProducer;
 import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoProducerStream;
+import com.amazonaws.kinesisvideo.internal.producer.StreamDataChannel;
 import com.amazonaws.kinesisvideo.producer.ProducerException;
 import com.amazonaws.kinesisvideo.internal.producer.ServiceCallbacks;
 import com.amazonaws.kinesisvideo.producer.StreamDescription;
 import com.amazonaws.kinesisvideo.producer.Tag;
 import com.amazonaws.kinesisvideo.producer.Time;
+import com.amazonaws.kinesisvideo.internal.producer.client.CachingKinesisVideoServiceClient;
 import com.amazonaws.kinesisvideo.internal.producer.client.KinesisVideoServiceClient;
+import com.amazonaws.kinesisvideo.internal.producer.client.NonBlockingPutMediaServiceClient;
 import com.amazonaws.kinesisvideo.internal.producer.jni.NativeKinesisVideoProducerJni;
+import com.amazonaws.kinesisvideo.stream.throttling.HierarchicalBandwidthScheduler;
+import com.amazonaws.kinesisvideo.util.KinesisVideoExecutors;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.io.*;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -41,6 +49,11 @@ import static com.amazonaws.kinesisvideo.util.StreamInfoConstants.RESOURCE_NOT_F
  * Implementation of {@link ServiceCallbacks}
  */
 public class DefaultServiceCallbacksImpl implements ServiceCallbacks {
+    /**
+     * Same as the response timeout of the blocking PutMedia
+     */
+    private static final long PUT_MEDIA_RESPONSE_TIMEOUT_IN_MILLISECONDS = 10000;
+
     private class CompletionCallback implements Consumer<Exception> {
         private final KinesisVideoProducerStream stream;
         private final long uploadHandle;
@@ -75,6 +88,36 @@ public class DefaultServiceCallbacksImpl implements ServiceCallbacks {
         }
     }
 
+    /**
+     * Reports the result of a non-blocking PutMedia call once the response status is known.
+     */
+    private class PutStreamResultCallback implements Consumer<Exception> {
+        private final KinesisVideoProducerStream stream;
+        private final long uploadHandle;
+
+        public PutStreamResultCallback(@Nonnull final KinesisVideoProducerStream stream,
+                                       final long uploadHandle) {
+            this.stream = Preconditions.checkNotNull(stream);
+            this.uploadHandle = uploadHandle;
+        }
+
+        @Override
+        public void accept(@Nullable final Exception object) {
+            final int statusCode = getStatusCodeFromException(object);
+            if (object != null) {
+                log.error("Kinesis Video service client returned an error. Reporting to Kinesis Video PIC.", object);
+            }
+
+            try {
+                log.info("putStreamResult uploadHandle {} {}", uploadHandle, statusCode);
+                kinesisVideoProducer.putStreamResult(stream, uploadHandle, statusCode);
+            } catch (final ProducerException e) {
+                // Runs on the transport or timer thread, there is no caller to propagate to
+                log.error("Reporting the put stream result threw an exception", e);
+            }
+        }
+    }
+
     /**
      * Internal class for storing the ongoing streams
      */
@@ -140,9 +183,14 @@ public class DefaultServiceCallbacksImpl implements ServiceCallbacks {
             @Nonnull final KinesisVideoClientConfiguration configuration,
             @Nonnull final KinesisVideoServiceClient kinesisVideoServiceClient) {
         this.executor = Preconditions.checkNotNull(executor);
-        this.kinesisVideoServiceClient = Preconditions.checkNotNull(kinesisVideoServiceClient);
         this.log = Preconditions.checkNotNull(log);
         this.configuration = Preconditions.checkNotNull(configuration);
+        this.kinesisVideoServiceClient = configuration.getServiceCallCacheTtlMillis() > 0
+                ? new CachingKinesisVideoServiceClient(Preconditions.checkNotNull(kinesisVideoServiceClient),
+                        configuration.getServiceCallCacheTtlMillis(),
+                        configuration.getServiceCallCacheNegativeTtlMillis(),
+                        executor)
+                : Preconditions.checkNotNull(kinesisVideoServiceClient);
 
         this.uploadHandle = 0;
 
@@ -332,33 +380,16 @@ public class DefaultServiceCallbacksImpl implements ServiceCallbacks {
                 // and return a credential from the credentials provider we got initially.
                 final KinesisVideoCredentialsProvider credentialsProvider = configuration.getCredentialsProvider();
 
-                // Stores the serialized credentials as a streaming token
+                // Stores the encoded credentials as a streaming token
                 byte[] serializedCredentials = null;
                 long expiration = 0;
 
-                final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
                 try {
                     final KinesisVideoCredentials credentials = credentialsProvider.getUpdatedCredentials();
-
-                    // Serialize the credentials
                     expiration = credentials.getExpiration().getTime() * Time.HUNDREDS_OF_NANOS_IN_A_MILLISECOND;
-
-                    // Serialize the credentials as streaming token
-                    final ObjectOutput outputStream = new ObjectOutputStream(byteArrayOutputStream);
-                    outputStream.writeObject(credentials);
-                    outputStream.flush();
-                    serializedCredentials = byteArrayOutputStream.toByteArray();
-                    outputStream.close();
-                } catch (final IOException e) {
-                    log.error(e);
+                    serializedCredentials = KinesisVideoCredentialsCodec.encode(credentials);
                 } catch (final KinesisVideoException e) {
                     log.error(e);
-                } finally {
-                    try {
-                        byteArrayOutputStream.close();
-                    } catch (final IOException ex) {
-                        // Do nothing
-                    }
                 }
 
                 final int statusCode = HTTP_OK;
@@ -412,9 +443,25 @@ public class DefaultServiceCallbacksImpl implements ServiceCallbacks {
                 final KinesisVideoCredentialsProvider credentialsProvider = getCredentialsProvider(authData, log);
 
                 final long clientUploadHandle = getUploadHandle();
+                final FragmentLatencyMetrics fragmentLatencyMetrics =
+                        kinesisVideoProducerStream.getFragmentLatencyMetrics();
+                if (fragmentLatencyMetrics != null) {
+                    // The acks carry the fragment timecodes relative to the stream start with relative timecodes
+                    fragmentLatencyMetrics.recordUploadStart(clientUploadHandle,
+                            absoluteFragmentTimes ? 0 : streamStartTimeInMillis);
+                }
 
                 try {
                     final InputStream dataStream = kinesisVideoProducerStream.getDataStream(clientUploadHandle);
+                    if (isNonBlockingPutMedia(dataStream)) {
+                        // The result is reported once the response arrives
+                        putMediaNonBlocking(streamName, containerType, streamStartTimeInMillis,
+                                absoluteFragmentTimes, ackRequired, dataEndpoint, timeoutInMillis,
+                                credentialsProvider, clientUploadHandle, kinesisVideoProducerStream,
+                                (StreamDataChannel) dataStream);
+                        return;
+                    }
+
                     final AckConsumer ackConsumer = new AckConsumer(clientUploadHandle, kinesisVideoProducerStream, log);
                     final BlockingAckConsumer blockingAckConsumer = new BlockingAckConsumer(ackConsumer, log,
                             kinesisVideoProducerStream);
@@ -450,7 +497,68 @@ public class DefaultServiceCallbacksImpl implements ServiceCallbacks {
             }
         };
 
-        executor.schedule(task, delay, TimeUnit.NANOSECONDS);
+        // The task blocks until the PutMedia response arrives
+        executor.schedule(KinesisVideoExecutors.offload("KVS-PutStream", task), delay, TimeUnit.NANOSECONDS);
+    }
+
+    private boolean isNonBlockingPutMedia(@Nonnull final InputStream dataStream) {
+        return dataStream instanceof StreamDataChannel
+                && kinesisVideoServiceClient instanceof NonBlockingPutMediaServiceClient
+                && ((NonBlockingPutMediaServiceClient) kinesisVideoServiceClient).isNonBlockingPutMediaEnabled();
+    }
+
+    // CHECKSTYLE:SUPPRESS:ParameterNumber
+    private void putMediaNonBlocking(@Nonnull final String streamName,
+                                     @Nonnull final String containerType,
+                                     final long streamStartTimeInMillis,
+                                     final boolean absoluteFragmentTimes,
+                                     final boolean ackRequired,
+                                     @Nonnull final String dataEndpoint,
+                                     final long timeoutInMillis,
+                                     @Nullable final KinesisVideoCredentialsProvider credentialsProvider,
+                                     final long uploadHandle,
+                                     @Nonnull final KinesisVideoProducerStream stream,
+                                     @Nonnull final StreamDataChannel dataChannel) {
+        final HierarchicalBandwidthScheduler bandwidthScheduler = configuration.getBandwidthScheduler();
+        final NonBlockingPutMediaHandler handler = new NonBlockingPutMediaHandler(uploadHandle, stream, dataChannel,
+                log, new PutStreamResultCallback(stream, uploadHandle), new CompletionCallback(stream, uploadHandle),
+                bandwidthScheduler == null ? null : bandwidthScheduler.getThrottler(streamName), executor);
+
+        final NioHttpConnection connection;
+        try {
+            connection = ((NonBlockingPutMediaServiceClient) kinesisVideoServiceClient).putMediaNonBlocking(
+                    streamName,
+                    containerType,
+                    streamStartTimeInMillis,
+                    absoluteFragmentTimes,
+                    ackRequired,
+                    dataEndpoint,
+                    timeoutInMillis,
+                    credentialsProvider,
+                    handler);
+        } catch (final KinesisVideoException e) {
+            log.error("Kinesis Video service client returned an error. Reporting to Kinesis Video PIC.", e);
+            handler.reportResponse(e);
+            return;
+        }
+
+        final Runnable requestBodySignal = new Runnable() {
+            @Override
+            public void run() {
+                connection.signalRequestBodyAvailable();
+            }
+        };
+        handler.setRequestBodySignal(requestBodySignal);
+        dataChannel.setDataAvailableListener(requestBodySignal);
+
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (handler.reportResponse(new KinesisVideoException("Getting PutMedia Response timed out"))) {
+                    connection.close();
+                }
+            }
+        }, PUT_MEDIA_RESPONSE_TIMEOUT_IN_MILLISECONDS, TimeUnit.MILLISECONDS);
     }
 
     @Override
@@ -582,6 +690,12 @@ public class DefaultServiceCallbacksImpl implements ServiceCallbacks {
         if (streamingInfoToBeRemoved != null) {
             mStreams.remove(streamingInfoToBeRemoved);
         }
+
+        // Hand the assured bandwidth share of the freed stream to the other streams
+        final HierarchicalBandwidthScheduler bandwidthScheduler = configuration.getBandwidthScheduler();
+        if (bandwidthScheduler != null) {
+            bandwidthScheduler.remove(kinesisVideoProducerStream.getStreamName());
+        }
     }
 
     private long calculateRelativeServiceCallAfter(final long absoluteCallAfter) {
@@ -630,25 +744,13 @@ public class DefaultServiceCallbacksImpl implements ServiceCallbacks {
             return null;
         }
 
-        // De-serialize the bytes into AWSCredentials object
-        final ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(authData);
-        KinesisVideoCredentials credentials = null;
+        // Decode the bytes into the credentials
+        final KinesisVideoCredentials credentials;
         try {
-            final ObjectInput objectInput = new ObjectInputStream(byteArrayInputStream);
-            credentials = (KinesisVideoCredentials) objectInput.readObject();
-            objectInput.close();
-        } catch (final IOException e) {
-            log.error(e);
-            return null;
-        } catch (final ClassNotFoundException e) {
+            credentials = KinesisVideoCredentialsCodec.decode(authData);
+        } catch (final KinesisVideoException e) {
             log.error(e);
             return null;
-        } finally {
-            try {
-                byteArrayInputStream.close();
-            } catch (final IOException e) {
-                log.error(e);
-            }
         }
 
         // Create a static credentials provider
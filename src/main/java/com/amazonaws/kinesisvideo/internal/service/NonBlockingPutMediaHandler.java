@@ -0,0 +1,176 @@
+package com.amazonaws.kinesisvideo.internal.service;
+
+import com.amazonaws.kinesisvideo.ack.AckEventDecoder;
+import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
+import com.amazonaws.kinesisvideo.common.function.Consumer;
+import com.amazonaws.kinesisvideo.common.preconditions.Preconditions;
+import com.amazonaws.kinesisvideo.http.NioHttpHandler;
+import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoProducerStream;
+import com.amazonaws.kinesisvideo.internal.producer.StreamDataChannel;
+import com.amazonaws.kinesisvideo.internal.producer.jni.NativeKinesisVideoProducerJni;
+import com.amazonaws.kinesisvideo.model.ResponseStatus;
+import com.amazonaws.kinesisvideo.stream.throttling.HierarchicalBandwidthScheduler.StreamThrottler;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking counterpart of {@link BlockingAckConsumer} and {@link AckConsumer} together with the sender loop
+ * of the PutMedia client.
+ *
+ * The media data is drained from the stream's data channel whenever the transport asks for it and the ACKs
+ * are decoded as the response body arrives, so no thread is parked per upload. With a stream throttler the data
+ * is only drained as fast as the throttler allows, the transport is signalled again once bandwidth frees up.
+ */
+class NonBlockingPutMediaHandler implements NioHttpHandler {
+    private final long uploadHandle;
+    private final KinesisVideoProducerStream stream;
+    private final StreamDataChannel dataChannel;
+    private final Logger log;
+    private final Consumer<Exception> responseCallback;
+    private final Consumer<Exception> completionCallback;
+    private final AckEventDecoder ackEventDecoder;
+    private final StreamThrottler throttler;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean responseReported = new AtomicBoolean(false);
+    private volatile boolean responseFailed = false;
+    private volatile Runnable requestBodySignal;
+
+    /**
+     * @param responseCallback   Consumer of the PutMedia call result, null on success. Called exactly once.
+     * @param completionCallback Consumer of an Exception for reporting stream termination
+     * @param throttler          Throttler of the stream or null to send the data as soon as it's available
+     * @param executor           Executor to signal the transport on once the throttled bandwidth frees up
+     */
+    // CHECKSTYLE:SUPPRESS:ParameterNumber
+    NonBlockingPutMediaHandler(final long uploadHandle,
+                               @Nonnull final KinesisVideoProducerStream stream,
+                               @Nonnull final StreamDataChannel dataChannel,
+                               @Nonnull final Logger log,
+                               @Nonnull final Consumer<Exception> responseCallback,
+                               @Nonnull final Consumer<Exception> completionCallback,
+                               @Nullable final StreamThrottler throttler,
+                               @Nonnull final ScheduledExecutorService executor) {
+        this.uploadHandle = uploadHandle;
+        this.stream = Preconditions.checkNotNull(stream);
+        this.dataChannel = Preconditions.checkNotNull(dataChannel);
+        this.log = Preconditions.checkNotNull(log);
+        this.responseCallback = Preconditions.checkNotNull(responseCallback);
+        this.completionCallback = Preconditions.checkNotNull(completionCallback);
+        this.throttler = throttler;
+        this.executor = Preconditions.checkNotNull(executor);
+        this.ackEventDecoder = AckConsumer.createAckEventDecoder(uploadHandle, stream, log);
+    }
+
+    /**
+     * Sets the signal to run once the throttled bandwidth frees up, normally
+     * {@link com.amazonaws.kinesisvideo.http.NioHttpConnection#signalRequestBodyAvailable()}.
+     */
+    void setRequestBodySignal(@Nullable final Runnable signal) {
+        this.requestBodySignal = signal;
+    }
+
+    @Override
+    public int readRequestBody(@Nonnull final ByteBuffer dst) throws IOException {
+        final int bytesRead = throttler == null ? dataChannel.readAvailable(dst) : readThrottled(dst);
+        if (bytesRead < 0) {
+            log.info("End-of-stream is reported for upload handle {}", uploadHandle);
+        }
+
+        return bytesRead;
+    }
+
+    private int readThrottled(@Nonnull final ByteBuffer dst) throws IOException {
+        final int granted = throttler.tryAcquire(dst.remaining());
+        if (granted <= 0) {
+            // The data is left in the stream so the data available signal isn't lost in the meantime
+            scheduleRequestBodySignal(throttler.getNanosUntilAvailable());
+            return 0;
+        }
+
+        final int limit = dst.limit();
+        dst.limit(dst.position() + granted);
+        int bytesRead = 0;
+        try {
+            bytesRead = dataChannel.readAvailable(dst);
+            return bytesRead;
+        } finally {
+            dst.limit(limit);
+            throttler.release(granted - Math.max(bytesRead, 0));
+        }
+    }
+
+    private void scheduleRequestBodySignal(final long delayNanos) {
+        final Runnable signal = requestBodySignal;
+        if (signal == null) {
+            // The data available listener isn't set yet, it signals the pending data once it is
+            return;
+        }
+
+        try {
+            executor.schedule(signal, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (final RejectedExecutionException e) {
+            log.warn("Unable to resume the throttled upload handle {}", uploadHandle, e);
+        }
+    }
+
+    @Override
+    public void onResponseHead(@Nonnull final ResponseStatus responseStatus,
+                               @Nonnull final Map<String, String> headers) {
+        final RuntimeException responseException = BlockingAckConsumer.toResponseException(responseStatus);
+        if (responseException == null) {
+            log.info("PutMedia call for stream {} return OK with request id {}", stream.getStreamName(), headers);
+            reportResponse(null);
+        } else {
+            reportResponse(new KinesisVideoException(responseException));
+        }
+    }
+
+    @Override
+    public void onResponseBody(@Nonnull final byte[] bytes, final int offset, final int length) {
+        if (responseFailed || stream.getStreamHandle() == NativeKinesisVideoProducerJni.INVALID_STREAM_HANDLE_VALUE) {
+            return;
+        }
+
+        ackEventDecoder.decode(bytes, offset, length);
+    }
+
+    @Override
+    public void onComplete(@Nullable final Exception exception) {
+        dataChannel.setDataAvailableListener(null);
+
+        if (reportResponse(exception == null
+                ? new KinesisVideoException("PutMedia connection closed before the response")
+                : new KinesisVideoException(exception))) {
+            // The failure has been reported as the call result
+            return;
+        }
+
+        // Same as with the blocking client - an error response is reported as the call result only
+        completionCallback.accept(responseFailed ? null : exception);
+    }
+
+    /**
+     * Reports the PutMedia call result unless it has already been reported.
+     *
+     * @param exception null on success
+     * @return Whether this call has reported the result
+     */
+    boolean reportResponse(@Nullable final Exception exception) {
+        if (!responseReported.compareAndSet(false, true)) {
+            return false;
+        }
+
+        responseFailed = exception != null;
+        responseCallback.accept(exception);
+        return true;
+    }
+}
@@ -18,6 +18,7 @@ import com.amazonaws.kinesisvideo.producer.StreamCallbacks;
 import com.amazonaws.kinesisvideo.producer.Tag;
 import com.amazonaws.kinesisvideo.storage.DefaultStorageCallbacks;
 import com.amazonaws.kinesisvideo.streaming.DefaultStreamCallbacks;
+import com.amazonaws.kinesisvideo.util.KinesisVideoExecutors;
 import com.amazonaws.regions.Regions;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
@@ -39,6 +40,19 @@ public final class KinesisVideoJavaClientFactory {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Opt-in mode which runs the putStream tasks, the PutMedia sender and ACK receiver loops and the media
+     * source generator loops on virtual threads instead of dedicated platform threads. Requires Java 21 or
+     * later, platform threads are used otherwise.
+     *
+     * NOTE: The mode is process wide. Set it before creating the clients and the media sources.
+     *
+     * @param enabled Whether to use virtual threads
+     */
+    public static void useVirtualThreads(final boolean enabled) {
+        KinesisVideoExecutors.setVirtualThreadsEnabled(enabled);
+    }
+
     /**
      * Create Kinesis Video client.
      *
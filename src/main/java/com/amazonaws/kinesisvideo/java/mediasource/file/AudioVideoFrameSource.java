@@ -3,23 +3,25 @@ package com.amazonaws.kinesisvideo.java.mediasource.file;
 import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
 import com.amazonaws.kinesisvideo.common.preconditions.Preconditions;
 import com.amazonaws.kinesisvideo.internal.mediasource.OnStreamDataAvailable;
+import com.amazonaws.kinesisvideo.producer.FrameBuffer;
+import com.amazonaws.kinesisvideo.producer.FrameBufferPool;
 import com.amazonaws.kinesisvideo.producer.KinesisVideoFrame;
+import com.amazonaws.kinesisvideo.util.KinesisVideoExecutors;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.File;
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.file.Files;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import static com.amazonaws.kinesisvideo.producer.FrameFlags.FRAME_FLAG_KEY_FRAME;
 import static com.amazonaws.kinesisvideo.producer.FrameFlags.FRAME_FLAG_NONE;
@@ -37,7 +39,7 @@ public class AudioVideoFrameSource {
     private static final String DELIMITER = "-";
     private static final int INFO_LENGTH = 4;
     private static final String VIDEO_TYPE = "video";
-    private final ExecutorService executor = Executors.newFixedThreadPool(1);
+    private final ExecutorService executor = KinesisVideoExecutors.newSingleThreadExecutor("KVS-AudioVideoFrameSource");
     private final int fps;
     private final AudioVideoFileMediaSourceConfiguration configuration;
 
@@ -134,14 +136,15 @@ public class AudioVideoFrameSource {
                 ? FRAME_FLAG_KEY_FRAME
                 : FRAME_FLAG_NONE;
         final Path path = Paths.get(configuration.getDir() + "/" + fileName);
-        try {
-            final byte[] bytes = Files.readAllBytes(path);
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // Read straight into the direct memory the native code reads the frame from
+            final FrameBuffer data = FrameBufferPool.getDefault().read(channel, (int) channel.size());
             return new KinesisVideoFrame(frameIndex,
                     isKeyFrame,
                     timestamp,
                     timestamp,
                     FRAME_DURATION_0_MS * HUNDREDS_OF_NANOS_IN_A_MILLISECOND,
-                    ByteBuffer.wrap(bytes),
+                    data,
                     trackId);
         } catch (final IOException e) {
             log.error("Read file failed with Exception ", e);
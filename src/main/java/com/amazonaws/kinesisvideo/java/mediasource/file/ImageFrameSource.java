@@ -4,19 +4,21 @@ import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
 import com.amazonaws.kinesisvideo.common.preconditions.Preconditions;
 import com.amazonaws.kinesisvideo.internal.mediasource.OnStreamDataAvailable;
 
+import com.amazonaws.kinesisvideo.producer.FrameBuffer;
+import com.amazonaws.kinesisvideo.producer.FrameBufferPool;
 import com.amazonaws.kinesisvideo.producer.KinesisVideoFrame;
+import com.amazonaws.kinesisvideo.util.KinesisVideoExecutors;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.file.Files;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import static com.amazonaws.kinesisvideo.producer.FrameFlags.FRAME_FLAG_KEY_FRAME;
 import static com.amazonaws.kinesisvideo.producer.FrameFlags.FRAME_FLAG_NONE;
@@ -29,7 +31,7 @@ import static com.amazonaws.kinesisvideo.producer.Time.HUNDREDS_OF_NANOS_IN_A_MI
 public class ImageFrameSource {
     public static final int METADATA_INTERVAL = 8;
     private static final long FRAME_DURATION_20_MS = 20L;
-    private final ExecutorService executor = Executors.newFixedThreadPool(1);
+    private final ExecutorService executor = KinesisVideoExecutors.newSingleThreadExecutor("KVS-ImageFrameSource");
     private final int fps;
     private final ImageFileMediaSourceConfiguration configuration;
 
@@ -115,15 +117,16 @@ public class ImageFrameSource {
 
         final int flags = isKeyFrame() ? FRAME_FLAG_KEY_FRAME : FRAME_FLAG_NONE;
 
-        try {
-            final byte[] data = Files.readAllBytes(path);
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // Read straight into the direct memory the native code reads the frame from
+            final FrameBuffer data = FrameBufferPool.getDefault().read(channel, (int) channel.size());
             return new KinesisVideoFrame(
                     frameCounter,
                     flags,
                     currentTimeMs * HUNDREDS_OF_NANOS_IN_A_MILLISECOND,
                     currentTimeMs * HUNDREDS_OF_NANOS_IN_A_MILLISECOND,
                     FRAME_DURATION_20_MS * HUNDREDS_OF_NANOS_IN_A_MILLISECOND,
-                    ByteBuffer.wrap(data));
+                    data);
         } catch (final IOException e) {
             log.error("Read file failed with Exception ", e);
         }
@@ -0,0 +1,142 @@
+package com.amazonaws.kinesisvideo.java.service;
+
+import com.amazonaws.kinesisvideo.common.preconditions.Preconditions;
+import com.amazonaws.regions.Region;
+import com.amazonaws.services.kinesisvideo.AmazonKinesisVideo;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of the long lived control plane clients so the calls reuse the connection pools and TLS sessions
+ * instead of building a new client per call.
+ *
+ * The clients are keyed by the region, endpoint and timeout. The credentials are not part of the key as they
+ * are set on each request. Once the cache is full the least recently used client is evicted and shut down as
+ * soon as the calls running on it complete.
+ */
+final class AmazonKinesisVideoClientCache {
+    /**
+     * Creates the clients
+     */
+    interface ClientFactory {
+        @Nonnull
+        AmazonKinesisVideo create(@Nonnull Region region, @Nonnull String endpoint, int timeoutInMillis);
+    }
+
+    private final int mMaxClients;
+    private final ClientFactory mClientFactory;
+    private final LinkedHashMap<Key, Lease> mClients = new LinkedHashMap<Key, Lease>(16, 0.75f, true);
+
+    AmazonKinesisVideoClientCache(final int maxClients, @Nonnull final ClientFactory clientFactory) {
+        Preconditions.checkArgument(maxClients > 0);
+        mMaxClients = maxClients;
+        mClientFactory = Preconditions.checkNotNull(clientFactory);
+    }
+
+    /**
+     * Leases the client for the region, endpoint and timeout. The lease must be closed once the call completes.
+     */
+    @Nonnull
+    Lease acquire(@Nonnull final Region region, @Nonnull final String endpoint, final int timeoutInMillis) {
+        final Key key = new Key(region.getName(), endpoint, timeoutInMillis);
+        synchronized (mClients) {
+            Lease lease = mClients.get(key);
+            if (lease == null) {
+                lease = new Lease(mClientFactory.create(region, endpoint, timeoutInMillis));
+                mClients.put(key, lease);
+                evictLeastRecentlyUsed();
+            }
+
+            lease.mLeaseCount++;
+            return lease;
+        }
+    }
+
+    int size() {
+        synchronized (mClients) {
+            return mClients.size();
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        final Iterator<Map.Entry<Key, Lease>> iterator = mClients.entrySet().iterator();
+        while (mClients.size() > mMaxClients) {
+            final Lease evicted = iterator.next().getValue();
+            iterator.remove();
+            evicted.mEvicted = true;
+            evicted.shutdownIfUnused();
+        }
+    }
+
+    /**
+     * Lease of a cached client
+     */
+    final class Lease implements Closeable {
+        private final AmazonKinesisVideo mClient;
+        private int mLeaseCount = 0;
+        private boolean mEvicted = false;
+
+        private Lease(@Nonnull final AmazonKinesisVideo client) {
+            mClient = client;
+        }
+
+        @Nonnull
+        AmazonKinesisVideo getClient() {
+            return mClient;
+        }
+
+        @Override
+        public void close() {
+            synchronized (mClients) {
+                mLeaseCount--;
+                shutdownIfUnused();
+            }
+        }
+
+        private void shutdownIfUnused() {
+            if (mEvicted && mLeaseCount == 0) {
+                mClient.shutdown();
+            }
+        }
+    }
+
+    private static final class Key {
+        private final String mRegion;
+        private final String mEndpoint;
+        private final int mTimeoutInMillis;
+
+        Key(final String region, final String endpoint, final int timeoutInMillis) {
+            mRegion = region;
+            mEndpoint = endpoint;
+            mTimeoutInMillis = timeoutInMillis;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            final Key key = (Key) o;
+            return mTimeoutInMillis == key.mTimeoutInMillis
+                    && mRegion.equals(key.mRegion)
+                    && mEndpoint.equals(key.mEndpoint);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mRegion.hashCode();
+            result = 31 * result + mEndpoint.hashCode();
+            result = 31 * result + mTimeoutInMillis;
+            return result;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.amazonaws.kinesisvideo.java.service;
 
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.kinesisvideo.auth.KinesisVideoCredentials;
+import com.amazonaws.kinesisvideo.auth.KinesisVideoCredentialsCodec;
 import com.amazonaws.kinesisvideo.auth.KinesisVideoCredentialsProvider;
 import com.amazonaws.kinesisvideo.client.KinesisVideoClientConfiguration;
 import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
@@ -22,10 +23,6 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectOutput;
-import java.io.ObjectOutputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
@@ -155,33 +152,16 @@ public class CachedInfoMultiAuthServiceCallbacksImpl extends DefaultServiceCallb
 
         final KinesisVideoCredentialsProvider kvsCredentialsProvider = credentialsProviderMap.get(streamName);
 
-        // Stores the serialized credentials as a streaming token
+        // Stores the encoded credentials as a streaming token
         byte[] serializedCredentials = null;
         long expiration = 0;
 
-        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
         try {
             final KinesisVideoCredentials credentials = kvsCredentialsProvider.getUpdatedCredentials();
-
-            // Serialize the credentials
             expiration = credentials.getExpiration().getTime() * Time.HUNDREDS_OF_NANOS_IN_A_MILLISECOND;
-
-            // Serialize the credentials as streaming token
-            final ObjectOutput outputStream = new ObjectOutputStream(byteArrayOutputStream);
-            outputStream.writeObject(credentials);
-            outputStream.flush();
-            serializedCredentials = byteArrayOutputStream.toByteArray();
-            outputStream.close();
-        } catch (final IOException e) {
-            log.error(e);
+            serializedCredentials = KinesisVideoCredentialsCodec.encode(credentials);
         } catch (final KinesisVideoException e) {
             log.error(e);
-        } finally {
-            try {
-                byteArrayOutputStream.close();
-            } catch (final IOException ex) {
-                // Do nothing
-            }
         }
 
         final int statusCode = HTTP_OK;
@@ -11,14 +11,16 @@ import com.amazonaws.kinesisvideo.auth.KinesisVideoCredentials;
 import com.amazonaws.kinesisvideo.auth.KinesisVideoCredentialsProvider;
 import com.amazonaws.kinesisvideo.client.KinesisVideoClientConfiguration;
 import com.amazonaws.kinesisvideo.client.PutMediaClient;
-import com.amazonaws.kinesisvideo.client.signing.KinesisVideoAWS4Signer;
+import com.amazonaws.kinesisvideo.client.signing.KinesisVideoSigV4Signer;
 import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
 import com.amazonaws.kinesisvideo.common.function.Consumer;
+import com.amazonaws.kinesisvideo.http.NioHttpConnection;
+import com.amazonaws.kinesisvideo.http.NioHttpHandler;
 import org.apache.logging.log4j.Logger;
 import com.amazonaws.kinesisvideo.common.preconditions.Preconditions;
 import com.amazonaws.kinesisvideo.producer.StreamDescription;
 import com.amazonaws.kinesisvideo.producer.StreamStatus;
-import com.amazonaws.kinesisvideo.internal.producer.client.KinesisVideoServiceClient;
+import com.amazonaws.kinesisvideo.internal.producer.client.NonBlockingPutMediaServiceClient;
 import com.amazonaws.kinesisvideo.util.VersionUtil;
 import com.amazonaws.regions.Region;
 import com.amazonaws.regions.Regions;
@@ -37,6 +39,8 @@ import com.amazonaws.services.kinesisvideo.model.TagStreamResult;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.Date;
@@ -46,25 +50,31 @@ import static com.amazonaws.ClientConfiguration.DEFAULT_MAX_CONNECTIONS;
 import static com.amazonaws.kinesisvideo.producer.Time.HUNDREDS_OF_NANOS_IN_AN_HOUR;
 import static com.amazonaws.util.StringUtils.isNullOrEmpty;
 
-public final class JavaKinesisVideoServiceClient implements KinesisVideoServiceClient {
+public final class JavaKinesisVideoServiceClient implements NonBlockingPutMediaServiceClient {
     private static final int RECEIVE_TIMEOUT_1HR = 60 * 60 * 1000;
     private static final String ABSOLUTE_TIMECODE = "ABSOLUTE";
     private static final String RELATIVE_TIMECODE = "RELATIVE";
+    private static final InputStream NO_MKV_STREAM = new ByteArrayInputStream(new byte[0]);
+    private static final int MAX_CACHED_SERVICE_CLIENTS = 8;
+
+    /**
+     * Control plane clients shared by the service clients of the process. The credentials are set per request.
+     */
+    private static final AmazonKinesisVideoClientCache SERVICE_CLIENT_CACHE = new AmazonKinesisVideoClientCache(
+            MAX_CACHED_SERVICE_CLIENTS,
+            new AmazonKinesisVideoClientCache.ClientFactory() {
+                @Nonnull
+                @Override
+                public AmazonKinesisVideo create(@Nonnull final Region region,
+                                                 @Nonnull final String endpoint,
+                                                 final int timeoutInMillis) {
+                    return createAwsKinesisVideoClient(null, region, endpoint, timeoutInMillis);
+                }
+            });
 
     private final Logger log;
     private KinesisVideoClientConfiguration configuration;
 
-    private static AmazonKinesisVideo createAmazonKinesisVideoClient(
-            final KinesisVideoCredentialsProvider credentialsProvider,
-            final Region region,
-            final String endpoint,
-            final int timeoutInMillis)
-            throws KinesisVideoException {
-
-        final AWSCredentials credentials = createAwsCredentials(credentialsProvider);
-        return createAwsKinesisVideoClient(credentials, region, endpoint, timeoutInMillis);
-    }
-
     private static AmazonKinesisVideo createAmazonKinesisVideoClient(
             final AWSCredentialsProvider awsCredentialsProvider,
             final Region region,
@@ -76,28 +86,15 @@ public final class JavaKinesisVideoServiceClient implements KinesisVideoServiceC
         return createAwsKinesisVideoClient(credentials, region, endpoint, timeoutInMillis);
     }
 
-    private static AmazonKinesisVideo createAwsKinesisVideoClient(final AWSCredentials credentials,
+    private static AmazonKinesisVideo createAwsKinesisVideoClient(@Nullable final AWSCredentials credentials,
             final Region region,
             final String endpoint,
-            final int timeoutInMillis)
-            throws KinesisVideoException {
+            final int timeoutInMillis) {
 
         final ClientConfiguration clientConfiguration = createClientConfiguration(timeoutInMillis);
         final AmazonKinesisVideo amazonKinesisVideoClient = AmazonKinesisVideoClient.builder()
                 .withClientConfiguration(clientConfiguration)
-                .withCredentials(new AWSCredentialsProvider() {
-
-                    @Override
-                    public void refresh() {
-                        // Do nothing
-                    }
-
-                    @Override
-                    public AWSCredentials getCredentials() {
-                        // TODO Auto-generated method stub
-                        return credentials;
-                    }
-                })
+                .withCredentials(createStaticCredentialsProvider(credentials))
                 // .withRegion(region.getName())
                 .withEndpointConfiguration(new EndpointConfiguration(endpoint, region.getName()))
                 .build();
@@ -105,6 +102,20 @@ public final class JavaKinesisVideoServiceClient implements KinesisVideoServiceC
         return amazonKinesisVideoClient;
     }
 
+    private static AWSCredentialsProvider createStaticCredentialsProvider(@Nullable final AWSCredentials credentials) {
+        return new AWSCredentialsProvider() {
+            @Override
+            public void refresh() {
+                // Do nothing
+            }
+
+            @Override
+            public AWSCredentials getCredentials() {
+                return credentials;
+            }
+        };
+    }
+
     private static AWSCredentials createAwsCredentials(
             @Nullable final KinesisVideoCredentialsProvider credentialsProvider)
             throws KinesisVideoException {
@@ -241,6 +252,12 @@ public final class JavaKinesisVideoServiceClient implements KinesisVideoServiceC
                 timeoutInMillis);
     }
 
+    private AmazonKinesisVideoClientCache.Lease acquireServiceClient(final long timeoutInMillis) {
+        return SERVICE_CLIENT_CACHE.acquire(Region.getRegion(Regions.fromName(configuration.getRegion())),
+                configuration.getEndpoint(),
+                (int) timeoutInMillis);
+    }
+
     @Override
     public void initialize(@Nonnull final KinesisVideoClientConfiguration kinesisVideoClientConfiguration)
             throws KinesisVideoException {
@@ -257,10 +274,8 @@ public final class JavaKinesisVideoServiceClient implements KinesisVideoServiceC
             final long timeoutInMillis,
             @Nullable final KinesisVideoCredentialsProvider credentialsProvider)
             throws KinesisVideoException {
-        final AmazonKinesisVideo serviceClient = createAmazonKinesisVideoClient(credentialsProvider,
-                Region.getRegion(Regions.fromName(configuration.getRegion())),
-                configuration.getEndpoint(),
-                (int) timeoutInMillis);
+        final AWSCredentialsProvider requestCredentialsProvider =
+                createStaticCredentialsProvider(createAwsCredentials(credentialsProvider));
 
         final CreateStreamRequest createStreamRequest = new CreateStreamRequest()
                 .withStreamName(streamName)
@@ -270,11 +285,12 @@ public final class JavaKinesisVideoServiceClient implements KinesisVideoServiceC
                 .withDataRetentionInHours((int) retentionPeriodInHours)
                 .withTags(null);
 
+        createStreamRequest.setRequestCredentialsProvider(requestCredentialsProvider);
         log.debug("calling create stream: {}", createStreamRequest.toString());
 
         final CreateStreamResult createStreamResult;
-        try {
-            createStreamResult = serviceClient.createStream(createStreamRequest);
+        try (final AmazonKinesisVideoClientCache.Lease serviceClient = acquireServiceClient(timeoutInMillis)) {
+            createStreamResult = serviceClient.getClient().createStream(createStreamRequest);
         } catch (final AmazonClientException e) {
             // Wrap into an KinesisVideoException object
             log.error("Service call failed.", e);
@@ -291,19 +307,18 @@ public final class JavaKinesisVideoServiceClient implements KinesisVideoServiceC
             final long timeoutInMillis,
             @Nullable final KinesisVideoCredentialsProvider credentialsProvider)
             throws KinesisVideoException {
-        final AmazonKinesisVideo serviceClient = createAmazonKinesisVideoClient(credentialsProvider,
-                Region.getRegion(Regions.fromName(configuration.getRegion())),
-                configuration.getEndpoint(),
-                (int) timeoutInMillis);
+        final AWSCredentialsProvider requestCredentialsProvider =
+                createStaticCredentialsProvider(createAwsCredentials(credentialsProvider));
 
         final DescribeStreamRequest describeStreamRequest = new DescribeStreamRequest()
                 .withStreamName(streamName);
 
+        describeStreamRequest.setRequestCredentialsProvider(requestCredentialsProvider);
         log.debug("calling describe stream: {}", describeStreamRequest.toString());
 
         final DescribeStreamResult describeStreamResult;
-        try {
-            describeStreamResult = serviceClient.describeStream(describeStreamRequest);
+        try (final AmazonKinesisVideoClientCache.Lease serviceClient = acquireServiceClient(timeoutInMillis)) {
+            describeStreamResult = serviceClient.getClient().describeStream(describeStreamRequest);
         } catch (final AmazonClientException e) {
             log.error("Service call failed.", e);
             throw new KinesisVideoException(e);
@@ -324,10 +339,8 @@ public final class JavaKinesisVideoServiceClient implements KinesisVideoServiceC
             final Date creationTime,
             final long timeoutInMillis,
             @Nullable final KinesisVideoCredentialsProvider credentialsProvider) throws KinesisVideoException {
-        final AmazonKinesisVideo serviceClient = createAmazonKinesisVideoClient(credentialsProvider,
-                Region.getRegion(Regions.fromName(configuration.getRegion())),
-                configuration.getEndpoint(),
-                (int) timeoutInMillis);
+        final AWSCredentialsProvider requestCredentialsProvider =
+                createStaticCredentialsProvider(createAwsCredentials(credentialsProvider));
 
         final StreamDescription streamDescription = describeStream(streamName, timeoutInMillis, credentialsProvider);
 
@@ -335,11 +348,12 @@ public final class JavaKinesisVideoServiceClient implements KinesisVideoServiceC
                 .withStreamARN(streamDescription.getStreamArn())
                 .withCurrentVersion(streamDescription.getUpdateVersion());
 
+        deleteStreamRequest.setRequestCredentialsProvider(requestCredentialsProvider);
         log.debug("calling delete stream: {}", deleteStreamRequest.toString());
 
         final DeleteStreamResult deleteStreamResult;
-        try {
-            deleteStreamResult = serviceClient.deleteStream(deleteStreamRequest);
+        try (final AmazonKinesisVideoClientCache.Lease serviceClient = acquireServiceClient(timeoutInMillis)) {
+            deleteStreamResult = serviceClient.getClient().deleteStream(deleteStreamRequest);
         } catch (final AmazonClientException e) {
             log.error("Service call failed.", e);
             throw new KinesisVideoException(e);
@@ -354,20 +368,19 @@ public final class JavaKinesisVideoServiceClient implements KinesisVideoServiceC
             final long timeoutInMillis,
             @Nullable final KinesisVideoCredentialsProvider credentialsProvider)
             throws KinesisVideoException {
-        final AmazonKinesisVideo serviceClient = createAmazonKinesisVideoClient(credentialsProvider,
-                Region.getRegion(Regions.fromName(configuration.getRegion())),
-                configuration.getEndpoint(),
-                (int) timeoutInMillis);
+        final AWSCredentialsProvider requestCredentialsProvider =
+                createStaticCredentialsProvider(createAwsCredentials(credentialsProvider));
 
         final TagStreamRequest tagStreamRequest = new TagStreamRequest()
                 .withStreamARN(streamArn)
                 .withTags(tags);
 
+        tagStreamRequest.setRequestCredentialsProvider(requestCredentialsProvider);
         log.debug("calling tag resource: {}", tagStreamRequest.toString());
 
         final TagStreamResult tagStreamResult;
-        try {
-            tagStreamResult = serviceClient.tagStream(tagStreamRequest);
+        try (final AmazonKinesisVideoClientCache.Lease serviceClient = acquireServiceClient(timeoutInMillis)) {
+            tagStreamResult = serviceClient.getClient().tagStream(tagStreamRequest);
         } catch (final AmazonClientException e) {
             log.error("Service call failed.", e);
             throw new KinesisVideoException(e);
@@ -382,21 +395,20 @@ public final class JavaKinesisVideoServiceClient implements KinesisVideoServiceC
             final long timeoutInMillis,
             @Nullable final KinesisVideoCredentialsProvider credentialsProvider)
             throws KinesisVideoException {
-        final AmazonKinesisVideo serviceClient = createAmazonKinesisVideoClient(credentialsProvider,
-                Region.getRegion(Regions.fromName(configuration.getRegion())),
-                configuration.getEndpoint(),
-                (int) timeoutInMillis);
+        final AWSCredentialsProvider requestCredentialsProvider =
+                createStaticCredentialsProvider(createAwsCredentials(credentialsProvider));
 
         final GetDataEndpointRequest getDataEndpointRequest = new GetDataEndpointRequest()
                 .withStreamName(streamName)
                 .withAPIName(apiName);
 
+        getDataEndpointRequest.setRequestCredentialsProvider(requestCredentialsProvider);
         log.debug("calling get data endpoint: {}", getDataEndpointRequest.toString());
 
         final GetDataEndpointResult getDataEndpointResult;
 
-        try {
-            getDataEndpointResult = serviceClient.getDataEndpoint(getDataEndpointRequest);
+        try (final AmazonKinesisVideoClientCache.Lease serviceClient = acquireServiceClient(timeoutInMillis)) {
+            getDataEndpointResult = serviceClient.getClient().getDataEndpoint(getDataEndpointRequest);
         } catch (final AmazonClientException e) {
             log.error("Service call failed.", e);
             throw new KinesisVideoException(e);
@@ -421,6 +433,66 @@ public final class JavaKinesisVideoServiceClient implements KinesisVideoServiceC
             @Nonnull final Consumer<InputStream> acksConsumer,
             @Nullable final Consumer<Exception> completionCallback)
             throws KinesisVideoException {
+        final PutMediaClient.Builder putMediaClientBuilder = createPutMediaClientBuilder(streamName,
+                streamStartTimeInMillis, absoluteFragmentTimes, dataEndpoint, credentialsProvider)
+                .receiveTimeout(RECEIVE_TIMEOUT_1HR)
+                .receiveAcks(acksConsumer)
+                .receiveCompletion(completionCallback)
+                .mkvStream(dataInputStream);
+
+        if (configuration.getPutMediaChunkSizePolicy() != null) {
+            putMediaClientBuilder.chunkSizePolicy(configuration.getPutMediaChunkSizePolicy());
+        }
+
+        if (configuration.getBandwidthScheduler() != null) {
+            putMediaClientBuilder.bandwidthThrottler(configuration.getBandwidthScheduler().getThrottler(streamName));
+        }
+
+        final PutMediaClient putMediaClient = putMediaClientBuilder.build();
+
+        // Kick off execution
+        putMediaClient.putMediaInBackground();
+    }
+
+    @Override
+    public boolean isNonBlockingPutMediaEnabled() {
+        return configuration != null && configuration.getNioTransport() != null;
+    }
+
+    // CHECKSTYLE:SUPPRESS:ParameterNumber
+    @Nonnull
+    @Override
+    public NioHttpConnection putMediaNonBlocking(@Nonnull final String streamName,
+            @Nonnull final String containerType,
+            final long streamStartTimeInMillis,
+            final boolean absoluteFragmentTimes,
+            final boolean ackRequired,
+            @Nonnull final String dataEndpoint,
+            final long timeoutInMillis,
+            @Nullable final KinesisVideoCredentialsProvider credentialsProvider,
+            @Nonnull final NioHttpHandler handler)
+            throws KinesisVideoException {
+        Preconditions.checkState(isNonBlockingPutMediaEnabled(), "NIO transport is not configured");
+
+        // The MKV data is pulled and throttled by the handler, the stream is never read
+        final PutMediaClient putMediaClient = createPutMediaClientBuilder(streamName, streamStartTimeInMillis,
+                absoluteFragmentTimes, dataEndpoint, credentialsProvider)
+                .mkvStream(NO_MKV_STREAM)
+                .build();
+
+        try {
+            return putMediaClient.putMediaNonBlocking(configuration.getNioTransport(), handler);
+        } catch (final IOException e) {
+            throw new KinesisVideoException(e);
+        }
+    }
+
+    private PutMediaClient.Builder createPutMediaClientBuilder(@Nonnull final String streamName,
+            final long streamStartTimeInMillis,
+            final boolean absoluteFragmentTimes,
+            @Nonnull final String dataEndpoint,
+            @Nullable final KinesisVideoCredentialsProvider credentialsProvider)
+            throws KinesisVideoException {
         final AWSCredentialsProvider awsCredentialsProvider = createAwsCredentialsProvider(credentialsProvider, log);
         final com.amazonaws.kinesisvideo.config.ClientConfiguration clientConfiguration =
                 com.amazonaws.kinesisvideo.config.ClientConfiguration
@@ -428,26 +500,20 @@ public final class JavaKinesisVideoServiceClient implements KinesisVideoServiceC
                 .serviceName("kinesisvideo")
                 .region(configuration.getRegion())
                 .build();
-        final KinesisVideoAWS4Signer signer = new KinesisVideoAWS4Signer(awsCredentialsProvider, clientConfiguration);
+        final KinesisVideoSigV4Signer signer = new KinesisVideoSigV4Signer(awsCredentialsProvider, clientConfiguration);
         final URI putMediaUri = URI.create(dataEndpoint + "/putMedia");
         final String timecodeType = absoluteFragmentTimes ? ABSOLUTE_TIMECODE : RELATIVE_TIMECODE;
 
         final PutMediaClient.Builder putMediaClientBuilder = PutMediaClient
                 .builder()
-                .receiveTimeout(RECEIVE_TIMEOUT_1HR)
                 .timestamp(streamStartTimeInMillis)
                 .signWith(signer)
-                .receiveAcks(acksConsumer)
-                .receiveCompletion(completionCallback)
+                .sslContext(configuration.getSslContext())
                 .streamName(streamName)
-                .mkvStream(dataInputStream)
                 .fragmentTimecodeType(timecodeType)
                 .putMediaDestinationUri(putMediaUri);
 
-        final PutMediaClient putMediaClient = putMediaClientBuilder.build();
-
-        // Kick off execution
-        putMediaClient.putMediaInBackground();
+        return putMediaClientBuilder;
     }
 
     private static StreamDescription toStreamDescription(@Nonnull final DescribeStreamResult result) {
@@ -0,0 +1,59 @@
+package com.amazonaws.kinesisvideo.producer;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Reference counted direct buffer of frame data borrowed from a {@link FrameBufferPool}.
+ *
+ * The buffer starts with one reference held by whoever acquired it. Every {@link #retain()} must be paired
+ * with a {@link #release()} and the buffer returns to the pool once the last reference is released.
+ * The buffer must not be used after that.
+ */
+public final class FrameBuffer {
+    private final FrameBufferPool mPool;
+    private final ByteBuffer mBuffer;
+    private final AtomicInteger mRefCount = new AtomicInteger(1);
+
+    FrameBuffer(@Nonnull final FrameBufferPool pool, @Nonnull final ByteBuffer buffer) {
+        mPool = checkNotNull(pool);
+        mBuffer = checkNotNull(buffer);
+    }
+
+    /**
+     * Returns the direct buffer to write the frame data into. Flip it once the data is written.
+     */
+    @Nonnull
+    public ByteBuffer getBuffer() {
+        return mBuffer;
+    }
+
+    public FrameBuffer retain() {
+        int refCount;
+        do {
+            refCount = mRefCount.get();
+            if (refCount <= 0) {
+                throw new IllegalStateException("Frame buffer has already been released");
+            }
+        } while (!mRefCount.compareAndSet(refCount, refCount + 1));
+
+        return this;
+    }
+
+    public void release() {
+        final int refCount = mRefCount.decrementAndGet();
+        if (refCount == 0) {
+            mPool.recycle(mBuffer);
+        } else if (refCount < 0) {
+            throw new IllegalStateException("Frame buffer has already been released");
+        }
+    }
+
+    public int getRefCount() {
+        return mRefCount.get();
+    }
+}
@@ -0,0 +1,140 @@
+package com.amazonaws.kinesisvideo.producer;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Pool of direct buffers for the frame data so the producers can write the frames straight into memory
+ * the native code reads without allocating a direct buffer per frame.
+ *
+ * The buffers are pooled in power of two size classes. Buffers larger than the largest size class are
+ * allocated on demand and not pooled. Released buffers are dropped once the pool holds the max pooled bytes.
+ */
+public final class FrameBufferPool {
+    /**
+     * Smallest and largest pooled buffer sizes
+     */
+    private static final int MIN_SIZE_CLASS_SHIFT = 10; // 1 KB
+    private static final int MAX_SIZE_CLASS_SHIFT = 24; // 16 MB
+
+    /**
+     * Default limit of the bytes held by the pool
+     */
+    public static final long DEFAULT_MAX_POOLED_BYTES = 64L * 1024 * 1024;
+
+    private static final FrameBufferPool DEFAULT_POOL = new FrameBufferPool(DEFAULT_MAX_POOLED_BYTES);
+
+    private final Queue<ByteBuffer>[] mSizeClasses;
+    private final long mMaxPooledBytes;
+    private final AtomicLong mPooledBytes = new AtomicLong(0);
+
+    @SuppressWarnings("unchecked")
+    public FrameBufferPool(final long maxPooledBytes) {
+        checkArgument(maxPooledBytes >= 0);
+        mMaxPooledBytes = maxPooledBytes;
+        mSizeClasses = new Queue[MAX_SIZE_CLASS_SHIFT - MIN_SIZE_CLASS_SHIFT + 1];
+        for (int i = 0; i < mSizeClasses.length; i++) {
+            mSizeClasses[i] = new ConcurrentLinkedQueue<ByteBuffer>();
+        }
+    }
+
+    /**
+     * Returns the pool shared by the media sources of the process.
+     */
+    @Nonnull
+    public static FrameBufferPool getDefault() {
+        return DEFAULT_POOL;
+    }
+
+    /**
+     * Borrows a buffer with the position of 0 and the limit of size.
+     *
+     * @param size Size of the frame data in bytes
+     */
+    @Nonnull
+    public FrameBuffer acquire(final int size) {
+        checkArgument(size >= 0);
+        final int sizeClass = sizeClassOf(size);
+        ByteBuffer buffer = null;
+        if (sizeClass < mSizeClasses.length) {
+            buffer = mSizeClasses[sizeClass].poll();
+            if (buffer != null) {
+                mPooledBytes.addAndGet(-buffer.capacity());
+            } else {
+                buffer = ByteBuffer.allocateDirect(1 << (sizeClass + MIN_SIZE_CLASS_SHIFT));
+            }
+        } else {
+            buffer = ByteBuffer.allocateDirect(size);
+        }
+
+        buffer.clear();
+        buffer.limit(size);
+        return new FrameBuffer(this, buffer);
+    }
+
+    /**
+     * Borrows a buffer and fills it with size bytes from the channel, e.g. a frame file.
+     *
+     * @return Frame buffer flipped for reading the data
+     * @throws IOException if the channel ends before size bytes are read
+     */
+    @Nonnull
+    public FrameBuffer read(@Nonnull final ReadableByteChannel channel, final int size) throws IOException {
+        checkNotNull(channel);
+        final FrameBuffer frameBuffer = acquire(size);
+        final ByteBuffer buffer = frameBuffer.getBuffer();
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("End of channel after " + buffer.position() + " of " + size + " bytes");
+                }
+            }
+        } catch (final IOException e) {
+            frameBuffer.release();
+            throw e;
+        }
+
+        buffer.flip();
+        return frameBuffer;
+    }
+
+    /**
+     * Returns the bytes currently held by the pool.
+     */
+    public long getPooledBytes() {
+        return mPooledBytes.get();
+    }
+
+    void recycle(@Nonnull final ByteBuffer buffer) {
+        final int capacity = buffer.capacity();
+        final int sizeClass = sizeClassOf(capacity);
+        if (sizeClass >= mSizeClasses.length || capacity != 1 << (sizeClass + MIN_SIZE_CLASS_SHIFT)) {
+            // Not one of the pooled sizes
+            return;
+        }
+
+        if (mPooledBytes.addAndGet(capacity) > mMaxPooledBytes) {
+            mPooledBytes.addAndGet(-capacity);
+            return;
+        }
+
+        mSizeClasses[sizeClass].offer(buffer);
+    }
+
+    private static int sizeClassOf(final int size) {
+        if (size <= 1 << MIN_SIZE_CLASS_SHIFT) {
+            return 0;
+        }
+
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SIZE_CLASS_SHIFT;
+    }
+}
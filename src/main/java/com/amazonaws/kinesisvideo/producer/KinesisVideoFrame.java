@@ -61,6 +61,11 @@ public class KinesisVideoFrame {
     private final ByteBuffer mData;
     private final int mSize;
 
+    /**
+     * Pooled buffer holding the data, null if the data is not pooled
+     */
+    private final FrameBuffer mFrameBuffer;
+
     public KinesisVideoFrame(int index, int flags, long decodingTs, long presentationTs, long duration,
             @Nonnull ByteBuffer data, long trackId) {
         mVersion = FRAME_CURRENT_VERSION;
@@ -72,6 +77,30 @@ public class KinesisVideoFrame {
         mData = requireNonNull(data);
         mTrackId = trackId;
         mSize = data.remaining();
+        mFrameBuffer = null;
+    }
+
+    /**
+     * Creates a frame with the data in a pooled direct buffer. The frame takes over the reference of the caller
+     * which is given up by {@link #release()} once the frame has been put.
+     */
+    public KinesisVideoFrame(int index, int flags, long decodingTs, long presentationTs, long duration,
+            @Nonnull FrameBuffer frameBuffer, long trackId) {
+        mVersion = FRAME_CURRENT_VERSION;
+        mIndex = index;
+        mFlags = flags;
+        mDecodingTs = decodingTs;
+        mPresentationTs = presentationTs;
+        mDuration = duration;
+        mFrameBuffer = requireNonNull(frameBuffer);
+        mData = frameBuffer.getBuffer();
+        mTrackId = trackId;
+        mSize = mData.remaining();
+    }
+
+    public KinesisVideoFrame(int index, int flags, long decodingTs, long presentationTs, long duration,
+                             @Nonnull FrameBuffer frameBuffer) {
+        this(index, flags, decodingTs, presentationTs, duration, frameBuffer, DEFAULT_TRACK_ID);
     }
 
     public KinesisVideoFrame(int index, int flags, long decodingTs, long presentationTs, long duration,
@@ -103,8 +132,16 @@ public class KinesisVideoFrame {
         return mSize;
     }
 
+    /**
+     * Returns the frame data in a direct buffer. Pooled and direct data is returned as is, heap data is
+     * copied into a newly allocated direct buffer.
+     */
     @Nonnull
     public ByteBuffer getData() {
+        if (mFrameBuffer != null) {
+            return mData;
+        }
+
         ByteBuffer byteBuffer = mData;
         try {
             if (mData.hasArray()) {
@@ -124,6 +161,20 @@ public class KinesisVideoFrame {
         return mTrackId;
     }
 
+    public boolean isPooled() {
+        return mFrameBuffer != null;
+    }
+
+    /**
+     * Returns the pooled data buffer to the pool. Called by the consumer of the frame once the frame has been
+     * put. Does nothing if the data is not pooled.
+     */
+    public void release() {
+        if (mFrameBuffer != null) {
+            mFrameBuffer.release();
+        }
+    }
+
     @Override public String toString() {
         return new StringBuilder().append(getClass().getSimpleName()).append("{").append("mIndex=").append(mIndex)
                 .append(", mFlags=").append(mFlags).append(", mDecodingTs=").append(mDecodingTs)
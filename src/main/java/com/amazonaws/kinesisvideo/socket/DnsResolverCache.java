@@ -0,0 +1,366 @@
+package com.amazonaws.kinesisvideo.socket;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+
+/**
+ * Caches the resolved addresses of the hosts the SDK connects to.
+ *
+ * The addresses are served from the cache for the TTL. Past the TTL the last good addresses are still served,
+ * for up to the max stale time, while they are resolved again in the background, so a slow or failing DNS
+ * server doesn't stall the reconnects. Only the first lookup of a host, or one whose addresses are past the
+ * max stale time, blocks the caller.
+ *
+ * The lookups run on a small pool of daemon threads. Concurrent lookups of a host share one lookup, and a
+ * caller waits for it for at most the lookup timeout, so a hung DNS server fails the connect attempt instead
+ * of blocking it. A lookup which times out keeps running and caches the addresses once it completes.
+ *
+ * The addresses are returned rotated by one on every call so the connections of the streams spread over all
+ * of the A records of the host.
+ */
+public final class DnsResolverCache {
+    private static final Logger log = LogManager.getLogger(DnsResolverCache.class);
+
+    /**
+     * Default time to serve the addresses for without resolving them again
+     */
+    public static final long DEFAULT_TTL_MILLIS = 30000;
+
+    /**
+     * Default time past the TTL the last good addresses are served for while they are resolved again
+     */
+    public static final long DEFAULT_MAX_STALE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * Default time a caller waits for the addresses of a host which isn't cached
+     */
+    public static final long DEFAULT_LOOKUP_TIMEOUT_MILLIS = 10000;
+
+    private static final int MAX_CACHED_HOSTS = 256;
+    private static final int MAX_LOOKUP_THREADS = 4;
+    private static final String THREAD_NAME = "KVS-DnsResolver";
+
+    private static final Lookup SYSTEM_LOOKUP = new Lookup() {
+        @Override
+        public InetAddress[] lookup(@Nonnull final String host) throws UnknownHostException {
+            return InetAddress.getAllByName(host);
+        }
+    };
+
+    private static final DnsResolverCache DEFAULT = new DnsResolverCache(SYSTEM_LOOKUP, createExecutor(),
+            DEFAULT_TTL_MILLIS, DEFAULT_MAX_STALE_MILLIS, DEFAULT_LOOKUP_TIMEOUT_MILLIS);
+
+    /**
+     * Resolves all of the addresses of a host
+     */
+    interface Lookup {
+        InetAddress[] lookup(@Nonnull String host) throws UnknownHostException;
+    }
+
+    private final ConcurrentMap<String, Entry> mEntries = new ConcurrentHashMap<String, Entry>();
+    private final ConcurrentMap<String, PendingLookup> mPendingLookups =
+            new ConcurrentHashMap<String, PendingLookup>();
+    private final Lookup mLookup;
+    private final Executor mExecutor;
+    private final long mTtlMillis;
+    private final long mMaxStaleMillis;
+    private final long mLookupTimeoutMillis;
+    private final AtomicLong mHits = new AtomicLong();
+    private final AtomicLong mStaleHits = new AtomicLong();
+    private final AtomicLong mMisses = new AtomicLong();
+    private final AtomicLong mFailures = new AtomicLong();
+
+    /**
+     * @param ttlMillis Time to serve the addresses for without resolving them again
+     * @param maxStaleMillis Time past the TTL to serve the last good addresses for while resolving them again
+     */
+    public DnsResolverCache(final long ttlMillis, final long maxStaleMillis) {
+        this(ttlMillis, maxStaleMillis, DEFAULT_LOOKUP_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param ttlMillis Time to serve the addresses for without resolving them again
+     * @param maxStaleMillis Time past the TTL to serve the last good addresses for while resolving them again
+     * @param lookupTimeoutMillis Time a caller waits for the addresses of a host which isn't cached
+     */
+    public DnsResolverCache(final long ttlMillis, final long maxStaleMillis, final long lookupTimeoutMillis) {
+        this(SYSTEM_LOOKUP, createExecutor(), ttlMillis, maxStaleMillis, lookupTimeoutMillis);
+    }
+
+    DnsResolverCache(@Nonnull final Lookup lookup,
+                     @Nonnull final Executor executor,
+                     final long ttlMillis,
+                     final long maxStaleMillis,
+                     final long lookupTimeoutMillis) {
+        checkArgument(ttlMillis >= 0);
+        checkArgument(maxStaleMillis >= 0);
+        checkArgument(lookupTimeoutMillis > 0);
+        mLookup = checkNotNull(lookup);
+        mExecutor = checkNotNull(executor);
+        mTtlMillis = ttlMillis;
+        mMaxStaleMillis = maxStaleMillis;
+        mLookupTimeoutMillis = lookupTimeoutMillis;
+    }
+
+    /**
+     * Returns the resolver shared by the SDK
+     */
+    @Nonnull
+    public static DnsResolverCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns all of the addresses of the host, rotated by one from the previous call.
+     *
+     * @param host Host name or address literal
+     * @return At least one address
+     * @throws UnknownHostException if the host can't be resolved within the lookup timeout and there are no
+     *                              usable cached addresses
+     */
+    @Nonnull
+    public InetAddress[] resolve(@Nonnull final String host) throws UnknownHostException {
+        checkNotNull(host);
+        final Entry entry = mEntries.get(host);
+        if (entry != null) {
+            final long age = System.currentTimeMillis() - entry.mResolvedAtMillis;
+            if (age < mTtlMillis) {
+                mHits.incrementAndGet();
+                return entry.rotate();
+            }
+
+            if (age < mTtlMillis + mMaxStaleMillis) {
+                mStaleHits.incrementAndGet();
+                final InetAddress[] staleAddresses = entry.rotate();
+                startLookup(host);
+                return staleAddresses;
+            }
+        }
+
+        mMisses.incrementAndGet();
+        return awaitLookup(host, startLookup(host)).rotate();
+    }
+
+    /**
+     * Drops the cached addresses of the host
+     */
+    public void invalidate(@Nonnull final String host) {
+        mEntries.remove(host);
+    }
+
+    /**
+     * Returns the number of lookups served from the cache within the TTL
+     */
+    public long getHits() {
+        return mHits.get();
+    }
+
+    /**
+     * Returns the number of lookups served with stale addresses while they were resolved again
+     */
+    public long getStaleHits() {
+        return mStaleHits.get();
+    }
+
+    /**
+     * Returns the number of lookups the caller had to wait for
+     */
+    public long getMisses() {
+        return mMisses.get();
+    }
+
+    /**
+     * Returns the number of failed resolutions, foreground and background, and of the lookups which timed out
+     */
+    public long getFailures() {
+        return mFailures.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DnsResolverCache{"
+                + "hits=" + getHits()
+                + ", staleHits=" + getStaleHits()
+                + ", misses=" + getMisses()
+                + ", failures=" + getFailures()
+                + '}';
+    }
+
+    /**
+     * Starts the lookup of the host unless one is already running and returns the running lookup.
+     */
+    @Nonnull
+    private PendingLookup startLookup(@Nonnull final String host) {
+        final PendingLookup running = mPendingLookups.get(host);
+        if (running != null) {
+            return running;
+        }
+
+        final PendingLookup created = new PendingLookup(host);
+        final PendingLookup pending = mPendingLookups.putIfAbsent(host, created);
+        if (pending != null) {
+            return pending;
+        }
+
+        try {
+            mExecutor.execute(created);
+        } catch (final RejectedExecutionException e) {
+            // All of the lookup threads are busy, the waiting callers fail and a later call tries again
+            log.debug("Resolving {} was rejected", host);
+            created.cancel(false);
+        }
+
+        return created;
+    }
+
+    @Nonnull
+    private Entry awaitLookup(@Nonnull final String host, @Nonnull final PendingLookup lookup)
+            throws UnknownHostException {
+        try {
+            return lookup.get(mLookupTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (final ExecutionException e) {
+            // Every caller gets its own exception
+            throw unknownHost(host, e.getCause());
+        } catch (final TimeoutException e) {
+            mFailures.incrementAndGet();
+            throw unknownHost(host + " timed out after " + mLookupTimeoutMillis + " ms", e);
+        } catch (final CancellationException e) {
+            throw unknownHost(host, e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw unknownHost(host, e);
+        }
+    }
+
+    @Nonnull
+    private Entry store(@Nonnull final String host, @Nonnull final InetAddress[] addresses) {
+        final Entry entry = mEntries.get(host);
+        if (entry != null) {
+            entry.update(addresses);
+            return entry;
+        }
+
+        if (mEntries.size() >= MAX_CACHED_HOSTS) {
+            mEntries.clear();
+        }
+
+        final Entry newEntry = new Entry(addresses);
+        final Entry existing = mEntries.putIfAbsent(host, newEntry);
+        if (existing == null) {
+            return newEntry;
+        }
+
+        existing.update(addresses);
+        return existing;
+    }
+
+    @Nonnull
+    private InetAddress[] lookup(@Nonnull final String host) throws UnknownHostException {
+        try {
+            final InetAddress[] addresses = mLookup.lookup(host);
+            if (addresses == null || addresses.length == 0) {
+                throw new UnknownHostException(host);
+            }
+
+            return addresses;
+        } catch (final UnknownHostException e) {
+            mFailures.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private static UnknownHostException unknownHost(@Nonnull final String message, final Throwable cause) {
+        final UnknownHostException exception = new UnknownHostException(message);
+        exception.initCause(cause);
+        return exception;
+    }
+
+    private static Executor createExecutor() {
+        // No queue, a hung lookup never holds up the lookups of the other hosts
+        return new ThreadPoolExecutor(0, MAX_LOOKUP_THREADS, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, THREAD_NAME);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    /**
+     * Lookup of a host which caches the addresses once they are resolved
+     */
+    private final class PendingLookup extends FutureTask<Entry> {
+        private final String mHost;
+
+        private PendingLookup(@Nonnull final String host) {
+            super(new Callable<Entry>() {
+                @Override
+                public Entry call() throws UnknownHostException {
+                    try {
+                        return store(host, lookup(host));
+                    } catch (final UnknownHostException e) {
+                        log.debug("Resolving {} failed", host);
+                        throw e;
+                    }
+                }
+            });
+            mHost = host;
+        }
+
+        @Override
+        protected void done() {
+            mPendingLookups.remove(mHost, this);
+        }
+    }
+
+    private static final class Entry {
+        private final AtomicInteger mNext = new AtomicInteger();
+        private volatile InetAddress[] mAddresses;
+        private volatile long mResolvedAtMillis;
+
+        private Entry(@Nonnull final InetAddress[] addresses) {
+            update(addresses);
+        }
+
+        private void update(@Nonnull final InetAddress[] addresses) {
+            mAddresses = addresses;
+            mResolvedAtMillis = System.currentTimeMillis();
+        }
+
+        @Nonnull
+        private InetAddress[] rotate() {
+            final InetAddress[] addresses = mAddresses;
+            final InetAddress[] rotated = new InetAddress[addresses.length];
+            final int start = (mNext.getAndIncrement() & Integer.MAX_VALUE) % addresses.length;
+            for (int i = 0; i < addresses.length; i++) {
+                rotated[i] = addresses[(start + i) % addresses.length];
+            }
+
+            return rotated;
+        }
+    }
+}
@@ -1,20 +1,62 @@
 package com.amazonaws.kinesisvideo.socket;
 
-import com.amazonaws.kinesisvideo.http.HostnameVerifyingX509ExtendedTrustManager;
+import com.amazonaws.kinesisvideo.http.SharedSslContexts;
 
-import javax.net.ssl.KeyManager;
 import javax.net.ssl.SSLContext;
-import javax.net.ssl.X509ExtendedTrustManager;
 
+import java.io.IOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.URI;
-import java.security.SecureRandom;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
 
 public class SocketFactory {
+    /**
+     * Default time to wait for the TCP connection to an address of the host
+     */
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10000;
+
     private static final int DEFAULT_HTTP_PORT = 80;
     private static final int DEFAULT_HTTPS_PORT = 443;
-    private static final KeyManager[] NO_KEY_MANAGERS = null;
+
+    private final SSLContext mSslContext;
+    private final DnsResolverCache mResolver;
+    private final int mConnectTimeoutMillis;
+
+    public SocketFactory() {
+        this(SharedSslContexts.getDefault());
+    }
+
+    /**
+     * @param sslContext Context of the TLS connections, shared by the connections to resume their sessions
+     */
+    public SocketFactory(final SSLContext sslContext) {
+        this(sslContext, DnsResolverCache.getDefault());
+    }
+
+    /**
+     * @param sslContext Context of the TLS connections, shared by the connections to resume their sessions
+     * @param resolver Resolver of the host addresses
+     */
+    public SocketFactory(final SSLContext sslContext, final DnsResolverCache resolver) {
+        this(sslContext, resolver, DEFAULT_CONNECT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param sslContext Context of the TLS connections, shared by the connections to resume their sessions
+     * @param resolver Resolver of the host addresses
+     * @param connectTimeoutMillis Time to wait for the TCP connection to each address of the host
+     */
+    public SocketFactory(final SSLContext sslContext, final DnsResolverCache resolver,
+                         final int connectTimeoutMillis) {
+        checkArgument(connectTimeoutMillis > 0);
+        mSslContext = checkNotNull(sslContext);
+        mResolver = checkNotNull(resolver);
+        mConnectTimeoutMillis = connectTimeoutMillis;
+    }
 
     public Socket createSocket(final URI uri) {
         try {
@@ -25,27 +67,47 @@ public class SocketFactory {
     }
 
     private Socket openSocket(final URI uri) throws Exception {
-        final InetAddress address = toInetAddr(uri);
+        final String host = getHost(uri);
         final int port = getPort(uri);
+        final Socket socket = connect(mResolver.resolve(host), port);
 
         return isHttps(uri)
-                ? createSslSocket(address, port)
-                : new Socket(address, port);
+                ? createSslSocket(socket, host, port)
+                : socket;
     }
 
-    private Socket createSslSocket(final InetAddress address, final int port) throws Exception {
-        final SSLContext context = SSLContext.getInstance("TLSv1.2");
-        context.init(NO_KEY_MANAGERS, new X509ExtendedTrustManager[] {
-                new HostnameVerifyingX509ExtendedTrustManager(true)}, new SecureRandom());
-        return context.getSocketFactory().createSocket(address, port);
+    /**
+     * Connects to the first reachable address, giving each address the connect timeout. The resolver rotates
+     * the addresses, so the connections spread over all of them.
+     */
+    private Socket connect(final InetAddress[] addresses, final int port) throws IOException {
+        IOException lastException = null;
+        for (final InetAddress address : addresses) {
+            final Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(address, port), mConnectTimeoutMillis);
+                return socket;
+            } catch (final IOException e) {
+                socket.close();
+                lastException = e;
+            }
+        }
+
+        throw lastException;
     }
 
-    private boolean isHttps(final URI uri) {
-        return "https".equalsIgnoreCase(uri.getScheme());
+    private Socket createSslSocket(final Socket socket, final String host, final int port) throws Exception {
+        // Layering over a plain socket keeps the host name, which is sent as SNI and keys the session cache
+        try {
+            return mSslContext.getSocketFactory().createSocket(socket, host, port, true);
+        } catch (final Exception e) {
+            socket.close();
+            throw e;
+        }
     }
 
-    private InetAddress toInetAddr(final URI uri) throws Exception {
-        return InetAddress.getByName(getHost(uri));
+    private boolean isHttps(final URI uri) {
+        return "https".equalsIgnoreCase(uri.getScheme());
     }
 
     private String getHost(final URI uri) {
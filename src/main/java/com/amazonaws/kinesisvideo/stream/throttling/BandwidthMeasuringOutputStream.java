@@ -4,7 +4,8 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 /**
- * Measures bytes per second, notifies the consumer callback about each measurement
+ * Measures bytes per second, notifies the consumer callback about each measurement.
+ * Bulk writes are recorded by their byte count in one step.
  */
 public class BandwidthMeasuringOutputStream extends OutputStream {
 
@@ -23,4 +24,19 @@ public class BandwidthMeasuringOutputStream extends OutputStream {
         mOutputStream.write(b);
     }
 
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        mOutputStream.write(b, off, len);
+        mOpsPerSecondMeasurer.recordOperations(len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        mOutputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        mOutputStream.close();
+    }
 }
@@ -28,6 +28,14 @@ public class DiscreteTimePeriodsThrottler implements Throttler {
 
     @Override
     public void throttle() {
+        throttle(1);
+    }
+
+    /**
+     * Allows at most the remaining operations of the current time segment, sleeps first if there are none.
+     */
+    @Override
+    public int throttle(final int maxOps) {
         ensureInitialized();
 
         if (shouldSleep()) {
@@ -35,7 +43,16 @@ public class DiscreteTimePeriodsThrottler implements Throttler {
             reset();
         }
 
-        mOpsSinceSleep++;
+        final int allowedOps = Math.max(1, Math.min(maxOps, mOpsPerDiscreteTimeSegment - mOpsSinceSleep));
+        mOpsSinceSleep += allowedOps;
+        return allowedOps;
+    }
+
+    @Override
+    public void release(final int ops) {
+        if (ops > 0) {
+            mOpsSinceSleep = Math.max(0, mOpsSinceSleep - ops);
+        }
     }
 
     private boolean shouldSleep() {
@@ -0,0 +1,350 @@
+package com.amazonaws.kinesisvideo.stream.throttling;
+
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+
+/**
+ * Hierarchical token bucket scheduler sharing a host wide upload cap between streams.
+ *
+ * Every stream is assured its weighted share of the host rate. The bandwidth a stream leaves unused can be
+ * borrowed by the other streams, so a single active stream can use the whole host rate, but a noisy stream
+ * can never eat into the assured share of the others. Each stream can additionally be capped through
+ * {@link BandwidthThrottler#setUpstreamKbps(long)}.
+ *
+ * The buckets are refilled with nanosecond precision on every call. {@link StreamThrottler#tryAcquire(int)}
+ * and {@link StreamThrottler#getNanosUntilAvailable()} never block and are meant for the async transports,
+ * {@link StreamThrottler#getAllowedBytes(int)} parks the caller until bytes are available. The bytes granted
+ * but not sent are handed back through {@link StreamThrottler#release(int)}.
+ *
+ * The rates are in kilobits per second where a kilobit is 1024 bits, same as {@link BandwidthThrottlerImpl}.
+ * Every method is safe to call while the streams upload, the new rates and weights apply immediately.
+ */
+public final class HierarchicalBandwidthScheduler {
+    /**
+     * Weight of the streams which have not been given one
+     */
+    public static final int DEFAULT_WEIGHT = 1;
+
+    private static final long BITS_IN_A_KILOBIT = 1024L;
+    private static final long BITS_IN_A_BYTE = 8L;
+    private static final double NANOS_IN_A_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long BURST_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MIN_BURST_BYTES = 4096;
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * Source of the monotonic time in nanoseconds
+     */
+    interface NanoClock {
+        long nanoTime();
+    }
+
+    private static final NanoClock SYSTEM_CLOCK = new NanoClock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    private final NanoClock mClock;
+    private final TokenBucket mHostBucket;
+    private final Map<String, StreamThrottler> mStreams = new HashMap<String, StreamThrottler>();
+    private long mHostKbps;
+    private long mTotalWeight;
+
+    /**
+     * @param hostKbps Max upload rate of all of the streams together in kbps
+     */
+    public HierarchicalBandwidthScheduler(final long hostKbps) {
+        this(hostKbps, SYSTEM_CLOCK);
+    }
+
+    HierarchicalBandwidthScheduler(final long hostKbps, @Nonnull final NanoClock clock) {
+        checkArgument(hostKbps > 0, String.format("Given bandwidth value %d is not positive.", hostKbps));
+        mClock = checkNotNull(clock);
+        mHostKbps = hostKbps;
+        mHostBucket = new TokenBucket(toBytesPerSecond(hostKbps), mClock.nanoTime());
+    }
+
+    /**
+     * Changes the max upload rate of all of the streams together.
+     *
+     * @param kbps max bandwidth in kbps
+     */
+    public synchronized void setHostKbps(final long kbps) {
+        checkArgument(kbps > 0, String.format("Given bandwidth value %d is not positive.", kbps));
+        final long now = mClock.nanoTime();
+        mHostKbps = kbps;
+        mHostBucket.setRate(toBytesPerSecond(kbps), now);
+        updateAssuredRates(now);
+    }
+
+    public synchronized long getHostKbps() {
+        return mHostKbps;
+    }
+
+    /**
+     * Returns the throttler of the stream, registering the stream with the default weight on the first call.
+     * All of the PutMedia connections of the stream share the throttler.
+     *
+     * @param streamName Name of the stream
+     */
+    @Nonnull
+    public synchronized StreamThrottler getThrottler(@Nonnull final String streamName) {
+        checkNotNull(streamName);
+        StreamThrottler throttler = mStreams.get(streamName);
+        if (throttler == null) {
+            throttler = new StreamThrottler(streamName, mClock.nanoTime());
+            mStreams.put(streamName, throttler);
+            mTotalWeight += throttler.mWeight;
+            updateAssuredRates(mClock.nanoTime());
+        }
+
+        return throttler;
+    }
+
+    /**
+     * Sets the weight of the stream's assured share of the host rate, registering the stream if needed.
+     *
+     * @param streamName Name of the stream
+     * @param weight Positive weight, the streams are assured hostKbps * weight / sum of the weights
+     */
+    public synchronized void setWeight(@Nonnull final String streamName, final int weight) {
+        checkArgument(weight > 0, String.format("Given weight %d is not positive.", weight));
+        final StreamThrottler throttler = getThrottler(streamName);
+        mTotalWeight += weight - throttler.mWeight;
+        throttler.mWeight = weight;
+        updateAssuredRates(mClock.nanoTime());
+    }
+
+    /**
+     * Removes the stream and hands its assured share to the other streams. The stream's throttler keeps
+     * working, but can only borrow the bandwidth the other streams leave unused.
+     *
+     * @param streamName Name of the stream
+     */
+    public synchronized void remove(@Nonnull final String streamName) {
+        final StreamThrottler throttler = mStreams.remove(streamName);
+        if (throttler != null) {
+            final long now = mClock.nanoTime();
+            mTotalWeight -= throttler.mWeight;
+            throttler.mAssuredBucket.setRate(0, now);
+            updateAssuredRates(now);
+        }
+    }
+
+    private void updateAssuredRates(final long now) {
+        for (final StreamThrottler throttler : mStreams.values()) {
+            throttler.mAssuredBucket.setRate(mHostBucket.mBytesPerSecond * throttler.mWeight / mTotalWeight, now);
+        }
+    }
+
+    private synchronized int tryAcquire(@Nonnull final StreamThrottler throttler, final int len) {
+        if (len <= 0) {
+            return 0;
+        }
+
+        final long now = mClock.nanoTime();
+        mHostBucket.refill(now);
+        throttler.mAssuredBucket.refill(now);
+
+        long allowed = len;
+        if (throttler.mCeilingBucket != null) {
+            throttler.mCeilingBucket.refill(now);
+            allowed = Math.min(allowed, throttler.mCeilingBucket.available());
+        }
+
+        // The assured bytes are always granted, the host bucket going into debt for them keeps the borrowers
+        // out until the assured shares have been paid for
+        final long assured = throttler.mAssuredBucket.available();
+        allowed = Math.min(allowed, assured + mHostBucket.available());
+        if (allowed <= 0) {
+            return 0;
+        }
+
+        throttler.mAssuredBucket.take(Math.min(allowed, assured));
+        mHostBucket.take(allowed);
+        if (throttler.mCeilingBucket != null) {
+            throttler.mCeilingBucket.take(allowed);
+        }
+
+        return (int) allowed;
+    }
+
+    private synchronized void release(@Nonnull final StreamThrottler throttler, final int len) {
+        if (len <= 0) {
+            return;
+        }
+
+        final long now = mClock.nanoTime();
+        mHostBucket.refill(now);
+        mHostBucket.give(len);
+        if (throttler.mCeilingBucket != null) {
+            throttler.mCeilingBucket.refill(now);
+            throttler.mCeilingBucket.give(len);
+        }
+    }
+
+    private synchronized long getNanosUntilAvailable(@Nonnull final StreamThrottler throttler) {
+        final long now = mClock.nanoTime();
+        mHostBucket.refill(now);
+        throttler.mAssuredBucket.refill(now);
+
+        final long shareNanos = Math.min(throttler.mAssuredBucket.nanosUntilAvailable(),
+                mHostBucket.nanosUntilAvailable());
+        if (throttler.mCeilingBucket == null) {
+            return shareNanos;
+        }
+
+        throttler.mCeilingBucket.refill(now);
+        return Math.max(shareNanos, throttler.mCeilingBucket.nanosUntilAvailable());
+    }
+
+    private synchronized void setStreamKbps(@Nonnull final StreamThrottler throttler, final long kbps) {
+        checkArgument(kbps > 0, String.format("Given bandwidth value %d is not positive.", kbps));
+        final long now = mClock.nanoTime();
+        if (throttler.mCeilingBucket == null) {
+            throttler.mCeilingBucket = new TokenBucket(toBytesPerSecond(kbps), now);
+        } else {
+            throttler.mCeilingBucket.setRate(toBytesPerSecond(kbps), now);
+        }
+    }
+
+    private static long toBytesPerSecond(final long kbps) {
+        return kbps * BITS_IN_A_KILOBIT / BITS_IN_A_BYTE;
+    }
+
+    /**
+     * Throttler of one stream, shares the host rate with the other streams of the scheduler.
+     */
+    public final class StreamThrottler implements BandwidthThrottler {
+        private final String mStreamName;
+        private final TokenBucket mAssuredBucket;
+        private TokenBucket mCeilingBucket;
+        private int mWeight = DEFAULT_WEIGHT;
+
+        private StreamThrottler(@Nonnull final String streamName, final long now) {
+            mStreamName = streamName;
+            mAssuredBucket = new TokenBucket(0, now);
+        }
+
+        @Nonnull
+        public String getStreamName() {
+            return mStreamName;
+        }
+
+        /**
+         * Caps the upload rate of the stream on top of the host rate.
+         *
+         * @param kbps max bandwidth in kbps
+         */
+        @Override
+        public void setUpstreamKbps(final long kbps) {
+            setStreamKbps(this, kbps);
+        }
+
+        /**
+         * Waits until at least one byte can be sent.
+         */
+        @Override
+        public int getAllowedBytes(final int len) {
+            int allowed;
+            while ((allowed = tryAcquire(len)) <= 0 && len > 0) {
+                LockSupport.parkNanos(Math.max(getNanosUntilAvailable(), MIN_PARK_NANOS));
+                // Same as BandwidthThrottlerImpl, interrupts don't stop the upload
+                Thread.interrupted();
+            }
+
+            return allowed;
+        }
+
+        /**
+         * Takes up to len bytes from the buckets without waiting.
+         *
+         * @param len maximum number of bytes
+         * @return allowed bytes, 0 if nothing can be sent yet
+         */
+        public int tryAcquire(final int len) {
+            return HierarchicalBandwidthScheduler.this.tryAcquire(this, len);
+        }
+
+        /**
+         * Hands back the bytes taken by {@link #tryAcquire(int)} which have not been sent. They go back to the
+         * host rate rather than to the assured share, so they can be borrowed by any stream.
+         *
+         * @param len number of unsent bytes
+         */
+        public void release(final int len) {
+            HierarchicalBandwidthScheduler.this.release(this, len);
+        }
+
+        /**
+         * Returns the time after which at least one byte can be sent.
+         */
+        public long getNanosUntilAvailable() {
+            return HierarchicalBandwidthScheduler.this.getNanosUntilAvailable(this);
+        }
+    }
+
+    /**
+     * Token bucket holding up to 100ms worth of bytes, or 4KB for the low rates. The tokens can go negative
+     * down to minus the capacity.
+     */
+    private static final class TokenBucket {
+        private long mBytesPerSecond;
+        private double mCapacity;
+        private double mTokens;
+        private long mLastRefillNanos;
+
+        private TokenBucket(final long bytesPerSecond, final long now) {
+            mLastRefillNanos = now;
+            setRate(bytesPerSecond, now);
+            mTokens = mCapacity;
+        }
+
+        private void setRate(final long bytesPerSecond, final long now) {
+            refill(now);
+            mBytesPerSecond = bytesPerSecond;
+            mCapacity = Math.max(MIN_BURST_BYTES, bytesPerSecond * BURST_NANOS / NANOS_IN_A_SECOND);
+            mTokens = Math.max(-mCapacity, Math.min(mTokens, mCapacity));
+        }
+
+        private void refill(final long now) {
+            final long elapsedNanos = now - mLastRefillNanos;
+            mLastRefillNanos = now;
+            if (elapsedNanos > 0) {
+                mTokens = Math.min(mCapacity, mTokens + elapsedNanos * (mBytesPerSecond / NANOS_IN_A_SECOND));
+            }
+        }
+
+        private long available() {
+            return mTokens < 1 ? 0 : (long) mTokens;
+        }
+
+        private void take(final long bytes) {
+            mTokens = Math.max(-mCapacity, mTokens - bytes);
+        }
+
+        private void give(final long bytes) {
+            mTokens = Math.min(mCapacity, mTokens + bytes);
+        }
+
+        private long nanosUntilAvailable() {
+            if (mTokens >= 1) {
+                return 0;
+            }
+
+            if (mBytesPerSecond == 0) {
+                return Long.MAX_VALUE;
+            }
+
+            return (long) Math.ceil((1 - mTokens) * NANOS_IN_A_SECOND / mBytesPerSecond);
+        }
+    }
+}
@@ -10,7 +10,7 @@ public class OpsPerSecondMeasurer {
     private static final int MS_IN_SEC = 1000;
     private final Consumer<Long> mCallback;
 
-    private int mOpsSinceLastMeasurement = 0;
+    private long mOpsSinceLastMeasurement = 0;
     private long mLastMeasurementTimeMs = 0;
 
     public OpsPerSecondMeasurer(final Consumer<Long> callback) {
@@ -18,9 +18,16 @@ public class OpsPerSecondMeasurer {
     }
 
     public void recordOperation() {
+        recordOperations(1);
+    }
+
+    /**
+     * Records a number of operations done at once, e.g. the bytes of a bulk write.
+     */
+    public void recordOperations(final int count) {
         ensureInitialized();
 
-        mOpsSinceLastMeasurement++;
+        mOpsSinceLastMeasurement += count;
 
         tryRecordMeasurementAndReset();
     }
@@ -5,11 +5,11 @@ import java.io.InputStream;
 
 /**
  * Calls Throttler class each read operation
- * so that Throttler measures and enforces the bandwidth it was configured to enforce
+ * so that Throttler measures and enforces the bandwidth it was configured to enforce.
+ * Bulk reads are throttled by their byte count and read at most the bytes the throttler allows.
+ * The allowed bytes the underlying stream doesn't return are handed back to the throttler.
  */
 public class ThrottledInputStream extends InputStream {
-    private static final int MS_IN_SEC = 1000;
-
     private final InputStream mUnthrottledInputStream;
     private final Throttler mThrottler;
 
@@ -22,6 +22,36 @@ public class ThrottledInputStream extends InputStream {
     @Override
     public int read() throws IOException {
         mThrottler.throttle();
-        return mUnthrottledInputStream.read();
+        final int b = mUnthrottledInputStream.read();
+        if (b < 0) {
+            mThrottler.release(1);
+        }
+
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        final int allowedBytes = mThrottler.throttle(len);
+        final int bytesRead = mUnthrottledInputStream.read(b, off, allowedBytes);
+        if (bytesRead < allowedBytes) {
+            mThrottler.release(allowedBytes - Math.max(bytesRead, 0));
+        }
+
+        return bytesRead;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return mUnthrottledInputStream.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        mUnthrottledInputStream.close();
     }
 }
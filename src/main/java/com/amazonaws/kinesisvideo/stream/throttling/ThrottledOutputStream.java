@@ -5,7 +5,8 @@ import java.io.OutputStream;
 
 /**
  * Calls Throttler class each write operation
- * so that Throttler measures and enforces the bandwidth it was configured to enforce
+ * so that Throttler measures and enforces the bandwidth it was configured to enforce.
+ * Bulk writes are throttled by their byte count and written in the pieces the throttler allows.
  */
 public class ThrottledOutputStream extends OutputStream {
     private final OutputStream mUnthrottledOutputStream;
@@ -22,4 +23,24 @@ public class ThrottledOutputStream extends OutputStream {
         mThrottler.throttle();
         mUnthrottledOutputStream.write(b);
     }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        int bytesWritten = 0;
+        while (bytesWritten < len) {
+            final int allowedBytes = mThrottler.throttle(len - bytesWritten);
+            mUnthrottledOutputStream.write(b, off + bytesWritten, allowedBytes);
+            bytesWritten += allowedBytes;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        mUnthrottledOutputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        mUnthrottledOutputStream.close();
+    }
 }
@@ -2,4 +2,23 @@ package com.amazonaws.kinesisvideo.stream.throttling;
 
 public interface Throttler {
     void throttle();
+
+    /**
+     * Waits until at least one of the operations is allowed, bulk version of {@link #throttle()}.
+     *
+     * @param maxOps Number of operations the caller wants to do, at least 1
+     * @return Number of the operations allowed, between 1 and maxOps
+     */
+    default int throttle(final int maxOps) {
+        throttle();
+        return 1;
+    }
+
+    /**
+     * Hands back the operations allowed by {@link #throttle(int)} which have not been done.
+     *
+     * @param ops Number of the allowed operations which have not been done
+     */
+    default void release(final int ops) {
+    }
 }
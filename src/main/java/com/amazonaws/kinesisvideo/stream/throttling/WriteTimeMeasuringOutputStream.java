@@ -0,0 +1,60 @@
+package com.amazonaws.kinesisvideo.stream.throttling;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Measures the time spent in the writes and flushes of the wrapped stream. Wrap the stream below the throttling
+ * stream so the throttling waits are not counted as the time spent sending the data.
+ */
+public class WriteTimeMeasuringOutputStream extends OutputStream {
+
+    private final OutputStream mOutputStream;
+    private long mWriteTimeNanos = 0;
+
+    public WriteTimeMeasuringOutputStream(final OutputStream outputStream) {
+        this.mOutputStream = outputStream;
+    }
+
+    /**
+     * Returns the total time spent in the wrapped stream, read it before and after a write to time the write
+     */
+    public long getWriteTimeNanos() {
+        return mWriteTimeNanos;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        final long startNanos = System.nanoTime();
+        try {
+            mOutputStream.write(b);
+        } finally {
+            mWriteTimeNanos += System.nanoTime() - startNanos;
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        final long startNanos = System.nanoTime();
+        try {
+            mOutputStream.write(b, off, len);
+        } finally {
+            mWriteTimeNanos += System.nanoTime() - startNanos;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        final long startNanos = System.nanoTime();
+        try {
+            mOutputStream.flush();
+        } finally {
+            mWriteTimeNanos += System.nanoTime() - startNanos;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        mOutputStream.close();
+    }
+}
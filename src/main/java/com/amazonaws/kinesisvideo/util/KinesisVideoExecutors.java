@@ -0,0 +1,137 @@
+package com.amazonaws.kinesisvideo.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the threads of the long running upload and media source loops.
+ *
+ * By default the loops run on platform threads exactly as before. Once virtual threads are enabled, and the
+ * JVM supports them (Java 21 or later), the loops run on virtual threads instead so thousands of streams don't
+ * need thousands of platform threads. The SDK is built for Java 8 so the virtual threads are created through
+ * reflection.
+ *
+ * NOTE: The mode is process wide and applies to the executors created after it has been set.
+ */
+public final class KinesisVideoExecutors {
+    private static final Logger log = LogManager.getLogger(KinesisVideoExecutors.class);
+
+    /**
+     * Thread.ofVirtual() and the Thread.Builder methods, null if virtual threads are not available
+     */
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            builderName = builderClass.getMethod("name", String.class, long.class);
+            builderFactory = builderClass.getMethod("factory");
+
+            // Fails on the JVMs which have virtual threads only as a preview feature which is not enabled
+            ofVirtual.invoke(null);
+        } catch (final Throwable e) {
+            ofVirtual = null;
+        }
+
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+    }
+
+    private static volatile boolean sVirtualThreadsEnabled = false;
+
+    private KinesisVideoExecutors() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return Whether the JVM supports virtual threads
+     */
+    public static boolean isVirtualThreadSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Enables or disables running the loops on virtual threads. Has no effect if the JVM doesn't support them.
+     */
+    public static void setVirtualThreadsEnabled(final boolean enabled) {
+        if (enabled && !isVirtualThreadSupported()) {
+            log.warn("Virtual threads are not supported by this JVM, using platform threads");
+        }
+
+        sVirtualThreadsEnabled = enabled;
+    }
+
+    /**
+     * @return Whether the loops run on virtual threads
+     */
+    public static boolean isVirtualThreadsEnabled() {
+        return sVirtualThreadsEnabled && isVirtualThreadSupported();
+    }
+
+    /**
+     * Creates the executor for a single long running loop.
+     *
+     * @param name Name of the virtual threads, the platform threads keep their default names
+     */
+    @Nonnull
+    public static ExecutorService newSingleThreadExecutor(@Nonnull final String name) {
+        final ThreadFactory virtualThreadFactory = virtualThreadFactory(name);
+        return virtualThreadFactory == null
+                ? Executors.newFixedThreadPool(1)
+                : Executors.newFixedThreadPool(1, virtualThreadFactory);
+    }
+
+    /**
+     * Wraps a blocking task scheduled on a shared executor so it runs on its own virtual thread rather than
+     * occupying one of the executor's threads. Returns the task itself if virtual threads are not enabled.
+     *
+     * @param name Name of the virtual thread
+     * @param task Task to run
+     */
+    @Nonnull
+    public static Runnable offload(@Nonnull final String name, @Nonnull final Runnable task) {
+        final ThreadFactory virtualThreadFactory = virtualThreadFactory(name);
+        if (virtualThreadFactory == null) {
+            return task;
+        }
+
+        return new Runnable() {
+            @Override
+            public void run() {
+                virtualThreadFactory.newThread(task).start();
+            }
+        };
+    }
+
+    /**
+     * @return Factory of the virtual threads named with the prefix and a counter or null if they are not enabled
+     */
+    @Nullable
+    private static ThreadFactory virtualThreadFactory(final String name) {
+        if (!isVirtualThreadsEnabled()) {
+            return null;
+        }
+
+        try {
+            final Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name + "-", 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (final Exception e) {
+            log.warn("Unable to create the virtual thread factory, using platform threads", e);
+            return null;
+        }
+    }
+}
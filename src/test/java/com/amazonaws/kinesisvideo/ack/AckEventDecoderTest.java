@@ -0,0 +1,81 @@
+package com.amazonaws.kinesisvideo.ack;
+
+import com.amazonaws.kinesisvideo.common.function.Consumer;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class AckEventDecoderTest {
+
+    private static final String PERSISTED_ACK = "{\"EventType\":\"PERSISTED\",\"FragmentTimecode\":1234,"
+            + "\"FragmentNumber\":\"91343852333181432392682062607743920146264\"}";
+    private static final String ERROR_ACK = "{\"EventType\":\"ERROR\", \"FragmentTimecode\": 5678, "
+            + "\"FragmentNumber\": \"9134\", \"ErrorId\": 4004, \"ErrorCode\": \"INVALID_MKV_DATA\"}";
+
+    private final List<String> decoded = new ArrayList<String>();
+    private final List<String> undecoded = new ArrayList<String>();
+    private final AckEventDecoder decoder = new AckEventDecoder(
+            new Consumer<AckEventData>() {
+                @Override
+                public void accept(final AckEventData ack) {
+                    decoded.add(ack.getType() + "/" + ack.getFragmentTimecode() + "/" + ack.getFragmentNumber()
+                            + "/" + ack.getErrorCode());
+                }
+            },
+            new Consumer<String>() {
+                @Override
+                public void accept(final String ack) {
+                    undecoded.add(ack);
+                }
+            });
+
+    @Test
+    public void test_decode_multipleEventsInOnePiece() {
+        decode(PERSISTED_ACK + "\r\n" + ERROR_ACK + "{\"EventType\":\"IDLE\"}");
+
+        assertEquals(3, decoded.size());
+        assertEquals("PERSISTED/1234/91343852333181432392682062607743920146264/0", decoded.get(0));
+        assertEquals("ERROR/5678/9134/4004", decoded.get(1));
+        assertEquals("IDLE/0/null/0", decoded.get(2));
+        assertEquals(0, undecoded.size());
+    }
+
+    @Test
+    public void test_decode_eventSplitAcrossPieces() {
+        final byte[] bytes = (PERSISTED_ACK + ERROR_ACK).getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < bytes.length; i += 7) {
+            decoder.decode(bytes, i, Math.min(7, bytes.length - i));
+        }
+
+        assertEquals(2, decoded.size());
+        assertEquals("PERSISTED/1234/91343852333181432392682062607743920146264/0", decoded.get(0));
+        assertEquals("ERROR/5678/9134/4004", decoded.get(1));
+    }
+
+    @Test
+    public void test_decode_unknownEventType_isPassedToFallback() {
+        final String ack = "{\"EventType\":\"SOMETHING_NEW\",\"FragmentTimecode\":1}";
+        decode(ack);
+
+        assertEquals(0, decoded.size());
+        assertEquals(1, undecoded.size());
+        assertEquals(ack, undecoded.get(0));
+    }
+
+    @Test
+    public void test_decode_bracesInsideStrings_doNotBreakFraming() {
+        decode("{\"EventType\":\"ERROR\",\"ErrorCode\":\"bad } value {\",\"ErrorId\":500}");
+
+        assertEquals(1, decoded.size());
+        assertEquals("ERROR/0/null/500", decoded.get(0));
+    }
+
+    private void decode(final String content) {
+        final byte[] bytes = content.getBytes(StandardCharsets.US_ASCII);
+        decoder.decode(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,140 @@
+package com.amazonaws.kinesisvideo.auth;
+
+import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CachingKinesisVideoCredentialsProviderTest {
+    private static final long ONE_HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final ScheduledExecutorService mExecutor = Executors.newScheduledThreadPool(2);
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdownNow();
+    }
+
+    @Test
+    public void test_cachedCredentials_areServedWithoutCallingProvider() throws Exception {
+        final CountingCredentialsProvider provider = new CountingCredentialsProvider(ONE_HOUR_MILLIS);
+        final CachingKinesisVideoCredentialsProvider cache =
+                new CachingKinesisVideoCredentialsProvider(provider, mExecutor);
+
+        final KinesisVideoCredentials credentials = cache.getUpdatedCredentials();
+        assertSame(credentials, cache.getUpdatedCredentials());
+        assertSame(credentials, cache.getCredentials());
+
+        assertEquals(1, provider.mCalls.get());
+        assertEquals(1, cache.getMetrics().getRefreshes());
+        assertEquals(2, cache.getMetrics().getCacheHits());
+    }
+
+    @Test
+    public void test_concurrentCallers_shareOneRefresh() throws Exception {
+        final CountingCredentialsProvider provider = new CountingCredentialsProvider(ONE_HOUR_MILLIS);
+        provider.mDelayMillis = 200;
+        final CachingKinesisVideoCredentialsProvider cache =
+                new CachingKinesisVideoCredentialsProvider(provider, mExecutor);
+
+        final int callers = 8;
+        final CountDownLatch done = new CountDownLatch(callers);
+        for (int i = 0; i < callers; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        cache.getUpdatedCredentials();
+                        done.countDown();
+                    } catch (final KinesisVideoException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start();
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, provider.mCalls.get());
+    }
+
+    @Test
+    public void test_credentials_areRefreshedInBackgroundBeforeMaxAge() throws Exception {
+        final CountingCredentialsProvider provider = new CountingCredentialsProvider(ONE_HOUR_MILLIS);
+        final CachingKinesisVideoCredentialsProvider cache =
+                new CachingKinesisVideoCredentialsProvider(provider, mExecutor, 0, 0, 50, 1000);
+
+        final KinesisVideoCredentials first = cache.getCredentials();
+        Thread.sleep(300);
+
+        assertTrue(provider.mCalls.get() >= 2);
+        assertTrue(first != cache.getCredentials());
+    }
+
+    @Test
+    public void test_failedRefresh_isRecorded() throws Exception {
+        final CountingCredentialsProvider provider = new CountingCredentialsProvider(ONE_HOUR_MILLIS);
+        provider.mFail = true;
+        final CachingKinesisVideoCredentialsProvider cache =
+                new CachingKinesisVideoCredentialsProvider(provider, mExecutor);
+
+        try {
+            cache.getCredentials();
+            fail("Expected the provider failure");
+        } catch (final KinesisVideoException e) {
+            assertEquals("Provider failure", e.getMessage());
+        }
+
+        assertEquals(1, cache.getMetrics().getFailures());
+    }
+
+    @Test
+    public void test_abstractProvider_reusesUnexpiredCredentials() throws Exception {
+        final CountingCredentialsProvider provider = new CountingCredentialsProvider(ONE_HOUR_MILLIS);
+
+        provider.getCredentials();
+        provider.getCredentials();
+
+        assertEquals(1, provider.mCalls.get());
+    }
+
+    private static final class CountingCredentialsProvider extends AbstractKinesisVideoCredentialsProvider {
+        private final AtomicInteger mCalls = new AtomicInteger(0);
+        private final long mLifetimeMillis;
+        private volatile long mDelayMillis = 0;
+        private volatile boolean mFail = false;
+
+        CountingCredentialsProvider(final long lifetimeMillis) {
+            mLifetimeMillis = lifetimeMillis;
+        }
+
+        @Override
+        protected KinesisVideoCredentials updateCredentials() throws KinesisVideoException {
+            final int call = mCalls.incrementAndGet();
+            if (mDelayMillis > 0) {
+                try {
+                    Thread.sleep(mDelayMillis);
+                } catch (final InterruptedException e) {
+                    throw new KinesisVideoException(e);
+                }
+            }
+
+            if (mFail) {
+                throw new KinesisVideoException("Provider failure");
+            }
+
+            return new KinesisVideoCredentials("AKID" + call, "secret", "token",
+                    new Date(System.currentTimeMillis() + mLifetimeMillis));
+        }
+    }
+}
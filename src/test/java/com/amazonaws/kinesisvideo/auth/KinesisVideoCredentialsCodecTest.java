@@ -0,0 +1,53 @@
+package com.amazonaws.kinesisvideo.auth;
+
+import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class KinesisVideoCredentialsCodecTest {
+    @Test
+    public void test_sessionCredentials_roundTrip() throws Exception {
+        final Date expiration = new Date(1700000000000L);
+        final KinesisVideoCredentials decoded = KinesisVideoCredentialsCodec.decode(KinesisVideoCredentialsCodec.encode(
+                new KinesisVideoCredentials("AKID", "secret", "token\u00e9", expiration)));
+
+        assertEquals("AKID", decoded.getAccessKey());
+        assertEquals("secret", decoded.getSecretKey());
+        assertEquals("token\u00e9", decoded.getSessionToken());
+        assertEquals(expiration, decoded.getExpiration());
+    }
+
+    @Test
+    public void test_staticCredentials_roundTrip() throws Exception {
+        final KinesisVideoCredentials decoded = KinesisVideoCredentialsCodec.decode(KinesisVideoCredentialsCodec.encode(
+                new KinesisVideoCredentials("AKID", "secret")));
+
+        assertNull(decoded.getSessionToken());
+        assertSame(KinesisVideoCredentials.CREDENTIALS_NEVER_EXPIRE, decoded.getExpiration());
+    }
+
+    @Test(expected = KinesisVideoException.class)
+    public void test_serializedObject_isRejected() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream outputStream = new ObjectOutputStream(bytes);
+        outputStream.writeObject(new KinesisVideoCredentials("AKID", "secret"));
+        outputStream.close();
+
+        KinesisVideoCredentialsCodec.decode(bytes.toByteArray());
+    }
+
+    @Test(expected = KinesisVideoException.class)
+    public void test_truncatedToken_isRejected() throws Exception {
+        final byte[] token = KinesisVideoCredentialsCodec.encode(new KinesisVideoCredentials("AKID", "secret"));
+
+        KinesisVideoCredentialsCodec.decode(Arrays.copyOf(token, token.length - 1));
+    }
+}
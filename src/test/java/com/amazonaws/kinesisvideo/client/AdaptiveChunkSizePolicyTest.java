@@ -0,0 +1,47 @@
+package com.amazonaws.kinesisvideo.client;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveChunkSizePolicyTest {
+
+    private static final int MIN = 4 * 1024;
+    private static final int MAX = 64 * 1024;
+    private static final long LATENCY_THRESHOLD_MILLIS = 100;
+    private static final long FAST_SEND = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW_SEND = TimeUnit.MILLISECONDS.toNanos(LATENCY_THRESHOLD_MILLIS + 1);
+
+    private final AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy(MIN, MAX, LATENCY_THRESHOLD_MILLIS);
+
+    @Test
+    public void test_initialReadSize_isMin() {
+        assertEquals(MIN, policy.getInitialReadSize());
+        assertEquals(MAX, policy.getMaxReadSize());
+    }
+
+    @Test
+    public void test_readSize_growsToCoverAvailableData() {
+        assertEquals(16 * 1024, policy.nextReadSize(MIN, 10000, FAST_SEND));
+        assertEquals(16 * 1024, policy.nextReadSize(MIN, 16 * 1024, FAST_SEND));
+    }
+
+    @Test
+    public void test_readSize_isCappedAtMax() {
+        assertEquals(MAX, policy.nextReadSize(MIN, 10L * 1024 * 1024, FAST_SEND));
+        assertEquals(MAX, policy.nextReadSize(MAX, MAX + 1, FAST_SEND));
+    }
+
+    @Test
+    public void test_readSize_doesNotShrinkWithoutPressure() {
+        assertEquals(32 * 1024, policy.nextReadSize(32 * 1024, 0, FAST_SEND));
+    }
+
+    @Test
+    public void test_readSize_halvesUnderLatencyPressure_downToMin() {
+        assertEquals(16 * 1024, policy.nextReadSize(32 * 1024, 10L * 1024 * 1024, SLOW_SEND));
+        assertEquals(MIN, policy.nextReadSize(MIN, 0, SLOW_SEND));
+    }
+}
@@ -0,0 +1,340 @@
+package com.amazonaws.kinesisvideo.client;
+
+import com.amazonaws.kinesisvideo.common.function.Consumer;
+import com.amazonaws.kinesisvideo.encoding.HttpResponseReader;
+import com.amazonaws.kinesisvideo.util.KinesisVideoExecutors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs many concurrent PutMedia uploads, each with its sender and ACK receiver loop, against a local stub
+ * endpoint and checks they all complete with bounded heap usage.
+ *
+ * The unit test run uses a small number of streams on whatever threads the JVM supports. The full stress test runs
+ * 1000 streams with the stress profile, mvn test -Pstress, which requires a JVM with virtual threads.
+ */
+public class PutMediaClientStressTest {
+    private static final int STREAM_COUNT = Integer.getInteger("kvs.stress.streams", 50);
+    private static final boolean REQUIRE_VIRTUAL_THREADS = Boolean.getBoolean("kvs.stress.requireVirtualThreads");
+    private static final int BYTES_PER_STREAM = 64 * 1024;
+    private static final long MAX_HEAP_GROWTH_BYTES = 128L * 1024 * 1024;
+    private static final long TIMEOUT_IN_SECONDS = 120;
+    private static final String ACK = "{\"EventType\":\"PERSISTED\",\"FragmentTimecode\":0}";
+
+    private StubPutMediaServer mServer;
+
+    @Before
+    public void setUp() throws IOException {
+        if (REQUIRE_VIRTUAL_THREADS) {
+            assertTrue("The JVM doesn't support virtual threads", KinesisVideoExecutors.isVirtualThreadSupported());
+        }
+
+        KinesisVideoExecutors.setVirtualThreadsEnabled(true);
+        mServer = new StubPutMediaServer();
+        mServer.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        KinesisVideoExecutors.setVirtualThreadsEnabled(false);
+        if (mServer != null) {
+            mServer.shutdown();
+        }
+    }
+
+    @Test
+    public void test_concurrentStreams_completeWithBoundedMemory() throws Exception {
+        final long baselineHeap = usedHeap();
+        final CountDownLatch allStreaming = new CountDownLatch(STREAM_COUNT);
+        final CountDownLatch allCompleted = new CountDownLatch(STREAM_COUNT);
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger acks = new AtomicInteger();
+        final AtomicInteger virtualThreadLoops = new AtomicInteger();
+        final URI uri = URI.create("http://127.0.0.1:" + mServer.getPort() + "/putMedia");
+
+        for (int i = 0; i < STREAM_COUNT; i++) {
+            PutMediaClient.builder()
+                    .putMediaDestinationUri(uri)
+                    .streamName("stress-stream-" + i)
+                    .fragmentTimecodeType("RELATIVE")
+                    .mkvStream(new GatedInputStream(allStreaming, virtualThreadLoops))
+                    .receiveAcks(ackReceiver(acks, virtualThreadLoops))
+                    .receiveCompletion(new Consumer<Exception>() {
+                        @Override
+                        public void accept(final Exception exception) {
+                            if (exception != null) {
+                                failures.incrementAndGet();
+                            }
+                            allCompleted.countDown();
+                        }
+                    })
+                    .build()
+                    .putMediaInBackground();
+        }
+
+        // Every upload is connected and inside its sender loop at this point
+        assertTrue("Streams did not start", allStreaming.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        final long peakHeapGrowth = usedHeap() - baselineHeap;
+
+        assertTrue("Streams did not complete", allCompleted.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        assertEquals(0, failures.get());
+        assertEquals(STREAM_COUNT, acks.get());
+        assertEquals((long) STREAM_COUNT * BYTES_PER_STREAM, mServer.getPayloadBytes());
+        assertTrue("Heap grew by " + peakHeapGrowth + " bytes", peakHeapGrowth < MAX_HEAP_GROWTH_BYTES);
+        // Both the sender and the receiver loop of every upload, on platform threads if there are no virtual ones
+        assertEquals(KinesisVideoExecutors.isVirtualThreadSupported() ? 2 * STREAM_COUNT : 0,
+                virtualThreadLoops.get());
+    }
+
+    private static void recordThread(final AtomicInteger virtualThreadLoops) {
+        if (isVirtual(Thread.currentThread())) {
+            virtualThreadLoops.incrementAndGet();
+        }
+    }
+
+    private static boolean isVirtual(final Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (final NoSuchMethodException e) {
+            return false;
+        } catch (final ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        final Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static Consumer<InputStream> ackReceiver(final AtomicInteger acks, final AtomicInteger virtualThreadLoops) {
+        return new Consumer<InputStream>() {
+            @Override
+            public void accept(final InputStream inputStream) {
+                recordThread(virtualThreadLoops);
+                try {
+                    final HttpResponseReader reader = new HttpResponseReader(inputStream);
+                    if (reader.readStatusLine().getStatusCode() != 200) {
+                        throw new IOException("Unexpected status");
+                    }
+
+                    reader.readHeaders();
+                    final byte[] buffer = new byte[256];
+                    while (reader.readChunkSize() > 0) {
+                        while (reader.readChunkData(buffer, 0, buffer.length) > 0) {
+                            // Drain
+                        }
+                        acks.incrementAndGet();
+                    }
+                } catch (final IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * MKV stream stand-in which holds the first read until all of the streams are sending.
+     */
+    private static final class GatedInputStream extends InputStream {
+        private final CountDownLatch mAllStreaming;
+        private final AtomicInteger mVirtualThreadLoops;
+        private boolean mStarted = false;
+        private int mRemaining = BYTES_PER_STREAM;
+
+        GatedInputStream(final CountDownLatch allStreaming, final AtomicInteger virtualThreadLoops) {
+            mAllStreaming = allStreaming;
+            mVirtualThreadLoops = virtualThreadLoops;
+        }
+
+        @Override
+        public int read() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (!mStarted) {
+                mStarted = true;
+                recordThread(mVirtualThreadLoops);
+                mAllStreaming.countDown();
+                try {
+                    if (!mAllStreaming.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                        throw new IOException("Timed out waiting for the other streams");
+                    }
+                } catch (final InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+
+            if (mRemaining == 0) {
+                return -1;
+            }
+
+            final int length = Math.min(len, mRemaining);
+            Arrays.fill(b, off, off + length, (byte) 'x');
+            mRemaining -= length;
+            return length;
+        }
+    }
+
+    /**
+     * Single threaded PutMedia endpoint stub. Answers every request with 200, discards the chunked body and
+     * sends one ACK followed by the end of the response once the last chunk has been received.
+     */
+    private static final class StubPutMediaServer extends Thread {
+        private static final byte[] RESPONSE_HEAD =
+                "HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] END_OF_REQUEST = "\r\n0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+        private final Selector mSelector;
+        private final ServerSocketChannel mServerChannel;
+        private final ByteBuffer mReadBuffer = ByteBuffer.allocate(64 * 1024);
+        private volatile boolean mRunning = true;
+        private long mPayloadBytes = 0;
+
+        StubPutMediaServer() throws IOException {
+            mSelector = Selector.open();
+            mServerChannel = ServerSocketChannel.open();
+            mServerChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), STREAM_COUNT);
+            mServerChannel.configureBlocking(false);
+            mServerChannel.register(mSelector, SelectionKey.OP_ACCEPT);
+            setDaemon(true);
+        }
+
+        int getPort() {
+            return mServerChannel.socket().getLocalPort();
+        }
+
+        synchronized long getPayloadBytes() {
+            return mPayloadBytes;
+        }
+
+        void shutdown() throws Exception {
+            mRunning = false;
+            mSelector.wakeup();
+            join(TimeUnit.SECONDS.toMillis(TIMEOUT_IN_SECONDS));
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (mRunning) {
+                    mSelector.select();
+                    final Iterator<SelectionKey> keys = mSelector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        final SelectionKey key = keys.next();
+                        keys.remove();
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else if (key.isReadable()) {
+                            read(key);
+                        }
+                    }
+                }
+
+                for (final SelectionKey key : mSelector.keys()) {
+                    key.channel().close();
+                }
+                mSelector.close();
+            } catch (final IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private void accept() throws IOException {
+            SocketChannel channel;
+            while ((channel = mServerChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.register(mSelector, SelectionKey.OP_READ, new RequestState());
+                writeFully(channel, RESPONSE_HEAD);
+            }
+        }
+
+        private void read(final SelectionKey key) throws IOException {
+            final SocketChannel channel = (SocketChannel) key.channel();
+            final RequestState state = (RequestState) key.attachment();
+            mReadBuffer.clear();
+            final int bytesRead;
+            try {
+                bytesRead = channel.read(mReadBuffer);
+            } catch (final IOException e) {
+                channel.close();
+                return;
+            }
+
+            if (bytesRead < 0) {
+                channel.close();
+                return;
+            }
+
+            if (state.consume(mReadBuffer.array(), bytesRead)) {
+                synchronized (this) {
+                    mPayloadBytes += state.mPayloadBytes;
+                }
+
+                final byte[] ack = ACK.getBytes(StandardCharsets.US_ASCII);
+                writeFully(channel, (Integer.toHexString(ack.length) + "\r\n" + ACK + "\r\n0\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                channel.close();
+            }
+        }
+
+        private static void writeFully(final SocketChannel channel, final byte[] bytes) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        /**
+         * Counts the payload bytes, the body only contains 'x' so anything else is the head or the framing.
+         */
+        private static final class RequestState {
+            private final byte[] mTail = new byte[END_OF_REQUEST.length];
+            private long mPayloadBytes = 0;
+            private boolean mHeadReceived = false;
+
+            boolean consume(final byte[] bytes, final int length) {
+                for (int i = 0; i < length; i++) {
+                    System.arraycopy(mTail, 1, mTail, 0, mTail.length - 1);
+                    mTail[mTail.length - 1] = bytes[i];
+                    if (mHeadReceived && bytes[i] == 'x') {
+                        mPayloadBytes++;
+                    }
+
+                    if (!mHeadReceived && mTail[mTail.length - 1] == '\n' && mTail[mTail.length - 2] == '\r'
+                            && mTail[mTail.length - 3] == '\n' && mTail[mTail.length - 4] == '\r') {
+                        mHeadReceived = true;
+                    } else if (mHeadReceived && Arrays.equals(mTail, END_OF_REQUEST)) {
+                        return true;
+                    }
+                }
+
+                return false;
+            }
+        }
+    }
+}
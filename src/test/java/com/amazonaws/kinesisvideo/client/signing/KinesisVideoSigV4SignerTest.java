@@ -0,0 +1,142 @@
+package com.amazonaws.kinesisvideo.client.signing;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.kinesisvideo.config.ClientConfiguration;
+import com.amazonaws.kinesisvideo.http.HttpClient;
+import com.amazonaws.kinesisvideo.http.HttpMethodName;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class KinesisVideoSigV4SignerTest {
+    private static final long SIGNING_TIME_MILLIS = 1700000000000L;
+    private static final ClientConfiguration CONFIGURATION = ClientConfiguration.builder()
+            .serviceName("kinesisvideo")
+            .region("us-west-2")
+            .build();
+
+    @Test
+    public void test_putMediaSignature_matchesSdkSigner() {
+        assertSameSignature(new BasicSessionCredentials("AKID", "secret", "token"), HttpMethodName.POST, null);
+    }
+
+    @Test
+    public void test_signedPayloadSignature_matchesSdkSigner() {
+        assertSameSignature(new BasicAWSCredentials("AKID", "secret"), HttpMethodName.GET,
+                "{\"StreamName\":\"stream\"}");
+    }
+
+    @Test
+    public void test_repeatedSigning_usesCurrentHeaderValues() {
+        final KinesisVideoSigV4Signer signer = new KinesisVideoSigV4Signer(
+                provider(new BasicAWSCredentials("AKID", "secret")), CONFIGURATION);
+        final TestHttpClient first = putMediaRequest(HttpMethodName.POST, null, "first");
+        final TestHttpClient second = putMediaRequest(HttpMethodName.POST, null, "second");
+
+        signer.sign(first, SIGNING_TIME_MILLIS);
+        signer.sign(second, SIGNING_TIME_MILLIS);
+
+        final KinesisVideoAWS4Signer sdkSigner = new KinesisVideoAWS4Signer(
+                provider(new BasicAWSCredentials("AKID", "secret")), CONFIGURATION);
+        sdkSigner.setOverrideDate(new Date(SIGNING_TIME_MILLIS));
+        final TestHttpClient expected = putMediaRequest(HttpMethodName.POST, null, "second");
+        sdkSigner.sign(expected);
+
+        assertEquals(expected.getHeaders().get("Authorization"), second.getHeaders().get("Authorization"));
+    }
+
+    private static void assertSameSignature(final AWSCredentials credentials,
+                                            final HttpMethodName method,
+                                            final String content) {
+        final KinesisVideoAWS4Signer sdkSigner = new KinesisVideoAWS4Signer(provider(credentials), CONFIGURATION);
+        sdkSigner.setOverrideDate(new Date(SIGNING_TIME_MILLIS));
+        final TestHttpClient expected = putMediaRequest(method, content, "stream");
+        sdkSigner.sign(expected);
+
+        final TestHttpClient actual = putMediaRequest(method, content, "stream");
+        new KinesisVideoSigV4Signer(provider(credentials), CONFIGURATION).sign(actual, SIGNING_TIME_MILLIS);
+
+        assertNotNull(actual.getHeaders().get("Authorization"));
+        assertEquals(expected.getHeaders(), actual.getHeaders());
+    }
+
+    private static TestHttpClient putMediaRequest(final HttpMethodName method,
+                                                  final String content,
+                                                  final String streamName) {
+        final Map<String, String> headers = new HashMap<String, String>();
+        headers.put("Host", "s-1234abcd.kinesisvideo.us-west-2.amazonaws.com");
+        headers.put("x-amzn-stream-name", streamName);
+        headers.put("Transfer-Encoding", "chunked");
+        headers.put("Connection", "keep-alive");
+        headers.put("User-Agent", "AWS-SDK-KVS  test/1.0");
+        headers.put("x-amzn-producer-start-timestamp", "1700000000.000");
+        headers.put("x-amzn-fragment-timecode-type", "ABSOLUTE");
+        return new TestHttpClient(method, URI.create("https://s-1234abcd.kinesisvideo.us-west-2.amazonaws.com/putMedia"),
+                headers, content);
+    }
+
+    private static AWSCredentialsProvider provider(final AWSCredentials credentials) {
+        return new AWSCredentialsProvider() {
+            @Override
+            public AWSCredentials getCredentials() {
+                return credentials;
+            }
+
+            @Override
+            public void refresh() {
+                // Static credentials
+            }
+        };
+    }
+
+    private static final class TestHttpClient implements HttpClient {
+        private final HttpMethodName mMethod;
+        private final URI mUri;
+        private final Map<String, String> mHeaders;
+        private final String mContent;
+
+        TestHttpClient(final HttpMethodName method, final URI uri, final Map<String, String> headers,
+                       final String content) {
+            mMethod = method;
+            mUri = uri;
+            mHeaders = headers;
+            mContent = content;
+        }
+
+        @Override
+        public HttpMethodName getMethod() {
+            return mMethod;
+        }
+
+        @Override
+        public URI getUri() {
+            return mUri;
+        }
+
+        @Override
+        public Map<String, String> getHeaders() {
+            return mHeaders;
+        }
+
+        @Override
+        public InputStream getContent() {
+            return mContent == null ? null : new ByteArrayInputStream(mContent.getBytes());
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+}
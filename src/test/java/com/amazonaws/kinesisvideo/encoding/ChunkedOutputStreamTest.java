@@ -0,0 +1,78 @@
+package com.amazonaws.kinesisvideo.encoding;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ChunkedOutputStreamTest {
+
+    private static final int MAX_BUFFERED_PAYLOAD_SIZE = 16;
+
+    @Test
+    public void test_write_matchesChunkEncoderOutput() throws IOException {
+        for (final int size : new int[] { 1, 15, 16, 17, 255, 4096, 70000 }) {
+            final byte[] payload = payload(size);
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final ChunkedOutputStream chunkedOutputStream =
+                    new ChunkedOutputStream(output, MAX_BUFFERED_PAYLOAD_SIZE);
+
+            chunkedOutputStream.write(payload, 0, size);
+
+            assertArrayEquals("size " + size, ChunkEncoder.encode(payload, size), output.toByteArray());
+        }
+    }
+
+    @Test
+    public void test_writeDirectBuffer_matchesChunkEncoderOutput() throws IOException {
+        for (final int size : new int[] { 1, 16, 17, 100 }) {
+            final byte[] payload = payload(size);
+            final ByteBuffer directBuffer = ByteBuffer.allocateDirect(size);
+            directBuffer.put(payload);
+            directBuffer.flip();
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final ChunkedOutputStream chunkedOutputStream =
+                    new ChunkedOutputStream(output, MAX_BUFFERED_PAYLOAD_SIZE);
+
+            assertEquals(size, chunkedOutputStream.write(directBuffer));
+
+            assertEquals(0, directBuffer.remaining());
+            assertArrayEquals("size " + size, ChunkEncoder.encode(payload, size), output.toByteArray());
+        }
+    }
+
+    @Test
+    public void test_emptyWrite_isIgnored_andFinishWritesLastChunk() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final ChunkedOutputStream chunkedOutputStream = new ChunkedOutputStream(output, MAX_BUFFERED_PAYLOAD_SIZE);
+
+        chunkedOutputStream.write(new byte[0], 0, 0);
+        chunkedOutputStream.write(new byte[] { 'a', 'b' }, 0, 2);
+        chunkedOutputStream.finish();
+        chunkedOutputStream.finish();
+
+        assertEquals("2\r\nab\r\n0\r\n\r\n", new String(output.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test(expected = IOException.class)
+    public void test_writeAfterFinish_throws() throws IOException {
+        final ChunkedOutputStream chunkedOutputStream =
+                new ChunkedOutputStream(new ByteArrayOutputStream(), MAX_BUFFERED_PAYLOAD_SIZE);
+
+        chunkedOutputStream.finish();
+        chunkedOutputStream.write(1);
+    }
+
+    private static byte[] payload(final int size) {
+        final byte[] payload = new byte[size];
+        Arrays.fill(payload, (byte) 'x');
+        payload[size - 1] = (byte) 'y';
+        return payload;
+    }
+}
@@ -0,0 +1,116 @@
+package com.amazonaws.kinesisvideo.encoding;
+
+import com.amazonaws.kinesisvideo.model.ResponseStatus;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class HttpResponseReaderTest {
+
+    private static final String RESPONSE = "HTTP/1.1 200 OK\r\n"
+            + "x-amzn-RequestId: abc\r\n"
+            + "Transfer-Encoding: chunked\r\n"
+            + "\r\n"
+            + "5\r\nhello\r\n"
+            + "b;ext=1\r\nhello world\r\n"
+            + "0\r\n\r\n";
+
+    @Test
+    public void test_readHeadAndChunks() throws IOException {
+        assertResponse(new HttpResponseReader(stream(RESPONSE)));
+    }
+
+    @Test
+    public void test_readHeadAndChunks_acrossSingleByteReads() throws IOException {
+        assertResponse(new HttpResponseReader(new OneByteInputStream(stream(RESPONSE)), 32));
+    }
+
+    @Test
+    public void test_statusLine_withMultiWordReason() throws IOException {
+        final ResponseStatus status = new HttpResponseReader(stream("HTTP/1.1 403 Access Denied\r\n\r\n"))
+                .readStatusLine();
+
+        assertEquals(403, status.getStatusCode());
+        assertEquals("Access Denied", status.getReason());
+    }
+
+    @Test
+    public void test_rawRead_returnsReadAheadBytesAfterHead() throws IOException {
+        final HttpResponseReader reader = new HttpResponseReader(stream(RESPONSE));
+        reader.readStatusLine();
+        reader.readHeaders();
+
+        final byte[] body = new byte[64];
+        int total = 0;
+        int read;
+        while ((read = reader.read(body, total, body.length - total)) > 0) {
+            total += read;
+        }
+
+        assertEquals("5\r\nhello\r\nb;ext=1\r\nhello world\r\n0\r\n\r\n",
+                new String(body, 0, total, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void test_chunkSize_withLeadingZeros() throws IOException {
+        final HttpResponseReader reader = new HttpResponseReader(stream("00000005\r\nhello\r\n00000000\r\n\r\n"));
+
+        assertEquals(5, reader.readChunkSize());
+        assertEquals(0, reader.readChunkSize());
+    }
+
+    @Test(expected = IOException.class)
+    public void test_lineLongerThanBuffer_throws() throws IOException {
+        new HttpResponseReader(stream("HTTP/1.1 200 OK with a very long reason phrase\r\n"), 16).readStatusLine();
+    }
+
+    private static void assertResponse(final HttpResponseReader reader) throws IOException {
+        final ResponseStatus status = reader.readStatusLine();
+        assertEquals("HTTP/1.1", status.getProtocol());
+        assertEquals(200, status.getStatusCode());
+        assertEquals("OK", status.getReason());
+
+        final Map<String, String> headers = reader.readHeaders();
+        assertEquals("abc", headers.get("x-amzn-RequestId"));
+        assertEquals("chunked", headers.get("Transfer-Encoding"));
+
+        assertEquals(5, reader.readChunkSize());
+        assertEquals("hello", readChunk(reader, 5));
+        assertEquals(11, reader.readChunkSize());
+        assertEquals("hello world", readChunk(reader, 11));
+        assertEquals(0, reader.readChunkSize());
+    }
+
+    private static String readChunk(final HttpResponseReader reader, final int size) throws IOException {
+        final byte[] chunk = new byte[size];
+        int offset = 0;
+        while (offset < size) {
+            offset += reader.readChunkData(chunk, offset, size - offset);
+        }
+
+        assertEquals(0, reader.getChunkRemaining());
+        return new String(chunk, StandardCharsets.US_ASCII);
+    }
+
+    private static InputStream stream(final String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static final class OneByteInputStream extends FilterInputStream {
+        OneByteInputStream(final InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            return super.read(b, off, Math.min(1, len));
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.amazonaws.kinesisvideo.http;
+
+import com.amazonaws.kinesisvideo.encoding.HttpResponseReader;
+import com.amazonaws.kinesisvideo.model.ResponseStatus;
+import com.amazonaws.kinesisvideo.socket.DnsResolverCache;
+import com.amazonaws.kinesisvideo.socket.TestDnsResolverCaches;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NioHttpTransportTest {
+    private static final int BODY_SIZE = 100 * 1024 + 17;
+    private static final String ACK = "{\"EventType\":\"PERSISTED\",\"FragmentTimecode\":1234}";
+    private static final long TIMEOUT_IN_SECONDS = 10;
+
+    private NioHttpTransport mTransport;
+
+    @Before
+    public void setUp() throws IOException {
+        mTransport = new NioHttpTransport(1);
+    }
+
+    @After
+    public void tearDown() {
+        mTransport.close();
+    }
+
+    @Test
+    public void test_chunkedRequestBody_isSentOnSignal_andResponseIsDelivered() throws Exception {
+        final byte[] body = new byte[BODY_SIZE];
+        new Random(42).nextBytes(body);
+        final ServerSocket serverSocket = new ServerSocket(0);
+        final EchoAckServer server = new EchoAckServer(serverSocket);
+        server.start();
+
+        final RecordingHandler handler = new RecordingHandler(body);
+        final NioHttpConnection connection = mTransport.connect(request(serverSocket.getLocalPort()), handler);
+
+        // Nothing is sent until the data is signalled
+        handler.mReady = true;
+        connection.signalRequestBodyAvailable();
+
+        assertTrue(handler.mCompleted.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        server.join(TimeUnit.SECONDS.toMillis(TIMEOUT_IN_SECONDS));
+        serverSocket.close();
+
+        assertTrue(server.mRequestHead.startsWith("POST /putMedia HTTP/1.1\r\n"));
+        assertTrue(server.mRequestHead.contains("Transfer-Encoding: chunked\r\n"));
+        assertArrayEquals(body, server.mRequestBody.toByteArray());
+        assertEquals(200, handler.mResponseStatus.getStatusCode());
+        assertEquals(ACK, new String(handler.mResponseBody.toByteArray(), StandardCharsets.UTF_8));
+        assertNull(handler.mException);
+    }
+
+    @Test
+    public void test_connectionRefused_completesWithException() throws Exception {
+        final ServerSocket serverSocket = new ServerSocket(0);
+        final int port = serverSocket.getLocalPort();
+        serverSocket.close();
+
+        final RecordingHandler handler = new RecordingHandler(new byte[0]);
+        mTransport.connect(request(port), handler);
+
+        assertTrue(handler.mCompleted.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        assertNotNull(handler.mException);
+        assertNull(handler.mResponseStatus);
+    }
+
+    @Test
+    public void test_refusedAddress_fallsBackToTheNextAddress() throws Exception {
+        final InetAddress loopback = InetAddress.getByName("127.0.0.1");
+        final ServerSocket serverSocket = new ServerSocket(0, 1, loopback);
+        final EchoAckServer server = new EchoAckServer(serverSocket);
+        server.start();
+
+        // Nothing listens on the second loopback address
+        final NioHttpTransport transport = new NioHttpTransport(1, SharedSslContexts.getDefault(),
+                TestDnsResolverCaches.resolvingTo(InetAddress.getByName("127.0.0.2"), loopback));
+        try {
+            final RecordingHandler handler = new RecordingHandler(new byte[10]);
+            handler.mReady = true;
+            transport.connect(request("kinesisvideo.test", serverSocket.getLocalPort()), handler);
+
+            assertTrue(handler.mCompleted.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+            assertNull(handler.mException);
+            assertEquals(200, handler.mResponseStatus.getStatusCode());
+        } finally {
+            transport.close();
+            serverSocket.close();
+        }
+    }
+
+    @Test
+    public void test_silentPeer_failsOnIdleTimeout() throws Exception {
+        final ServerSocket serverSocket = new ServerSocket(0);
+        final NioHttpTransport transport = new NioHttpTransport(1, SharedSslContexts.getDefault(),
+                DnsResolverCache.getDefault(), NioHttpTransport.DEFAULT_CONNECT_TIMEOUT_MILLIS, 300);
+        try {
+            final RecordingHandler handler = new RecordingHandler(new byte[10]);
+            handler.mReady = true;
+            final long startNanos = System.nanoTime();
+            transport.connect(request(serverSocket.getLocalPort()), handler);
+
+            // The server accepts the connection but never answers
+            final Socket socket = serverSocket.accept();
+            assertTrue(handler.mCompleted.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+            assertTrue(handler.mException instanceof SocketTimeoutException);
+            assertTrue(System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(300));
+            socket.close();
+        } finally {
+            transport.close();
+            serverSocket.close();
+        }
+    }
+
+    private static HttpClient request(final int port) {
+        return request("127.0.0.1", port);
+    }
+
+    private static HttpClient request(final String host, final int port) {
+        return ParallelSimpleHttpClient.builder()
+                .uri(URI.create("http://" + host + ":" + port + "/putMedia"))
+                .method(HttpMethodName.POST)
+                .header("Transfer-Encoding", "chunked")
+                .build();
+    }
+
+    private static final class RecordingHandler implements NioHttpHandler {
+        private final byte[] mBody;
+        private final ByteArrayOutputStream mResponseBody = new ByteArrayOutputStream();
+        private final CountDownLatch mCompleted = new CountDownLatch(1);
+        private volatile boolean mReady = false;
+        private int mBodyPosition = 0;
+        private volatile ResponseStatus mResponseStatus;
+        private volatile Exception mException;
+
+        RecordingHandler(final byte[] body) {
+            mBody = body;
+        }
+
+        @Override
+        public int readRequestBody(final ByteBuffer dst) {
+            if (!mReady) {
+                return 0;
+            }
+
+            if (mBodyPosition == mBody.length) {
+                return -1;
+            }
+
+            final int length = Math.min(dst.remaining(), mBody.length - mBodyPosition);
+            dst.put(mBody, mBodyPosition, length);
+            mBodyPosition += length;
+            return length;
+        }
+
+        @Override
+        public void onResponseHead(final ResponseStatus responseStatus, final Map<String, String> headers) {
+            mResponseStatus = responseStatus;
+        }
+
+        @Override
+        public void onResponseBody(final byte[] bytes, final int offset, final int length) {
+            mResponseBody.write(bytes, offset, length);
+        }
+
+        @Override
+        public void onComplete(final Exception exception) {
+            mException = exception;
+            mCompleted.countDown();
+        }
+    }
+
+    /**
+     * Reads a chunked request and answers with a single chunked ACK.
+     */
+    private static final class EchoAckServer extends Thread {
+        private final ServerSocket mServerSocket;
+        private final ByteArrayOutputStream mRequestBody = new ByteArrayOutputStream();
+        private volatile String mRequestHead;
+
+        EchoAckServer(final ServerSocket serverSocket) {
+            mServerSocket = serverSocket;
+        }
+
+        @Override
+        public void run() {
+            try (final Socket socket = mServerSocket.accept()) {
+                final InputStream inputStream = socket.getInputStream();
+                mRequestHead = readHead(inputStream);
+
+                final HttpResponseReader chunkReader = new HttpResponseReader(inputStream);
+                final byte[] buffer = new byte[4096];
+                while (chunkReader.readChunkSize() > 0) {
+                    int bytesRead;
+                    while ((bytesRead = chunkReader.readChunkData(buffer, 0, buffer.length)) > 0) {
+                        mRequestBody.write(buffer, 0, bytesRead);
+                    }
+                }
+
+                final byte[] ack = ACK.getBytes(StandardCharsets.UTF_8);
+                final OutputStream outputStream = socket.getOutputStream();
+                outputStream.write(("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n"
+                        + Integer.toHexString(ack.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                outputStream.write(ack);
+                outputStream.write("\r\n0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                outputStream.flush();
+            } catch (final IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private static String readHead(final InputStream inputStream) throws IOException {
+            final StringBuilder head = new StringBuilder();
+            while (!head.toString().endsWith("\r\n\r\n")) {
+                final int b = inputStream.read();
+                if (b < 0) {
+                    throw new IOException("End of stream in the request head");
+                }
+
+                head.append((char) b);
+            }
+
+            return head.toString();
+        }
+    }
+}
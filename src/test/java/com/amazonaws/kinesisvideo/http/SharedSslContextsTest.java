@@ -0,0 +1,41 @@
+package com.amazonaws.kinesisvideo.http;
+
+import org.junit.Test;
+
+import javax.net.ssl.SSLContext;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SharedSslContextsTest {
+    @Test
+    public void test_contexts_areShared() {
+        assertSame(SharedSslContexts.getDefault(), SharedSslContexts.get(false));
+        assertSame(SharedSslContexts.get(true), SharedSslContexts.get(true));
+    }
+
+    @Test
+    public void test_sessionCache_isConfigured() {
+        final SSLContext context = SharedSslContexts.getDefault();
+
+        assertEquals(SharedSslContexts.SESSION_CACHE_SIZE, context.getClientSessionContext().getSessionCacheSize());
+        assertEquals(SharedSslContexts.SESSION_TIMEOUT_SECONDS,
+                context.getClientSessionContext().getSessionTimeout());
+    }
+
+    @Test
+    public void test_tls13_isOnlyEnabledWhenRequested() {
+        final List<String> defaultProtocols =
+                Arrays.asList(SharedSslContexts.getDefault().getDefaultSSLParameters().getProtocols());
+        final List<String> tls13Protocols =
+                Arrays.asList(SharedSslContexts.get(true).getDefaultSSLParameters().getProtocols());
+
+        assertFalse(defaultProtocols.contains("TLSv1.3"));
+        assertTrue(defaultProtocols.contains("TLSv1.2"));
+        assertTrue(tls13Protocols.contains("TLSv1.2"));
+    }
+}
@@ -0,0 +1,182 @@
+package com.amazonaws.kinesisvideo.internal.mediasource;
+
+import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoProducerStream;
+import com.amazonaws.kinesisvideo.producer.KinesisVideoFrame;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.amazonaws.kinesisvideo.producer.FrameFlags.FRAME_FLAG_KEY_FRAME;
+import static com.amazonaws.kinesisvideo.producer.FrameFlags.FRAME_FLAG_NONE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class AsyncMediaSourceSinkTest {
+    private final KinesisVideoProducerStream mStream = mock(KinesisVideoProducerStream.class);
+    private final List<Integer> mPutFrames = Collections.synchronizedList(new ArrayList<Integer>());
+    private final CountDownLatch mPutStarted = new CountDownLatch(1);
+    private final CountDownLatch mUnstall = new CountDownLatch(1);
+    private AsyncMediaSourceSink mSink;
+
+    @After
+    public void tearDown() {
+        mUnstall.countDown();
+        if (mSink != null) {
+            mSink.close();
+        }
+    }
+
+    @Test
+    public void test_frames_arePutOnTheDrainThread() throws Exception {
+        recordPutFrames(false);
+        mSink = new AsyncMediaSourceSink(mStream, 8, FrameQueueFullPolicy.BLOCK);
+
+        for (int i = 0; i < 20; i++) {
+            mSink.onFrame(frame(i, i % 5 == 0));
+        }
+
+        mSink.flush();
+        assertEquals(20, mPutFrames.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, (int) mPutFrames.get(i));
+        }
+    }
+
+    @Test
+    public void test_fullBuffer_dropsNonKeyFrames() throws Exception {
+        recordPutFrames(true);
+        mSink = new AsyncMediaSourceSink(mStream, 4, FrameQueueFullPolicy.DROP_NON_KEY_FRAMES);
+
+        // The drain thread takes frame 0 and stalls in the put
+        mSink.onFrame(frame(0, true));
+        assertTrue(mPutStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 6; i++) {
+            mSink.onFrame(frame(i, false));
+        }
+
+        assertEquals(2, mSink.getDroppedFrames());
+        verify(mStream).droppedFrameReport(5);
+        verify(mStream).droppedFrameReport(6);
+        mUnstall.countDown();
+        mSink.flush();
+        assertEquals(5, mPutFrames.size());
+        assertEquals(4, (int) mPutFrames.get(4));
+    }
+
+    @Test
+    public void test_fullBuffer_dropsOldestGop() throws Exception {
+        recordPutFrames(true);
+        mSink = new AsyncMediaSourceSink(mStream, 4, FrameQueueFullPolicy.DROP_OLDEST_GOP);
+
+        mSink.onFrame(frame(0, true));
+        assertTrue(mPutStarted.await(5, TimeUnit.SECONDS));
+        // Buffered: 1, 2 of the first GOP and 3, 4 of the second one
+        mSink.onFrame(frame(1, false));
+        mSink.onFrame(frame(2, false));
+        mSink.onFrame(frame(3, true));
+        mSink.onFrame(frame(4, false));
+        mSink.onFrame(frame(5, false));
+
+        assertEquals(2, mSink.getDroppedFrames());
+        mUnstall.countDown();
+        mSink.flush();
+        assertEquals(4, mPutFrames.size());
+        assertEquals(0, (int) mPutFrames.get(0));
+        assertEquals(3, (int) mPutFrames.get(1));
+    }
+
+    @Test
+    public void test_close_waitsForTheDrainToLeaveTheStream() throws Exception {
+        recordPutFrames(true);
+        mSink = new AsyncMediaSourceSink(mStream, 4, FrameQueueFullPolicy.BLOCK);
+        mSink.onFrame(frame(0, true));
+        assertTrue(mPutStarted.await(5, TimeUnit.SECONDS));
+
+        final Thread closer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                mSink.close();
+            }
+        });
+        closer.start();
+        closer.join(200);
+        assertTrue(closer.isAlive());
+
+        mUnstall.countDown();
+        closer.join(5000);
+        assertFalse(closer.isAlive());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_capacity_mustBePowerOfTwo() {
+        new AsyncMediaSourceSink(mStream, 6, FrameQueueFullPolicy.BLOCK);
+    }
+
+    @Test
+    public void test_metadata_waitsForBufferedFrames() throws Exception {
+        mSink = new AsyncMediaSourceSink(mStream, 8, FrameQueueFullPolicy.BLOCK);
+
+        mSink.onFrame(frame(0, true));
+        mSink.onFragmentMetadata("name", "value", false);
+
+        final InOrder inOrder = inOrder(mStream);
+        inOrder.verify(mStream).putFrame(any(KinesisVideoFrame.class));
+        inOrder.verify(mStream).putFragmentMetadata("name", "value", false);
+    }
+
+    @Test
+    public void test_putFrames_areNotHeldByTheRingBuffer() throws Exception {
+        recordPutFrames(false);
+        mSink = new AsyncMediaSourceSink(mStream, 8, FrameQueueFullPolicy.BLOCK);
+
+        for (int i = 0; i < 12; i++) {
+            mSink.onFrame(frame(i, i % 4 == 0));
+        }
+
+        mSink.flush();
+        final Field ringField = AsyncMediaSourceSink.class.getDeclaredField("ring");
+        ringField.setAccessible(true);
+        final AtomicReferenceArray<?> ring = (AtomicReferenceArray<?>) ringField.get(mSink);
+        for (int i = 0; i < ring.length(); i++) {
+            assertNull(ring.get(i));
+        }
+    }
+
+    private void recordPutFrames(final boolean stallFirstPut) throws Exception {
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable {
+                mPutFrames.add(((KinesisVideoFrame) invocation.getArgument(0)).getIndex());
+                mPutStarted.countDown();
+                if (stallFirstPut) {
+                    mUnstall.await(5, TimeUnit.SECONDS);
+                }
+
+                return null;
+            }
+        }).when(mStream).putFrame(any(KinesisVideoFrame.class));
+    }
+
+    private static KinesisVideoFrame frame(final int index, final boolean isKeyFrame) {
+        return new KinesisVideoFrame(index, isKeyFrame ? FRAME_FLAG_KEY_FRAME : FRAME_FLAG_NONE, index, index, 1,
+                ByteBuffer.allocate(16));
+    }
+}
@@ -0,0 +1,83 @@
+package com.amazonaws.kinesisvideo.internal.producer;
+
+import com.amazonaws.kinesisvideo.producer.FragmentAckType;
+import com.amazonaws.kinesisvideo.producer.KinesisVideoFragmentAck;
+import org.junit.Test;
+
+import static com.amazonaws.kinesisvideo.producer.Time.HUNDREDS_OF_NANOS_IN_A_MILLISECOND;
+import static org.junit.Assert.assertEquals;
+
+public class FragmentLatencyMetricsTest {
+    private static final long UPLOAD_HANDLE = 7;
+    private static final long STREAM_START_MILLIS = 1700000000000L;
+    private static final long KEY_FRAME_MILLIS = STREAM_START_MILLIS + 123;
+    private static final long KEY_FRAME_TIMESTAMP = KEY_FRAME_MILLIS * HUNDREDS_OF_NANOS_IN_A_MILLISECOND;
+
+    // The acks carry the fragment timecode in milliseconds, relative to the stream start with relative timecodes
+    private static final long RELATIVE_ACK_TIMECODE = KEY_FRAME_MILLIS - STREAM_START_MILLIS;
+
+    private final FragmentLatencyMetrics mMetrics = new FragmentLatencyMetrics();
+
+    @Test
+    public void test_relativeAcks_areMatchedWithKeyFrame() {
+        mMetrics.recordUploadStart(UPLOAD_HANDLE, STREAM_START_MILLIS);
+        mMetrics.recordKeyFrame(KEY_FRAME_TIMESTAMP + 5);
+
+        mMetrics.recordFragmentAck(UPLOAD_HANDLE,
+                ack(FragmentAckType.FRAGMENT_ACK_TYPE_BUFFERING, RELATIVE_ACK_TIMECODE));
+        mMetrics.recordFragmentAck(UPLOAD_HANDLE,
+                ack(FragmentAckType.FRAGMENT_ACK_TYPE_RECEIVED, RELATIVE_ACK_TIMECODE));
+        mMetrics.recordFragmentAck(UPLOAD_HANDLE,
+                ack(FragmentAckType.FRAGMENT_ACK_TYPE_PERSISTED, RELATIVE_ACK_TIMECODE));
+
+        assertEquals(1, mMetrics.getBufferingLatency().getCount());
+        assertEquals(1, mMetrics.getReceivedLatency().getCount());
+        assertEquals(1, mMetrics.getPersistedLatency().getCount());
+        assertEquals(0, mMetrics.getPendingFragments());
+        assertEquals(0, mMetrics.getUnmatchedAcks());
+    }
+
+    @Test
+    public void test_absoluteAcks_areMatchedWithKeyFrame() {
+        mMetrics.recordUploadStart(UPLOAD_HANDLE, 0);
+        mMetrics.recordKeyFrame(KEY_FRAME_TIMESTAMP);
+
+        mMetrics.recordFragmentAck(UPLOAD_HANDLE, ack(FragmentAckType.FRAGMENT_ACK_TYPE_PERSISTED, KEY_FRAME_MILLIS));
+
+        assertEquals(1, mMetrics.getPersistedLatency().getCount());
+        assertEquals(0, mMetrics.getUnmatchedAcks());
+    }
+
+    @Test
+    public void test_ackAfterPersisted_isUnmatched() {
+        mMetrics.recordUploadStart(UPLOAD_HANDLE, STREAM_START_MILLIS);
+        mMetrics.recordKeyFrame(KEY_FRAME_TIMESTAMP);
+
+        mMetrics.recordFragmentAck(UPLOAD_HANDLE, ack(FragmentAckType.FRAGMENT_ACK_TYPE_ERROR, RELATIVE_ACK_TIMECODE));
+        mMetrics.recordFragmentAck(UPLOAD_HANDLE,
+                ack(FragmentAckType.FRAGMENT_ACK_TYPE_PERSISTED, RELATIVE_ACK_TIMECODE));
+        mMetrics.recordFragmentAck(UPLOAD_HANDLE, ack(FragmentAckType.FRAGMENT_ACK_TYPE_IDLE, RELATIVE_ACK_TIMECODE));
+
+        assertEquals(1, mMetrics.getErrorLatency().getCount());
+        assertEquals(0, mMetrics.getPersistedLatency().getCount());
+        assertEquals(1, mMetrics.getUnmatchedAcks());
+    }
+
+    @Test
+    public void test_oldestPendingFragments_areDropped() {
+        mMetrics.recordUploadStart(UPLOAD_HANDLE, STREAM_START_MILLIS);
+        for (int i = 0; i <= FragmentLatencyMetrics.MAX_PENDING_FRAGMENTS; i++) {
+            mMetrics.recordKeyFrame(KEY_FRAME_TIMESTAMP + i * 2000 * HUNDREDS_OF_NANOS_IN_A_MILLISECOND);
+        }
+
+        assertEquals(FragmentLatencyMetrics.MAX_PENDING_FRAGMENTS, mMetrics.getPendingFragments());
+
+        mMetrics.recordFragmentAck(UPLOAD_HANDLE,
+                ack(FragmentAckType.FRAGMENT_ACK_TYPE_PERSISTED, RELATIVE_ACK_TIMECODE));
+        assertEquals(1, mMetrics.getUnmatchedAcks());
+    }
+
+    private static KinesisVideoFragmentAck ack(final int ackType, final long timecodeMillis) {
+        return new KinesisVideoFragmentAck(ackType, timecodeMillis, "sequence-number", 0);
+    }
+}
@@ -0,0 +1,126 @@
+package com.amazonaws.kinesisvideo.internal.producer;
+
+import com.amazonaws.kinesisvideo.producer.ProducerException;
+import org.apache.logging.log4j.LogManager;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class KinesisVideoMetricsSamplerTest {
+    private static final long INTERVAL_MILLIS = 1000;
+
+    private KinesisVideoProducer mProducer;
+    private ScheduledExecutorService mExecutor;
+    private KinesisVideoMetricsSampler mSampler;
+
+    @Before
+    public void setUp() throws Exception {
+        mProducer = mock(KinesisVideoProducer.class);
+        mExecutor = mock(ScheduledExecutorService.class);
+        doReturn(mock(ScheduledFuture.class)).when(mExecutor)
+                .scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+
+        final KinesisVideoMetrics clientMetrics = new KinesisVideoMetrics();
+        clientMetrics.setMetrics(1000, 400, 600, 300, 30, 5000);
+        when(mProducer.getMetrics()).thenReturn(clientMetrics);
+
+        mSampler = new KinesisVideoMetricsSampler(LogManager.getLogger(KinesisVideoMetricsSamplerTest.class),
+                mProducer, mExecutor, INTERVAL_MILLIS);
+    }
+
+    @Test
+    public void test_sample_publishesSnapshotOfClientAndStreams() throws Exception {
+        mSampler.addStream(mockStream("stream-1", 25.0));
+        mSampler.addStream(mockStream("stream-2", 5.0));
+        assertSame(KinesisVideoMetricsSnapshot.EMPTY, mSampler.getSnapshot());
+
+        startAndCaptureTask().run();
+
+        final KinesisVideoMetricsSnapshot snapshot = mSampler.getSnapshot();
+        assertEquals(1000, snapshot.getContentStoreSize());
+        assertEquals(600, snapshot.getContentStoreAvailableSize());
+        assertEquals(5000, snapshot.getTotalTransferRate());
+        assertEquals(2, snapshot.getStreamMetrics().size());
+        assertEquals(25.0, snapshot.getStreamMetrics("stream-1").getCurrentFrameRate(), 0);
+        assertEquals(5.0, snapshot.getStreamMetrics("stream-2").getCurrentFrameRate(), 0);
+    }
+
+    @Test
+    public void test_failingStream_isLeftOutOfSnapshot() throws Exception {
+        final KinesisVideoProducerStream failingStream = mockStream("failing", 0);
+        when(failingStream.getMetrics()).thenThrow(new ProducerException("freed", 0));
+        mSampler.addStream(failingStream);
+        mSampler.addStream(mockStream("healthy", 30.0));
+
+        startAndCaptureTask().run();
+
+        assertNull(mSampler.getSnapshot().getStreamMetrics("failing"));
+        assertEquals(30.0, mSampler.getSnapshot().getStreamMetrics("healthy").getCurrentFrameRate(), 0);
+    }
+
+    @Test
+    public void test_stoppedSampler_doesNotCallProducer() throws Exception {
+        final KinesisVideoProducerStream stream = mockStream("stream", 30.0);
+        mSampler.addStream(stream);
+        final Runnable task = startAndCaptureTask();
+        task.run();
+        final KinesisVideoMetricsSnapshot snapshot = mSampler.getSnapshot();
+        assertNotSame(KinesisVideoMetricsSnapshot.EMPTY, snapshot);
+
+        mSampler.removeStream(stream);
+        mSampler.stop();
+        task.run();
+
+        assertSame(snapshot, mSampler.getSnapshot());
+        verify(stream).getMetrics();
+        verify(mProducer).getMetrics();
+    }
+
+    @Test
+    public void test_removedStream_isNotSampled() throws Exception {
+        final KinesisVideoProducerStream stream = mockStream("stream", 30.0);
+        mSampler.addStream(stream);
+        mSampler.removeStream(stream);
+
+        startAndCaptureTask().run();
+
+        verify(stream, never()).getMetrics();
+        assertEquals(0, mSampler.getSnapshot().getStreamMetrics().size());
+    }
+
+    private Runnable startAndCaptureTask() {
+        mSampler.start();
+        final ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(mExecutor).scheduleWithFixedDelay(task.capture(), eq(INTERVAL_MILLIS), eq(INTERVAL_MILLIS),
+                eq(TimeUnit.MILLISECONDS));
+        return task.getValue();
+    }
+
+    private static KinesisVideoProducerStream mockStream(final String streamName, final double frameRate)
+            throws ProducerException {
+        final KinesisVideoStreamMetrics streamMetrics = new KinesisVideoStreamMetrics();
+        streamMetrics.setMetrics(2000, 1000, 20000000, 10000000, frameRate, 4000);
+
+        final KinesisVideoProducerStream stream = mock(KinesisVideoProducerStream.class);
+        when(stream.getStreamName()).thenReturn(streamName);
+        when(stream.getMetrics()).thenReturn(streamMetrics);
+        return stream;
+    }
+}
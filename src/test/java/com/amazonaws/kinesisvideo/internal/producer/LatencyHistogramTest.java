@@ -0,0 +1,65 @@
+package com.amazonaws.kinesisvideo.internal.producer;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+    @Test
+    public void test_percentiles_areWithinBucketPrecision() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        final LatencyHistogram.Snapshot snapshot = histogram.getSnapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500.5, snapshot.getMeanMillis(), 0.001);
+        assertEquals(1000, snapshot.getMaxMillis(), 0);
+        assertEquals(500, snapshot.getPercentileMillis(50), 500 * 0.016);
+        assertEquals(990, snapshot.getPercentileMillis(99), 990 * 0.016);
+        assertEquals(1000, snapshot.getPercentileMillis(100), 0);
+    }
+
+    @Test
+    public void test_smallAndOutOfRangeValues() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(-1);
+        histogram.recordNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        histogram.recordNanos(TimeUnit.DAYS.toNanos(30));
+
+        final LatencyHistogram.Snapshot snapshot = histogram.getSnapshot();
+        assertEquals(3, snapshot.getCount());
+        assertEquals(0, snapshot.getPercentileMillis(0), 0);
+        assertEquals(0.1, snapshot.getPercentileMillis(50), 0);
+        assertEquals(((1L << 36) - 1) / 1000.0, snapshot.getMaxMillis(), 0);
+    }
+
+    @Test
+    public void test_emptySnapshot() {
+        final LatencyHistogram.Snapshot snapshot = new LatencyHistogram().getSnapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMeanMillis(), 0);
+        assertEquals(0, snapshot.getPercentileMillis(99), 0);
+    }
+
+    @Test
+    public void test_merge_combinesSnapshots() {
+        final LatencyHistogram first = new LatencyHistogram();
+        final LatencyHistogram second = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            first.recordNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+            second.recordNanos(TimeUnit.MILLISECONDS.toNanos(millis + 100));
+        }
+
+        final LatencyHistogram.Snapshot merged = first.getSnapshot().merge(second.getSnapshot());
+        assertEquals(200, merged.getCount());
+        assertEquals(100.5, merged.getMeanMillis(), 0.001);
+        assertEquals(200, merged.getMaxMillis(), 0);
+        assertEquals(100, merged.getPercentileMillis(50), 100 * 0.016);
+        assertEquals(100, first.getSnapshot().getCount());
+    }
+}
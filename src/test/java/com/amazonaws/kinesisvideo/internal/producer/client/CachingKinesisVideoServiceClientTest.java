@@ -0,0 +1,229 @@
+package com.amazonaws.kinesisvideo.internal.producer.client;
+
+import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
+import com.amazonaws.kinesisvideo.producer.StreamDescription;
+import com.amazonaws.kinesisvideo.producer.StreamStatus;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingKinesisVideoServiceClientTest {
+    private static final String STREAM_NAME = "stream";
+    private static final long TTL_MILLIS = 60000;
+
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            command.run();
+        }
+    };
+
+    private final KinesisVideoServiceClient mServiceClient = mock(KinesisVideoServiceClient.class);
+
+    @Test
+    public void test_dataEndpoint_isCachedPerApi() throws Exception {
+        when(mServiceClient.getDataEndpoint(eq(STREAM_NAME), eq("PUT_MEDIA"), anyLong(), any()))
+                .thenReturn("https://endpoint");
+        final CachingKinesisVideoServiceClient client = new CachingKinesisVideoServiceClient(mServiceClient,
+                TTL_MILLIS, 0, DIRECT_EXECUTOR);
+
+        assertEquals("https://endpoint", client.getDataEndpoint(STREAM_NAME, "PUT_MEDIA", 1000, null));
+        assertEquals("https://endpoint", client.getDataEndpoint(STREAM_NAME, "PUT_MEDIA", 1000, null));
+        client.getDataEndpoint(STREAM_NAME, "GET_MEDIA", 1000, null);
+
+        verify(mServiceClient, times(1)).getDataEndpoint(eq(STREAM_NAME), eq("PUT_MEDIA"), anyLong(), any());
+        verify(mServiceClient, times(1)).getDataEndpoint(eq(STREAM_NAME), eq("GET_MEDIA"), anyLong(), any());
+    }
+
+    @Test
+    public void test_inactiveStreamDescription_isNotCached() throws Exception {
+        when(mServiceClient.describeStream(eq(STREAM_NAME), anyLong(), any()))
+                .thenReturn(description(StreamStatus.CREATING))
+                .thenReturn(description(StreamStatus.ACTIVE));
+        final CachingKinesisVideoServiceClient client = new CachingKinesisVideoServiceClient(mServiceClient,
+                TTL_MILLIS, 0, DIRECT_EXECUTOR);
+
+        client.describeStream(STREAM_NAME, 1000, null);
+        client.describeStream(STREAM_NAME, 1000, null);
+        final StreamDescription cached = client.describeStream(STREAM_NAME, 1000, null);
+
+        assertEquals(StreamStatus.ACTIVE.intValue(), cached.getStreamStatus());
+        verify(mServiceClient, times(2)).describeStream(eq(STREAM_NAME), anyLong(), any());
+    }
+
+    @Test
+    public void test_failure_isCachedForNegativeTtl() throws Exception {
+        when(mServiceClient.describeStream(eq(STREAM_NAME), anyLong(), any()))
+                .thenThrow(new KinesisVideoException("ResourceNotFoundException"));
+        final CachingKinesisVideoServiceClient client = new CachingKinesisVideoServiceClient(mServiceClient,
+                TTL_MILLIS, TTL_MILLIS, DIRECT_EXECUTOR);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                client.describeStream(STREAM_NAME, 1000, null);
+                fail("Expected the cached failure");
+            } catch (final KinesisVideoException e) {
+                assertEquals("ResourceNotFoundException", e.getMessage());
+            }
+        }
+
+        verify(mServiceClient, times(1)).describeStream(eq(STREAM_NAME), anyLong(), any());
+
+        // Creating the stream drops the cached failure
+        client.createStream(STREAM_NAME, "device", "video/h264", null, 2, 1000, null);
+        try {
+            client.describeStream(STREAM_NAME, 1000, null);
+        } catch (final KinesisVideoException e) {
+            // Still failing in the mock
+        }
+
+        verify(mServiceClient, times(2)).describeStream(eq(STREAM_NAME), anyLong(), any());
+    }
+
+    @Test
+    public void test_concurrentCalls_areDeduplicated() throws Exception {
+        final ServiceResultCache<String> cache = new ServiceResultCache<String>(16, TTL_MILLIS, 0, DIRECT_EXECUTOR);
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger loads = new AtomicInteger(0);
+        final ServiceResultCache.Loader<String> loader = new ServiceResultCache.Loader<String>() {
+            @Override
+            public String load() throws KinesisVideoException {
+                loads.incrementAndGet();
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    throw new KinesisVideoException(e);
+                }
+
+                return "result";
+            }
+        };
+
+        final Thread first = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    cache.get(STREAM_NAME, loader);
+                } catch (final KinesisVideoException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        first.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        final Thread second = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // Let the main thread wait for the ongoing load
+                    Thread.sleep(100);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                release.countDown();
+            }
+        });
+        second.start();
+
+        assertEquals("result", cache.get(STREAM_NAME, loader));
+        first.join();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void test_entryAfterRefreshPoint_isReloaded() throws Exception {
+        final ServiceResultCache<Integer> cache = new ServiceResultCache<Integer>(16, 50, 0, DIRECT_EXECUTOR);
+        final AtomicInteger loads = new AtomicInteger(0);
+        final ServiceResultCache.Loader<Integer> loader = new ServiceResultCache.Loader<Integer>() {
+            @Override
+            public Integer load() {
+                return loads.incrementAndGet();
+            }
+        };
+
+        assertEquals(Integer.valueOf(1), cache.get(STREAM_NAME, loader));
+        Thread.sleep(45);
+
+        // Returns the cached result and reloads it
+        final int result = cache.get(STREAM_NAME, loader);
+        assertTrue(result == 1 || result == 2);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void test_failedRefresh_isRetriedOnTheNextAccess() throws Exception {
+        final ServiceResultCache<Integer> cache = new ServiceResultCache<Integer>(16, 1000, 0, DIRECT_EXECUTOR);
+        final AtomicInteger loads = new AtomicInteger(0);
+        final ServiceResultCache.Loader<Integer> loader = new ServiceResultCache.Loader<Integer>() {
+            @Override
+            public Integer load() {
+                if (loads.incrementAndGet() > 1) {
+                    throw new IllegalStateException("Refresh failed");
+                }
+
+                return 1;
+            }
+        };
+
+        assertEquals(Integer.valueOf(1), cache.get(STREAM_NAME, loader));
+        Thread.sleep(850);
+
+        // Both of the failed refreshes keep returning the cached result
+        assertEquals(Integer.valueOf(1), cache.get(STREAM_NAME, loader));
+        assertEquals(Integer.valueOf(1), cache.get(STREAM_NAME, loader));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void test_cachedFailure_isThrownAsNewExceptionPerCaller() throws Exception {
+        final KinesisVideoException failure = new KinesisVideoException("ResourceNotFoundException");
+        final ServiceResultCache<String> cache = new ServiceResultCache<String>(16, TTL_MILLIS, TTL_MILLIS,
+                DIRECT_EXECUTOR);
+        final ServiceResultCache.Loader<String> loader = new ServiceResultCache.Loader<String>() {
+            @Override
+            public String load() throws KinesisVideoException {
+                throw failure;
+            }
+        };
+
+        try {
+            cache.get(STREAM_NAME, loader);
+            fail("Expected the failure");
+        } catch (final KinesisVideoException e) {
+            assertSame(failure, e);
+        }
+
+        try {
+            cache.get(STREAM_NAME, loader);
+            fail("Expected the cached failure");
+        } catch (final KinesisVideoException e) {
+            assertNotSame(failure, e);
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    private static StreamDescription description(final StreamStatus streamStatus) {
+        return new StreamDescription(StreamDescription.STREAM_DESCRIPTION_CURRENT_VERSION, "device", STREAM_NAME,
+                "video/h264", "1", "arn", streamStatus, 0);
+    }
+}
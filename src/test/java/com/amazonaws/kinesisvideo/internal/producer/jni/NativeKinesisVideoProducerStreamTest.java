@@ -0,0 +1,152 @@
+package com.amazonaws.kinesisvideo.internal.producer.jni;
+
+import com.amazonaws.kinesisvideo.internal.producer.DataAvailabilityMetrics;
+import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoStreamMetrics;
+import com.amazonaws.kinesisvideo.internal.producer.ReadResult;
+import com.amazonaws.kinesisvideo.producer.FrameFlags;
+import com.amazonaws.kinesisvideo.producer.KinesisVideoFrame;
+import com.amazonaws.kinesisvideo.producer.StreamInfo;
+import org.apache.logging.log4j.LogManager;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class NativeKinesisVideoProducerStreamTest {
+    private static final long STREAM_HANDLE = 1;
+    private static final long UPLOAD_HANDLE = 2;
+    private static final long TIMEOUT_IN_SECONDS = 10;
+
+    private final AtomicLong mNativeBytes = new AtomicLong();
+    private NativeKinesisVideoProducerJni mJni;
+    private NativeKinesisVideoProducerStream mStream;
+    private InputStream mDataStream;
+    private FutureTask<Integer> mRead;
+
+    @Before
+    public void setUp() throws Exception {
+        mJni = mock(NativeKinesisVideoProducerJni.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                final int length = invocation.getArgument(4);
+                final ReadResult readResult = invocation.getArgument(5);
+                final int bytesRead = (int) Math.min(length, mNativeBytes.get());
+                mNativeBytes.addAndGet(-bytesRead);
+                readResult.setReadResult(bytesRead, false);
+                return null;
+            }
+        }).when(mJni).getStreamData(anyLong(), anyLong(), any(byte[].class), anyInt(), anyInt(),
+                any(ReadResult.class));
+
+        mStream = new NativeKinesisVideoProducerStream(mJni, mock(StreamInfo.class), STREAM_HANDLE,
+                LogManager.getLogger(NativeKinesisVideoProducerStreamTest.class), null, null);
+        mDataStream = mStream.getDataStream(UPLOAD_HANDLE);
+    }
+
+    @Test
+    public void test_putKeyFrame_doesNotPollMetrics() throws Exception {
+        final KinesisVideoFrame keyFrame = new KinesisVideoFrame(0, FrameFlags.FRAME_FLAG_KEY_FRAME, 0, 0, 0,
+                ByteBuffer.allocate(10), 0);
+
+        mStream.putFrame(keyFrame);
+
+        verify(mJni).putFrame(STREAM_HANDLE, keyFrame);
+        verify(mJni, never()).getMetrics();
+        verify(mJni, never()).getStreamMetrics(anyLong(), any(KinesisVideoStreamMetrics.class));
+    }
+
+    @Test
+    public void test_blockedReader_isWokenByNotification() throws Exception {
+        final Thread reader = startReader(new byte[100]);
+        try {
+            awaitParked(reader);
+            assertFalse(mRead.isDone());
+
+            mNativeBytes.set(100);
+            mStream.streamDataAvailable(UPLOAD_HANDLE, 0, 100);
+
+            assertEquals(100, (int) mRead.get(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        } finally {
+            reader.interrupt();
+        }
+
+        final DataAvailabilityMetrics metrics = mStream.getDataAvailabilityMetrics();
+        assertEquals(1, metrics.getNotifications());
+        assertEquals(1, metrics.getWaits());
+        assertTrue(metrics.getWakeups() >= 1);
+    }
+
+    @Test
+    public void test_pendingBytes_areReadWithoutWaiting() throws Exception {
+        mNativeBytes.set(100);
+        mStream.streamDataAvailable(UPLOAD_HANDLE, 0, 100);
+
+        final byte[] buffer = new byte[40];
+        assertEquals(40, mDataStream.read(buffer));
+        assertEquals(60, mDataStream.available());
+        assertEquals(40, mDataStream.read(buffer));
+        assertEquals(20, mDataStream.read(buffer));
+        assertEquals(0, mDataStream.available());
+        assertEquals(0, mStream.getDataAvailabilityMetrics().getWaits());
+    }
+
+    @Test
+    public void test_close_wakesBlockedReader() throws Exception {
+        final Thread reader = startReader(new byte[100]);
+        try {
+            awaitParked(reader);
+
+            mDataStream.close();
+
+            assertEquals(-1, (int) mRead.get(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        } finally {
+            reader.interrupt();
+        }
+    }
+
+    private Thread startReader(final byte[] buffer) {
+        mRead = new FutureTask<Integer>(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return mDataStream.read(buffer);
+            }
+        });
+
+        final Thread reader = new Thread(mRead, "reader");
+        reader.setDaemon(true);
+        reader.start();
+        return reader;
+    }
+
+    /**
+     * The reader has no data so it parks with the data stream as the blocker, waits until it gets there
+     */
+    private void awaitParked(final Thread reader) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_IN_SECONDS);
+        while (LockSupport.getBlocker(reader) != mDataStream) {
+            assertTrue("Reader didn't park", System.nanoTime() < deadline);
+            assertFalse("Reader returned without data", mRead.isDone());
+            Thread.sleep(1);
+        }
+    }
+}
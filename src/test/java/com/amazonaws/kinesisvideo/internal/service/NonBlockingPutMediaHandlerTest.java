@@ -0,0 +1,88 @@
+package com.amazonaws.kinesisvideo.internal.service;
+
+import com.amazonaws.kinesisvideo.common.function.Consumer;
+import com.amazonaws.kinesisvideo.internal.producer.KinesisVideoProducerStream;
+import com.amazonaws.kinesisvideo.internal.producer.StreamDataChannel;
+import com.amazonaws.kinesisvideo.stream.throttling.HierarchicalBandwidthScheduler;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class NonBlockingPutMediaHandlerTest {
+    // 32 kbps is 4096 bytes per second, the burst is the minimum of 4096 bytes
+    private static final long HOST_KBPS = 32;
+    private static final int BURST_BYTES = 4096;
+
+    private final StreamDataChannel mDataChannel = mock(StreamDataChannel.class);
+    private final ScheduledExecutorService mExecutor = mock(ScheduledExecutorService.class);
+    private final Runnable mSignal = mock(Runnable.class);
+
+    @Test
+    public void test_readRequestBody_isLimitedByTheThrottler() throws Exception {
+        fillAvailableData();
+        final NonBlockingPutMediaHandler handler = createHandler(
+                new HierarchicalBandwidthScheduler(HOST_KBPS).getThrottler("stream"));
+
+        final ByteBuffer dst = ByteBuffer.allocate(4 * BURST_BYTES);
+        final int bytesRead = handler.readRequestBody(dst);
+
+        assertTrue(bytesRead > 0);
+        assertTrue(bytesRead < dst.capacity());
+        assertEquals(dst.capacity(), dst.limit());
+    }
+
+    @Test
+    public void test_exhaustedThrottler_leavesTheDataAndSchedulesTheSignal() throws Exception {
+        fillAvailableData();
+        final HierarchicalBandwidthScheduler.StreamThrottler throttler =
+                new HierarchicalBandwidthScheduler(HOST_KBPS).getThrottler("stream");
+        throttler.setUpstreamKbps(1);
+        final NonBlockingPutMediaHandler handler = createHandler(throttler);
+
+        // Drains the burst, the 128 bytes per second refill can only add a few more reads
+        int reads = 0;
+        while (handler.readRequestBody(ByteBuffer.allocate(BURST_BYTES)) > 0) {
+            reads++;
+        }
+
+        verify(mDataChannel, times(reads)).readAvailable(any(ByteBuffer.class));
+        verify(mExecutor).schedule(eq(mSignal), anyLong(), eq(TimeUnit.NANOSECONDS));
+    }
+
+    @SuppressWarnings("unchecked")
+    private NonBlockingPutMediaHandler createHandler(
+            final HierarchicalBandwidthScheduler.StreamThrottler throttler) {
+        final NonBlockingPutMediaHandler handler = new NonBlockingPutMediaHandler(1,
+                mock(KinesisVideoProducerStream.class), mDataChannel, mock(Logger.class),
+                mock(Consumer.class), mock(Consumer.class), throttler, mExecutor);
+        handler.setRequestBodySignal(mSignal);
+        return handler;
+    }
+
+    private void fillAvailableData() throws Exception {
+        doAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(final InvocationOnMock invocation) throws Throwable {
+                final ByteBuffer dst = invocation.getArgument(0);
+                final int bytesRead = dst.remaining();
+                dst.position(dst.limit());
+                return bytesRead;
+            }
+        }).when(mDataChannel).readAvailable(any(ByteBuffer.class));
+    }
+}
@@ -0,0 +1,69 @@
+package com.amazonaws.kinesisvideo.java.service;
+
+import com.amazonaws.regions.Region;
+import com.amazonaws.regions.Regions;
+import com.amazonaws.services.kinesisvideo.AmazonKinesisVideo;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class AmazonKinesisVideoClientCacheTest {
+    private static final Region REGION = Region.getRegion(Regions.US_WEST_2);
+    private static final String ENDPOINT = "https://kinesisvideo.us-west-2.amazonaws.com";
+
+    private final AmazonKinesisVideoClientCache.ClientFactory mClientFactory =
+            new AmazonKinesisVideoClientCache.ClientFactory() {
+                @Nonnull
+                @Override
+                public AmazonKinesisVideo create(@Nonnull final Region region,
+                                                 @Nonnull final String endpoint,
+                                                 final int timeoutInMillis) {
+                    return mock(AmazonKinesisVideo.class);
+                }
+            };
+
+    @Test
+    public void test_sameKey_reusesClient() {
+        final AmazonKinesisVideoClientCache cache = new AmazonKinesisVideoClientCache(2, mClientFactory);
+
+        final AmazonKinesisVideoClientCache.Lease first = cache.acquire(REGION, ENDPOINT, 1000);
+        first.close();
+        final AmazonKinesisVideoClientCache.Lease second = cache.acquire(REGION, ENDPOINT, 1000);
+        second.close();
+
+        assertSame(first.getClient(), second.getClient());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void test_differentTimeout_createsClient() {
+        final AmazonKinesisVideoClientCache cache = new AmazonKinesisVideoClientCache(2, mClientFactory);
+
+        final AmazonKinesisVideoClientCache.Lease first = cache.acquire(REGION, ENDPOINT, 1000);
+        final AmazonKinesisVideoClientCache.Lease second = cache.acquire(REGION, ENDPOINT, 2000);
+
+        assertNotSame(first.getClient(), second.getClient());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void test_evictedClient_isShutDownOnceLeaseIsClosed() {
+        final AmazonKinesisVideoClientCache cache = new AmazonKinesisVideoClientCache(1, mClientFactory);
+
+        final AmazonKinesisVideoClientCache.Lease evicted = cache.acquire(REGION, ENDPOINT, 1000);
+        cache.acquire(REGION, ENDPOINT, 2000).close();
+
+        assertEquals(1, cache.size());
+        verify(evicted.getClient(), never()).shutdown();
+
+        evicted.close();
+        verify(evicted.getClient()).shutdown();
+    }
+}
@@ -0,0 +1,175 @@
+package com.amazonaws.kinesisvideo.java.service;
+
+import javax.annotation.Nonnull;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+
+/**
+ * Finds the fragments in a streamed MKV, i.e. the clusters and their timecodes.
+ *
+ * Only the EBML element headers are parsed. The Segment and the Cluster are entered whatever their size, as the
+ * producer writes both with the unknown size, and all the other elements but the cluster Timecode are skipped.
+ * A cluster ends when the next one starts, when an element which can't be in a cluster shows up, like the EBML
+ * header of the next MKV in the same PutMedia body, or when the stream ends.
+ */
+final class MkvClusterScanner {
+    private static final long SEGMENT_ID = 0x18538067L;
+    private static final long CLUSTER_ID = 0x1F43B675L;
+    private static final long TIMECODE_ID = 0xE7L;
+    private static final long SIMPLE_BLOCK_ID = 0xA3L;
+    private static final long BLOCK_GROUP_ID = 0xA0L;
+    private static final long POSITION_ID = 0xA7L;
+    private static final long PREV_SIZE_ID = 0xABL;
+
+    private static final int MAX_ID_LENGTH = 4;
+    private static final int MAX_SIZE_LENGTH = 8;
+    private static final int MAX_TIMECODE_LENGTH = 8;
+
+    interface Listener {
+        /**
+         * Called when the timecode of a cluster has been read
+         */
+        void onFragmentStart(long timecode) throws IOException;
+
+        /**
+         * Called when the cluster started by the last {@link #onFragmentStart} has ended
+         */
+        void onFragmentEnd() throws IOException;
+    }
+
+    private final InputStream mInputStream;
+    private final byte[] mSkipBuffer = new byte[8 * 1024];
+
+    MkvClusterScanner(@Nonnull final InputStream inputStream) {
+        mInputStream = checkNotNull(inputStream);
+    }
+
+    /**
+     * Scans the stream to its end.
+     *
+     * @param listener Listener of the fragments
+     */
+    void scan(@Nonnull final Listener listener) throws IOException {
+        boolean inCluster = false;
+        boolean inFragment = false;
+        long id;
+        while ((id = readId()) >= 0) {
+            final long size = readSize();
+            if (inCluster && !isClusterChild(id)) {
+                inCluster = false;
+                if (inFragment) {
+                    inFragment = false;
+                    listener.onFragmentEnd();
+                }
+            }
+
+            if (id == CLUSTER_ID) {
+                inCluster = true;
+            } else if (id == SEGMENT_ID) {
+                // Entered, the children follow
+                continue;
+            } else if (id == TIMECODE_ID && inCluster && !inFragment) {
+                inFragment = true;
+                listener.onFragmentStart(readUnsigned((int) size));
+            } else {
+                skip(size);
+            }
+        }
+
+        if (inFragment) {
+            listener.onFragmentEnd();
+        }
+    }
+
+    private static boolean isClusterChild(final long id) {
+        return id == TIMECODE_ID
+                || id == SIMPLE_BLOCK_ID
+                || id == BLOCK_GROUP_ID
+                || id == POSITION_ID
+                || id == PREV_SIZE_ID;
+    }
+
+    /**
+     * Reads an element id with its length marker, -1 on the end of the stream
+     */
+    private long readId() throws IOException {
+        final int first = mInputStream.read();
+        if (first < 0) {
+            return -1;
+        }
+
+        final int length = Integer.numberOfLeadingZeros(first) - 24 + 1;
+        if (length > MAX_ID_LENGTH) {
+            throw new IOException("Invalid MKV element id " + Integer.toHexString(first));
+        }
+
+        long id = first;
+        for (int i = 1; i < length; i++) {
+            id = (id << 8) | readByte();
+        }
+
+        return id;
+    }
+
+    /**
+     * Reads an element size, -1 for the unknown size
+     */
+    private long readSize() throws IOException {
+        final int first = readByte();
+        final int length = Integer.numberOfLeadingZeros(first) - 24 + 1;
+        if (length > MAX_SIZE_LENGTH) {
+            throw new IOException("Invalid MKV element size " + Integer.toHexString(first));
+        }
+
+        long size = first & (0xFF >> length);
+        boolean unknown = size == (0xFF >> length);
+        for (int i = 1; i < length; i++) {
+            final int b = readByte();
+            size = (size << 8) | b;
+            unknown &= b == 0xFF;
+        }
+
+        return unknown ? -1 : size;
+    }
+
+    private long readUnsigned(final int length) throws IOException {
+        if (length < 0 || length > MAX_TIMECODE_LENGTH) {
+            throw new IOException("Invalid MKV timecode length " + length);
+        }
+
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | readByte();
+        }
+
+        return value;
+    }
+
+    private void skip(final long size) throws IOException {
+        if (size < 0) {
+            throw new IOException("Unknown size of an MKV element which is not a Segment or a Cluster");
+        }
+
+        long remaining = size;
+        while (remaining > 0) {
+            final int bytesRead = mInputStream.read(mSkipBuffer, 0, (int) Math.min(remaining, mSkipBuffer.length));
+            if (bytesRead < 0) {
+                throw new EOFException("End of stream in an MKV element");
+            }
+
+            remaining -= bytesRead;
+        }
+    }
+
+    private int readByte() throws IOException {
+        final int b = mInputStream.read();
+        if (b < 0) {
+            throw new EOFException("End of stream in an MKV element header");
+        }
+
+        return b;
+    }
+}
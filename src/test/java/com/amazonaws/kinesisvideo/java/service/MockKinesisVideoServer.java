@@ -0,0 +1,659 @@
+package com.amazonaws.kinesisvideo.java.service;
+
+import com.amazonaws.kinesisvideo.encoding.HttpResponseReader;
+import com.amazonaws.kinesisvideo.stream.throttling.HierarchicalBandwidthScheduler;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkArgument;
+import static com.amazonaws.kinesisvideo.common.preconditions.Preconditions.checkNotNull;
+
+/**
+ * Embeddable Kinesis Video endpoint for the tests, serving both the control plane and the data plane on
+ * http://127.0.0.1:port.
+ *
+ * DescribeStream, CreateStream, TagStream and GetDataEndpoint are answered the way the AWS SDK client used by
+ * {@link JavaKinesisVideoServiceClient} expects. Every stream exists and is ACTIVE, GetDataEndpoint returns the
+ * address of this server, so pointing {@code KinesisVideoClientConfiguration.withEndpoint} at {@link #getEndpoint()}
+ * is all it takes to run the client against it.
+ *
+ * PutMedia accepts the chunked requests {@code PutMediaClient} sends. The MKV body is scanned for clusters and
+ * every cluster is acked as a fragment: BUFFERING once its timecode arrives, RECEIVED the configured delay after
+ * the next cluster starts or the body ends, PERSISTED the configured delay after that. The response ends and the
+ * connection is closed once the body has ended and all the acks are out. The request body can be read at a capped
+ * rate and every n-th fragment can be failed with an ERROR ack.
+ *
+ * The control plane calls and PutMedia can be failed with an HTTP error through {@link #failNextRequests}. Note the
+ * AWS SDK client retries the throttling and the 5xx errors.
+ */
+public final class MockKinesisVideoServer implements Closeable {
+    public static final String DESCRIBE_STREAM = "/describeStream";
+    public static final String CREATE_STREAM = "/createStream";
+    public static final String TAG_STREAM = "/tagStream";
+    public static final String GET_DATA_ENDPOINT = "/getDataEndpoint";
+    public static final String PUT_MEDIA = "/putMedia";
+
+    /**
+     * KVS error id for an internal failure
+     */
+    public static final int ERROR_ID_INTERNAL_ERROR = 5000;
+
+    private static final String STREAM_NAME_HEADER = "x-amzn-stream-name";
+    private static final Pattern STREAM_NAME_PATTERN = Pattern.compile("\"StreamName\"\\s*:\\s*\"([^\"]*)\"");
+    private static final long FRAGMENT_NUMBER_BASE = 91343852333181432L;
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    private static final String CRLF = "\r\n";
+
+    private final Builder mBuilder;
+    private final ServerSocket mServerSocket;
+    private final ExecutorService mConnectionExecutor;
+    private final ScheduledExecutorService mAckExecutor;
+    private final HierarchicalBandwidthScheduler mBandwidthScheduler;
+    private final Set<Socket> mSockets = ConcurrentHashMap.newKeySet();
+    private final Map<String, Queue<Failure>> mFailures = new ConcurrentHashMap<String, Queue<Failure>>();
+    private final Map<String, AtomicLong> mRequestCounts = new ConcurrentHashMap<String, AtomicLong>();
+    private final Map<String, AtomicLong> mFragmentCounts = new ConcurrentHashMap<String, AtomicLong>();
+    private final AtomicLong mFragmentCounter = new AtomicLong();
+    private final AtomicLong mReceivedBytes = new AtomicLong();
+
+    private MockKinesisVideoServer(@Nonnull final Builder builder) throws IOException {
+        mBuilder = builder;
+        mServerSocket = new ServerSocket(builder.mPort, 0, InetAddress.getLoopbackAddress());
+        mConnectionExecutor = Executors.newCachedThreadPool(daemonThreads("mock-kvs-connection"));
+        mAckExecutor = Executors.newSingleThreadScheduledExecutor(daemonThreads("mock-kvs-acks"));
+        mBandwidthScheduler = builder.mBandwidthCapKbps > 0
+                ? new HierarchicalBandwidthScheduler(builder.mBandwidthCapKbps)
+                : null;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Starts accepting the connections.
+     *
+     * @return this server
+     */
+    public MockKinesisVideoServer start() {
+        mConnectionExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                acceptConnections();
+            }
+        });
+
+        return this;
+    }
+
+    public int getPort() {
+        return mServerSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the endpoint to configure the client with, also returned by GetDataEndpoint
+     */
+    @Nonnull
+    public String getEndpoint() {
+        return "http://127.0.0.1:" + getPort();
+    }
+
+    /**
+     * Fails the next requests to the path with an HTTP error.
+     *
+     * @param path Path of the operation, e.g. {@link #PUT_MEDIA}
+     * @param statusCode HTTP status code to answer with
+     * @param errorType AWS error type, e.g. ResourceNotFoundException
+     * @param count Number of the requests to fail
+     */
+    public void failNextRequests(@Nonnull final String path,
+                                 final int statusCode,
+                                 @Nonnull final String errorType,
+                                 final int count) {
+        checkNotNull(path);
+        checkNotNull(errorType);
+        checkArgument(statusCode >= 400);
+        final Queue<Failure> failures = getFailures(path);
+        for (int i = 0; i < count; i++) {
+            failures.add(new Failure(statusCode, errorType));
+        }
+    }
+
+    /**
+     * Returns the number of the requests to the path, including the failed ones
+     */
+    public long getRequestCount(@Nonnull final String path) {
+        return getCounter(mRequestCounts, path).get();
+    }
+
+    /**
+     * Returns the number of the fragments of the stream acked with BUFFERING
+     */
+    public long getFragmentCount(@Nonnull final String streamName) {
+        return getCounter(mFragmentCounts, streamName).get();
+    }
+
+    /**
+     * Returns the number of the PutMedia body bytes received across all the streams
+     */
+    public long getReceivedBytes() {
+        return mReceivedBytes.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        mServerSocket.close();
+        for (final Socket socket : mSockets) {
+            closeQuietly(socket);
+        }
+
+        mConnectionExecutor.shutdownNow();
+        mAckExecutor.shutdownNow();
+    }
+
+    private void acceptConnections() {
+        while (!mServerSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = mServerSocket.accept();
+            } catch (final IOException e) {
+                // Closed
+                return;
+            }
+
+            mSockets.add(socket);
+            mConnectionExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        serveConnection(socket);
+                    } catch (final IOException e) {
+                        // The client went away or the server is closing
+                    } finally {
+                        mSockets.remove(socket);
+                        closeQuietly(socket);
+                    }
+                }
+            });
+        }
+    }
+
+    private void serveConnection(@Nonnull final Socket socket) throws IOException {
+        final HttpResponseReader reader = new HttpResponseReader(socket.getInputStream());
+        final OutputStream outputStream = socket.getOutputStream();
+        String requestLine;
+        // The SDK client keeps the connections alive, PutMedia closes them
+        while ((requestLine = readRequestLine(reader)) != null) {
+            final String[] parts = requestLine.split(" ");
+            if (parts.length < 2) {
+                throw new IOException("Malformed request line " + requestLine);
+            }
+
+            final String path = parts[1];
+            final Map<String, String> headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+            headers.putAll(reader.readHeaders());
+            getCounter(mRequestCounts, path).incrementAndGet();
+
+            final Failure failure = getFailures(path).poll();
+            if (PUT_MEDIA.equals(path)) {
+                if (failure != null) {
+                    writeJsonResponse(outputStream, failure.mStatusCode, failure.mErrorType,
+                            "{\"message\":\"Injected failure\"}", true);
+                } else {
+                    new PutMediaSession(reader, outputStream, headers.get(STREAM_NAME_HEADER)).run();
+                }
+
+                return;
+            }
+
+            final String body = new String(readBody(reader, headers), StandardCharsets.UTF_8);
+            if (failure != null) {
+                writeJsonResponse(outputStream, failure.mStatusCode, failure.mErrorType,
+                        "{\"message\":\"Injected failure\"}", false);
+            } else {
+                serveControlPlane(outputStream, path, body);
+            }
+        }
+    }
+
+    private void serveControlPlane(@Nonnull final OutputStream outputStream,
+                                   @Nonnull final String path,
+                                   @Nonnull final String body) throws IOException {
+        final String streamName = getStreamName(body);
+        if (DESCRIBE_STREAM.equals(path)) {
+            writeJsonResponse(outputStream, 200, null, "{\"StreamInfo\":{"
+                    + "\"CreationTime\":" + System.currentTimeMillis() / 1000.0 + ","
+                    + "\"DataRetentionInHours\":2,"
+                    + "\"DeviceName\":\"mock-device\","
+                    + "\"MediaType\":\"video/h264\","
+                    + "\"Status\":\"ACTIVE\","
+                    + "\"StreamARN\":\"" + getStreamArn(streamName) + "\","
+                    + "\"StreamName\":\"" + streamName + "\","
+                    + "\"Version\":\"1\"}}", false);
+        } else if (CREATE_STREAM.equals(path)) {
+            writeJsonResponse(outputStream, 200, null,
+                    "{\"StreamARN\":\"" + getStreamArn(streamName) + "\"}", false);
+        } else if (TAG_STREAM.equals(path)) {
+            writeJsonResponse(outputStream, 200, null, "{}", false);
+        } else if (GET_DATA_ENDPOINT.equals(path)) {
+            writeJsonResponse(outputStream, 200, null, "{\"DataEndpoint\":\"" + getEndpoint() + "\"}", false);
+        } else {
+            writeJsonResponse(outputStream, 404, "UnknownOperationException",
+                    "{\"message\":\"Unknown operation " + path + "\"}", false);
+        }
+    }
+
+    /**
+     * Reads the request line, null if the connection was closed between the requests
+     */
+    @Nullable
+    private static String readRequestLine(@Nonnull final InputStream inputStream) throws IOException {
+        final StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = inputStream.read()) != '\n') {
+            if (b < 0) {
+                if (line.length() == 0) {
+                    return null;
+                }
+
+                throw new IOException("End of stream in the request line");
+            }
+
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+
+        return line.toString();
+    }
+
+    @Nonnull
+    private static byte[] readBody(@Nonnull final HttpResponseReader reader,
+                                   @Nonnull final Map<String, String> headers) throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[READ_BUFFER_SIZE];
+        if ("chunked".equalsIgnoreCase(headers.get("Transfer-Encoding"))) {
+            while (reader.readChunkSize() > 0) {
+                int bytesRead;
+                while ((bytesRead = reader.readChunkData(buffer, 0, buffer.length)) > 0) {
+                    body.write(buffer, 0, bytesRead);
+                }
+            }
+
+            return body.toByteArray();
+        }
+
+        final String contentLength = headers.get("Content-Length");
+        int remaining = contentLength == null ? 0 : Integer.parseInt(contentLength);
+        while (remaining > 0) {
+            final int bytesRead = reader.read(buffer, 0, Math.min(remaining, buffer.length));
+            if (bytesRead < 0) {
+                throw new IOException("End of stream in the request body");
+            }
+
+            body.write(buffer, 0, bytesRead);
+            remaining -= bytesRead;
+        }
+
+        return body.toByteArray();
+    }
+
+    private static void writeJsonResponse(@Nonnull final OutputStream outputStream,
+                                          final int statusCode,
+                                          @Nullable final String errorType,
+                                          @Nonnull final String body,
+                                          final boolean close) throws IOException {
+        final byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+        final StringBuilder head = new StringBuilder()
+                .append("HTTP/1.1 ").append(statusCode).append(' ').append(statusCode < 400 ? "OK" : "Error")
+                .append(CRLF)
+                .append("Content-Type: application/json").append(CRLF)
+                .append("Content-Length: ").append(bodyBytes.length).append(CRLF)
+                .append("x-amzn-RequestId: ").append(UUID.randomUUID()).append(CRLF);
+        if (errorType != null) {
+            head.append("x-amzn-ErrorType: ").append(errorType).append(CRLF);
+        }
+
+        if (close) {
+            head.append("Connection: close").append(CRLF);
+        }
+
+        head.append(CRLF);
+        outputStream.write(head.toString().getBytes(StandardCharsets.US_ASCII));
+        outputStream.write(bodyBytes);
+        outputStream.flush();
+    }
+
+    @Nonnull
+    private static String getStreamName(@Nonnull final String body) {
+        final Matcher matcher = STREAM_NAME_PATTERN.matcher(body);
+        return matcher.find() ? matcher.group(1) : "mock-stream";
+    }
+
+    @Nonnull
+    private static String getStreamArn(@Nonnull final String streamName) {
+        return "arn:aws:kinesisvideo:us-west-2:123456789012:stream/" + streamName + "/1234567890123";
+    }
+
+    @Nonnull
+    private Queue<Failure> getFailures(@Nonnull final String path) {
+        Queue<Failure> failures = mFailures.get(path);
+        if (failures == null) {
+            mFailures.putIfAbsent(path, new ConcurrentLinkedQueue<Failure>());
+            failures = mFailures.get(path);
+        }
+
+        return failures;
+    }
+
+    @Nonnull
+    private static AtomicLong getCounter(@Nonnull final Map<String, AtomicLong> counters, @Nonnull final String key) {
+        AtomicLong counter = counters.get(key);
+        if (counter == null) {
+            counters.putIfAbsent(key, new AtomicLong());
+            counter = counters.get(key);
+        }
+
+        return counter;
+    }
+
+    private static void closeQuietly(@Nonnull final Socket socket) {
+        try {
+            socket.close();
+        } catch (final IOException e) {
+            // Nothing to do
+        }
+    }
+
+    private static ThreadFactory daemonThreads(@Nonnull final String name) {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * One PutMedia request, reads the MKV body on the connection thread and writes the acks on the ack executor.
+     */
+    private final class PutMediaSession implements MkvClusterScanner.Listener {
+        private final HttpResponseReader mReader;
+        private final OutputStream mOutputStream;
+        private final String mStreamName;
+        private final List<Future<?>> mPendingAcks = new ArrayList<Future<?>>();
+        private final HierarchicalBandwidthScheduler.StreamThrottler mThrottler;
+        private String mFragmentNumber;
+        private long mFragmentTimecode;
+        private boolean mFragmentFailed;
+
+        PutMediaSession(@Nonnull final HttpResponseReader reader,
+                        @Nonnull final OutputStream outputStream,
+                        @Nullable final String streamName) {
+            mReader = reader;
+            mOutputStream = outputStream;
+            mStreamName = streamName == null ? "mock-stream" : streamName;
+            mThrottler = mBandwidthScheduler == null ? null : mBandwidthScheduler.getThrottler(mStreamName);
+        }
+
+        void run() throws IOException {
+            try {
+                writeResponseHead();
+                new MkvClusterScanner(new ChunkedBodyInputStream()).scan(this);
+                awaitPendingAcks();
+                writeChunk(new byte[0]);
+            } finally {
+                for (final Future<?> ack : mPendingAcks) {
+                    ack.cancel(false);
+                }
+
+                if (mBandwidthScheduler != null) {
+                    mBandwidthScheduler.remove(mStreamName);
+                }
+            }
+        }
+
+        @Override
+        public void onFragmentStart(final long timecode) throws IOException {
+            mFragmentNumber = String.valueOf(FRAGMENT_NUMBER_BASE + mFragmentCounter.incrementAndGet());
+            mFragmentTimecode = timecode;
+            final long fragmentIndex = getCounter(mFragmentCounts, mStreamName).incrementAndGet();
+            mFragmentFailed = mBuilder.mErrorFragmentInterval > 0
+                    && fragmentIndex % mBuilder.mErrorFragmentInterval == 0;
+
+            writeAck("BUFFERING", mFragmentTimecode, mFragmentNumber, 0);
+        }
+
+        @Override
+        public void onFragmentEnd() {
+            final long timecode = mFragmentTimecode;
+            final String fragmentNumber = mFragmentNumber;
+            if (mFragmentFailed) {
+                scheduleAck("ERROR", timecode, fragmentNumber, mBuilder.mErrorId, mBuilder.mReceivedAckDelayMillis);
+                return;
+            }
+
+            scheduleAck("RECEIVED", timecode, fragmentNumber, 0, mBuilder.mReceivedAckDelayMillis);
+            scheduleAck("PERSISTED", timecode, fragmentNumber, 0,
+                    mBuilder.mReceivedAckDelayMillis + mBuilder.mPersistedAckDelayMillis);
+        }
+
+        private void scheduleAck(@Nonnull final String eventType,
+                                 final long timecode,
+                                 @Nonnull final String fragmentNumber,
+                                 final int errorId,
+                                 final long delayMillis) {
+            mPendingAcks.add(mAckExecutor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        writeAck(eventType, timecode, fragmentNumber, errorId);
+                    } catch (final IOException e) {
+                        // The client went away, the connection thread finds out on its own
+                    }
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS));
+        }
+
+        private void awaitPendingAcks() throws IOException {
+            for (final Future<?> ack : mPendingAcks) {
+                try {
+                    ack.get();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the acks", e);
+                } catch (final ExecutionException e) {
+                    throw new IOException(e.getCause());
+                }
+            }
+        }
+
+        private void writeResponseHead() throws IOException {
+            synchronized (mOutputStream) {
+                mOutputStream.write(("HTTP/1.1 200 OK" + CRLF
+                        + "Content-Type: application/json" + CRLF
+                        + "Transfer-Encoding: chunked" + CRLF
+                        + "x-amzn-RequestId: " + UUID.randomUUID() + CRLF
+                        + "Connection: close" + CRLF
+                        + CRLF).getBytes(StandardCharsets.US_ASCII));
+                mOutputStream.flush();
+            }
+        }
+
+        private void writeAck(@Nonnull final String eventType,
+                              final long timecode,
+                              @Nonnull final String fragmentNumber,
+                              final int errorId) throws IOException {
+            final StringBuilder ack = new StringBuilder()
+                    .append("{\"EventType\":\"").append(eventType)
+                    .append("\",\"FragmentTimecode\":").append(timecode)
+                    .append(",\"FragmentNumber\":\"").append(fragmentNumber).append('"');
+            if (errorId != 0) {
+                ack.append(",\"ErrorId\":").append(errorId);
+            }
+
+            ack.append('}');
+            writeChunk(ack.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void writeChunk(@Nonnull final byte[] payload) throws IOException {
+            synchronized (mOutputStream) {
+                mOutputStream.write((Integer.toHexString(payload.length) + CRLF).getBytes(StandardCharsets.US_ASCII));
+                mOutputStream.write(payload);
+                mOutputStream.write(CRLF.getBytes(StandardCharsets.US_ASCII));
+                mOutputStream.flush();
+            }
+        }
+
+        /**
+         * The de-chunked request body, read at the capped rate
+         */
+        private final class ChunkedBodyInputStream extends InputStream {
+            private boolean mEndOfStream;
+
+            @Override
+            public int read() throws IOException {
+                final byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+            }
+
+            @Override
+            public int read(@Nonnull final byte[] b, final int off, final int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+
+                while (!mEndOfStream && mReader.getChunkRemaining() == 0) {
+                    final int chunkSize = mReader.readChunkSize();
+                    if (chunkSize == HttpResponseReader.END_OF_STREAM) {
+                        throw new SocketException("Connection closed before the last chunk");
+                    }
+
+                    mEndOfStream = chunkSize == 0;
+                }
+
+                if (mEndOfStream) {
+                    return -1;
+                }
+
+                final int wanted = Math.min(len, mReader.getChunkRemaining());
+                final int allowed = mThrottler == null ? wanted : mThrottler.getAllowedBytes(wanted);
+                final int bytesRead = mReader.readChunkData(b, off, allowed);
+                if (bytesRead < 0) {
+                    throw new SocketException("Connection closed in a chunk");
+                }
+
+                mReceivedBytes.addAndGet(bytesRead);
+                return bytesRead;
+            }
+        }
+    }
+
+    private static final class Failure {
+        private final int mStatusCode;
+        private final String mErrorType;
+
+        Failure(final int statusCode, @Nonnull final String errorType) {
+            mStatusCode = statusCode;
+            mErrorType = errorType;
+        }
+    }
+
+    public static final class Builder {
+        private int mPort = 0;
+        private long mReceivedAckDelayMillis = 0;
+        private long mPersistedAckDelayMillis = 0;
+        private long mBandwidthCapKbps = 0;
+        private int mErrorFragmentInterval = 0;
+        private int mErrorId = ERROR_ID_INTERNAL_ERROR;
+
+        /**
+         * Port to listen on, 0 picks an ephemeral one
+         */
+        public Builder withPort(final int port) {
+            checkArgument(port >= 0);
+            mPort = port;
+            return this;
+        }
+
+        /**
+         * Delay of the RECEIVED ack after the fragment is fully received
+         */
+        public Builder withReceivedAckDelay(final long delayMillis) {
+            checkArgument(delayMillis >= 0);
+            mReceivedAckDelayMillis = delayMillis;
+            return this;
+        }
+
+        /**
+         * Delay of the PERSISTED ack after the RECEIVED ack
+         */
+        public Builder withPersistedAckDelay(final long delayMillis) {
+            checkArgument(delayMillis >= 0);
+            mPersistedAckDelayMillis = delayMillis;
+            return this;
+        }
+
+        /**
+         * Caps the rate the PutMedia bodies are read at, shared between all the streams
+         *
+         * @param kbps max bandwidth in kbps, 0 for no cap
+         */
+        public Builder withBandwidthCap(final long kbps) {
+            checkArgument(kbps >= 0);
+            mBandwidthCapKbps = kbps;
+            return this;
+        }
+
+        /**
+         * Acks every n-th fragment of each stream with an ERROR instead of RECEIVED and PERSISTED
+         *
+         * @param interval n, 0 to not fail any fragments
+         * @param errorId KVS error id to put in the ERROR acks
+         */
+        public Builder withFragmentErrors(final int interval, final int errorId) {
+            checkArgument(interval >= 0);
+            mErrorFragmentInterval = interval;
+            mErrorId = errorId;
+            return this;
+        }
+
+        public MockKinesisVideoServer build() throws IOException {
+            return new MockKinesisVideoServer(this);
+        }
+    }
+}
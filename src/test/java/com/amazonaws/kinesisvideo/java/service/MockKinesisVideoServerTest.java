@@ -0,0 +1,196 @@
+package com.amazonaws.kinesisvideo.java.service;
+
+import com.amazonaws.kinesisvideo.ack.AckEventData;
+import com.amazonaws.kinesisvideo.ack.AckEventDecoder;
+import com.amazonaws.kinesisvideo.auth.KinesisVideoCredentials;
+import com.amazonaws.kinesisvideo.auth.StaticCredentialsProvider;
+import com.amazonaws.kinesisvideo.client.KinesisVideoClientConfiguration;
+import com.amazonaws.kinesisvideo.common.exception.KinesisVideoException;
+import com.amazonaws.kinesisvideo.common.function.Consumer;
+import com.amazonaws.kinesisvideo.encoding.HttpResponseReader;
+import com.amazonaws.kinesisvideo.producer.StreamDescription;
+import org.apache.logging.log4j.LogManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MockKinesisVideoServerTest {
+    private static final String STREAM_NAME = "mock-server-test-stream";
+    private static final long TIMEOUT_IN_MILLIS = 10000;
+    private static final byte[] UNKNOWN_SIZE = {0x01, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+            (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF};
+
+    private MockKinesisVideoServer mServer;
+    private JavaKinesisVideoServiceClient mServiceClient;
+    private StaticCredentialsProvider mCredentialsProvider;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = MockKinesisVideoServer.builder()
+                .withPersistedAckDelay(10)
+                .withFragmentErrors(3, MockKinesisVideoServer.ERROR_ID_INTERNAL_ERROR)
+                .build()
+                .start();
+
+        mCredentialsProvider = new StaticCredentialsProvider(new KinesisVideoCredentials("accessKey", "secretKey"));
+        mServiceClient = new JavaKinesisVideoServiceClient(LogManager.getLogger(MockKinesisVideoServerTest.class));
+        mServiceClient.initialize(KinesisVideoClientConfiguration.builder()
+                .withRegion("us-west-2")
+                .withEndpoint(mServer.getEndpoint())
+                .withCredentialsProvider(mCredentialsProvider)
+                .build());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mServer.close();
+    }
+
+    @Test
+    public void test_controlPlane_describesStreamAndReturnsOwnDataEndpoint() throws Exception {
+        final StreamDescription description =
+                mServiceClient.describeStream(STREAM_NAME, TIMEOUT_IN_MILLIS, mCredentialsProvider);
+
+        assertEquals(STREAM_NAME, description.getStreamName());
+        assertTrue(description.getStreamArn().contains(STREAM_NAME));
+        assertEquals(mServer.getEndpoint(),
+                mServiceClient.getDataEndpoint(STREAM_NAME, "PUT_MEDIA", TIMEOUT_IN_MILLIS, mCredentialsProvider));
+    }
+
+    @Test
+    public void test_injectedFailure_failsControlPlaneCall() throws Exception {
+        mServer.failNextRequests(MockKinesisVideoServer.DESCRIBE_STREAM, 404, "ResourceNotFoundException", 1);
+
+        try {
+            mServiceClient.describeStream(STREAM_NAME, TIMEOUT_IN_MILLIS, mCredentialsProvider);
+            fail("Expected the describe stream to fail");
+        } catch (final KinesisVideoException e) {
+            // Expected
+        }
+
+        assertEquals(STREAM_NAME,
+                mServiceClient.describeStream(STREAM_NAME, TIMEOUT_IN_MILLIS, mCredentialsProvider).getStreamName());
+    }
+
+    @Test
+    public void test_putMedia_acksEveryCluster() throws Exception {
+        final ByteArrayOutputStream mkv = new ByteArrayOutputStream();
+        mkv.write(element(0x1A45DFA3, new byte[] {0x42, (byte) 0x82, (byte) 0x88, 'm', 'a', 't', 'r', 'o', 's', 'k',
+                'a'}));
+        mkv.write(new byte[] {0x18, 0x53, (byte) 0x80, 0x67});
+        mkv.write(UNKNOWN_SIZE);
+        for (long timecode = 1000; timecode <= 3000; timecode += 1000) {
+            mkv.write(cluster(timecode));
+        }
+
+        final ByteArrayOutputStream response = new ByteArrayOutputStream();
+        final CountDownLatch completed = new CountDownLatch(1);
+        final Exception[] completionException = new Exception[1];
+        mServiceClient.putMedia(STREAM_NAME, "video/webm", 0, true, true,
+                mServer.getEndpoint(), TIMEOUT_IN_MILLIS, mCredentialsProvider,
+                new ByteArrayInputStream(mkv.toByteArray()),
+                new Consumer<InputStream>() {
+                    @Override
+                    public void accept(final InputStream inputStream) {
+                        readFully(inputStream, response);
+                    }
+                },
+                new Consumer<Exception>() {
+                    @Override
+                    public void accept(final Exception exception) {
+                        completionException[0] = exception;
+                        completed.countDown();
+                    }
+                });
+
+        assertTrue(completed.await(TIMEOUT_IN_MILLIS, TimeUnit.MILLISECONDS));
+        assertNull(completionException[0]);
+
+        final List<String> acks = decodeAcks(response.toByteArray());
+        assertEquals(8, acks.size());
+        assertTrue(acks.contains("BUFFERING 1000"));
+        assertTrue(acks.contains("PERSISTED 1000"));
+        assertTrue(acks.contains("PERSISTED 2000"));
+        assertTrue(acks.contains("ERROR 3000 5000"));
+        assertTrue(acks.indexOf("RECEIVED 1000") < acks.indexOf("PERSISTED 1000"));
+        assertEquals(3, mServer.getFragmentCount(STREAM_NAME));
+        assertEquals(mkv.size(), mServer.getReceivedBytes());
+    }
+
+    private static byte[] cluster(final long timecode) throws IOException {
+        final ByteArrayOutputStream cluster = new ByteArrayOutputStream();
+        cluster.write(new byte[] {0x1F, 0x43, (byte) 0xB6, 0x75});
+        cluster.write(UNKNOWN_SIZE);
+        cluster.write(new byte[] {(byte) 0xE7, (byte) 0x82, (byte) (timecode >> 8), (byte) timecode});
+        // Two blocks of 100 bytes
+        for (int i = 0; i < 2; i++) {
+            cluster.write(new byte[] {(byte) 0xA3, (byte) (0x80 | 100)});
+            cluster.write(new byte[100]);
+        }
+
+        return cluster.toByteArray();
+    }
+
+    private static byte[] element(final int id, final byte[] payload) throws IOException {
+        final ByteArrayOutputStream element = new ByteArrayOutputStream();
+        element.write(new byte[] {(byte) (id >> 24), (byte) (id >> 16), (byte) (id >> 8), (byte) id});
+        element.write(0x80 | payload.length);
+        element.write(payload);
+        return element.toByteArray();
+    }
+
+    private static void readFully(final InputStream inputStream, final ByteArrayOutputStream output) {
+        final byte[] buffer = new byte[4096];
+        try {
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) >= 0) {
+                output.write(buffer, 0, bytesRead);
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static List<String> decodeAcks(final byte[] response) throws IOException {
+        final List<String> acks = new ArrayList<String>();
+        final AckEventDecoder decoder = new AckEventDecoder(new Consumer<AckEventData>() {
+            @Override
+            public void accept(final AckEventData ack) {
+                acks.add(ack.getType() + " " + ack.getFragmentTimecode()
+                        + (ack.getErrorCode() != 0 ? " " + ack.getErrorCode() : ""));
+            }
+        }, new Consumer<String>() {
+            @Override
+            public void accept(final String ack) {
+                fail("Undecodable ack " + ack);
+            }
+        });
+
+        final HttpResponseReader reader = new HttpResponseReader(new ByteArrayInputStream(response));
+        assertEquals(200, reader.readStatusLine().getStatusCode());
+        reader.readHeaders();
+        final byte[] buffer = new byte[4096];
+        while (reader.readChunkSize() > 0) {
+            int bytesRead;
+            while ((bytesRead = reader.readChunkData(buffer, 0, buffer.length)) > 0) {
+                decoder.decode(buffer, 0, bytesRead);
+            }
+        }
+
+        return acks;
+    }
+}
@@ -0,0 +1,99 @@
+package com.amazonaws.kinesisvideo.producer;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FrameBufferPoolTest {
+    private static final long MAX_POOLED_BYTES = 1024 * 1024;
+
+    @Test
+    public void test_acquire_returnsDirectBufferLimitedToSize() {
+        final FrameBuffer frameBuffer = new FrameBufferPool(MAX_POOLED_BYTES).acquire(1500);
+
+        assertTrue(frameBuffer.getBuffer().isDirect());
+        assertEquals(0, frameBuffer.getBuffer().position());
+        assertEquals(1500, frameBuffer.getBuffer().limit());
+        assertEquals(2048, frameBuffer.getBuffer().capacity());
+    }
+
+    @Test
+    public void test_releasedBuffer_isReused() {
+        final FrameBufferPool pool = new FrameBufferPool(MAX_POOLED_BYTES);
+        final FrameBuffer frameBuffer = pool.acquire(1000);
+        final ByteBuffer buffer = frameBuffer.getBuffer();
+        frameBuffer.release();
+
+        assertEquals(1024, pool.getPooledBytes());
+        assertSame(buffer, pool.acquire(900).getBuffer());
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test
+    public void test_retainedBuffer_isReusedAfterLastRelease() {
+        final FrameBufferPool pool = new FrameBufferPool(MAX_POOLED_BYTES);
+        final FrameBuffer frameBuffer = pool.acquire(1000).retain();
+
+        frameBuffer.release();
+        assertEquals(0, pool.getPooledBytes());
+
+        frameBuffer.release();
+        assertEquals(1024, pool.getPooledBytes());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_doubleRelease_throws() {
+        final FrameBuffer frameBuffer = new FrameBufferPool(MAX_POOLED_BYTES).acquire(10);
+        frameBuffer.release();
+        frameBuffer.release();
+    }
+
+    @Test
+    public void test_pool_dropsBuffersOverMaxPooledBytes() {
+        final FrameBufferPool pool = new FrameBufferPool(1024);
+        final FrameBuffer first = pool.acquire(1024);
+        final FrameBuffer second = pool.acquire(1024);
+        first.release();
+        second.release();
+
+        assertEquals(1024, pool.getPooledBytes());
+    }
+
+    @Test
+    public void test_pooledFrame_dataIsNotCopied() {
+        final FrameBuffer frameBuffer = new FrameBufferPool(MAX_POOLED_BYTES).acquire(4);
+        frameBuffer.getBuffer().put(new byte[] {1, 2, 3, 4}).flip();
+        final KinesisVideoFrame frame = new KinesisVideoFrame(0, 0, 0, 0, 0, frameBuffer);
+
+        assertTrue(frame.isPooled());
+        assertEquals(4, frame.getSize());
+        assertSame(frameBuffer.getBuffer(), frame.getData());
+
+        final KinesisVideoFrame heapFrame = new KinesisVideoFrame(0, 0, 0, 0, 0, ByteBuffer.wrap(new byte[4]));
+        assertNotSame(heapFrame.getData(), heapFrame.getData());
+    }
+
+    @Test
+    public void test_read_fillsBufferFromChannel() throws IOException {
+        final byte[] data = new byte[3000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        final FrameBuffer frameBuffer = new FrameBufferPool(MAX_POOLED_BYTES)
+                .read(Channels.newChannel(new ByteArrayInputStream(data)), data.length);
+
+        final byte[] read = new byte[frameBuffer.getBuffer().remaining()];
+        frameBuffer.getBuffer().get(read);
+        assertArrayEquals(data, read);
+    }
+}
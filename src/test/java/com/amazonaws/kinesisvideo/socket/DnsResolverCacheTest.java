@@ -0,0 +1,188 @@
+package com.amazonaws.kinesisvideo.socket;
+
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DnsResolverCacheTest {
+    private static final String HOST = "s-1234abcd.kinesisvideo.us-west-2.amazonaws.com";
+    private static final long ONE_HOUR_MILLIS = 3600000;
+    private static final long LOOKUP_TIMEOUT_MILLIS = 5000;
+
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            command.run();
+        }
+    };
+
+    @Test
+    public void test_cachedAddresses_areRotated() throws Exception {
+        final FakeLookup lookup = new FakeLookup(address(1), address(2));
+        final DnsResolverCache resolver = new DnsResolverCache(lookup, DIRECT_EXECUTOR, ONE_HOUR_MILLIS, 0,
+                LOOKUP_TIMEOUT_MILLIS);
+
+        assertArrayEquals(new InetAddress[] { address(1), address(2) }, resolver.resolve(HOST));
+        assertArrayEquals(new InetAddress[] { address(2), address(1) }, resolver.resolve(HOST));
+        assertArrayEquals(new InetAddress[] { address(1), address(2) }, resolver.resolve(HOST));
+
+        assertEquals(1, lookup.mCalls.get());
+        assertEquals(1, resolver.getMisses());
+        assertEquals(2, resolver.getHits());
+    }
+
+    @Test
+    public void test_staleAddresses_areServedWhileRefreshing() throws Exception {
+        final FakeLookup lookup = new FakeLookup(address(1));
+        final DnsResolverCache resolver = new DnsResolverCache(lookup, DIRECT_EXECUTOR, 0, ONE_HOUR_MILLIS,
+                LOOKUP_TIMEOUT_MILLIS);
+        resolver.resolve(HOST);
+
+        lookup.mAddresses = new InetAddress[] { address(2) };
+        assertArrayEquals(new InetAddress[] { address(1) }, resolver.resolve(HOST));
+        assertArrayEquals(new InetAddress[] { address(2) }, resolver.resolve(HOST));
+
+        assertEquals(2, resolver.getStaleHits());
+    }
+
+    @Test
+    public void test_failedRefresh_keepsServingStaleAddresses() throws Exception {
+        final FakeLookup lookup = new FakeLookup(address(1));
+        final DnsResolverCache resolver = new DnsResolverCache(lookup, DIRECT_EXECUTOR, 0, ONE_HOUR_MILLIS,
+                LOOKUP_TIMEOUT_MILLIS);
+        resolver.resolve(HOST);
+
+        lookup.mAddresses = null;
+        assertArrayEquals(new InetAddress[] { address(1) }, resolver.resolve(HOST));
+        assertArrayEquals(new InetAddress[] { address(1) }, resolver.resolve(HOST));
+
+        assertEquals(2, resolver.getFailures());
+    }
+
+    @Test(expected = UnknownHostException.class)
+    public void test_expiredAddresses_areNotServed() throws Exception {
+        final FakeLookup lookup = new FakeLookup(address(1));
+        final DnsResolverCache resolver = new DnsResolverCache(lookup, DIRECT_EXECUTOR, 0, 0,
+                LOOKUP_TIMEOUT_MILLIS);
+        resolver.resolve(HOST);
+
+        lookup.mAddresses = null;
+        resolver.resolve(HOST);
+    }
+
+    @Test
+    public void test_concurrentMisses_shareOneLookup() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final FakeLookup lookup = new FakeLookup(address(1)) {
+            @Override
+            public InetAddress[] lookup(@Nonnull final String host) throws UnknownHostException {
+                awaitQuietly(release);
+                return super.lookup(host);
+            }
+        };
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        final DnsResolverCache resolver = new DnsResolverCache(lookup, executor, ONE_HOUR_MILLIS, 0,
+                LOOKUP_TIMEOUT_MILLIS);
+        try {
+            final List<Future<InetAddress[]>> results = new ArrayList<Future<InetAddress[]>>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(new Callable<InetAddress[]>() {
+                    @Override
+                    public InetAddress[] call() throws UnknownHostException {
+                        return resolver.resolve(HOST);
+                    }
+                }));
+            }
+
+            // Lets all of the callers reach the pending lookup
+            Thread.sleep(100);
+            release.countDown();
+            for (final Future<InetAddress[]> result : results) {
+                assertArrayEquals(new InetAddress[] { address(1) }, result.get(5, TimeUnit.SECONDS));
+            }
+
+            assertEquals(1, lookup.mCalls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_hungLookup_timesOutAndCachesTheLateResult() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final FakeLookup lookup = new FakeLookup(address(1)) {
+            @Override
+            public InetAddress[] lookup(@Nonnull final String host) throws UnknownHostException {
+                awaitQuietly(release);
+                return super.lookup(host);
+            }
+        };
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        final DnsResolverCache resolver = new DnsResolverCache(lookup, executor, ONE_HOUR_MILLIS, 0, 100);
+        try {
+            try {
+                resolver.resolve(HOST);
+                fail("Expected the lookup to time out");
+            } catch (final UnknownHostException e) {
+                assertTrue(e.getCause() instanceof TimeoutException);
+            }
+
+            release.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertArrayEquals(new InetAddress[] { address(1) }, resolver.resolve(HOST));
+            assertEquals(1, lookup.mCalls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static InetAddress address(final int lastByte) throws UnknownHostException {
+        return InetAddress.getByAddress(HOST, new byte[] { 10, 0, 0, (byte) lastByte });
+    }
+
+    private static class FakeLookup implements DnsResolverCache.Lookup {
+        private final AtomicInteger mCalls = new AtomicInteger(0);
+        private volatile InetAddress[] mAddresses;
+
+        FakeLookup(final InetAddress... addresses) {
+            mAddresses = addresses;
+        }
+
+        @Override
+        public InetAddress[] lookup(@Nonnull final String host) throws UnknownHostException {
+            mCalls.incrementAndGet();
+            if (mAddresses == null) {
+                throw new UnknownHostException(host);
+            }
+
+            return mAddresses;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.amazonaws.kinesisvideo.socket;
+
+import javax.annotation.Nonnull;
+import java.net.InetAddress;
+import java.util.concurrent.Executor;
+
+/**
+ * Resolvers for the tests of the connections outside of this package.
+ */
+public final class TestDnsResolverCaches {
+    private static final long ONE_HOUR_MILLIS = 3600000;
+    private static final long LOOKUP_TIMEOUT_MILLIS = 5000;
+
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            command.run();
+        }
+    };
+
+    private TestDnsResolverCaches() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns a resolver which resolves every host to the addresses, in this order on the first call
+     */
+    @Nonnull
+    public static DnsResolverCache resolvingTo(@Nonnull final InetAddress... addresses) {
+        return new DnsResolverCache(new DnsResolverCache.Lookup() {
+            @Override
+            public InetAddress[] lookup(@Nonnull final String host) {
+                return addresses.clone();
+            }
+        }, DIRECT_EXECUTOR, ONE_HOUR_MILLIS, 0, LOOKUP_TIMEOUT_MILLIS);
+    }
+}
@@ -0,0 +1,126 @@
+package com.amazonaws.kinesisvideo.stream.throttling;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HierarchicalBandwidthSchedulerTest {
+    // 8000 kbps is 1024000 bytes per second
+    private static final long HOST_KBPS = 8000;
+    private static final long HOST_BYTES_PER_SECOND = 1024000;
+    private static final long STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int STEPS = 1000;
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private final FakeClock mClock = new FakeClock();
+
+    @Test
+    public void test_singleStream_borrowsTheWholeHostRate() {
+        final HierarchicalBandwidthScheduler scheduler = new HierarchicalBandwidthScheduler(HOST_KBPS, mClock);
+        final HierarchicalBandwidthScheduler.StreamThrottler stream = scheduler.getThrottler("stream");
+        scheduler.getThrottler("idle");
+
+        final long[] sent = run(stream);
+
+        assertWithin(HOST_BYTES_PER_SECOND * 10, sent[0]);
+    }
+
+    @Test
+    public void test_busyStreams_shareTheHostRateByWeight() {
+        final HierarchicalBandwidthScheduler scheduler = new HierarchicalBandwidthScheduler(HOST_KBPS, mClock);
+        scheduler.setWeight("heavy", 3);
+        final HierarchicalBandwidthScheduler.StreamThrottler heavy = scheduler.getThrottler("heavy");
+        final HierarchicalBandwidthScheduler.StreamThrottler noisy = scheduler.getThrottler("noisy");
+
+        // The noisy stream always asks first
+        final long[] sent = run(noisy, heavy);
+
+        assertWithin(HOST_BYTES_PER_SECOND * 10 / 4, sent[0]);
+        assertWithin(HOST_BYTES_PER_SECOND * 10 * 3 / 4, sent[1]);
+    }
+
+    @Test
+    public void test_streamCap_isAppliedLive() {
+        final HierarchicalBandwidthScheduler scheduler = new HierarchicalBandwidthScheduler(HOST_KBPS, mClock);
+        final HierarchicalBandwidthScheduler.StreamThrottler stream = scheduler.getThrottler("stream");
+        stream.setUpstreamKbps(HOST_KBPS / 4);
+
+        final long[] sent = run(stream);
+
+        assertWithin(HOST_BYTES_PER_SECOND * 10 / 4, sent[0]);
+    }
+
+    @Test
+    public void test_exhaustedStream_reportsWaitTime() {
+        final HierarchicalBandwidthScheduler scheduler = new HierarchicalBandwidthScheduler(HOST_KBPS, mClock);
+        final HierarchicalBandwidthScheduler.StreamThrottler stream = scheduler.getThrottler("stream");
+
+        assertEquals(0, stream.getNanosUntilAvailable());
+        drain(stream);
+
+        final long waitNanos = stream.getNanosUntilAvailable();
+        assertTrue(waitNanos > 0);
+        mClock.mNanos += waitNanos;
+        assertTrue(stream.tryAcquire(CHUNK_SIZE) > 0);
+    }
+
+    @Test
+    public void test_releasedBytes_canBeAcquiredAgain() {
+        final HierarchicalBandwidthScheduler scheduler = new HierarchicalBandwidthScheduler(HOST_KBPS, mClock);
+        final HierarchicalBandwidthScheduler.StreamThrottler stream = scheduler.getThrottler("stream");
+
+        final int burst = stream.tryAcquire(CHUNK_SIZE);
+        assertEquals(0, stream.tryAcquire(CHUNK_SIZE));
+        stream.release(burst);
+
+        final int reacquired = stream.tryAcquire(CHUNK_SIZE);
+        assertTrue(reacquired > 0);
+        assertTrue(reacquired <= burst);
+    }
+
+    /**
+     * Sends as much as possible every 10ms for 10s, after using up the initial bursts
+     */
+    private long[] run(final HierarchicalBandwidthScheduler.StreamThrottler... streams) {
+        for (final HierarchicalBandwidthScheduler.StreamThrottler stream : streams) {
+            drain(stream);
+        }
+
+        final long[] sent = new long[streams.length];
+        for (int step = 0; step < STEPS; step++) {
+            mClock.mNanos += STEP_NANOS;
+            for (int i = 0; i < streams.length; i++) {
+                sent[i] += drain(streams[i]);
+            }
+        }
+
+        return sent;
+    }
+
+    private static long drain(final HierarchicalBandwidthScheduler.StreamThrottler stream) {
+        long sent = 0;
+        int allowed;
+        while ((allowed = stream.tryAcquire(CHUNK_SIZE)) > 0) {
+            sent += allowed;
+        }
+
+        return sent;
+    }
+
+    private static void assertWithin(final long expected, final long actual) {
+        assertTrue("Expected about " + expected + " but was " + actual,
+                Math.abs(expected - actual) <= expected / 50);
+    }
+
+    private static final class FakeClock implements HierarchicalBandwidthScheduler.NanoClock {
+        private long mNanos = 0;
+
+        @Override
+        public long nanoTime() {
+            return mNanos;
+        }
+    }
+}
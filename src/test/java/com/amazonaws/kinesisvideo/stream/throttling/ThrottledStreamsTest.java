@@ -0,0 +1,152 @@
+package com.amazonaws.kinesisvideo.stream.throttling;
+
+import com.amazonaws.kinesisvideo.common.function.Consumer;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ThrottledStreamsTest {
+    private static final byte[] PAYLOAD = new byte[10000];
+
+    static {
+        for (int i = 0; i < PAYLOAD.length; i++) {
+            PAYLOAD[i] = (byte) i;
+        }
+    }
+
+    @Test
+    public void test_bulkWrite_isThrottledInAllowedPieces() throws Exception {
+        final CountingThrottler throttler = new CountingThrottler(4096);
+        final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+
+        new ThrottledOutputStream(sink, throttler).write(PAYLOAD, 0, PAYLOAD.length);
+
+        assertArrayEquals(PAYLOAD, sink.toByteArray());
+        assertEquals(3, throttler.mCalls);
+        assertEquals(PAYLOAD.length, throttler.mOps);
+    }
+
+    @Test
+    public void test_bulkRead_readsAtMostAllowedBytes() throws Exception {
+        final CountingThrottler throttler = new CountingThrottler(4096);
+        final ThrottledInputStream inputStream =
+                new ThrottledInputStream(new ByteArrayInputStream(PAYLOAD), throttler);
+        final byte[] buffer = new byte[PAYLOAD.length];
+
+        assertEquals(4096, inputStream.read(buffer, 0, buffer.length));
+        assertArrayEquals(Arrays.copyOf(PAYLOAD, 4096), Arrays.copyOf(buffer, 4096));
+        assertEquals(1, throttler.mCalls);
+    }
+
+    @Test
+    public void test_shortRead_chargesOnlyTheBytesRead() throws Exception {
+        final CountingThrottler throttler = new CountingThrottler(4096);
+        final ThrottledInputStream inputStream =
+                new ThrottledInputStream(new ByteArrayInputStream(PAYLOAD, 0, 100), throttler);
+        final byte[] buffer = new byte[PAYLOAD.length];
+
+        assertEquals(100, inputStream.read(buffer, 0, buffer.length));
+        assertEquals(100, throttler.mOps);
+        assertEquals(-1, inputStream.read(buffer, 0, buffer.length));
+        assertEquals(-1, inputStream.read());
+        assertEquals(100, throttler.mOps);
+    }
+
+    @Test
+    public void test_discreteThrottler_reusesReleasedOps() {
+        final DiscreteTimePeriodsThrottler throttler = new DiscreteTimePeriodsThrottler(100000, 10);
+
+        assertEquals(10000, throttler.throttle(10000));
+        throttler.release(4000);
+        assertEquals(4000, throttler.throttle(10000));
+    }
+
+    @Test
+    public void test_bulkWrite_isMeasuredByByteCount() throws Exception {
+        final long[] measurement = new long[1];
+        final OpsPerSecondMeasurer measurer = new OpsPerSecondMeasurer(new Consumer<Long>() {
+            @Override
+            public void accept(final Long opsPerSecond) {
+                measurement[0] = opsPerSecond;
+            }
+        });
+        final BandwidthMeasuringOutputStream outputStream =
+                new BandwidthMeasuringOutputStream(new ByteArrayOutputStream(), measurer);
+
+        outputStream.write(PAYLOAD, 0, PAYLOAD.length);
+        Thread.sleep(1100);
+        outputStream.write(PAYLOAD, 0, 1);
+
+        // 10001 bytes over a bit more than a second
+        assertTrue(measurement[0] > 8000 && measurement[0] <= 10001);
+    }
+
+    @Test
+    public void test_discreteThrottler_allowsRemainingOpsOfSegment() {
+        final DiscreteTimePeriodsThrottler throttler = new DiscreteTimePeriodsThrottler(100000, 10);
+
+        assertEquals(4000, throttler.throttle(4000));
+        assertEquals(6000, throttler.throttle(10000));
+    }
+
+    @Test
+    public void test_writeTime_leavesOutTheThrottlingWaits() throws Exception {
+        final WriteTimeMeasuringOutputStream timedOutputStream =
+                new WriteTimeMeasuringOutputStream(new ByteArrayOutputStream());
+        final ThrottledOutputStream throttledOutputStream = new ThrottledOutputStream(timedOutputStream,
+                new CountingThrottler(PAYLOAD.length) {
+                    @Override
+                    public int throttle(final int maxOps) {
+                        try {
+                            Thread.sleep(500);
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+
+                        return super.throttle(maxOps);
+                    }
+                });
+
+        final long startNanos = System.nanoTime();
+        throttledOutputStream.write(PAYLOAD, 0, PAYLOAD.length);
+
+        assertTrue(System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(timedOutputStream.getWriteTimeNanos() > 0);
+        assertTrue(timedOutputStream.getWriteTimeNanos() < TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    private static class CountingThrottler implements Throttler {
+        private final int mMaxOps;
+        private int mCalls = 0;
+        private long mOps = 0;
+
+        CountingThrottler(final int maxOps) {
+            mMaxOps = maxOps;
+        }
+
+        @Override
+        public void throttle() {
+            throttle(1);
+        }
+
+        @Override
+        public int throttle(final int maxOps) {
+            final int allowed = Math.min(maxOps, mMaxOps);
+            mCalls++;
+            mOps += allowed;
+            return allowed;
+        }
+
+        @Override
+        public void release(final int ops) {
+            mOps -= ops;
+        }
+    }
+}